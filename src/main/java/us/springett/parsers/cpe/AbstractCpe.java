@@ -0,0 +1,271 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe;
+
+import us.springett.parsers.cpe.exceptions.CpeEncodingException;
+import us.springett.parsers.cpe.exceptions.CpeValidationException;
+import us.springett.parsers.cpe.metrics.CpeMetrics;
+import us.springett.parsers.cpe.util.Convert;
+import us.springett.parsers.cpe.util.RelationVector;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * A skeletal implementation of {@link ICpe} for views over CPE data that is
+ * stored in some other form (e.g. a raw formatted string or an index).
+ * Implementations only need to provide the part and the well formed value of
+ * each attribute; matching, sorting, and formatting behave exactly as they do
+ * for {@link Cpe}.
+ *
+ * @author Steve Springett
+ */
+public abstract class AbstractCpe implements ICpe {
+
+    /**
+     * The attributes of a CPE.
+     */
+    private static final Attribute[] ATTRIBUTES = Attribute.values();
+
+    /**
+     * <p>
+     * Gets the part for the CPE entry.</p>
+     * <pre>cpe:2.3:<b>[part]</b>:[vendor]:[product]:[version]:[update]:[edition]:[language]:[sw_edition]:[target_sw]:[target_hw]:[other]</pre>
+     *
+     * @return the part for the CPE entry
+     */
+    @Override
+    public abstract Part getPart();
+
+    /**
+     * Gets the well formed value of the given attribute. For the
+     * {@link Attribute#PART} attribute the part abbreviation is returned.
+     *
+     * @param attribute the attribute to retrieve
+     * @return the well formed value of the attribute
+     */
+    @Override
+    public abstract String getWellFormed(Attribute attribute);
+
+    @Override
+    public String getVendor() {
+        return Convert.fromWellFormed(getWellFormedVendor());
+    }
+
+    @Override
+    public String getProduct() {
+        return Convert.fromWellFormed(getWellFormedProduct());
+    }
+
+    @Override
+    public String getVersion() {
+        return Convert.fromWellFormed(getWellFormedVersion());
+    }
+
+    @Override
+    public String getUpdate() {
+        return Convert.fromWellFormed(getWellFormedUpdate());
+    }
+
+    @Override
+    public String getEdition() {
+        return Convert.fromWellFormed(getWellFormedEdition());
+    }
+
+    @Override
+    public String getLanguage() {
+        return Convert.fromWellFormed(getWellFormedLanguage());
+    }
+
+    @Override
+    public String getSwEdition() {
+        return Convert.fromWellFormed(getWellFormedSwEdition());
+    }
+
+    @Override
+    public String getTargetSw() {
+        return Convert.fromWellFormed(getWellFormedTargetSw());
+    }
+
+    @Override
+    public String getTargetHw() {
+        return Convert.fromWellFormed(getWellFormedTargetHw());
+    }
+
+    @Override
+    public String getOther() {
+        return Convert.fromWellFormed(getWellFormedOther());
+    }
+
+    @Override
+    public String getWellFormedVendor() {
+        return getWellFormed(Attribute.VENDOR);
+    }
+
+    @Override
+    public String getWellFormedProduct() {
+        return getWellFormed(Attribute.PRODUCT);
+    }
+
+    @Override
+    public String getWellFormedVersion() {
+        return getWellFormed(Attribute.VERSION);
+    }
+
+    @Override
+    public String getWellFormedUpdate() {
+        return getWellFormed(Attribute.UPDATE);
+    }
+
+    @Override
+    public String getWellFormedEdition() {
+        return getWellFormed(Attribute.EDITION);
+    }
+
+    @Override
+    public String getWellFormedLanguage() {
+        return getWellFormed(Attribute.LANGUAGE);
+    }
+
+    @Override
+    public String getWellFormedSwEdition() {
+        return getWellFormed(Attribute.SW_EDITION);
+    }
+
+    @Override
+    public String getWellFormedTargetSw() {
+        return getWellFormed(Attribute.TARGET_SW);
+    }
+
+    @Override
+    public String getWellFormedTargetHw() {
+        return getWellFormed(Attribute.TARGET_HW);
+    }
+
+    @Override
+    public String getWellFormedOther() {
+        return getWellFormed(Attribute.OTHER);
+    }
+
+    @Override
+    public String toCpe22Uri() throws CpeEncodingException {
+        return Cpe.toCpe22Uri(this);
+    }
+
+    @Override
+    public String toCpe23FS() {
+        return Cpe.toCpe23FS(this);
+    }
+
+    /**
+     * Determines if the CPE matches the given target CPE using the same rules
+     * as {@link Cpe#matches(ICpe)}.
+     *
+     * @param target the target CPE to evaluate
+     * @return <code>true</code> if the CPE matches the target; otherwise
+     * <code>false</code>
+     */
+    @Override
+    public boolean matches(ICpe target) {
+        boolean result = !Cpe.compareNames(this, target).isDisjoint();
+        if (CpeMetrics.ENABLED) {
+            CpeMetrics.listener().matched(result);
+        }
+        return result;
+    }
+
+    /**
+     * Determines if the target CPE matches the CPE using the same rules as
+     * {@link Cpe#matchedBy(ICpe)}.
+     *
+     * @param target the CPE to evaluate
+     * @return <code>true</code> if the target CPE matches CPE; otherwise
+     * <code>false</code>
+     */
+    @Override
+    public boolean matchedBy(ICpe target) {
+        return target.matches(this);
+    }
+
+    /**
+     * Compares the CPE (as the source) to the given target CPE and returns the
+     * relation of every attribute.
+     *
+     * @param target the target CPE to compare against
+     * @return the attribute relations between the CPE and the target
+     * @see Cpe#compareNames(ICpe, ICpe)
+     */
+    public RelationVector relationTo(ICpe target) {
+        return Cpe.compareNames(this, target);
+    }
+
+    /**
+     * CompareTo is used for sorting, this does not implement any CPE Matching
+     * rules. The ordering is identical to {@link Cpe#compareTo(ICpe)}.
+     *
+     * @param otherObject the CPE to compare
+     * @return the sort order
+     */
+    @Override
+    public int compareTo(ICpe otherObject) {
+        return Cpe.compare(this, otherObject);
+    }
+
+    /**
+     * Creates a {@link Cpe} object with the same attribute values.
+     *
+     * @return the CPE object
+     * @throws CpeValidationException thrown if one of the attributes is
+     * invalid
+     */
+    public Cpe toCpe() throws CpeValidationException {
+        return new Cpe(getPart(), getWellFormedVendor(), getWellFormedProduct(), getWellFormedVersion(),
+                getWellFormedUpdate(), getWellFormedEdition(), getWellFormedLanguage(), getWellFormedSwEdition(),
+                getWellFormedTargetSw(), getWellFormedTargetHw(), getWellFormedOther());
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        for (Attribute attribute : ATTRIBUTES) {
+            hash = 97 * hash + getWellFormed(attribute).hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final AbstractCpe cpe = (AbstractCpe) obj;
+        for (Attribute attribute : ATTRIBUTES) {
+            if (!getWellFormed(attribute).equals(cpe.getWellFormed(attribute))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return toCpe23FS();
+    }
+}
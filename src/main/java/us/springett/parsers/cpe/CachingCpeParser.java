@@ -0,0 +1,360 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+
+/**
+ * <p>
+ * A bounded, thread safe cache in front of {@link CpeParser}. Parsed CPE
+ * objects are immutable and are shared between all callers that parse the same
+ * string with the same leniency.</p>
+ * <p>
+ * The cache is split into independently locked segments, each of which evicts
+ * its least recently used entry once full. Strings that fail to parse are not
+ * cached.</p>
+ *
+ * @author Steve Springett
+ */
+public class CachingCpeParser {
+
+    /**
+     * The default number of segments.
+     */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * The cache segments.
+     */
+    private final Segment[] segments;
+    /**
+     * Mask used to select a segment from a hash.
+     */
+    private final int segmentMask;
+    /**
+     * The number of cache hits.
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * The number of cache misses.
+     */
+    private final LongAdder misses = new LongAdder();
+    /**
+     * The number of evicted entries.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new caching parser.
+     *
+     * @param maximumSize the maximum number of parsed CPE objects to retain
+     */
+    public CachingCpeParser(int maximumSize) {
+        this(maximumSize, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Constructs a new caching parser.
+     *
+     * @param maximumSize the maximum number of parsed CPE objects to retain
+     * @param concurrencyLevel the expected number of concurrently parsing
+     * threads; used to determine the number of segments
+     */
+    public CachingCpeParser(int maximumSize, int concurrencyLevel) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be greater than zero");
+        }
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("The concurrency level must be greater than zero");
+        }
+        //every segment holds at least one entry, and the capacities add up to
+        //exactly the maximum size
+        int count = 1;
+        while (count < concurrencyLevel && count <= maximumSize / 2) {
+            count <<= 1;
+        }
+        segments = new Segment[count];
+        segmentMask = count - 1;
+        final int capacity = maximumSize / count;
+        final int remainder = maximumSize % count;
+        for (int x = 0; x < count; x++) {
+            segments[x] = new Segment(x < remainder ? capacity + 1 : capacity);
+        }
+    }
+
+    /**
+     * Parses a CPE String into an object; the string can be formated as either
+     * a CPE 2.2 URI or CPE 2.3 Formatted String.
+     *
+     * @param cpeString the CPE string to parse
+     * @return the CPE object represented by the given cpeString
+     * @throws CpeParsingException thrown if the cpeString is invalid
+     * @see CpeParser#parse(java.lang.String)
+     */
+    public Cpe parse(String cpeString) throws CpeParsingException {
+        return parse(cpeString, false);
+    }
+
+    /**
+     * Parses a CPE String into an object with the option of parsing CPE 2.2 URI
+     * strings in lenient mode - allowing for CPE values that do not adhere to
+     * the specification.
+     *
+     * @param cpeString the CPE string to parse
+     * @param lenient when <code>true</code> the CPE 2.2 parser will put in
+     * lenient mode attempting to parse invalid CPE URI values.
+     * @return the CPE object represented by the given cpeString
+     * @throws CpeParsingException thrown if the cpeString is invalid
+     * @see CpeParser#parse(java.lang.String, boolean)
+     */
+    public Cpe parse(String cpeString, boolean lenient) throws CpeParsingException {
+        if (cpeString == null) {
+            return CpeParser.parse(null, lenient);
+        }
+        Key key = new Key(cpeString, lenient);
+        Segment segment = segmentFor(key.hash);
+        Cpe cpe = segment.get(key);
+        if (cpe != null) {
+            hits.increment();
+            return cpe;
+        }
+        misses.increment();
+        cpe = CpeParser.parse(cpeString, lenient);
+        return segment.putIfAbsent(key, cpe);
+    }
+
+    /**
+     * Selects the segment for the given hash.
+     *
+     * @param hash the key hash
+     * @return the segment
+     */
+    private Segment segmentFor(int hash) {
+        int h = hash ^ (hash >>> 16);
+        return segments[(h * 0x9E3779B9 >>> 16) & segmentMask];
+    }
+
+    /**
+     * Returns the number of parsed CPE objects currently cached.
+     *
+     * @return the number of cached entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Removes all entries from the cache. The statistics are not reset.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Returns the number of times a parsed CPE was returned from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of times a CPE string had to be parsed.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries that were evicted to stay within the
+     * maximum size.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the ratio of cache hits to the total number of requests, or
+     * <code>1.0</code> if no requests have been made.
+     *
+     * @return the cache hit rate
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 1.0 : (double) hitCount / total;
+    }
+
+    /**
+     * The cache key; the CPE string and leniency flag.
+     */
+    private static final class Key {
+
+        /**
+         * The CPE string.
+         */
+        private final String value;
+        /**
+         * The lenient parsing flag.
+         */
+        private final boolean lenient;
+        /**
+         * The pre-computed hash code.
+         */
+        private final int hash;
+
+        /**
+         * Constructs a new key.
+         *
+         * @param value the CPE string
+         * @param lenient the lenient parsing flag
+         */
+        Key(String value, boolean lenient) {
+            this.value = value;
+            this.lenient = lenient;
+            this.hash = 31 * value.hashCode() + (lenient ? 1 : 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return lenient == other.lenient && value.equals(other.value);
+        }
+    }
+
+    /**
+     * A least recently used segment of the cache. A lock is used rather than
+     * <code>synchronized</code> so that virtual threads are not pinned to their
+     * carrier while waiting.
+     */
+    private final class Segment {
+
+        /**
+         * The lock guarding the entries.
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+        /**
+         * The entries in access order.
+         */
+        private final LinkedHashMap<Key, Cpe> entries;
+
+        /**
+         * Constructs a new segment.
+         *
+         * @param capacity the maximum number of entries in the segment
+         */
+        Segment(final int capacity) {
+            entries = new LinkedHashMap<Key, Cpe>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Cpe> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * Returns the cached entry, marking it as recently used.
+         *
+         * @param key the key
+         * @return the cached CPE or <code>null</code>
+         */
+        Cpe get(Key key) {
+            lock.lock();
+            try {
+                return entries.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Caches the value unless another thread already cached the key.
+         *
+         * @param key the key
+         * @param value the parsed CPE
+         * @return the cached CPE
+         */
+        Cpe putIfAbsent(Key key, Cpe value) {
+            lock.lock();
+            try {
+                Cpe existing = entries.putIfAbsent(key, value);
+                return existing == null ? value : existing;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns the number of entries in the segment.
+         *
+         * @return the number of entries
+         */
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Removes all entries from the segment.
+         */
+        void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
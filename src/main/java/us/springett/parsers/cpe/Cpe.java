@@ -23,17 +23,20 @@ import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import us.springett.parsers.cpe.exceptions.CpeEncodingException;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
 import us.springett.parsers.cpe.exceptions.CpeValidationException;
+import us.springett.parsers.cpe.internal.util.Literals;
+import us.springett.parsers.cpe.metrics.CpeMetrics;
 import us.springett.parsers.cpe.util.Convert;
 import us.springett.parsers.cpe.util.Relation;
+import us.springett.parsers.cpe.util.RelationVector;
 import us.springett.parsers.cpe.util.Status;
 import us.springett.parsers.cpe.util.Validate;
-import us.springett.parsers.cpe.util.Versions.VersionPart;
+import us.springett.parsers.cpe.util.Versions;
+import us.springett.parsers.cpe.values.Attribute;
 import us.springett.parsers.cpe.values.LogicalValue;
 import us.springett.parsers.cpe.values.Part;
 
-import static us.springett.parsers.cpe.util.Versions.splitVersion;
-
 /**
  * Object representation of a Common Platform Enumeration (CPE).
  *
@@ -44,6 +47,12 @@ public class Cpe implements ICpe, Serializable {
      * The serial version UID.
      */
     private static final long serialVersionUID = 545319492322631053L;
+    /**
+     * The names of the components other than the part, by attribute ordinal
+     * minus one, as used in the validation messages of the constructor.
+     */
+    private static final String[] COMPONENT_NAMES = {"vendor", "product", "version", "update", "edition",
+        "language", "swEdition", "targetSw", "targetHw", "other"};
     /**
      * The part type of the CPE.
      */
@@ -119,8 +128,31 @@ public class Cpe implements ICpe, Serializable {
     public Cpe(Part part, String vendor, String product, String version,
             String update, String edition, String language, String swEdition,
             String targetSw, String targetHw, String other) throws CpeValidationException {
-
+        this(part, vendor, product, version, update, edition, language, swEdition, targetSw, targetHw, other, true);
         validate(vendor, product, version, update, edition, language, swEdition, targetSw, targetHw, other);
+    }
+
+    /**
+     * Constructs a new immutable CPE object without validating the
+     * attributes.
+     *
+     * @param part the type of entry: application, operating system, or hardware
+     * @param vendor the vendor of the CPE entry
+     * @param product the product of the CPE entry
+     * @param version the version of the CPE entry
+     * @param update the update of the CPE entry
+     * @param edition the edition of the CPE entry
+     * @param language the language of the CPE entry
+     * @param swEdition the swEdition of the CPE entry
+     * @param targetSw the targetSw of the CPE entry
+     * @param targetHw the targetHw of the CPE entry
+     * @param other the other of the CPE entry
+     * @param trusted unused; distinguishes this constructor from the public
+     * constructor
+     */
+    private Cpe(Part part, String vendor, String product, String version,
+            String update, String edition, String language, String swEdition,
+            String targetSw, String targetHw, String other, boolean trusted) {
         this.part = part;
         this.vendor = vendor;
         this.product = product;
@@ -134,6 +166,39 @@ public class Cpe implements ICpe, Serializable {
         this.other = other;
     }
 
+    /**
+     * <p>
+     * Creates a CPE from well formed values that are already known to be
+     * valid, without validating them again. This is intended for parsers,
+     * deserializers, and index loaders whose source guarantees validity, such
+     * as values that were checked while tokenizing or that were written from
+     * existing {@link Cpe} objects.</p>
+     * <p>
+     * No checks are performed; passing invalid values results in a CPE whose
+     * matching and formatting behavior is undefined. Use
+     * {@link #Cpe(Part, String, String, String, String, String, String, String, String, String, String)}
+     * for values from any other source.</p>
+     *
+     * @param part the type of entry: application, operating system, or hardware
+     * @param vendor the vendor of the CPE entry
+     * @param product the product of the CPE entry
+     * @param version the version of the CPE entry
+     * @param update the update of the CPE entry
+     * @param edition the edition of the CPE entry
+     * @param language the language of the CPE entry
+     * @param swEdition the swEdition of the CPE entry
+     * @param targetSw the targetSw of the CPE entry
+     * @param targetHw the targetHw of the CPE entry
+     * @param other the other of the CPE entry
+     * @return the CPE
+     */
+    public static Cpe trusted(Part part, String vendor, String product, String version,
+            String update, String edition, String language, String swEdition,
+            String targetSw, String targetHw, String other) {
+        return new Cpe(part, vendor, product, version, update, edition, language, swEdition, targetSw,
+                targetHw, other, true);
+    }
+
     /**
      * Validates the CPE attributes.
      *
@@ -195,6 +260,92 @@ public class Cpe implements ICpe, Serializable {
         }
     }
 
+    /**
+     * Returns a CPE that differs from this CPE only in the part.
+     *
+     * @param part the type of entry: application, operating system, or hardware
+     * @return the derived CPE, or this CPE if the part is unchanged
+     */
+    public Cpe withPart(Part part) {
+        if (this.part == part) {
+            return this;
+        }
+        return new Cpe(part, vendor, product, version, update, edition, language, swEdition, targetSw,
+                targetHw, other, true);
+    }
+
+    /**
+     * Returns a CPE that differs from this CPE only in the given attribute.
+     * The attributes of this CPE have already been validated, so only the new
+     * value is validated; this is considerably cheaper than building a new CPE
+     * when generating many CPE from a common template.
+     *
+     * @param attribute the attribute to replace
+     * @param value the well formed value of the attribute (i.e. special
+     * characters quoted with a backslash); for {@link Attribute#PART} the part
+     * abbreviation
+     * @return the derived CPE, or this CPE if the value is unchanged
+     * @throws CpeValidationException thrown if the value is invalid
+     */
+    public Cpe with(Attribute attribute, String value) throws CpeValidationException {
+        if (attribute == Attribute.PART) {
+            try {
+                return withPart(Part.getEnum(value));
+            } catch (CpeParsingException ex) {
+                throw new CpeValidationException("Invalid part component: " + ex.getMessage());
+            }
+        }
+        if (getWellFormed(attribute).equals(value)) {
+            return this;
+        }
+        final Status status = Validate.component(value);
+        if (!status.isValid()) {
+            throw new CpeValidationException("Invalid " + COMPONENT_NAMES[attribute.ordinal() - 1] + " component: "
+                    + status.getMessage());
+        }
+        final String[] values = {vendor, product, version, update, edition, language, swEdition, targetSw,
+            targetHw, other};
+        values[attribute.ordinal() - 1] = value;
+        return new Cpe(part, values[0], values[1], values[2], values[3], values[4], values[5], values[6],
+                values[7], values[8], values[9], true);
+    }
+
+    /**
+     * Returns a CPE that differs from this CPE only in the version.
+     *
+     * @param version the well formed version
+     * @return the derived CPE, or this CPE if the version is unchanged
+     * @throws CpeValidationException thrown if the version is invalid
+     * @see #with(us.springett.parsers.cpe.values.Attribute, java.lang.String)
+     */
+    public Cpe withVersion(String version) throws CpeValidationException {
+        return with(Attribute.VERSION, version);
+    }
+
+    /**
+     * Returns a CPE that differs from this CPE only in the update.
+     *
+     * @param update the well formed update
+     * @return the derived CPE, or this CPE if the update is unchanged
+     * @throws CpeValidationException thrown if the update is invalid
+     * @see #with(us.springett.parsers.cpe.values.Attribute, java.lang.String)
+     */
+    public Cpe withUpdate(String update) throws CpeValidationException {
+        return with(Attribute.UPDATE, update);
+    }
+
+    /**
+     * Returns a CPE that differs from this CPE only in the targetSw.
+     *
+     * @param targetSw the well formed targetSw
+     * @return the derived CPE, or this CPE if the targetSw is unchanged
+     * @throws CpeValidationException thrown if the targetSw is invalid
+     * @see #with(us.springett.parsers.cpe.values.Attribute, java.lang.String)
+     */
+    public Cpe withTargetSw(String targetSw) throws CpeValidationException {
+        return with(Attribute.TARGET_SW, targetSw);
+    }
+
     /**
      * <p>
      * Gets the part for the CPE entry.</p>
@@ -457,12 +608,28 @@ public class Cpe implements ICpe, Serializable {
      */
     @Override
     public String toCpe22Uri() throws CpeEncodingException {
+        return toCpe22Uri(this);
+    }
+
+    /**
+     * Converts the given CPE into the CPE 2.2 URI format.
+     *
+     * @param cpe the CPE to convert
+     * @return the CPE 2.2 URI format of the CPE
+     * @throws CpeEncodingException thrown if the CPE is not well formed
+     */
+    static String toCpe22Uri(ICpe cpe) throws CpeEncodingException {
+        final String edition = cpe.getWellFormedEdition();
+        final String swEdition = cpe.getWellFormedSwEdition();
+        final String targetSw = cpe.getWellFormedTargetSw();
+        final String targetHw = cpe.getWellFormedTargetHw();
+        final String other = cpe.getWellFormedOther();
         StringBuilder sb = new StringBuilder("cpe:/");
-        sb.append(Convert.wellFormedToCpeUri(part)).append(":");
-        sb.append(Convert.wellFormedToCpeUri(vendor)).append(":");
-        sb.append(Convert.wellFormedToCpeUri(product)).append(":");
-        sb.append(Convert.wellFormedToCpeUri(version)).append(":");
-        sb.append(Convert.wellFormedToCpeUri(update)).append(":");
+        sb.append(Convert.wellFormedToCpeUri(cpe.getPart())).append(":");
+        sb.append(Convert.wellFormedToCpeUri(cpe.getWellFormedVendor())).append(":");
+        sb.append(Convert.wellFormedToCpeUri(cpe.getWellFormedProduct())).append(":");
+        sb.append(Convert.wellFormedToCpeUri(cpe.getWellFormedVersion())).append(":");
+        sb.append(Convert.wellFormedToCpeUri(cpe.getWellFormedUpdate())).append(":");
         //pack the extra fields from CPE 2.3 into the edition field if present
         //when outputting to 2.2 format
         if (!((swEdition.isEmpty() || "*".equals(swEdition))
@@ -483,7 +650,7 @@ public class Cpe implements ICpe, Serializable {
         } else {
             sb.append(Convert.wellFormedToCpeUri(edition)).append(":");
         }
-        sb.append(Convert.wellFormedToCpeUri(language));
+        sb.append(Convert.wellFormedToCpeUri(cpe.getWellFormedLanguage()));
         return sb.toString().replaceAll("[:]*$", "");
     }
 
@@ -494,18 +661,28 @@ public class Cpe implements ICpe, Serializable {
      */
     @Override
     public String toCpe23FS() {
+        return toCpe23FS(this);
+    }
+
+    /**
+     * Converts the given CPE into the CPE 2.3 Formatted String.
+     *
+     * @param cpe the CPE to convert
+     * @return the CPE 2.3 Formatted String
+     */
+    static String toCpe23FS(ICpe cpe) {
         return String.format("cpe:2.3:%s:%s:%s:%s:%s:%s:%s:%s:%s:%s:%s",
-                Convert.wellFormedToFS(part),
-                Convert.wellFormedToFS(vendor),
-                Convert.wellFormedToFS(product),
-                Convert.wellFormedToFS(version),
-                Convert.wellFormedToFS(update),
-                Convert.wellFormedToFS(edition),
-                Convert.wellFormedToFS(language),
-                Convert.wellFormedToFS(swEdition),
-                Convert.wellFormedToFS(targetSw),
-                Convert.wellFormedToFS(targetHw),
-                Convert.wellFormedToFS(other));
+                Convert.wellFormedToFS(cpe.getPart()),
+                Convert.wellFormedToFS(cpe.getWellFormedVendor()),
+                Convert.wellFormedToFS(cpe.getWellFormedProduct()),
+                Convert.wellFormedToFS(cpe.getWellFormedVersion()),
+                Convert.wellFormedToFS(cpe.getWellFormedUpdate()),
+                Convert.wellFormedToFS(cpe.getWellFormedEdition()),
+                Convert.wellFormedToFS(cpe.getWellFormedLanguage()),
+                Convert.wellFormedToFS(cpe.getWellFormedSwEdition()),
+                Convert.wellFormedToFS(cpe.getWellFormedTargetSw()),
+                Convert.wellFormedToFS(cpe.getWellFormedTargetHw()),
+                Convert.wellFormedToFS(cpe.getWellFormedOther()));
     }
 
     @Override
@@ -550,6 +727,9 @@ public class Cpe implements ICpe, Serializable {
         result &= compareAttributes(this.targetSw, target.getWellFormedTargetSw());
         result &= compareAttributes(this.targetHw, target.getWellFormedTargetHw());
         result &= compareAttributes(this.other, target.getWellFormedOther());
+        if (CpeMetrics.ENABLED) {
+            CpeMetrics.listener().matched(result);
+        }
         return result;
     }
 
@@ -569,6 +749,45 @@ public class Cpe implements ICpe, Serializable {
         return target.matches(this);
     }
 
+    /**
+     * Compares the CPE (as the source) to the given target CPE and returns the
+     * relation of every attribute. Unlike {@link #matches(ICpe)} the individual
+     * SUPERSET, SUBSET, and EQUAL relations are retained; note that
+     * {@link #matches(ICpe)} is equivalent to
+     * <code>!relationTo(target).isDisjoint()</code>.
+     *
+     * @param target the target CPE to compare against
+     * @return the attribute relations between the CPE and the target
+     */
+    public RelationVector relationTo(ICpe target) {
+        return compareNames(this, target);
+    }
+
+    /**
+     * Compares the source CPE to the target CPE and returns the relation of
+     * every attribute as determined by
+     * {@link #compareAttribute(us.springett.parsers.cpe.values.Part, us.springett.parsers.cpe.values.Part)}
+     * and {@link #compareAttribute(java.lang.String, java.lang.String)}.
+     *
+     * @param source the source CPE
+     * @param target the target CPE
+     * @return the attribute relations between the source and target
+     */
+    public static RelationVector compareNames(ICpe source, ICpe target) {
+        return RelationVector.of(
+                compareAttribute(source.getPart(), target.getPart()),
+                compareAttribute(source.getWellFormedVendor(), target.getWellFormedVendor()),
+                compareAttribute(source.getWellFormedProduct(), target.getWellFormedProduct()),
+                compareAttribute(source.getWellFormedVersion(), target.getWellFormedVersion()),
+                compareAttribute(source.getWellFormedUpdate(), target.getWellFormedUpdate()),
+                compareAttribute(source.getWellFormedEdition(), target.getWellFormedEdition()),
+                compareAttribute(source.getWellFormedLanguage(), target.getWellFormedLanguage()),
+                compareAttribute(source.getWellFormedSwEdition(), target.getWellFormedSwEdition()),
+                compareAttribute(source.getWellFormedTargetSw(), target.getWellFormedTargetSw()),
+                compareAttribute(source.getWellFormedTargetHw(), target.getWellFormedTargetHw()),
+                compareAttribute(source.getWellFormedOther(), target.getWellFormedOther()));
+    }
+
     /**
      * This does not follow the spec precisely because ANY compared to NA is
      * classified as undefined by the spec; however, in this implementation ANY
@@ -661,7 +880,10 @@ public class Cpe implements ICpe, Serializable {
             return Relation.SUBSET;
         }
         //10 11 14 17
-        if (containsSpecialCharacter(left)) {
+        if (!Literals.isLiteral(left)) {
+            if (CpeMetrics.ENABLED) {
+                CpeMetrics.listener().wildcardCompared();
+            }
             Pattern p = Convert.wellFormedToPattern(left.toLowerCase());
             Matcher m = p.matcher(right.toLowerCase());
             return m.matches() ? Relation.SUPERSET : Relation.DISJOINT;
@@ -669,26 +891,6 @@ public class Cpe implements ICpe, Serializable {
         return Relation.DISJOINT;
     }
 
-    /**
-     * Determines if the string has an unquoted special character.
-     *
-     * @param value the string to check
-     * @return <code>true</code> if the string contains an unquoted special
-     * character; otherwise <code>false</code>
-     */
-    private static boolean containsSpecialCharacter(String value) {
-        for (int x = 0; x < value.length(); x++) {
-            char c = value.charAt(x);
-            if (c == '?' || c == '*') {
-                return true;
-            } else if (c == '\\') {
-                //skip the next character because it is quoted
-                x += 1;
-            }
-        }
-        return false;
-    }
-
     @Override
     public boolean equals(Object obj) {
         if (obj == null
@@ -724,76 +926,88 @@ public class Cpe implements ICpe, Serializable {
      */
     @Override
     public int compareTo(ICpe otherObject) {
+        return compare(this, otherObject);
+    }
+
+    /**
+     * Compares two CPE for sorting, this does not implement any CPE Matching
+     * rules.
+     *
+     * @param cpe the CPE being compared
+     * @param otherObject the CPE to compare
+     * @return the sort order
+     */
+    static int compare(ICpe cpe, ICpe otherObject) {
         if (otherObject != null) {
 
             final int before = -1;
             final int equal = 0;
             final int after = 1;
 
-            if (this == otherObject) {
+            if (cpe == otherObject) {
                 return equal;
             }
-            int r = getPart().getAbbreviation().compareTo(otherObject.getPart().getAbbreviation());
+            int r = cpe.getPart().getAbbreviation().compareTo(otherObject.getPart().getAbbreviation());
             if (r < 0) {
                 return before;
             } else if (r > 0) {
                 return after;
             }
-            r = getVendor().compareTo(otherObject.getVendor());
+            r = cpe.getVendor().compareTo(otherObject.getVendor());
             if (r < 0) {
                 return before;
             } else if (r > 0) {
                 return after;
             }
-            r = getProduct().compareTo(otherObject.getProduct());
+            r = cpe.getProduct().compareTo(otherObject.getProduct());
             if (r < 0) {
                 return before;
             } else if (r > 0) {
                 return after;
             }
-            r = compareVersions(getVersion(), otherObject.getVersion());
+            r = compareVersions(cpe.getVersion(), otherObject.getVersion());
             if (r < 0) {
                 return before;
             } else if (r > 0) {
                 return after;
             }
-            r = getUpdate().compareTo(otherObject.getUpdate());
+            r = cpe.getUpdate().compareTo(otherObject.getUpdate());
             if (r < 0) {
                 return before;
             } else if (r > 0) {
                 return after;
             }
-            r = getEdition().compareTo(otherObject.getEdition());
+            r = cpe.getEdition().compareTo(otherObject.getEdition());
             if (r < 0) {
                 return before;
             } else if (r > 0) {
                 return after;
             }
-            r = getLanguage().compareTo(otherObject.getLanguage());
+            r = cpe.getLanguage().compareTo(otherObject.getLanguage());
             if (r < 0) {
                 return before;
             } else if (r > 0) {
                 return after;
             }
-            r = getSwEdition().compareTo(otherObject.getSwEdition());
+            r = cpe.getSwEdition().compareTo(otherObject.getSwEdition());
             if (r < 0) {
                 return before;
             } else if (r > 0) {
                 return after;
             }
-            r = getTargetSw().compareTo(otherObject.getTargetSw());
+            r = cpe.getTargetSw().compareTo(otherObject.getTargetSw());
             if (r < 0) {
                 return before;
             } else if (r > 0) {
                 return after;
             }
-            r = getTargetHw().compareTo(otherObject.getTargetHw());
+            r = cpe.getTargetHw().compareTo(otherObject.getTargetHw());
             if (r < 0) {
                 return before;
             } else if (r > 0) {
                 return after;
             }
-            r = getOther().compareTo(otherObject.getOther());
+            r = cpe.getOther().compareTo(otherObject.getOther());
             if (r < 0) {
                 return before;
             } else if (r > 0) {
@@ -813,19 +1027,6 @@ public class Cpe implements ICpe, Serializable {
      * the left and right are equal;<code>1</code> if left is after the right
      */
     protected static int compareVersions(String left, String right) {
-        if (left.equals(right)) {
-            return 0;
-        }
-        List<VersionPart> subLeft = splitVersion(left);
-        List<VersionPart> subRight = splitVersion(right);
-        for (int x = 0; x < Math.min(subLeft.size(), subRight.size()); x++) {
-            int result = subLeft.get(x).compareTo(subRight.get(x));
-            if (result != 0) {
-                return result;
-            }
-        }
-
-        // All parts are equal up until the minimum size - version with more chunks is thus "bigger"
-        return Integer.compare(subLeft.size(), subRight.size());
+        return Versions.compare(left, right);
     }
 }
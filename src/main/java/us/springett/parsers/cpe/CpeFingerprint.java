@@ -0,0 +1,368 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe;
+
+import java.io.Serializable;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.internal.util.Cpe23PartIterator;
+import us.springett.parsers.cpe.internal.util.Murmur3;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * A stable 128-bit fingerprint of a CPE, suitable for partitioning, bloom
+ * filters, joins, and references stored outside of the JVM. Unlike
+ * {@link Cpe#hashCode()} the value is fully specified and will not change
+ * between releases:</p>
+ * <ol>
+ * <li>For each of the eleven attributes, in the order part, vendor, product,
+ * version, update, edition, language, sw_edition, target_sw, target_hw, and
+ * other, take the well formed value (the abbreviation for the part), convert
+ * the ASCII letters <code>A-Z</code> to lower case, encode it as UTF-8, and
+ * append a single zero byte.</li>
+ * <li>Hash the resulting bytes with the x64 128-bit variant of MurmurHash3
+ * using a seed of zero.</li>
+ * </ol>
+ * <p>
+ * The fingerprint is case insensitive, matching the case insensitive
+ * comparison of CPE attributes. The 64-bit fingerprint is the first half
+ * (<code>h1</code>) of the 128-bit value.</p>
+ *
+ * @author Steve Springett
+ */
+public final class CpeFingerprint implements Comparable<CpeFingerprint>, Serializable {
+
+    /**
+     * The serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * The number of attributes in a CPE.
+     */
+    private static final int ATTRIBUTE_COUNT = 11;
+    /**
+     * The attributes of a CPE.
+     */
+    private static final Attribute[] ATTRIBUTES = Attribute.values();
+
+    /**
+     * The first half of the hash.
+     */
+    private final long h1;
+    /**
+     * The second half of the hash.
+     */
+    private final long h2;
+
+    /**
+     * Constructs a new fingerprint.
+     *
+     * @param h1 the first half of the hash
+     * @param h2 the second half of the hash
+     */
+    public CpeFingerprint(long h1, long h2) {
+        this.h1 = h1;
+        this.h2 = h2;
+    }
+
+    /**
+     * Computes the fingerprint of the given CPE.
+     *
+     * @param cpe the CPE
+     * @return the fingerprint
+     */
+    public static CpeFingerprint of(ICpe cpe) {
+        Encoder encoder = new Encoder(64);
+        for (Attribute attribute : ATTRIBUTES) {
+            String value = cpe.getWellFormed(attribute);
+            encoder.ensureCapacity(value.length() * 3 + 1);
+            encoder.appendLowerCase(value, 0, value.length(), false);
+            encoder.terminate();
+        }
+        return encoder.fingerprint();
+    }
+
+    /**
+     * Computes the fingerprint of the given CPE string. A CPE 2.3 Formatted
+     * String is converted directly, without creating a {@link Cpe}; the
+     * attribute values are not validated. For every string accepted by
+     * {@link CpeParser#parse(java.lang.String)} the result is identical to
+     * <code>of(CpeParser.parse(cpeString))</code>.
+     *
+     * @param cpeString the CPE 2.2 URI or CPE 2.3 Formatted String
+     * @return the fingerprint
+     * @throws CpeParsingException thrown if the string is not a CPE
+     */
+    public static CpeFingerprint of(String cpeString) throws CpeParsingException {
+        if (cpeString == null || !cpeString.regionMatches(0, "cpe:2.3:", 0, 8)) {
+            return of(CpeParser.parse(cpeString));
+        }
+        final int[] bounds = new int[ATTRIBUTE_COUNT + 1];
+        final int count = Cpe23PartIterator.split(cpeString, bounds);
+        if (count == 0) {
+            throw new CpeParsingException("Invalid CPE (too few components): " + cpeString);
+        }
+        final Part part = Part.getEnum(cpeString.substring(bounds[0], bounds[1] - 1));
+        if (count < ATTRIBUTE_COUNT) {
+            throw new CpeParsingException("Invalid CPE (too few components): " + cpeString);
+        } else if (count > ATTRIBUTE_COUNT) {
+            throw new CpeParsingException("Invalid CPE (too many components): " + cpeString);
+        }
+        //each character is encoded in at most three bytes; empty components become '*'
+        Encoder encoder = new Encoder((cpeString.length() - 8) * 3 + 2 * ATTRIBUTE_COUNT);
+        encoder.appendLowerCase(part.getAbbreviation(), 0, 1, false);
+        encoder.terminate();
+        for (int x = 1; x < ATTRIBUTE_COUNT; x++) {
+            final int start = bounds[x];
+            final int end = bounds[x + 1] - 1;
+            if (start == end) {
+                encoder.append('*');
+            } else {
+                //a lone '-' is the logical value NA rather than a quoted hyphen
+                encoder.appendLowerCase(cpeString, start, end, end - start > 1 || cpeString.charAt(start) != '-');
+            }
+            encoder.terminate();
+        }
+        return encoder.fingerprint();
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of the given CPE.
+     *
+     * @param cpe the CPE
+     * @return the 64-bit fingerprint
+     */
+    public static long hash64(ICpe cpe) {
+        return of(cpe).h1;
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of the given CPE string; see
+     * {@link #of(java.lang.String)}.
+     *
+     * @param cpeString the CPE 2.2 URI or CPE 2.3 Formatted String
+     * @return the 64-bit fingerprint
+     * @throws CpeParsingException thrown if the string is not a CPE
+     */
+    public static long hash64(String cpeString) throws CpeParsingException {
+        return of(cpeString).h1;
+    }
+
+    /**
+     * Parses a fingerprint from the value returned by {@link #toString()}.
+     *
+     * @param value the 32 digit hexadecimal value
+     * @return the fingerprint
+     * @throws IllegalArgumentException thrown if the value is not a
+     * fingerprint
+     */
+    public static CpeFingerprint fromString(String value) {
+        if (value == null || value.length() != 32) {
+            throw new IllegalArgumentException("Invalid fingerprint: " + value);
+        }
+        try {
+            return new CpeFingerprint(Long.parseUnsignedLong(value.substring(0, 16), 16),
+                    Long.parseUnsignedLong(value.substring(16), 16));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid fingerprint: " + value, ex);
+        }
+    }
+
+    /**
+     * Returns the first half of the 128-bit fingerprint, which is also the
+     * 64-bit fingerprint.
+     *
+     * @return the first half of the fingerprint
+     */
+    public long getH1() {
+        return h1;
+    }
+
+    /**
+     * Returns the second half of the 128-bit fingerprint.
+     *
+     * @return the second half of the fingerprint
+     */
+    public long getH2() {
+        return h2;
+    }
+
+    /**
+     * Returns the fingerprint as sixteen bytes; <code>h1</code> followed by
+     * <code>h2</code>, both big endian.
+     *
+     * @return the fingerprint bytes
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[16];
+        for (int x = 0; x < 8; x++) {
+            bytes[x] = (byte) (h1 >>> (56 - x * 8));
+            bytes[x + 8] = (byte) (h2 >>> (56 - x * 8));
+        }
+        return bytes;
+    }
+
+    @Override
+    public int compareTo(CpeFingerprint o) {
+        int r = Long.compareUnsigned(h1, o.h1);
+        return r != 0 ? r : Long.compareUnsigned(h2, o.h2);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CpeFingerprint)) {
+            return false;
+        }
+        CpeFingerprint other = (CpeFingerprint) obj;
+        return h1 == other.h1 && h2 == other.h2;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) h1;
+    }
+
+    /**
+     * Returns the fingerprint as 32 hexadecimal digits; <code>h1</code>
+     * followed by <code>h2</code>.
+     *
+     * @return the hexadecimal fingerprint
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(32);
+        String high = Long.toHexString(h1);
+        String low = Long.toHexString(h2);
+        for (int x = high.length(); x < 16; x++) {
+            sb.append('0');
+        }
+        sb.append(high);
+        for (int x = low.length(); x < 16; x++) {
+            sb.append('0');
+        }
+        return sb.append(low).toString();
+    }
+
+    /**
+     * Encodes the fingerprint input.
+     */
+    private static final class Encoder {
+
+        /**
+         * The encoded bytes.
+         */
+        private byte[] bytes;
+        /**
+         * The number of encoded bytes.
+         */
+        private int length;
+
+        /**
+         * Constructs a new encoder.
+         *
+         * @param capacity the initial capacity
+         */
+        Encoder(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        /**
+         * Ensures that the given number of bytes can be appended.
+         *
+         * @param additional the number of additional bytes
+         */
+        void ensureCapacity(int additional) {
+            if (length + additional > bytes.length) {
+                byte[] copy = new byte[Math.max(bytes.length * 2, length + additional)];
+                System.arraycopy(bytes, 0, copy, 0, length);
+                bytes = copy;
+            }
+        }
+
+        /**
+         * Appends a single ASCII character.
+         *
+         * @param c the character
+         */
+        void append(char c) {
+            bytes[length++] = (byte) c;
+        }
+
+        /**
+         * Appends the attribute terminator.
+         */
+        void terminate() {
+            bytes[length++] = 0;
+        }
+
+        /**
+         * Appends a range of a string as UTF-8, folding the ASCII letters to
+         * lower case.
+         *
+         * @param value the string
+         * @param start the start of the range
+         * @param end the end of the range, exclusive
+         * @param escape whether to convert the range from a formatted string
+         * to a well formed string by quoting '.', '_', and '-'
+         */
+        void appendLowerCase(String value, int start, int end, boolean escape) {
+            for (int x = start; x < end; x++) {
+                char c = value.charAt(x);
+                if (c < 0x80) {
+                    if (c >= 'A' && c <= 'Z') {
+                        c += 'a' - 'A';
+                    } else if (escape && (c == '.' || c == '_' || c == '-')) {
+                        bytes[length++] = '\\';
+                    }
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && x + 1 < end && Character.isLowSurrogate(value.charAt(x + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++x));
+                    bytes[length++] = (byte) (0xF0 | (cp >> 18));
+                    bytes[length++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    //unpaired surrogates are encoded as '?' as String.getBytes does
+                    bytes[length++] = '?';
+                } else {
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        /**
+         * Hashes the encoded bytes.
+         *
+         * @return the fingerprint
+         */
+        CpeFingerprint fingerprint() {
+            long[] hash = new long[2];
+            Murmur3.hash128(bytes, 0, length, 0, hash);
+            return new CpeFingerprint(hash[0], hash[1]);
+        }
+    }
+}
@@ -23,6 +23,8 @@ import java.util.NoSuchElementException;
 import us.springett.parsers.cpe.exceptions.CpeEncodingException;
 import us.springett.parsers.cpe.util.Convert;
 import us.springett.parsers.cpe.internal.util.Cpe23PartIterator;
+import us.springett.parsers.cpe.metrics.CpeMetrics;
+import us.springett.parsers.cpe.metrics.CpeMetricsListener;
 
 /**
  * A Common Platform Enumeration (CPE) parser. This parser is capable of parsing
@@ -47,14 +49,7 @@ public final class CpeParser {
      * @throws CpeParsingException thrown if the cpeString is invalid
      */
     public static Cpe parse(String cpeString) throws CpeParsingException {
-        if (cpeString == null) {
-            throw new CpeParsingException("CPE String is null and cannot be parsed");
-        } else if (cpeString.regionMatches(0, "cpe:/", 0, 5)) {
-            return parse22(cpeString, false);
-        } else if (cpeString.regionMatches(0, "cpe:2.3:", 0, 8)) {
-            return parse23(cpeString);
-        }
-        throw new CpeParsingException("The CPE string specified does not conform to the CPE 2.2 or 2.3 specification");
+        return parse(cpeString, false);
     }
 
     /**
@@ -69,6 +64,53 @@ public final class CpeParser {
      * @throws CpeParsingException thrown if the cpeString is invalid
      */
     public static Cpe parse(String cpeString, boolean lenient) throws CpeParsingException {
+        if (!CpeMetrics.ENABLED) {
+            return parseCpe(cpeString, lenient);
+        }
+        final long start = CpeMetrics.TIMING ? System.nanoTime() : 0;
+        boolean success = false;
+        try {
+            Cpe cpe = parseCpe(cpeString, lenient);
+            success = true;
+            return cpe;
+        } finally {
+            recordParse(cpeString, success, start);
+        }
+    }
+
+    /**
+     * Notifies the metrics listener of a parse.
+     *
+     * @param cpeString the CPE string that was parsed
+     * @param success whether or not the parse succeeded
+     * @param start the value of {@link System#nanoTime()} when the parse
+     * started; only used when timing is enabled
+     */
+    static void recordParse(String cpeString, boolean success, long start) {
+        final long elapsed = CpeMetrics.TIMING ? System.nanoTime() - start : -1;
+        final CpeMetricsListener.Format format;
+        if (cpeString == null) {
+            format = CpeMetricsListener.Format.UNKNOWN;
+        } else if (cpeString.regionMatches(0, "cpe:/", 0, 5)) {
+            format = CpeMetricsListener.Format.CPE_22_URI;
+        } else if (cpeString.regionMatches(0, "cpe:2.3:", 0, 8)) {
+            format = CpeMetricsListener.Format.CPE_23_FS;
+        } else {
+            format = CpeMetricsListener.Format.UNKNOWN;
+        }
+        CpeMetrics.listener().parsed(format, success, elapsed);
+    }
+
+    /**
+     * Parses a CPE String into an object.
+     *
+     * @param cpeString the CPE string to parse
+     * @param lenient when <code>true</code> the CPE 2.2 parser will put in
+     * lenient mode attempting to parse invalid CPE URI values.
+     * @return the CPE object represented by the given cpeString
+     * @throws CpeParsingException thrown if the cpeString is invalid
+     */
+    private static Cpe parseCpe(String cpeString, boolean lenient) throws CpeParsingException {
         if (cpeString == null) {
             throw new CpeParsingException("CPE String is null and cannot be parsed");
         } else if (cpeString.regionMatches(0, "cpe:/", 0, 5)) {
@@ -206,6 +248,9 @@ public final class CpeParser {
         if (cpeString == null || cpeString.isEmpty()) {
             throw new CpeParsingException("CPE String is null is empty - unable to parse");
         }
+        if (!lenient) {
+            return new CpeParserContext().parse23(cpeString);
+        }
         CpeBuilder cb = new CpeBuilder();
         Cpe23PartIterator cpe = new Cpe23PartIterator(cpeString);
         try {
@@ -0,0 +1,199 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe;
+
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.exceptions.CpeValidationException;
+import us.springett.parsers.cpe.internal.util.Cpe23Scanner;
+import us.springett.parsers.cpe.metrics.CpeMetrics;
+import us.springett.parsers.cpe.util.Convert;
+import us.springett.parsers.cpe.util.Status;
+import us.springett.parsers.cpe.util.Validate;
+import us.springett.parsers.cpe.values.LogicalValue;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * A reusable CPE parser that keeps its scratch buffers between calls. When
+ * parsing a CPE 2.3 Formatted String the only objects allocated are the
+ * resulting {@link Cpe} and the attribute values that are not logical values;
+ * no builder, iterator, or intermediate substrings are created.</p>
+ * <p>
+ * A context is <b>not</b> thread safe; each thread must use its own context.
+ * See {@link ThreadLocalCpeParser} for a convenience wrapper. CPE 2.2 URIs and
+ * lenient parsing are delegated to {@link CpeParser}.</p>
+ *
+ * @author Steve Springett
+ */
+public class CpeParserContext {
+
+    /**
+     * The number of components in a CPE 2.3 formatted string.
+     */
+    private static final int COMPONENT_COUNT = Cpe23Scanner.COMPONENT_COUNT;
+
+    /**
+     * The scanner holding the components of the last string scanned.
+     */
+    private final Cpe23Scanner scanner = new Cpe23Scanner();
+    /**
+     * The well formed attribute values of the string being parsed.
+     */
+    private final String[] values = new String[COMPONENT_COUNT];
+    /**
+     * Scratch buffer used when escaping attribute values.
+     */
+    private final StringBuilder buffer = new StringBuilder(64);
+
+    /**
+     * Validates a CPE 2.3 Formatted String; the result is identical to
+     * {@link Validate#formattedString(java.lang.String)}. The scan is kept so
+     * that a subsequent call to {@link #parse(java.lang.String)} with the same
+     * string instance does not scan the string again.
+     *
+     * @param cpeString the CPE string to validate
+     * @return the validation status of the string
+     */
+    public Status validate(String cpeString) {
+        try {
+            scanner.scan(cpeString);
+        } catch (CpeParsingException ex) {
+            return Status.INVALID;
+        }
+        return scanner.validate();
+    }
+
+    /**
+     * Parses a CPE String into an object; the string can be formated as either
+     * a CPE 2.2 URI or CPE 2.3 Formatted String.
+     *
+     * @param cpeString the CPE string to parse
+     * @return the CPE object represented by the given cpeString
+     * @throws CpeParsingException thrown if the cpeString is invalid
+     * @see CpeParser#parse(java.lang.String)
+     */
+    public Cpe parse(String cpeString) throws CpeParsingException {
+        return parse(cpeString, false);
+    }
+
+    /**
+     * Parses a CPE String into an object with the option of parsing CPE 2.2 URI
+     * strings in lenient mode - allowing for CPE values that do not adhere to
+     * the specification.
+     *
+     * @param cpeString the CPE string to parse
+     * @param lenient when <code>true</code> the CPE 2.2 parser will put in
+     * lenient mode attempting to parse invalid CPE URI values.
+     * @return the CPE object represented by the given cpeString
+     * @throws CpeParsingException thrown if the cpeString is invalid
+     * @see CpeParser#parse(java.lang.String, boolean)
+     */
+    public Cpe parse(String cpeString, boolean lenient) throws CpeParsingException {
+        if (lenient || cpeString == null || !cpeString.regionMatches(0, "cpe:2.3:", 0, 8)) {
+            return CpeParser.parse(cpeString, lenient);
+        }
+        if (!CpeMetrics.ENABLED) {
+            return parse23(cpeString);
+        }
+        final long start = CpeMetrics.TIMING ? System.nanoTime() : 0;
+        boolean success = false;
+        try {
+            Cpe cpe = parse23(cpeString);
+            success = true;
+            return cpe;
+        } finally {
+            CpeParser.recordParse(cpeString, success, start);
+        }
+    }
+
+    /**
+     * Parses a CPE 2.3 Formatted String.
+     *
+     * @param cpeString the CPE string to parse
+     * @return the CPE object represented by the cpeString
+     * @throws CpeParsingException thrown if the cpeString is invalid
+     */
+    Cpe parse23(String cpeString) throws CpeParsingException {
+        final int count = scanner.getValue() == cpeString ? scanner.getCount() : scanner.scan(cpeString);
+        if (count == 0) {
+            throw new CpeParsingException("Invalid CPE (too few components): " + cpeString);
+        }
+        Part part = scanner.getPart();
+        if (part == null) {
+            part = Part.getEnum(cpeString.substring(scanner.getStart(0), scanner.getEnd(0)));
+        }
+        if (count < COMPONENT_COUNT) {
+            throw new CpeParsingException("Invalid CPE (too few components): " + cpeString);
+        } else if (count > COMPONENT_COUNT) {
+            throw new CpeParsingException("Invalid CPE (too many components): " + cpeString);
+        }
+        boolean valid = true;
+        for (int x = 1; x < COMPONENT_COUNT; x++) {
+            values[x] = toWellFormed(cpeString, x);
+            valid &= scanner.getStatus(x).isValid()
+                    || (scanner.getFlags(x) & (Cpe23Scanner.IS_ANY | Cpe23Scanner.IS_NA)) != 0;
+        }
+        try {
+            if (valid) {
+                //the scanner has already validated every component
+                return Cpe.trusted(part, values[1], values[2], values[3], values[4], values[5],
+                        values[6], values[7], values[8], values[9], values[10]);
+            }
+            return new Cpe(part, values[1], values[2], values[3], values[4], values[5],
+                    values[6], values[7], values[8], values[9], values[10]);
+        } catch (CpeValidationException ex) {
+            throw new CpeParsingException(ex.getMessage());
+        } finally {
+            for (int x = 1; x < COMPONENT_COUNT; x++) {
+                values[x] = null;
+            }
+        }
+    }
+
+    /**
+     * Transforms a component of a formatted string into a Well Formed string;
+     * the result is identical to
+     * {@link Convert#fsToWellFormed(java.lang.String)} for the same substring.
+     *
+     * @param cpeString the CPE string being parsed
+     * @param index the component index
+     * @return the well formed string
+     */
+    private String toWellFormed(String cpeString, int index) {
+        final int flags = scanner.getFlags(index);
+        if ((flags & Cpe23Scanner.IS_ANY) != 0) {
+            return LogicalValue.ANY.getAbbreviation();
+        } else if ((flags & Cpe23Scanner.IS_NA) != 0) {
+            return LogicalValue.NA.getAbbreviation();
+        }
+        final int start = scanner.getStart(index);
+        final int end = scanner.getEnd(index);
+        if ((flags & Cpe23Scanner.HAS_QUOTABLE) == 0) {
+            return cpeString.substring(start, end);
+        }
+        buffer.setLength(0);
+        for (int x = start; x < end; x++) {
+            char c = cpeString.charAt(x);
+            if (c == '.' || c == '_' || c == '-') {
+                buffer.append('\\');
+            }
+            buffer.append(c);
+        }
+        return buffer.toString();
+    }
+}
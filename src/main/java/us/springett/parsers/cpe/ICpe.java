@@ -17,6 +17,7 @@
  */
 package us.springett.parsers.cpe;
 
+import us.springett.parsers.cpe.values.Attribute;
 import us.springett.parsers.cpe.values.Part;
 import us.springett.parsers.cpe.exceptions.CpeEncodingException;
 
@@ -218,6 +219,40 @@ public interface ICpe extends Comparable<ICpe> {
      */
     String getWellFormedOther();
 
+    /**
+     * Gets the well formed value of the given attribute. For the
+     * {@link Attribute#PART} attribute the part abbreviation is returned.
+     *
+     * @param attribute the attribute to retrieve
+     * @return the well formed value of the attribute
+     */
+    default String getWellFormed(Attribute attribute) {
+        switch (attribute) {
+            case PART:
+                return getPart().getAbbreviation();
+            case VENDOR:
+                return getWellFormedVendor();
+            case PRODUCT:
+                return getWellFormedProduct();
+            case VERSION:
+                return getWellFormedVersion();
+            case UPDATE:
+                return getWellFormedUpdate();
+            case EDITION:
+                return getWellFormedEdition();
+            case LANGUAGE:
+                return getWellFormedLanguage();
+            case SW_EDITION:
+                return getWellFormedSwEdition();
+            case TARGET_SW:
+                return getWellFormedTargetSw();
+            case TARGET_HW:
+                return getWellFormedTargetHw();
+            default:
+                return getWellFormedOther();
+        }
+    }
+
     /**
      * Converts the CPE into the CPE 2.2 URI format.
      *
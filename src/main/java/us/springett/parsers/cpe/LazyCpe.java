@@ -0,0 +1,162 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe;
+
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.internal.util.Cpe23PartIterator;
+import us.springett.parsers.cpe.util.Convert;
+import us.springett.parsers.cpe.util.Status;
+import us.springett.parsers.cpe.util.Validate;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * A lazily decoded view over a CPE 2.3 Formatted String. Construction only
+ * records the boundaries of the components and the part; each attribute is
+ * converted into its Well Formed form the first time it is accessed and then
+ * cached. Code that only inspects a few attributes, or only forwards the string
+ * on, avoids decoding the remaining attributes.</p>
+ * <p>
+ * Unlike {@link CpeParser} the attribute values are not validated during
+ * construction; use {@link #validate()} or {@link #toCpe()} when validation is
+ * required.</p>
+ *
+ * @author Steve Springett
+ */
+public class LazyCpe extends AbstractCpe {
+
+    /**
+     * The number of attributes in a CPE.
+     */
+    private static final int ATTRIBUTE_COUNT = 11;
+    /**
+     * The attributes of a CPE.
+     */
+    private static final Attribute[] ATTRIBUTES = Attribute.values();
+
+    /**
+     * The CPE 2.3 formatted string.
+     */
+    private final String value;
+    /**
+     * Whether or not to use lenient conversion of the attributes.
+     */
+    private final boolean lenient;
+    /**
+     * The boundaries of the components; see
+     * {@link Cpe23PartIterator#split(String, int[])}.
+     */
+    private final int[] bounds = new int[ATTRIBUTE_COUNT + 1];
+    /**
+     * The part of the CPE.
+     */
+    private final Part part;
+    /**
+     * The decoded well formed attributes, indexed by attribute ordinal.
+     */
+    private final String[] wellFormed = new String[ATTRIBUTE_COUNT];
+
+    /**
+     * Constructs a new lazily decoded CPE.
+     *
+     * @param value the CPE 2.3 formatted string
+     * @throws CpeParsingException thrown if the value is not a CPE 2.3
+     * formatted string with eleven components and a valid part
+     */
+    public LazyCpe(String value) throws CpeParsingException {
+        this(value, false);
+    }
+
+    /**
+     * Constructs a new lazily decoded CPE.
+     *
+     * @param value the CPE 2.3 formatted string
+     * @param lenient when <code>true</code> the attributes are converted in
+     * lenient mode; see
+     * {@link Convert#fsToWellFormed(java.lang.String, boolean)}
+     * @throws CpeParsingException thrown if the value is not a CPE 2.3
+     * formatted string with eleven components and a valid part
+     */
+    public LazyCpe(String value, boolean lenient) throws CpeParsingException {
+        int count = Cpe23PartIterator.split(value, bounds);
+        if (count < ATTRIBUTE_COUNT) {
+            throw new CpeParsingException("Invalid CPE (too few components): " + value);
+        } else if (count > ATTRIBUTE_COUNT) {
+            throw new CpeParsingException("Invalid CPE (too many components): " + value);
+        }
+        this.value = value;
+        this.lenient = lenient;
+        this.part = Part.getEnum(component(0));
+        this.wellFormed[0] = part.getAbbreviation();
+    }
+
+    /**
+     * Returns the raw component at the given index.
+     *
+     * @param index the component index
+     * @return the raw component
+     */
+    private String component(int index) {
+        return value.substring(bounds[index], bounds[index + 1] - 1);
+    }
+
+    @Override
+    public Part getPart() {
+        return part;
+    }
+
+    @Override
+    public String getWellFormed(Attribute attribute) {
+        final int index = attribute.ordinal();
+        String result = wellFormed[index];
+        if (result == null) {
+            //racy caching is safe as the result is immutable and always identical
+            result = Convert.fsToWellFormed(component(index), lenient);
+            wellFormed[index] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Validates each of the attributes.
+     *
+     * @return the validation status of the first invalid attribute, or
+     * {@link Status#VALID}
+     */
+    public Status validate() {
+        for (int x = 1; x < ATTRIBUTE_COUNT; x++) {
+            Status status = Validate.component(getWellFormed(ATTRIBUTES[x]));
+            if (!status.isValid()) {
+                return status;
+            }
+        }
+        return Status.VALID;
+    }
+
+    /**
+     * Returns the CPE 2.3 Formatted String that this view wraps. The string is
+     * returned exactly as given and is not re-encoded.
+     *
+     * @return the CPE 2.3 Formatted String
+     */
+    @Override
+    public String toCpe23FS() {
+        return value;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe;
+
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+
+/**
+ * <p>
+ * A static parser that uses one {@link CpeParserContext} per thread.</p>
+ * <p>
+ * The context is only reused when the same thread parses many strings, as is
+ * the case for platform thread pools. A virtual thread is typically created
+ * per task and would allocate a new context for every task; code running on
+ * virtual threads should instead create a {@link CpeParserContext} per task or
+ * per batch and pass it along.</p>
+ *
+ * @author Steve Springett
+ */
+public final class ThreadLocalCpeParser {
+
+    /**
+     * The parser context for each thread.
+     */
+    private static final ThreadLocal<CpeParserContext> CONTEXT = ThreadLocal.withInitial(CpeParserContext::new);
+
+    /**
+     * Private constructor for a utility class.
+     */
+    private ThreadLocalCpeParser() {
+    }
+
+    /**
+     * Parses a CPE String into an object; the string can be formated as either
+     * a CPE 2.2 URI or CPE 2.3 Formatted String.
+     *
+     * @param cpeString the CPE string to parse
+     * @return the CPE object represented by the given cpeString
+     * @throws CpeParsingException thrown if the cpeString is invalid
+     */
+    public static Cpe parse(String cpeString) throws CpeParsingException {
+        return CONTEXT.get().parse(cpeString, false);
+    }
+
+    /**
+     * Parses a CPE String into an object with the option of parsing CPE 2.2 URI
+     * strings in lenient mode - allowing for CPE values that do not adhere to
+     * the specification.
+     *
+     * @param cpeString the CPE string to parse
+     * @param lenient when <code>true</code> the CPE 2.2 parser will put in
+     * lenient mode attempting to parse invalid CPE URI values.
+     * @return the CPE object represented by the given cpeString
+     * @throws CpeParsingException thrown if the cpeString is invalid
+     */
+    public static Cpe parse(String cpeString, boolean lenient) throws CpeParsingException {
+        return CONTEXT.get().parse(cpeString, lenient);
+    }
+}
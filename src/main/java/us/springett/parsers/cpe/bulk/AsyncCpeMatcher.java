@@ -0,0 +1,465 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.index.CpeDictionary;
+
+/**
+ * <p>
+ * An asynchronous facade for parsing and matching CPE, intended for callers
+ * that run on many lightweight threads, such as I/O bound services. Each call
+ * returns a {@link CompletableFuture} immediately; concurrent requests are
+ * collected into micro-batches that are processed on an executor.</p>
+ * <p>
+ * A batch is dispatched as soon as it holds <code>batchSize</code> requests,
+ * or <code>maxDelay</code> after its first request was received, whichever
+ * comes first. Equal requests within a batch are computed once and share the
+ * result; e.g. many services asking for the dictionary matches of the same
+ * CPE result in a single lookup. The distinct lookups of a batch are passed
+ * to {@link CpeDictionary#findAllMatches(List)} together, so that a
+ * dictionary can share range searches and entry reads between them.</p>
+ * <p>
+ * The results are those of {@link CpeParser#parse(java.lang.String, boolean)},
+ * {@link ICpe#matches(ICpe)} and {@link CpeDictionary#findMatches(ICpe)}.
+ * Failures, such as a {@link us.springett.parsers.cpe.exceptions.CpeParsingException},
+ * complete the future exceptionally. The pending batch is guarded by a lock
+ * rather than <code>synchronized</code> so that virtual threads are not pinned
+ * to their carrier while waiting; the lock is only held to add a request.</p>
+ *
+ * @author Steve Springett
+ */
+public class AsyncCpeMatcher implements AutoCloseable {
+
+    /**
+     * The default maximum number of requests in a batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    /**
+     * The default maximum time in microseconds that a request waits for its
+     * batch to fill.
+     */
+    public static final long DEFAULT_MAX_DELAY_MICROS = 500;
+
+    /**
+     * The dictionary to find matches in.
+     */
+    private final CpeDictionary dictionary;
+    /**
+     * The maximum number of requests in a batch.
+     */
+    private final int batchSize;
+    /**
+     * The maximum time in nanoseconds that a request waits for its batch to
+     * fill.
+     */
+    private final long maxDelayNanos;
+    /**
+     * The executor processing the batches.
+     */
+    private final Executor executor;
+    /**
+     * Dispatches batches that have not filled in time.
+     */
+    private final ScheduledThreadPoolExecutor timer;
+    /**
+     * Guards the pending batch.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * The batch collecting requests.
+     */
+    private List<Request<?>> pending = new ArrayList<>();
+    /**
+     * The scheduled dispatch of the pending batch, or <code>null</code>.
+     */
+    private ScheduledFuture<?> timeout;
+    /**
+     * Whether the matcher has been closed.
+     */
+    private boolean closed;
+    /**
+     * The number of requests received.
+     */
+    private final LongAdder requestCount = new LongAdder();
+    /**
+     * The number of batches dispatched.
+     */
+    private final LongAdder batchCount = new LongAdder();
+
+    /**
+     * Constructs a new matcher with the default batch size and delay,
+     * processing batches on the common fork join pool.
+     *
+     * @param dictionary the dictionary to find matches in
+     */
+    public AsyncCpeMatcher(CpeDictionary dictionary) {
+        this(dictionary, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY_MICROS, TimeUnit.MICROSECONDS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new matcher.
+     *
+     * @param dictionary the dictionary to find matches in
+     * @param batchSize the maximum number of requests in a batch
+     * @param maxDelay the maximum time that a request waits for its batch to
+     * fill; zero dispatches every request immediately
+     * @param unit the unit of the maximum delay
+     * @param executor the executor processing the batches, e.g. a virtual
+     * thread per task executor
+     */
+    public AsyncCpeMatcher(CpeDictionary dictionary, int batchSize, long maxDelay, TimeUnit unit, Executor executor) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be greater than zero");
+        }
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("The maximum delay must not be negative");
+        }
+        this.dictionary = Objects.requireNonNull(dictionary, "dictionary");
+        this.batchSize = batchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.executor = Objects.requireNonNull(executor, "executor");
+        timer = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "cpe-async-matcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Parses a CPE string asynchronously.
+     *
+     * @param cpeString the CPE string to parse
+     * @return the future CPE object
+     * @throws IllegalStateException thrown if the matcher is closed
+     * @see CpeParser#parse(java.lang.String)
+     */
+    public CompletableFuture<Cpe> parse(String cpeString) {
+        return parse(cpeString, false);
+    }
+
+    /**
+     * Parses a CPE string asynchronously.
+     *
+     * @param cpeString the CPE string to parse
+     * @param lenient when <code>true</code> the CPE 2.2 parser will put in
+     * lenient mode attempting to parse invalid CPE URI values.
+     * @return the future CPE object
+     * @throws IllegalStateException thrown if the matcher is closed
+     * @see CpeParser#parse(java.lang.String, boolean)
+     */
+    public CompletableFuture<Cpe> parse(String cpeString, boolean lenient) {
+        return submit(new Request<Cpe>(Arrays.asList("parse", cpeString, lenient)) {
+            @Override
+            Cpe compute() throws Exception {
+                return CpeParser.parse(cpeString, lenient);
+            }
+        });
+    }
+
+    /**
+     * Determines asynchronously whether a CPE matches a target CPE.
+     *
+     * @param source the CPE
+     * @param target the target CPE to evaluate
+     * @return the future result of {@link ICpe#matches(ICpe)}
+     * @throws IllegalStateException thrown if the matcher is closed
+     */
+    public CompletableFuture<Boolean> matches(ICpe source, ICpe target) {
+        return submit(new Request<Boolean>(Arrays.asList("matches", source, target)) {
+            @Override
+            Boolean compute() {
+                return source.matches(target);
+            }
+        });
+    }
+
+    /**
+     * Finds the dictionary entries matched by a CPE asynchronously.
+     *
+     * @param source the CPE
+     * @return the future unmodifiable list of the entries matched by the CPE
+     * @throws IllegalStateException thrown if the matcher is closed
+     * @see CpeDictionary#findMatches(ICpe)
+     */
+    public CompletableFuture<List<ICpe>> findMatches(ICpe source) {
+        return submit(new Lookup(source));
+    }
+
+    /**
+     * Returns the number of requests received.
+     *
+     * @return the number of requests
+     */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    /**
+     * Returns the number of batches dispatched.
+     *
+     * @return the number of batches
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * Dispatches the pending requests and stops accepting new requests. The
+     * executor is not shut down.
+     */
+    @Override
+    public void close() {
+        final List<Request<?>> batch;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            batch = takePending();
+        } finally {
+            lock.unlock();
+        }
+        timer.shutdownNow();
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Adds a request to the pending batch, dispatching the batch if it is
+     * full.
+     *
+     * @param <T> the type of the result
+     * @param request the request
+     * @return the future result of the request
+     */
+    private <T> CompletableFuture<T> submit(Request<T> request) {
+        List<Request<?>> full = null;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The matcher is closed");
+            }
+            pending.add(request);
+            if (pending.size() >= batchSize || maxDelayNanos == 0) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                final List<Request<?>> batch = pending;
+                timeout = timer.schedule(() -> flush(batch), maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        requestCount.increment();
+        if (full != null) {
+            dispatch(full);
+        }
+        return request.future;
+    }
+
+    /**
+     * Dispatches a batch that has not filled in time, unless it has already
+     * been dispatched.
+     *
+     * @param batch the batch
+     */
+    private void flush(List<Request<?>> batch) {
+        lock.lock();
+        try {
+            if (pending != batch) {
+                return;
+            }
+            takePending();
+        } finally {
+            lock.unlock();
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * Replaces the pending batch with an empty one; must be called while
+     * holding the lock.
+     *
+     * @return the pending batch
+     */
+    private List<Request<?>> takePending() {
+        final List<Request<?>> batch = pending;
+        pending = new ArrayList<>();
+        if (timeout != null) {
+            timeout.cancel(false);
+            timeout = null;
+        }
+        return batch;
+    }
+
+    /**
+     * Processes a batch on the executor.
+     *
+     * @param batch the batch
+     */
+    private void dispatch(List<Request<?>> batch) {
+        batchCount.increment();
+        try {
+            executor.execute(() -> process(batch));
+        } catch (RejectedExecutionException ex) {
+            for (Request<?> request : batch) {
+                request.future.completeExceptionally(ex);
+            }
+        }
+    }
+
+    /**
+     * Computes the results of a batch, computing equal requests once.
+     *
+     * @param batch the batch
+     */
+    private void process(List<Request<?>> batch) {
+        final Map<Object, Object> results = new HashMap<>(batch.size() * 4 / 3 + 1);
+        final Map<Object, ICpe> lookups = new LinkedHashMap<>();
+        for (Request<?> request : batch) {
+            if (request instanceof Lookup) {
+                lookups.putIfAbsent(request.key, ((Lookup) request).source);
+            }
+        }
+        if (!lookups.isEmpty()) {
+            try {
+                final List<List<ICpe>> matches = dictionary.findAllMatches(new ArrayList<>(lookups.values()));
+                int x = 0;
+                for (Object key : lookups.keySet()) {
+                    results.put(key, Collections.unmodifiableList(matches.get(x++)));
+                }
+            } catch (Throwable ex) {
+                for (Object key : lookups.keySet()) {
+                    results.put(key, ex);
+                }
+            }
+        }
+        for (Request<?> request : batch) {
+            request.complete(results);
+        }
+    }
+
+    /**
+     * A pending request.
+     *
+     * @param <T> the type of the result
+     */
+    private abstract static class Request<T> {
+
+        /**
+         * Identifies equal requests.
+         */
+        private final Object key;
+        /**
+         * The future result.
+         */
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        /**
+         * Constructs a new request.
+         *
+         * @param key identifies equal requests
+         */
+        Request(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * Computes the result.
+         *
+         * @return the result
+         * @throws Exception thrown if the request fails
+         */
+        abstract T compute() throws Exception;
+
+        /**
+         * Completes the future with the result of an equal request of the
+         * batch, or with a newly computed result.
+         *
+         * @param results the results of the batch by request key; failures,
+         * including errors, are recorded as a {@link Throwable} so that the
+         * remaining requests of the batch are still completed
+         */
+        @SuppressWarnings("unchecked")
+        void complete(Map<Object, Object> results) {
+            Object result = results.get(key);
+            if (result == null) {
+                try {
+                    result = compute();
+                } catch (Throwable ex) {
+                    result = ex;
+                }
+                results.put(key, result);
+            }
+            if (result instanceof Throwable) {
+                future.completeExceptionally((Throwable) result);
+            } else {
+                future.complete((T) result);
+            }
+        }
+    }
+
+    /**
+     * A request for the dictionary entries matched by a CPE; the lookups of a
+     * batch are computed together in {@link #process(List)}.
+     */
+    private final class Lookup extends Request<List<ICpe>> {
+
+        /**
+         * The CPE.
+         */
+        private final ICpe source;
+
+        /**
+         * Constructs a new lookup.
+         *
+         * @param source the CPE
+         */
+        Lookup(ICpe source) {
+            super(Arrays.asList("findMatches", source));
+            this.source = source;
+        }
+
+        @Override
+        List<ICpe> compute() {
+            return Collections.unmodifiableList(dictionary.findMatches(source));
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeFingerprint;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.exceptions.CpeValidationException;
+import us.springett.parsers.cpe.internal.util.LongPairHashSet;
+
+/**
+ * <p>
+ * Canonicalizes and deduplicates a stream of CPE strings. Each string is
+ * parsed with {@link CpeParser} (so CPE 2.2 URIs, packed editions, and empty
+ * components are normalized), and every attribute is converted to its lower
+ * case well formed value. Canonical CPE that were already seen are dropped.</p>
+ * <p>
+ * Only the 128-bit {@link CpeFingerprint} of each canonical CPE is retained,
+ * so the memory used stays small for tens of millions of inputs. A canonicalizer is <b>not</b>
+ * thread safe.</p>
+ *
+ * @author Steve Springett
+ */
+public class CpeCanonicalizer {
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(CpeCanonicalizer.class);
+
+    /**
+     * Whether or not to parse in lenient mode.
+     */
+    private final boolean lenient;
+    /**
+     * The hashes of the canonical CPE seen so far.
+     */
+    private final LongPairHashSet seen;
+    /**
+     * The number of inputs.
+     */
+    private long inputCount;
+    /**
+     * The number of duplicate inputs.
+     */
+    private long duplicateCount;
+    /**
+     * The number of inputs that could not be parsed.
+     */
+    private long invalidCount;
+
+    /**
+     * Constructs a new canonicalizer.
+     */
+    public CpeCanonicalizer() {
+        this(false, 1024);
+    }
+
+    /**
+     * Constructs a new canonicalizer.
+     *
+     * @param lenient when <code>true</code> CPE 2.2 URIs are parsed in lenient
+     * mode; see {@link CpeParser#parse(java.lang.String, boolean)}
+     * @param expectedSize the expected number of distinct CPE
+     */
+    public CpeCanonicalizer(boolean lenient, int expectedSize) {
+        this.lenient = lenient;
+        this.seen = new LongPairHashSet(expectedSize);
+    }
+
+    /**
+     * Returns the canonical form of the given CPE: every attribute is converted
+     * to lower case.
+     *
+     * @param cpe the CPE to canonicalize
+     * @return the canonical CPE
+     * @throws CpeValidationException thrown if the CPE contains invalid
+     * attributes
+     */
+    public static Cpe canonicalize(ICpe cpe) throws CpeValidationException {
+        return new Cpe(cpe.getPart(), lower(cpe.getWellFormedVendor()), lower(cpe.getWellFormedProduct()),
+                lower(cpe.getWellFormedVersion()), lower(cpe.getWellFormedUpdate()), lower(cpe.getWellFormedEdition()),
+                lower(cpe.getWellFormedLanguage()), lower(cpe.getWellFormedSwEdition()),
+                lower(cpe.getWellFormedTargetSw()), lower(cpe.getWellFormedTargetHw()),
+                lower(cpe.getWellFormedOther()));
+    }
+
+    /**
+     * Converts the value to lower case.
+     *
+     * @param value the value
+     * @return the lower case value
+     */
+    private static String lower(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses and canonicalizes the given CPE string.
+     *
+     * @param cpeString the CPE string
+     * @return the canonical CPE
+     * @throws CpeParsingException thrown if the CPE string is invalid
+     */
+    public Cpe canonicalize(String cpeString) throws CpeParsingException {
+        try {
+            return canonicalize(CpeParser.parse(cpeString, lenient));
+        } catch (CpeValidationException ex) {
+            throw new CpeParsingException(ex.getMessage());
+        }
+    }
+
+    /**
+     * Parses and canonicalizes the given CPE string and returns the result if
+     * it has not been seen before.
+     *
+     * @param cpeString the CPE string
+     * @return the canonical CPE, or <code>null</code> if it is a duplicate
+     * @throws CpeParsingException thrown if the CPE string is invalid
+     */
+    public Cpe accept(String cpeString) throws CpeParsingException {
+        inputCount++;
+        Cpe cpe;
+        try {
+            cpe = canonicalize(cpeString);
+        } catch (CpeParsingException ex) {
+            invalidCount++;
+            throw ex;
+        }
+        return add(cpe) ? cpe : null;
+    }
+
+    /**
+     * Canonicalizes the given CPE and returns the result if it has not been
+     * seen before.
+     *
+     * @param cpe the CPE
+     * @return the canonical CPE, or <code>null</code> if it is a duplicate
+     * @throws CpeValidationException thrown if the CPE contains invalid
+     * attributes
+     */
+    public Cpe accept(ICpe cpe) throws CpeValidationException {
+        inputCount++;
+        Cpe canonical;
+        try {
+            canonical = canonicalize(cpe);
+        } catch (CpeValidationException ex) {
+            invalidCount++;
+            throw ex;
+        }
+        return add(canonical) ? canonical : null;
+    }
+
+    /**
+     * Canonicalizes and deduplicates a stream of CPE strings. Strings that
+     * cannot be parsed are skipped and counted; see
+     * {@link #getInvalidCount()}. The returned stream is sequential and is
+     * evaluated lazily.
+     *
+     * @param cpeStrings the CPE strings
+     * @return the distinct canonical CPE in order of first occurrence
+     */
+    public Stream<Cpe> process(Stream<String> cpeStrings) {
+        return cpeStrings.sequential().map(this::acceptQuietly).filter(Objects::nonNull);
+    }
+
+    /**
+     * Accepts the CPE string, logging rather than throwing parsing errors.
+     *
+     * @param cpeString the CPE string
+     * @return the canonical CPE, or <code>null</code> if it is a duplicate or
+     * invalid
+     */
+    private Cpe acceptQuietly(String cpeString) {
+        try {
+            return accept(cpeString);
+        } catch (CpeParsingException ex) {
+            LOG.debug("Skipping invalid CPE ({}): {}", cpeString, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records the canonical CPE.
+     *
+     * @param cpe the canonical CPE
+     * @return <code>true</code> if the CPE was not seen before
+     */
+    private boolean add(Cpe cpe) {
+        CpeFingerprint fingerprint = CpeFingerprint.of(cpe);
+        if (seen.add(fingerprint.getH1(), fingerprint.getH2())) {
+            return true;
+        }
+        duplicateCount++;
+        return false;
+    }
+
+    /**
+     * Returns the number of distinct canonical CPE seen.
+     *
+     * @return the number of distinct CPE
+     */
+    public int size() {
+        return seen.size();
+    }
+
+    /**
+     * Returns the number of inputs processed.
+     *
+     * @return the number of inputs
+     */
+    public long getInputCount() {
+        return inputCount;
+    }
+
+    /**
+     * Returns the number of inputs that were duplicates of an earlier input.
+     *
+     * @return the number of duplicates
+     */
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * Returns the number of inputs that could not be parsed or were invalid.
+     *
+     * @return the number of invalid inputs
+     */
+    public long getInvalidCount() {
+        return invalidCount;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import us.springett.parsers.cpe.ICpe;
+
+/**
+ * <p>
+ * Computes the differences between two sorted sources of CPE in a single
+ * merge pass. Only the current entry of each source is held in memory, so the
+ * sources may be arbitrarily large (e.g. read lazily from two feed files).
+ * Sources that are not sorted can be sorted with
+ * {@link ExternalCpeSorter}.</p>
+ * <pre>
+ * CpeDiff.diff(yesterday, today, new CpeDiff.Listener&lt;Cpe&gt;() {
+ *     public void added(Cpe cpe) { ... }
+ *     public void removed(Cpe cpe) { ... }
+ * });
+ * </pre>
+ * <p>
+ * Two entries are considered the same entry when the order used to sort the
+ * sources compares them as equal; repeated entries within a source are
+ * reported once.</p>
+ *
+ * @author Steve Springett
+ */
+public final class CpeDiff {
+
+    /**
+     * Private constructor for a utility class.
+     */
+    private CpeDiff() {
+    }
+
+    /**
+     * Receives the result of a diff. Each entry of either source is reported
+     * exactly once, in sort order.
+     *
+     * @param <T> the type of the entries
+     */
+    public interface Listener<T> {
+
+        /**
+         * Called for an entry that is only in the current source.
+         *
+         * @param cpe the entry
+         */
+        default void added(T cpe) {
+        }
+
+        /**
+         * Called for an entry that is only in the previous source.
+         *
+         * @param cpe the entry
+         */
+        default void removed(T cpe) {
+        }
+
+        /**
+         * Called for an entry that is in both sources.
+         *
+         * @param previous the entry from the previous source
+         * @param current the entry from the current source
+         */
+        default void unchanged(T previous, T current) {
+        }
+    }
+
+    /**
+     * Computes the differences between two sources sorted by
+     * {@link ICpe#compareTo(Object)}.
+     *
+     * @param <T> the type of the entries
+     * @param previous the previous source
+     * @param current the current source
+     * @param listener the listener that receives the differences
+     * @throws IllegalArgumentException thrown if either source is not sorted
+     */
+    public static <T extends ICpe> void diff(Iterator<? extends T> previous, Iterator<? extends T> current,
+            Listener<? super T> listener) {
+        diff(previous, current, Comparator.<ICpe>naturalOrder(), listener);
+    }
+
+    /**
+     * Computes the differences between two sources sorted by the given order.
+     *
+     * @param <T> the type of the entries
+     * @param previous the previous source
+     * @param current the current source
+     * @param order the order both sources are sorted by
+     * @param listener the listener that receives the differences
+     * @throws IllegalArgumentException thrown if either source is not sorted
+     */
+    public static <T> void diff(Iterator<? extends T> previous, Iterator<? extends T> current,
+            Comparator<? super T> order, Listener<? super T> listener) {
+        T left = next(previous, null, order);
+        T right = next(current, null, order);
+        while (left != null || right != null) {
+            final int result = left == null ? 1 : right == null ? -1 : order.compare(left, right);
+            if (result < 0) {
+                listener.removed(left);
+                left = next(previous, left, order);
+            } else if (result > 0) {
+                listener.added(right);
+                right = next(current, right, order);
+            } else {
+                listener.unchanged(left, right);
+                left = next(previous, left, order);
+                right = next(current, right, order);
+            }
+        }
+    }
+
+    /**
+     * Returns the next distinct entry of a sorted source.
+     *
+     * @param <T> the type of the entries
+     * @param iterator the source
+     * @param last the entry returned previously, or <code>null</code>
+     * @param order the order the source is sorted by
+     * @return the next entry, or <code>null</code> if there are no more
+     * entries
+     * @throws IllegalArgumentException thrown if the source is not sorted
+     */
+    private static <T> T next(Iterator<? extends T> iterator, T last, Comparator<? super T> order) {
+        while (iterator.hasNext()) {
+            final T cpe = iterator.next();
+            if (last == null) {
+                return cpe;
+            }
+            final int result = order.compare(last, cpe);
+            if (result < 0) {
+                return cpe;
+            } else if (result > 0) {
+                throw new IllegalArgumentException("The source is not sorted: " + cpe + " follows " + last);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.internal.util.Literals;
+import us.springett.parsers.cpe.util.Relation;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.LogicalValue;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * Removes the CPE of a set that are subsumed by other CPE of the same set.
+ * CPE <code>a</code> subsumes <code>b</code> when every value of
+ * <code>a</code> contains the corresponding value of <code>b</code>, i.e.
+ * <code>a</code> matches every specific value that <code>b</code> matches,
+ * e.g. <code>cpe:2.3:a:vendor:product:*:*:*:*:*:*:*:*</code> subsumes every
+ * version of the product. Minimizing a match set before bulk matching removes
+ * entries that cannot add any matches.</p>
+ * <p>
+ * Containment is computed from the wild card patterns rather than from
+ * {@link Cpe#compareNames(ICpe, ICpe)}: the latter applies the left value as
+ * a pattern to the right value as written, so <code>1.?</code> would be
+ * considered a superset of <code>1.*</code> although it does not match
+ * <code>1.10</code>.</p>
+ * <p>
+ * A literal value (including NA) only contains an equal value, so a CPE can
+ * only be subsumed by the CPE whose literal values it shares. The CPE are
+ * grouped by which of their attributes are literal and by those values, and
+ * each CPE is only compared to the CPE of the one matching group per such
+ * combination of attributes; e.g. distinct versions of a product are never
+ * compared with each other.</p>
+ *
+ * @author Steve Springett
+ */
+public final class CpeSetMinimizer {
+
+    /**
+     * Token for an unquoted asterisk, which matches any number of characters.
+     */
+    private static final int STAR = -1;
+    /**
+     * Token for an unquoted question mark, which matches a single character.
+     */
+    private static final int SINGLE = -2;
+    /**
+     * The attributes of a CPE.
+     */
+    private static final Attribute[] ATTRIBUTES = Attribute.values();
+
+    /**
+     * Private constructor for a utility class.
+     */
+    private CpeSetMinimizer() {
+    }
+
+    /**
+     * Returns the minimal subset of the CPE that is not subsumed by another
+     * CPE of the set. A CPE that is strictly subsumed (the other CPE is not
+     * also subsumed by it) is always removed; of CPE that subsume each other,
+     * such as duplicates or <code>?*</code> and <code>*?</code>, only the
+     * first is kept.
+     *
+     * @param <T> the type of CPE
+     * @param cpes the CPE to minimize
+     * @return the remaining CPE in their original order
+     */
+    public static <T extends ICpe> List<T> minimize(Collection<? extends T> cpes) {
+        final List<T> items = new ArrayList<>(cpes);
+        //the positions of the CPE by literal attributes and their folded values
+        final Map<Integer, Map<List<String>, List<Integer>>> groups = new HashMap<>();
+        for (int x = 0; x < items.size(); x++) {
+            final ICpe cpe = items.get(x);
+            final int mask = literalMask(cpe);
+            groups.computeIfAbsent(mask, k -> new HashMap<>())
+                    .computeIfAbsent(literalKey(cpe, mask), k -> new ArrayList<>()).add(x);
+        }
+        //CPE that subsume each other are subsumed by the same CPE, so an
+        //equivalence class is either removed as a whole or only its first
+        //member is kept
+        final BitSet removed = new BitSet();
+        final BitSet duplicate = new BitSet();
+        for (int x = 0; x < items.size(); x++) {
+            final ICpe cpe = items.get(x);
+            final int own = literalMask(cpe);
+            search:
+            for (Map.Entry<Integer, Map<List<String>, List<Integer>>> group : groups.entrySet()) {
+                final int mask = group.getKey();
+                if ((mask & ~own) != 0) {
+                    //literal where this CPE is not
+                    continue;
+                }
+                final List<Integer> candidates = group.getValue().get(literalKey(cpe, mask));
+                if (candidates == null) {
+                    continue;
+                }
+                for (int y : candidates) {
+                    if (y != x && subsumes(items.get(y), cpe)) {
+                        if (!subsumes(cpe, items.get(y))) {
+                            removed.set(x);
+                            break search;
+                        } else if (y < x) {
+                            duplicate.set(x);
+                        }
+                    }
+                }
+            }
+        }
+        final List<T> result = new ArrayList<>();
+        for (int x = 0; x < items.size(); x++) {
+            if (!removed.get(x) && !duplicate.get(x)) {
+                result.add(items.get(x));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the attributes of a CPE whose values are literal, i.e. neither
+     * ANY nor containing wild cards; NA is literal.
+     *
+     * @param cpe the CPE
+     * @return a bit per attribute ordinal
+     */
+    private static int literalMask(ICpe cpe) {
+        int mask = 0;
+        for (Attribute attribute : ATTRIBUTES) {
+            if (attribute == Attribute.PART ? cpe.getPart() != Part.ANY
+                    : Literals.isLiteral(cpe.getWellFormed(attribute))) {
+                mask |= 1 << attribute.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the case folded values of the given attributes of a CPE.
+     *
+     * @param cpe the CPE
+     * @param mask a bit per attribute ordinal
+     * @return the folded values, in attribute order
+     */
+    private static List<String> literalKey(ICpe cpe, int mask) {
+        final List<String> key = new ArrayList<>(Integer.bitCount(mask));
+        for (Attribute attribute : ATTRIBUTES) {
+            if ((mask & 1 << attribute.ordinal()) != 0) {
+                key.add(attribute == Attribute.PART ? cpe.getPart().getAbbreviation()
+                        : Literals.fold(cpe.getWellFormed(attribute)));
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Determines whether a CPE subsumes another, i.e. matches every specific
+     * CPE that the other matches.
+     *
+     * @param left the possibly subsuming CPE
+     * @param right the possibly subsumed CPE
+     * @return <code>true</code> if every value of the left CPE contains the
+     * corresponding value of the right CPE
+     */
+    static boolean subsumes(ICpe left, ICpe right) {
+        final Relation part = Cpe.compareAttribute(left.getPart(), right.getPart());
+        if (part != Relation.EQUAL && part != Relation.SUPERSET) {
+            return false;
+        }
+        for (Attribute attribute : ATTRIBUTES) {
+            if (attribute != Attribute.PART
+                    && !contains(left.getWellFormed(attribute), right.getWellFormed(attribute))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether a well formed value matches every specific value
+     * that another well formed value matches.
+     *
+     * @param left the possibly containing value
+     * @param right the possibly contained value
+     * @return <code>true</code> if the left value contains the right value
+     */
+    static boolean contains(String left, String right) {
+        final String any = LogicalValue.ANY.getAbbreviation();
+        final String na = LogicalValue.NA.getAbbreviation();
+        if (left.equalsIgnoreCase(right) || any.equals(left)) {
+            return true;
+        } else if (any.equals(right) || na.equals(left) || na.equals(right)) {
+            return false;
+        } else if (Literals.isLiteral(right)) {
+            return Cpe.compareAttribute(left, right) == Relation.SUPERSET;
+        } else if (Literals.isLiteral(left)) {
+            return false;
+        }
+        return containsPattern(tokens(left.toLowerCase(Locale.ROOT)), tokens(right.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Splits a value into the characters and wild cards that
+     * {@link us.springett.parsers.cpe.util.Convert#wellFormedToPattern(java.lang.String)}
+     * matches against; a quoted character is the backslash followed by the
+     * character.
+     *
+     * @param value the value
+     * @return the tokens
+     */
+    private static int[] tokens(String value) {
+        final int[] tokens = new int[value.length()];
+        for (int x = 0; x < value.length(); x++) {
+            final char c = value.charAt(x);
+            if (c == '*') {
+                tokens[x] = STAR;
+            } else if (c == '?') {
+                tokens[x] = SINGLE;
+            } else if (c == '\\' && x + 1 < value.length()) {
+                tokens[x] = c;
+                tokens[++x] = value.charAt(x);
+            } else {
+                tokens[x] = c;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Determines whether the left pattern matches every string the right
+     * pattern matches. Each wild card of the right pattern is replaced by
+     * placeholders that only the wild cards of the left pattern can match;
+     * the left pattern contains the right one if it matches every such
+     * instance. An asterisk of the right pattern is instantiated with up to
+     * one more placeholder than the left pattern has tokens, beyond which
+     * the left pattern must absorb the placeholders with an asterisk and the
+     * outcome no longer changes.
+     *
+     * @param left the tokens of the left pattern
+     * @param right the tokens of the right pattern
+     * @return <code>true</code> if the left pattern contains the right one
+     */
+    private static boolean containsPattern(int[] left, int[] right) {
+        int stars = 0;
+        for (int token : right) {
+            if (token == STAR) {
+                stars++;
+            }
+        }
+        if (stars > 2) {
+            //not a valid value; containment is not claimed
+            return false;
+        }
+        final int limit = left.length + 1;
+        final int[] lengths = new int[stars];
+        while (true) {
+            if (!matches(left, instance(right, lengths))) {
+                return false;
+            }
+            int x = 0;
+            while (x < stars && lengths[x] == limit) {
+                lengths[x++] = 0;
+            }
+            if (x == stars) {
+                return true;
+            }
+            lengths[x]++;
+        }
+    }
+
+    /**
+     * Instantiates a pattern, replacing each question mark with a
+     * placeholder and each asterisk with the given number of placeholders.
+     *
+     * @param pattern the pattern tokens
+     * @param lengths the number of placeholders for each asterisk
+     * @return the instance; placeholders are {@link #SINGLE}
+     */
+    private static int[] instance(int[] pattern, int[] lengths) {
+        int size = pattern.length;
+        for (int length : lengths) {
+            size += length - 1;
+        }
+        final int[] instance = new int[size];
+        int pos = 0;
+        int star = 0;
+        for (int token : pattern) {
+            if (token == STAR) {
+                for (int y = 0; y < lengths[star]; y++) {
+                    instance[pos++] = SINGLE;
+                }
+                star++;
+            } else {
+                instance[pos++] = token;
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Matches a pattern against an instance in which placeholders are only
+     * matched by wild cards.
+     *
+     * @param pattern the pattern tokens
+     * @param instance the instance
+     * @return <code>true</code> if the pattern matches the whole instance
+     */
+    private static boolean matches(int[] pattern, int[] instance) {
+        //matched[y] is whether the pattern so far matches the first y characters
+        boolean[] matched = new boolean[instance.length + 1];
+        matched[0] = true;
+        for (int token : pattern) {
+            final boolean[] next = new boolean[instance.length + 1];
+            if (token == STAR) {
+                boolean any = false;
+                for (int y = 0; y <= instance.length; y++) {
+                    any |= matched[y];
+                    next[y] = any;
+                }
+            } else {
+                for (int y = 0; y < instance.length; y++) {
+                    next[y + 1] = matched[y] && (token == SINGLE || token == instance[y]);
+                }
+            }
+            matched = next;
+        }
+        return matched[instance.length];
+    }
+}
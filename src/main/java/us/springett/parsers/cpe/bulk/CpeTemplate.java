@@ -0,0 +1,167 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.exceptions.CpeValidationException;
+import us.springett.parsers.cpe.util.Convert;
+import us.springett.parsers.cpe.values.Attribute;
+
+/**
+ * <p>
+ * Generates CPE that share every attribute of a base CPE except one variable
+ * slot, e.g. every known version of a vendor:product. Each CPE is derived
+ * with {@link Cpe#with(Attribute, String)}, so only the value of the slot is
+ * validated.</p>
+ * <p>
+ * Values are given unquoted, as for {@link us.springett.parsers.cpe.CpeBuilder#version(java.lang.String)},
+ * and are converted with {@link Convert#toWellFormed(java.lang.String)}. A
+ * template is immutable apart from its invalid value count and may be shared
+ * between threads.</p>
+ *
+ * @author Steve Springett
+ */
+public class CpeTemplate {
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(CpeTemplate.class);
+
+    /**
+     * The CPE providing the fixed attributes.
+     */
+    private final Cpe base;
+    /**
+     * The variable attribute.
+     */
+    private final Attribute slot;
+    /**
+     * The number of values skipped because they are invalid.
+     */
+    private final LongAdder invalidCount = new LongAdder();
+
+    /**
+     * Constructs a new template.
+     *
+     * @param base the CPE providing the fixed attributes
+     * @param slot the variable attribute
+     * @throws IllegalArgumentException thrown if the slot is the part
+     */
+    public CpeTemplate(Cpe base, Attribute slot) {
+        if (slot == Attribute.PART) {
+            throw new IllegalArgumentException("The part cannot be a template slot");
+        }
+        this.base = Objects.requireNonNull(base, "base");
+        this.slot = Objects.requireNonNull(slot, "slot");
+    }
+
+    /**
+     * Creates a template that enumerates the versions of the base CPE.
+     *
+     * @param base the CPE providing the fixed attributes
+     * @return the template
+     */
+    public static CpeTemplate versions(Cpe base) {
+        return new CpeTemplate(base, Attribute.VERSION);
+    }
+
+    /**
+     * Returns the CPE providing the fixed attributes.
+     *
+     * @return the base CPE
+     */
+    public Cpe getBase() {
+        return base;
+    }
+
+    /**
+     * Returns the variable attribute.
+     *
+     * @return the slot
+     */
+    public Attribute getSlot() {
+        return slot;
+    }
+
+    /**
+     * Creates the CPE for the given value of the slot.
+     *
+     * @param value the unquoted value of the slot
+     * @return the CPE
+     * @throws CpeValidationException thrown if the value is invalid
+     */
+    public Cpe apply(String value) throws CpeValidationException {
+        return base.with(slot, Convert.toWellFormed(value));
+    }
+
+    /**
+     * Lazily creates a CPE for each value of the slot. Invalid values are
+     * logged and skipped; see {@link #getInvalidCount()}.
+     *
+     * @param values the unquoted values of the slot
+     * @return the CPE, in the order of the values
+     */
+    public Stream<Cpe> expand(Stream<String> values) {
+        return values.map(this::applyQuietly).filter(Objects::nonNull);
+    }
+
+    /**
+     * Lazily creates a CPE for each value of the slot. Invalid values are
+     * logged and skipped; see {@link #getInvalidCount()}.
+     *
+     * @param values the unquoted values of the slot
+     * @return the CPE, in the order of the values
+     */
+    public Stream<Cpe> expand(Iterable<String> values) {
+        return expand(StreamSupport.stream(values.spliterator(), false));
+    }
+
+    /**
+     * Creates the CPE for the given value, logging rather than throwing
+     * validation errors.
+     *
+     * @param value the unquoted value of the slot
+     * @return the CPE, or <code>null</code> if the value is invalid
+     */
+    private Cpe applyQuietly(String value) {
+        try {
+            return apply(value);
+        } catch (CpeValidationException ex) {
+            invalidCount.increment();
+            LOG.debug("Skipping invalid {} ({}): {}", slot.getAttributeName(), value, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of values skipped by {@link #expand(Stream)} because
+     * they are invalid.
+     *
+     * @return the number of invalid values
+     */
+    public long getInvalidCount() {
+        return invalidCount.sum();
+    }
+}
@@ -0,0 +1,654 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.LogicalValue;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * Sorts a source of CPE that may be too large to hold in memory, such as a
+ * file of CPE strings. The source is read in runs of a fixed number of
+ * entries; each run is parsed, sorted in memory, and written to a temporary
+ * file in a compact binary form, and the runs are then merged with a heap
+ * while iterating the result.</p>
+ * <pre>
+ * try (ExternalCpeSorter.SortedIterator sorted = new ExternalCpeSorter().sort(path)) {
+ *     CpeDiff.diff(previous, sorted, listener);
+ * }
+ * </pre>
+ * <p>
+ * With a parallelism greater than one, up to that many runs are parsed,
+ * sorted and written concurrently while the next run is read; at most
+ * <code>parallelism + 1</code> runs are held in memory. Lines that cannot be
+ * parsed are skipped and counted.</p>
+ * <p>
+ * The temporary files are deleted when the result is closed or fully
+ * iterated. A sorter may be reused, but is <b>not</b> thread safe.</p>
+ *
+ * @author Steve Springett
+ */
+public class ExternalCpeSorter {
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(ExternalCpeSorter.class);
+    /**
+     * The default number of entries in a run.
+     */
+    public static final int DEFAULT_RUN_SIZE = 100000;
+    /**
+     * The attributes of a CPE.
+     */
+    private static final Attribute[] ATTRIBUTES = Attribute.values();
+    /**
+     * The well formed value of ANY.
+     */
+    private static final String ANY = LogicalValue.ANY.getAbbreviation();
+    /**
+     * The well formed value of NA.
+     */
+    private static final String NA = LogicalValue.NA.getAbbreviation();
+
+    /**
+     * The number of entries in a run.
+     */
+    private final int runSize;
+    /**
+     * The directory for the temporary files, or <code>null</code> for the
+     * default temporary directory.
+     */
+    private final Path directory;
+    /**
+     * The order to sort by.
+     */
+    private final Comparator<? super Cpe> order;
+    /**
+     * The number of runs sorted concurrently.
+     */
+    private final int parallelism;
+    /**
+     * The number of lines that could not be parsed.
+     */
+    private final LongAdder invalidCount = new LongAdder();
+
+    /**
+     * Constructs a new sorter that sorts by
+     * {@link Cpe#compareTo(us.springett.parsers.cpe.ICpe)} using the default
+     * run size and temporary directory, sorting one run at a time.
+     */
+    public ExternalCpeSorter() {
+        this(DEFAULT_RUN_SIZE, 1, null, Comparator.<Cpe>naturalOrder());
+    }
+
+    /**
+     * Constructs a new sorter.
+     *
+     * @param runSize the number of entries sorted in memory at a time
+     * @param directory the directory for the temporary files, or
+     * <code>null</code> for the default temporary directory
+     * @param order the order to sort by
+     */
+    public ExternalCpeSorter(int runSize, Path directory, Comparator<? super Cpe> order) {
+        this(runSize, 1, directory, order);
+    }
+
+    /**
+     * Constructs a new sorter.
+     *
+     * @param runSize the number of entries sorted in memory at a time
+     * @param parallelism the number of runs sorted concurrently
+     * @param directory the directory for the temporary files, or
+     * <code>null</code> for the default temporary directory
+     * @param order the order to sort by
+     */
+    public ExternalCpeSorter(int runSize, int parallelism, Path directory, Comparator<? super Cpe> order) {
+        if (runSize <= 0) {
+            throw new IllegalArgumentException("The run size must be greater than zero");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The parallelism must be greater than zero");
+        }
+        this.runSize = runSize;
+        this.parallelism = parallelism;
+        this.directory = directory;
+        this.order = order;
+    }
+
+    /**
+     * Returns the number of lines that could not be parsed and were skipped.
+     *
+     * @return the number of invalid lines
+     */
+    public long getInvalidCount() {
+        return invalidCount.sum();
+    }
+
+    /**
+     * Sorts the given source. Entries that compare as equal are all returned;
+     * use {@link CpeCanonicalizer} or {@link CpeDiff} to drop duplicates.
+     *
+     * @param source the entries to sort
+     * @return an iterator over the sorted entries, which must be closed
+     * unless it is fully iterated
+     * @throws IOException thrown if a run cannot be written
+     */
+    public SortedIterator sort(Iterator<? extends Cpe> source) throws IOException {
+        return sort(source, false);
+    }
+
+    /**
+     * Parses the given CPE strings with {@link CpeParser} and sorts them.
+     * Strings that cannot be parsed are skipped.
+     *
+     * @param lines the CPE strings to sort
+     * @return an iterator over the sorted entries, which must be closed
+     * unless it is fully iterated
+     * @throws IOException thrown if a run cannot be written
+     */
+    public SortedIterator sortLines(Iterator<String> lines) throws IOException {
+        return sort(lines, true);
+    }
+
+    /**
+     * Parses a file containing one CPE string per line and sorts the entries.
+     * Blank lines and lines that cannot be parsed are skipped.
+     *
+     * @param file the UTF-8 encoded file
+     * @return an iterator over the sorted entries, which must be closed
+     * unless it is fully iterated
+     * @throws IOException thrown if the file cannot be read or a run cannot
+     * be written
+     */
+    public SortedIterator sort(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return sort(reader.lines().filter(line -> !line.trim().isEmpty()).iterator(), true);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Sorts the given source.
+     *
+     * @param source the entries or CPE strings to sort
+     * @param parse whether the source contains CPE strings to parse
+     * @return an iterator over the sorted entries
+     * @throws IOException thrown if a run cannot be written
+     */
+    private SortedIterator sort(Iterator<?> source, boolean parse) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        final List<Future<Path>> pending = new ArrayList<>();
+        final ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+        try {
+            Object[] run = fill(source);
+            while (source.hasNext()) {
+                final Object[] values = run;
+                if (executor == null) {
+                    files.add(write(toSortedRun(values, parse, true)));
+                } else {
+                    pending.add(executor.submit(() -> write(toSortedRun(values, parse, false))));
+                    if (pending.size() >= parallelism) {
+                        files.add(get(pending.remove(0)));
+                    }
+                }
+                run = fill(source);
+            }
+            final Cpe[] memory = toSortedRun(run, parse, true);
+            while (!pending.isEmpty()) {
+                files.add(get(pending.remove(0)));
+            }
+            return new SortedIterator(files, memory, order);
+        } catch (IOException | RuntimeException ex) {
+            for (Future<Path> future : pending) {
+                try {
+                    files.add(get(future));
+                } catch (IOException | RuntimeException ignore) {
+                    LOG.trace("Ignoring failed sort run", ignore);
+                }
+            }
+            delete(files);
+            throw ex;
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Waits for a run to be written.
+     *
+     * @param future the task writing the run
+     * @return the temporary file
+     * @throws IOException thrown if the run could not be written
+     */
+    private static Path get(Future<Path> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while sorting");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            } else if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IOException("Unable to sort run", ex.getCause());
+        }
+    }
+
+    /**
+     * Reads the next run from the source.
+     *
+     * @param source the source
+     * @return the entries read
+     */
+    private Object[] fill(Iterator<?> source) {
+        final Object[] run = new Object[runSize];
+        int count = 0;
+        while (count < run.length && source.hasNext()) {
+            run[count++] = source.next();
+        }
+        return count == run.length ? run : Arrays.copyOf(run, count);
+    }
+
+    /**
+     * Converts a run into sorted entries, parsing it if needed.
+     *
+     * @param values the entries or CPE strings of the run
+     * @param parse whether the run contains CPE strings to parse
+     * @param parallel whether to use a parallel sort
+     * @return the sorted entries
+     */
+    private Cpe[] toSortedRun(Object[] values, boolean parse, boolean parallel) {
+        Cpe[] run = new Cpe[values.length];
+        int count = 0;
+        for (Object value : values) {
+            if (!parse) {
+                run[count++] = (Cpe) value;
+            } else {
+                try {
+                    final Cpe cpe = CpeParser.parse((String) value);
+                    run[count++] = cpe;
+                } catch (CpeParsingException ex) {
+                    invalidCount.increment();
+                    LOG.debug("Skipping invalid CPE: {}", value);
+                }
+            }
+        }
+        if (count < run.length) {
+            run = Arrays.copyOf(run, count);
+        }
+        if (parallel) {
+            Arrays.parallelSort(run, order);
+        } else {
+            Arrays.sort(run, order);
+        }
+        return run;
+    }
+
+    /**
+     * Writes a sorted run to a temporary file. Each entry is written as the
+     * part abbreviation followed by the ten well formed attribute values; a
+     * value is written as a single byte for ANY or NA, and otherwise as its
+     * UTF-8 length plus two, as a variable length integer, followed by the
+     * UTF-8 bytes.
+     *
+     * @param run the run
+     * @return the temporary file
+     * @throws IOException thrown if the run cannot be written
+     */
+    private Path write(Cpe[] run) throws IOException {
+        final Path file = directory == null ? Files.createTempFile("cpe-run", ".bin")
+                : Files.createTempFile(directory, "cpe-run", ".bin");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                65536))) {
+            for (Cpe cpe : run) {
+                out.writeByte(cpe.getPart().getAbbreviation().charAt(0));
+                for (int x = 1; x < ATTRIBUTES.length; x++) {
+                    writeValue(out, cpe.getWellFormed(ATTRIBUTES[x]));
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+        LOG.debug("Wrote sort run of {} entries to {}", run.length, file);
+        return file;
+    }
+
+    /**
+     * Writes a well formed value to a run.
+     *
+     * @param out the run being written
+     * @param value the well formed value
+     * @throws IOException thrown if the value cannot be written
+     */
+    private static void writeValue(DataOutputStream out, String value) throws IOException {
+        if (ANY.equals(value)) {
+            out.writeByte(0);
+        } else if (NA.equals(value)) {
+            out.writeByte(1);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int length = bytes.length + 2;
+            while (length >= 0x80) {
+                out.writeByte((length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            out.writeByte(length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a well formed value from a run.
+     *
+     * @param in the run being read
+     * @return the well formed value
+     * @throws IOException thrown if the value cannot be read
+     */
+    private static String readValue(DataInputStream in) throws IOException {
+        int length = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        if (length == 0) {
+            return ANY;
+        } else if (length == 1) {
+            return NA;
+        }
+        final byte[] bytes = new byte[length - 2];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deletes the given files, logging any failure.
+     *
+     * @param files the files to delete
+     */
+    private static void delete(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                LOG.warn("Unable to delete temporary file " + file, ex);
+            }
+        }
+    }
+
+    /**
+     * A sorted run being merged.
+     */
+    private abstract static class Run {
+
+        /**
+         * The position of the run, used to keep the merge stable.
+         */
+        private final int position;
+        /**
+         * The current entry of the run.
+         */
+        private Cpe head;
+
+        /**
+         * Constructs a new run.
+         *
+         * @param position the position of the run
+         */
+        Run(int position) {
+            this.position = position;
+        }
+
+        /**
+         * Reads the next entry of the run.
+         *
+         * @return the next entry, or <code>null</code> if the run is exhausted
+         * @throws IOException thrown if the run cannot be read
+         */
+        abstract Cpe read() throws IOException;
+
+        /**
+         * Releases the resources of the run.
+         *
+         * @throws IOException thrown if the run cannot be closed
+         */
+        void close() throws IOException {
+        }
+
+        /**
+         * Advances to the next entry of the run.
+         *
+         * @return <code>true</code> if the run has a current entry
+         * @throws IOException thrown if the run cannot be read
+         */
+        boolean advance() throws IOException {
+            head = read();
+            return head != null;
+        }
+    }
+
+    /**
+     * A run held in memory.
+     */
+    private static final class MemoryRun extends Run {
+
+        /**
+         * The entries.
+         */
+        private final Cpe[] entries;
+        /**
+         * The next entry.
+         */
+        private int next;
+
+        /**
+         * Constructs a new run.
+         *
+         * @param position the position of the run
+         * @param entries the sorted entries
+         */
+        MemoryRun(int position, Cpe[] entries) {
+            super(position);
+            this.entries = entries;
+        }
+
+        @Override
+        Cpe read() {
+            return next < entries.length ? entries[next++] : null;
+        }
+    }
+
+    /**
+     * A run read from a temporary file.
+     */
+    private static final class FileRun extends Run {
+
+        /**
+         * The input stream.
+         */
+        private final DataInputStream in;
+
+        /**
+         * Constructs a new run.
+         *
+         * @param position the position of the run
+         * @param file the temporary file
+         * @throws IOException thrown if the file cannot be opened
+         */
+        FileRun(int position, Path file) throws IOException {
+            super(position);
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 65536));
+        }
+
+        @Override
+        Cpe read() throws IOException {
+            final int abbreviation = in.read();
+            if (abbreviation < 0) {
+                return null;
+            }
+            try {
+                //the runs are written from validated entries
+                final Part part = Part.getEnum(String.valueOf((char) abbreviation));
+                return Cpe.trusted(part, readValue(in), readValue(in), readValue(in), readValue(in), readValue(in),
+                        readValue(in), readValue(in), readValue(in), readValue(in), readValue(in));
+            } catch (CpeParsingException ex) {
+                throw new IOException("Invalid entry in sort run", ex);
+            } catch (EOFException ex) {
+                throw new IOException("Truncated sort run", ex);
+            }
+        }
+
+        @Override
+        void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * An iterator over the sorted entries that merges the runs. Closing the
+     * iterator deletes the temporary files.
+     */
+    public static final class SortedIterator implements Iterator<Cpe>, Closeable {
+
+        /**
+         * The temporary files.
+         */
+        private final List<Path> files;
+        /**
+         * The runs being merged, ordered by their current entry.
+         */
+        private final PriorityQueue<Run> queue;
+        /**
+         * All runs, for closing.
+         */
+        private final List<Run> runs = new ArrayList<>();
+
+        /**
+         * Constructs a new iterator.
+         *
+         * @param files the sorted runs written to temporary files
+         * @param memory the last sorted run, held in memory
+         * @param order the order of the entries
+         * @throws IOException thrown if a run cannot be read
+         */
+        SortedIterator(List<Path> files, Cpe[] memory, Comparator<? super Cpe> order) throws IOException {
+            this.files = files;
+            final Comparator<Run> byHead = (a, b) -> order.compare(a.head, b.head);
+            this.queue = new PriorityQueue<>(files.size() + 1, byHead.thenComparingInt(r -> r.position));
+            try {
+                for (Path file : files) {
+                    runs.add(new FileRun(runs.size(), file));
+                }
+                runs.add(new MemoryRun(runs.size(), memory));
+                for (Run run : runs) {
+                    if (run.advance()) {
+                        queue.add(run);
+                    }
+                }
+            } catch (IOException ex) {
+                close();
+                throw ex;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (queue.isEmpty()) {
+                close();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Cpe next() {
+            final Run run = queue.poll();
+            if (run == null) {
+                throw new NoSuchElementException();
+            }
+            final Cpe result = run.head;
+            try {
+                if (run.advance()) {
+                    queue.add(run);
+                }
+            } catch (IOException ex) {
+                close();
+                throw new UncheckedIOException(ex);
+            }
+            return result;
+        }
+
+        /**
+         * Closes the runs and deletes the temporary files.
+         */
+        @Override
+        public void close() {
+            queue.clear();
+            for (Run run : runs) {
+                try {
+                    run.close();
+                } catch (IOException ex) {
+                    LOG.debug("Unable to close sort run", ex);
+                }
+            }
+            runs.clear();
+            delete(files);
+            files.clear();
+        }
+    }
+}
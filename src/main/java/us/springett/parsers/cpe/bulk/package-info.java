@@ -0,0 +1,4 @@
+/**
+ * Utilities for processing large numbers of CPE.
+ */
+package us.springett.parsers.cpe.bulk;
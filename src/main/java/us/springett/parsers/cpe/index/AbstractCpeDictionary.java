@@ -0,0 +1,526 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.internal.util.Literals;
+import us.springett.parsers.cpe.util.Convert;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.LogicalValue;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * A skeletal {@link CpeDictionary} over entries stored as UTF-8 encoded well
+ * formed values. Implementations compare an entry against an encoded key and
+ * the lookups are implemented as binary searches on top of that comparison.
+ *
+ * @author Steve Springett
+ */
+abstract class AbstractCpeDictionary implements CpeDictionary {
+
+    /**
+     * The attributes in the order entries are stored and sorted.
+     */
+    static final Attribute[] ORDER = {Attribute.VENDOR, Attribute.PRODUCT, Attribute.PART, Attribute.VERSION,
+        Attribute.UPDATE, Attribute.EDITION, Attribute.LANGUAGE, Attribute.SW_EDITION, Attribute.TARGET_SW,
+        Attribute.TARGET_HW, Attribute.OTHER};
+    /**
+     * The number of fields in an entry.
+     */
+    static final int FIELD_COUNT = ORDER.length;
+    /**
+     * The field position of each attribute, indexed by attribute ordinal.
+     */
+    static final int[] POSITION = new int[FIELD_COUNT];
+    /**
+     * The order of the entries; see {@link CpeDictionary#order()}.
+     */
+    static final Comparator<ICpe> ENTRY_ORDER = AbstractCpeDictionary::compareEntries;
+    /**
+     * The well formed value of ANY.
+     */
+    private static final String ANY = LogicalValue.ANY.getAbbreviation();
+    /**
+     * The parts by the ASCII code of their abbreviation.
+     */
+    private static final Part[] PARTS = new Part[0x80];
+
+    static {
+        for (int x = 0; x < FIELD_COUNT; x++) {
+            POSITION[ORDER[x].ordinal()] = x;
+        }
+        for (Part part : Part.values()) {
+            PARTS[part.getAbbreviation().charAt(0)] = part;
+        }
+    }
+
+    /**
+     * Returns the part with the given abbreviation.
+     *
+     * @param abbreviation the encoded, single byte abbreviation
+     * @return the part, or <code>null</code> if the abbreviation is invalid
+     */
+    static Part part(byte abbreviation) {
+        return abbreviation >= 0 ? PARTS[abbreviation] : null;
+    }
+
+    /**
+     * Compares the leading fields of the entry at the given position to the
+     * key, ignoring case.
+     *
+     * @param index the position of the entry
+     * @param key the UTF-8 encoded well formed values of the key, in storage
+     * order
+     * @param fields the number of fields to compare
+     * @return a negative number, zero, or a positive number if the entry sorts
+     * before, equal to, or after the key
+     */
+    abstract int compare(int index, byte[][] key, int fields);
+
+    /**
+     * Encodes the well formed values of the given CPE in storage order.
+     *
+     * @param cpe the CPE
+     * @return the encoded values
+     */
+    static byte[][] key(ICpe cpe) {
+        final byte[][] key = new byte[FIELD_COUNT][];
+        for (int x = 0; x < FIELD_COUNT; x++) {
+            key[x] = cpe.getWellFormed(ORDER[x]).getBytes(StandardCharsets.UTF_8);
+        }
+        return key;
+    }
+
+    /**
+     * Encodes the given well formed values.
+     *
+     * @param values the well formed values, in storage order
+     * @return the encoded values
+     */
+    static byte[][] key(String... values) {
+        final byte[][] key = new byte[values.length][];
+        for (int x = 0; x < values.length; x++) {
+            key[x] = values[x].getBytes(StandardCharsets.UTF_8);
+        }
+        return key;
+    }
+
+    /**
+     * Compares two CPE in dictionary order.
+     *
+     * @param a the first CPE
+     * @param b the second CPE
+     * @return a negative number, zero, or a positive number if the first CPE
+     * sorts before, equal to, or after the second CPE
+     */
+    static int compareEntries(ICpe a, ICpe b) {
+        for (int x = 0; x < FIELD_COUNT; x++) {
+            final int result = compare(a.getWellFormed(ORDER[x]), b.getWellFormed(ORDER[x]), true);
+            if (result != 0) {
+                return result;
+            }
+        }
+        for (int x = 0; x < FIELD_COUNT; x++) {
+            final int result = compare(a.getWellFormed(ORDER[x]), b.getWellFormed(ORDER[x]), false);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares two values by code point, which is the same order as comparing
+     * their UTF-8 encoding.
+     *
+     * @param a the first value
+     * @param b the second value
+     * @param ignoreCase whether to fold the case of each code point, consistent
+     * with {@link String#equalsIgnoreCase(String)}, before comparing
+     * @return the sort order
+     */
+    static int compare(String a, String b, boolean ignoreCase) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+            if (ignoreCase) {
+                ca = Character.toLowerCase(Character.toUpperCase(ca));
+                cb = Character.toLowerCase(Character.toUpperCase(cb));
+            }
+            if (ca != cb) {
+                return ca - cb;
+            }
+        }
+        return (a.length() - i) - (b.length() - j);
+    }
+
+    /**
+     * Compares a value to an encoded value ignoring case. ASCII values are
+     * compared directly; otherwise the comparison is that of
+     * {@link #compare(String, String, boolean)}.
+     *
+     * @param value the value
+     * @param key the UTF-8 encoded value to compare to
+     * @return a negative number, zero, or a positive number if the value sorts
+     * before, equal to, or after the encoded value
+     */
+    static int compareIgnoreCase(String value, byte[] key) {
+        final int common = Math.min(value.length(), key.length);
+        for (int x = 0; x < common; x++) {
+            final char c = value.charAt(x);
+            if (c >= 0x80 || key[x] < 0) {
+                return compare(value, new String(key, StandardCharsets.UTF_8), true);
+            }
+            final int a = fold((byte) c);
+            final int b = fold(key[x]);
+            if (a != b) {
+                return a - b;
+            }
+        }
+        if (value.length() > common) {
+            return 1;
+        }
+        return common - key.length;
+    }
+
+    /**
+     * Compares an encoded value in a buffer to an encoded value ignoring case.
+     * ASCII values are compared directly; otherwise the comparison is that of
+     * {@link #compare(String, String, boolean)}.
+     *
+     * @param buffer the buffer
+     * @param position the position of the value in the buffer
+     * @param length the length of the value in the buffer
+     * @param value the value to compare to
+     * @return a negative number, zero, or a positive number if the value in
+     * the buffer sorts before, equal to, or after the given value
+     */
+    static int compareIgnoreCase(ByteBuffer buffer, int position, int length, byte[] value) {
+        final int common = Math.min(length, value.length);
+        for (int x = 0; x < common; x++) {
+            final byte a = buffer.get(position + x);
+            final byte b = value[x];
+            if ((a | b) < 0) {
+                return compare(decode(buffer, position, length), new String(value, StandardCharsets.UTF_8), true);
+            }
+            if (a != b && fold(a) != fold(b)) {
+                return fold(a) - fold(b);
+            }
+        }
+        return length - value.length;
+    }
+
+    /**
+     * Compares two encoded values ignoring case. ASCII values are compared
+     * directly; otherwise the comparison is that of
+     * {@link #compare(String, String, boolean)}.
+     *
+     * @param a the buffer containing the first value
+     * @param aFrom the position of the first value
+     * @param aLength the length of the first value
+     * @param b the buffer containing the second value
+     * @param bFrom the position of the second value
+     * @param bLength the length of the second value
+     * @return a negative number, zero, or a positive number if the first
+     * value sorts before, equal to, or after the second value
+     */
+    static int compareIgnoreCase(byte[] a, int aFrom, int aLength, byte[] b, int bFrom, int bLength) {
+        final int common = Math.min(aLength, bLength);
+        for (int x = 0; x < common; x++) {
+            final byte ca = a[aFrom + x];
+            final byte cb = b[bFrom + x];
+            if ((ca | cb) < 0) {
+                return compare(new String(a, aFrom, aLength, StandardCharsets.UTF_8),
+                        new String(b, bFrom, bLength, StandardCharsets.UTF_8), true);
+            }
+            if (ca != cb && fold(ca) != fold(cb)) {
+                return fold(ca) - fold(cb);
+            }
+        }
+        return aLength - bLength;
+    }
+
+    /**
+     * Converts an ASCII upper case letter to lower case; for ASCII bytes this
+     * is the same as the folding of {@link String#equalsIgnoreCase(String)}.
+     *
+     * @param b the ASCII byte
+     * @return the folded byte
+     */
+    static int fold(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+
+    /**
+     * Decodes a UTF-8 value from a buffer; ASCII values, by far the most
+     * common, are decoded without an intermediate byte array.
+     *
+     * @param buffer the buffer
+     * @param position the position of the value
+     * @param length the length of the value
+     * @return the decoded value
+     */
+    static String decode(ByteBuffer buffer, int position, int length) {
+        final char[] chars = new char[length];
+        for (int x = 0; x < length; x++) {
+            final byte b = buffer.get(position + x);
+            if (b < 0) {
+                final byte[] bytes = new byte[length];
+                for (int y = 0; y < length; y++) {
+                    bytes[y] = buffer.get(position + y);
+                }
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            chars[x] = (char) b;
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public int indexOf(ICpe cpe) {
+        final byte[][] key = key(cpe);
+        final int index = lowerBound(key, FIELD_COUNT, 0, size());
+        if (index < size() && compare(index, key, FIELD_COUNT) == 0) {
+            return index;
+        }
+        return -1;
+    }
+
+    @Override
+    public List<ICpe> findByVendor(String vendor) {
+        return range(find(key(Convert.toWellFormed(vendor)), 1));
+    }
+
+    @Override
+    public List<ICpe> findByProduct(String vendor, String product) {
+        return range(find(key(Convert.toWellFormed(vendor), Convert.toWellFormed(product)), 2));
+    }
+
+    @Override
+    public List<ICpe> findMatches(ICpe source) {
+        final List<ICpe> result = new ArrayList<>();
+        for (int[] range : ranges(source, new HashMap<>())) {
+            for (int x = range[0]; x < range[1]; x++) {
+                final ICpe entry = get(x);
+                if (source.matches(entry)) {
+                    result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The range searches are performed once per distinct vendor (and product)
+     * of the batch, and each entry of a range is read once for all of the
+     * sources examining that range.</p>
+     */
+    @Override
+    public List<List<ICpe>> findAllMatches(List<? extends ICpe> sources) {
+        final Map<List<String>, int[]> found = new HashMap<>();
+        final Map<int[], List<Integer>> readers = new IdentityHashMap<>();
+        final List<List<ICpe>> results = new ArrayList<>(sources.size());
+        for (int s = 0; s < sources.size(); s++) {
+            results.add(new ArrayList<>());
+            for (int[] range : ranges(sources.get(s), found)) {
+                readers.computeIfAbsent(range, r -> new ArrayList<>()).add(s);
+            }
+        }
+        //ranges are read in dictionary order; the ranges of one source are disjoint,
+        //so each result is in dictionary order as well
+        final List<int[]> ordered = new ArrayList<>(readers.keySet());
+        ordered.sort((a, b) -> Integer.compare(a[0], b[0]));
+        for (int[] range : ordered) {
+            final List<Integer> group = readers.get(range);
+            for (int x = range[0]; x < range[1]; x++) {
+                final ICpe entry = get(x);
+                for (int s : group) {
+                    if (sources.get(s).matches(entry)) {
+                        results.get(s).add(entry);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the ranges of entries that may be matched by the given CPE.
+     *
+     * @param source the source CPE
+     * @param found the ranges already found by key, shared by the sources of a
+     * batch
+     * @return the disjoint, non-empty ranges in dictionary order
+     */
+    private List<int[]> ranges(ICpe source, Map<List<String>, int[]> found) {
+        final String vendor = source.getWellFormedVendor();
+        final String product = source.getWellFormedProduct();
+        final List<int[]> ranges = new ArrayList<>();
+        if (!Literals.isLiteral(vendor)) {
+            ranges.add(found.computeIfAbsent(Collections.emptyList(), k -> new int[]{0, size()}));
+        } else {
+            //a literal also matches ANY, so the entries with ANY are examined as well
+            final String[] vendors = ANY.equals(vendor) ? new String[]{vendor} : new String[]{vendor, ANY};
+            final boolean literalProduct = Literals.isLiteral(product);
+            final String[] products = !literalProduct || ANY.equals(product)
+                    ? new String[]{product} : new String[]{product, ANY};
+            for (String v : vendors) {
+                if (literalProduct) {
+                    for (String p : products) {
+                        ranges.add(found.computeIfAbsent(Arrays.asList(v, p), k -> find(key(v, p), 2)));
+                    }
+                } else {
+                    ranges.add(found.computeIfAbsent(Collections.singletonList(v), k -> find(key(v), 1)));
+                }
+            }
+            ranges.removeIf(range -> range[0] >= range[1]);
+            ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns the range of entries whose leading fields are equal to the key.
+     *
+     * @param key the encoded key
+     * @param fields the number of fields in the key
+     * @return the first entry, inclusive, and the last entry, exclusive
+     */
+    int[] find(byte[][] key, int fields) {
+        final int start = lowerBound(key, fields, 0, size());
+        return new int[]{start, upperBound(key, fields, start, size())};
+    }
+
+    /**
+     * Returns the position of the first entry in the given range whose leading
+     * fields are not less than the key.
+     *
+     * @param key the encoded key
+     * @param fields the number of fields in the key
+     * @param from the first entry to search, inclusive
+     * @param to the last entry to search, exclusive
+     * @return the position
+     */
+    int lowerBound(byte[][] key, int fields, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compare(mid, key, fields) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position of the first entry in the given range whose leading
+     * fields are greater than the key.
+     *
+     * @param key the encoded key
+     * @param fields the number of fields in the key
+     * @param from the first entry to search, inclusive
+     * @param to the last entry to search, exclusive
+     * @return the position
+     */
+    int upperBound(byte[][] key, int fields, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compare(mid, key, fields) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns a view of the entries in the given range.
+     *
+     * @param range the first entry, inclusive, and the last entry, exclusive
+     * @return the entries
+     */
+    List<ICpe> range(int[] range) {
+        if (range[0] >= range[1]) {
+            return Collections.emptyList();
+        }
+        return new RangeList(range[0], range[1]);
+    }
+
+    /**
+     * A view of a range of entries.
+     */
+    private final class RangeList extends AbstractList<ICpe> implements RandomAccess {
+
+        /**
+         * The first entry, inclusive.
+         */
+        private final int start;
+        /**
+         * The last entry, exclusive.
+         */
+        private final int end;
+
+        /**
+         * Constructs a new range view.
+         *
+         * @param start the first entry, inclusive
+         * @param end the last entry, exclusive
+         */
+        RangeList(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public ICpe get(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (end - start));
+            }
+            return AbstractCpeDictionary.this.get(start + index);
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.internal.util.Cpe23PartIterator;
+import us.springett.parsers.cpe.internal.util.Literals;
+import us.springett.parsers.cpe.internal.util.Murmur3;
+import us.springett.parsers.cpe.util.Convert;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * A blocked Bloom filter over the part, vendor, and product of a set of CPE
+ * (for instance the vulnerable configurations of a vulnerability feed). It is
+ * used to cheaply rule out inventory CPE that cannot be matched by any CPE in
+ * the set before running the full matching logic.</p>
+ * <p>
+ * {@link #mightMatch(ICpe)} never returns <code>false</code> for a target
+ * that is matched (see {@link us.springett.parsers.cpe.Cpe#matches(ICpe)}) by
+ * at least one CPE added to the filter. Entries whose part, vendor, or product
+ * is ANY or contains wild cards are stored with a placeholder for that
+ * attribute and are found by every target; targets that are not literal in
+ * those attributes always pass the filter.</p>
+ * <p>
+ * Each key sets all of its bits within a single 512-bit block so that a query
+ * touches one cache line per probe. The filter is not thread safe while
+ * entries are being added; once built it can be queried concurrently.</p>
+ *
+ * @author Steve Springett
+ */
+public class CpeBloomFilter {
+
+    /**
+     * Identifies the serialized form.
+     */
+    private static final int MAGIC = 0x43504542;
+    /**
+     * The version of the serialized form.
+     */
+    private static final int FORMAT_VERSION = 1;
+    /**
+     * The number of longs in a block.
+     */
+    private static final int BLOCK_LONGS = 8;
+    /**
+     * The placeholder for attributes that are not literal values.
+     */
+    private static final String PLACEHOLDER = "*";
+
+    /**
+     * The filter bits.
+     */
+    private final long[] bits;
+    /**
+     * The number of blocks.
+     */
+    private final int blockCount;
+    /**
+     * The number of bits set per key.
+     */
+    private final int hashCount;
+    /**
+     * A bit for each combination of placeholders that was added; bit
+     * <code>1 &lt;&lt; (part | vendor &lt;&lt; 1 | product &lt;&lt; 2)</code>
+     * where each flag indicates a placeholder.
+     */
+    private int placeholderMasks;
+    /**
+     * The number of entries added.
+     */
+    private long size;
+
+    /**
+     * Constructs a new empty filter.
+     *
+     * @param expectedEntries the expected number of entries
+     * @param falsePositiveProbability the desired false positive probability
+     * for literal targets, between zero and one exclusive
+     */
+    public CpeBloomFilter(long expectedEntries, double falsePositiveProbability) {
+        if (expectedEntries < 1) {
+            throw new IllegalArgumentException("The expected number of entries must be greater than zero");
+        }
+        if (!(falsePositiveProbability > 0 && falsePositiveProbability < 1)) {
+            throw new IllegalArgumentException("The false positive probability must be between zero and one");
+        }
+        final double ln2 = Math.log(2);
+        //blocking increases the false positive rate; compensate with 20% more bits
+        double bitCount = -expectedEntries * Math.log(falsePositiveProbability) / (ln2 * ln2) * 1.2;
+        long blocks = Math.max(1, (long) Math.ceil(bitCount / (BLOCK_LONGS * 64)));
+        if (blocks > Integer.MAX_VALUE / BLOCK_LONGS) {
+            throw new IllegalArgumentException("The filter would be too large");
+        }
+        this.blockCount = (int) blocks;
+        this.hashCount = (int) Math.max(1, Math.min(16, Math.round(bitCount / expectedEntries * ln2 / 1.2)));
+        this.bits = new long[blockCount * BLOCK_LONGS];
+    }
+
+    /**
+     * Constructs a filter from its serialized state.
+     *
+     * @param bits the filter bits
+     * @param hashCount the number of bits set per key
+     * @param placeholderMasks the placeholder combinations
+     * @param size the number of entries
+     */
+    private CpeBloomFilter(long[] bits, int hashCount, int placeholderMasks, long size) {
+        this.bits = bits;
+        this.blockCount = bits.length / BLOCK_LONGS;
+        this.hashCount = hashCount;
+        this.placeholderMasks = placeholderMasks;
+        this.size = size;
+    }
+
+    /**
+     * Creates a filter containing the given CPE.
+     *
+     * @param cpes the CPE to add
+     * @param falsePositiveProbability the desired false positive probability
+     * @return the filter
+     */
+    public static CpeBloomFilter create(Collection<? extends ICpe> cpes, double falsePositiveProbability) {
+        CpeBloomFilter filter = new CpeBloomFilter(Math.max(1, cpes.size()), falsePositiveProbability);
+        for (ICpe cpe : cpes) {
+            filter.put(cpe);
+        }
+        return filter;
+    }
+
+    /**
+     * Adds the part, vendor, and product of the CPE to the filter.
+     *
+     * @param cpe the CPE to add
+     */
+    public void put(ICpe cpe) {
+        final boolean anyPart = cpe.getPart() == Part.ANY;
+        final String vendor = cpe.getWellFormedVendor();
+        final String product = cpe.getWellFormedProduct();
+        final boolean anyVendor = !Literals.isLiteral(vendor);
+        final boolean anyProduct = !Literals.isLiteral(product);
+        placeholderMasks |= 1 << mask(anyPart, anyVendor, anyProduct);
+        set(key(anyPart ? PLACEHOLDER : cpe.getPart().getAbbreviation(),
+                anyVendor ? PLACEHOLDER : vendor,
+                anyProduct ? PLACEHOLDER : product));
+        size++;
+    }
+
+    /**
+     * Determines whether a CPE added to the filter might match the target.
+     *
+     * @param target the target CPE
+     * @return <code>false</code> if no CPE added to the filter matches the
+     * target; <code>true</code> if one might
+     */
+    public boolean mightMatch(ICpe target) {
+        return mightMatch(target.getPart(), target.getWellFormedVendor(), target.getWellFormedProduct());
+    }
+
+    /**
+     * Determines whether a CPE added to the filter might match the target. A
+     * CPE 2.3 Formatted String is checked without parsing the remaining
+     * attributes; a CPE 2.2 URI is parsed.
+     *
+     * @param target the target CPE 2.3 Formatted String or CPE 2.2 URI
+     * @return <code>false</code> if no CPE added to the filter matches the
+     * target; <code>true</code> if one might
+     * @throws CpeParsingException thrown if the target is not a CPE
+     */
+    public boolean mightMatch(String target) throws CpeParsingException {
+        if (target == null || !target.regionMatches(0, "cpe:2.3:", 0, 8)) {
+            return mightMatch(CpeParser.parse(target));
+        }
+        final int[] bounds = new int[4];
+        if (Cpe23PartIterator.split(target, bounds) < 3) {
+            throw new CpeParsingException("Invalid CPE (too few components): " + target);
+        }
+        final Part part = Part.getEnum(target.substring(bounds[0], bounds[1] - 1));
+        return mightMatch(part,
+                Convert.fsToWellFormed(target.substring(bounds[1], bounds[2] - 1)),
+                Convert.fsToWellFormed(target.substring(bounds[2], bounds[3] - 1)));
+    }
+
+    /**
+     * Determines whether a CPE added to the filter might match the target.
+     *
+     * @param part the part of the target
+     * @param vendor the well formed vendor of the target
+     * @param product the well formed product of the target
+     * @return <code>false</code> if no CPE added to the filter matches the
+     * target; <code>true</code> if one might
+     */
+    private boolean mightMatch(Part part, String vendor, String product) {
+        if (part == Part.ANY || !Literals.isLiteral(vendor) || !Literals.isLiteral(product)) {
+            return true;
+        }
+        final String p = part.getAbbreviation();
+        for (int m = 0; m < 8; m++) {
+            if ((placeholderMasks & (1 << m)) != 0
+                    && contains(key((m & 1) != 0 ? PLACEHOLDER : p,
+                            (m & 2) != 0 ? PLACEHOLDER : vendor,
+                            (m & 4) != 0 ? PLACEHOLDER : product))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of entries added to the filter.
+     *
+     * @return the number of entries
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the size of the filter in bytes.
+     *
+     * @return the size of the filter bits in bytes
+     */
+    public long getBitSize() {
+        return (long) bits.length * 8;
+    }
+
+    /**
+     * Writes the filter to the given stream. The stream is not closed.
+     *
+     * @param out the output stream
+     * @throws IOException thrown if the filter cannot be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(hashCount);
+        data.writeInt(placeholderMasks);
+        data.writeLong(size);
+        data.writeInt(bits.length);
+        for (long word : bits) {
+            data.writeLong(word);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a filter written by {@link #writeTo(java.io.OutputStream)}. The
+     * stream is not closed.
+     *
+     * @param in the input stream
+     * @return the filter
+     * @throws IOException thrown if the filter cannot be read
+     */
+    public static CpeBloomFilter readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("The stream does not contain a CPE bloom filter");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported CPE bloom filter version: " + version);
+        }
+        int hashCount = data.readInt();
+        int placeholderMasks = data.readInt();
+        long size = data.readLong();
+        int length = data.readInt();
+        if (hashCount < 1 || length < BLOCK_LONGS || length % BLOCK_LONGS != 0) {
+            throw new IOException("The CPE bloom filter is corrupt");
+        }
+        long[] bits = new long[length];
+        for (int x = 0; x < length; x++) {
+            bits[x] = data.readLong();
+        }
+        return new CpeBloomFilter(bits, hashCount, placeholderMasks, size);
+    }
+
+    /**
+     * Computes the placeholder mask index.
+     *
+     * @param anyPart whether the part is a placeholder
+     * @param anyVendor whether the vendor is a placeholder
+     * @param anyProduct whether the product is a placeholder
+     * @return the mask index
+     */
+    private static int mask(boolean anyPart, boolean anyVendor, boolean anyProduct) {
+        return (anyPart ? 1 : 0) | (anyVendor ? 2 : 0) | (anyProduct ? 4 : 0);
+    }
+
+    /**
+     * Hashes the key.
+     *
+     * @param part the part
+     * @param vendor the vendor
+     * @param product the product
+     * @return the 128-bit hash
+     */
+    private static long[] key(String part, String vendor, String product) {
+        String key = part + '\0' + Literals.fold(vendor) + '\0' + Literals.fold(product);
+        byte[] data = key.getBytes(StandardCharsets.UTF_8);
+        long[] hash = new long[2];
+        Murmur3.hash128(data, 0, data.length, 0, hash);
+        return hash;
+    }
+
+    /**
+     * Returns the offset of the block for the hash.
+     *
+     * @param hash the hash
+     * @return the offset of the first long of the block
+     */
+    private int block(long[] hash) {
+        return (int) (((hash[0] >>> 32) * blockCount) >>> 32) * BLOCK_LONGS;
+    }
+
+    /**
+     * Sets the bits for the hash.
+     *
+     * @param hash the hash
+     */
+    private void set(long[] hash) {
+        final int offset = block(hash);
+        long h = hash[1];
+        final long step = Long.rotateLeft(hash[0], 32) | 1;
+        for (int i = 0; i < hashCount; i++, h += step) {
+            final int bit = (int) (h >>> 55);
+            bits[offset + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Determines whether all bits for the hash are set.
+     *
+     * @param hash the hash
+     * @return <code>true</code> if all bits are set
+     */
+    private boolean contains(long[] hash) {
+        final int offset = block(hash);
+        long h = hash[1];
+        final long step = Long.rotateLeft(hash[0], 32) | 1;
+        for (int i = 0; i < hashCount; i++, h += step) {
+            final int bit = (int) (h >>> 55);
+            if ((bits[offset + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.bulk.CpeDiff;
+
+/**
+ * <p>
+ * A set of changes to a CPE dictionary: entries that were added, entries that
+ * were deprecated, and entries that were removed. A delta is applied to a
+ * {@link VersionedCpeDictionary} with
+ * {@link VersionedCpeDictionary#apply(CpeDelta)}.</p>
+ * <p>
+ * Additions and removals can be computed by {@link #compute(Iterator, Iterator)}
+ * from two versions of a dictionary. Deprecation is not part of a CPE name
+ * and is therefore taken from the dictionary feed and passed to the
+ * constructor.</p>
+ *
+ * @author Steve Springett
+ */
+public class CpeDelta {
+
+    /**
+     * The entries that were added, in dictionary order.
+     */
+    private final List<ICpe> added;
+    /**
+     * The entries that were deprecated, in dictionary order.
+     */
+    private final List<ICpe> deprecated;
+    /**
+     * The entries that were removed, in dictionary order.
+     */
+    private final List<ICpe> removed;
+
+    /**
+     * Constructs a new delta.
+     *
+     * @param added the entries that were added
+     * @param deprecated the entries that were deprecated
+     * @param removed the entries that were removed
+     */
+    public CpeDelta(Collection<? extends ICpe> added, Collection<? extends ICpe> deprecated,
+            Collection<? extends ICpe> removed) {
+        this.added = sorted(added);
+        this.deprecated = sorted(deprecated);
+        this.removed = sorted(removed);
+    }
+
+    /**
+     * Returns an unmodifiable copy of the entries sorted in dictionary order
+     * without duplicates.
+     *
+     * @param cpes the entries
+     * @return the sorted entries
+     */
+    private static List<ICpe> sorted(Collection<? extends ICpe> cpes) {
+        final List<ICpe> result = new ArrayList<>(cpes);
+        result.sort(CpeDictionary.order());
+        int count = 0;
+        for (int x = 0; x < result.size(); x++) {
+            if (count == 0 || CpeDictionary.order().compare(result.get(count - 1), result.get(x)) != 0) {
+                result.set(count++, result.get(x));
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(result.subList(0, count)));
+    }
+
+    /**
+     * Computes the entries that were added and removed between two versions
+     * of a dictionary in a single merge pass. Both iterators must return the
+     * entries in dictionary order (see {@link CpeDictionary#order()}), as is
+     * the case when iterating a {@link CpeDictionary}.
+     *
+     * @param previous the entries of the previous version
+     * @param current the entries of the current version
+     * @return the delta from the previous to the current version
+     * @throws IllegalArgumentException thrown if either iterator is not in
+     * dictionary order
+     * @see CpeDiff
+     */
+    public static CpeDelta compute(Iterator<? extends ICpe> previous, Iterator<? extends ICpe> current) {
+        final List<ICpe> added = new ArrayList<>();
+        final List<ICpe> removed = new ArrayList<>();
+        CpeDiff.diff(previous, current, CpeDictionary.order(), new CpeDiff.Listener<ICpe>() {
+            @Override
+            public void added(ICpe cpe) {
+                added.add(cpe);
+            }
+
+            @Override
+            public void removed(ICpe cpe) {
+                removed.add(cpe);
+            }
+        });
+        return new CpeDelta(added, Collections.<ICpe>emptyList(), removed);
+    }
+
+    /**
+     * Returns the entries that were added, in dictionary order.
+     *
+     * @return the entries that were added
+     */
+    public List<ICpe> getAdded() {
+        return added;
+    }
+
+    /**
+     * Returns the entries that were deprecated, in dictionary order.
+     *
+     * @return the entries that were deprecated
+     */
+    public List<ICpe> getDeprecated() {
+        return deprecated;
+    }
+
+    /**
+     * Returns the entries that were removed, in dictionary order.
+     *
+     * @return the entries that were removed
+     */
+    public List<ICpe> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Determines whether the delta contains any changes.
+     *
+     * @return <code>true</code> if the delta contains no changes
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && deprecated.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import us.springett.parsers.cpe.ICpe;
+
+/**
+ * <p>
+ * A read-only, sorted collection of CPE such as the NVD CPE dictionary.
+ * Entries are ordered case insensitively by vendor, product, part, and then
+ * the remaining attributes, so that all entries for a vendor or a vendor and
+ * product are adjacent.</p>
+ * <p>
+ * Lookups compare attributes case insensitively, consistent with CPE
+ * matching. Vendor and product arguments are the decoded values (as returned
+ * by {@link ICpe#getVendor()}).</p>
+ *
+ * @author Steve Springett
+ */
+public interface CpeDictionary extends Iterable<ICpe> {
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    int size();
+
+    /**
+     * Returns the entry at the given position.
+     *
+     * @param index the position of the entry
+     * @return the entry
+     * @throws IndexOutOfBoundsException thrown if the index is out of range
+     */
+    ICpe get(int index);
+
+    /**
+     * Returns the position of the first entry equal (ignoring case) to the
+     * given CPE.
+     *
+     * @param cpe the CPE to look up
+     * @return the position of the entry, or <code>-1</code> if there is none
+     */
+    int indexOf(ICpe cpe);
+
+    /**
+     * Returns the entries with the given vendor.
+     *
+     * @param vendor the vendor
+     * @return the entries, in dictionary order
+     */
+    List<ICpe> findByVendor(String vendor);
+
+    /**
+     * Returns the entries with the given vendor and product.
+     *
+     * @param vendor the vendor
+     * @param product the product
+     * @return the entries, in dictionary order
+     */
+    List<ICpe> findByProduct(String vendor, String product);
+
+    /**
+     * Returns the entries matched by the given CPE, i.e. the entries for which
+     * <code>source.matches(entry)</code> is <code>true</code>. When the
+     * vendor (and product) of the source are literal values only the
+     * corresponding range of the dictionary is examined.
+     *
+     * @param source the source CPE, which may contain wild cards
+     * @return the matching entries, in dictionary order
+     */
+    List<ICpe> findMatches(ICpe source);
+
+    /**
+     * Returns the entries matched by each of the given CPE; equivalent to
+     * calling {@link #findMatches(ICpe)} for each source, but implementations
+     * may share the work between the sources of a batch.
+     *
+     * @param sources the source CPE, which may contain wild cards
+     * @return the matching entries of each source, in the order of the
+     * sources; each list in dictionary order
+     */
+    default List<List<ICpe>> findAllMatches(List<? extends ICpe> sources) {
+        final List<List<ICpe>> results = new ArrayList<>(sources.size());
+        for (ICpe source : sources) {
+            results.add(findMatches(source));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the order of the entries in a dictionary: case insensitive by
+     * vendor, product, part, and the remaining attributes, with entries that
+     * differ only in case ordered by their exact values.
+     *
+     * @return the order of the entries
+     */
+    static Comparator<ICpe> order() {
+        return AbstractCpeDictionary.ENTRY_ORDER;
+    }
+
+    /**
+     * Returns the entry equal (ignoring case) to the given CPE.
+     *
+     * @param cpe the CPE to look up
+     * @return the entry, or <code>null</code> if there is none
+     */
+    default ICpe find(ICpe cpe) {
+        int index = indexOf(cpe);
+        return index < 0 ? null : get(index);
+    }
+
+    /**
+     * Determines whether the dictionary contains an entry equal (ignoring
+     * case) to the given CPE.
+     *
+     * @param cpe the CPE to look up
+     * @return <code>true</code> if the dictionary contains the CPE
+     */
+    default boolean contains(ICpe cpe) {
+        return indexOf(cpe) >= 0;
+    }
+
+    @Override
+    default Iterator<ICpe> iterator() {
+        return new Iterator<ICpe>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public ICpe next() {
+                if (next >= size()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+}
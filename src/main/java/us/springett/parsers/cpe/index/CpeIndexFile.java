@@ -0,0 +1,340 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import us.springett.parsers.cpe.AbstractCpe;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * A {@link CpeDictionary} backed by an immutable index file written by
+ * {@link CpeIndexWriter}. Opening an index maps the file into memory and
+ * checks the string offsets, records, and lookup tables in one sequential
+ * pass, so that a corrupt file is rejected up front; nothing is parsed or
+ * copied onto the heap. Because the file is
+ * mapped read-only, every JVM on a host that opens the same file shares the
+ * same pages of the operating system's page cache.</p>
+ * <p>
+ * Entries are returned as views that decode attributes from the mapped file
+ * on access. Vendor and vendor/product lookups use the lookup tables of the
+ * index. An index file is limited to 2 GB and may be shared between
+ * threads.</p>
+ *
+ * @author Steve Springett
+ */
+public class CpeIndexFile extends AbstractCpeDictionary {
+
+    /**
+     * The index data.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The number of records.
+     */
+    private final int size;
+    /**
+     * The number of strings.
+     */
+    private final int stringCount;
+    /**
+     * The number of distinct vendors.
+     */
+    private final int vendorCount;
+    /**
+     * The number of distinct vendor and product combinations.
+     */
+    private final int productCount;
+    /**
+     * The position of the string offsets.
+     */
+    private final int offsetsPos;
+    /**
+     * The position of the records.
+     */
+    private final int recordsPos;
+    /**
+     * The position of the vendor table.
+     */
+    private final int vendorsPos;
+    /**
+     * The position of the product table.
+     */
+    private final int productsPos;
+    /**
+     * The position of the string data.
+     */
+    private final int dataPos;
+
+    /**
+     * Constructs a new index over the given data.
+     *
+     * @param buffer the index data
+     * @throws IOException thrown if the data is not a valid index
+     */
+    CpeIndexFile(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < CpeIndexWriter.HEADER_LENGTH || buffer.getInt(0) != CpeIndexWriter.MAGIC) {
+            throw new IOException("The file is not a CPE index");
+        }
+        final int version = buffer.getInt(4);
+        if (version != CpeIndexWriter.VERSION) {
+            throw new IOException("Unsupported CPE index version: " + version);
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+        this.stringCount = buffer.getInt(12);
+        this.vendorCount = buffer.getInt(16);
+        this.productCount = buffer.getInt(20);
+        this.offsetsPos = buffer.getInt(24);
+        this.recordsPos = buffer.getInt(28);
+        this.vendorsPos = buffer.getInt(32);
+        this.productsPos = buffer.getInt(36);
+        this.dataPos = buffer.getInt(40);
+        if (buffer.getInt(44) != buffer.capacity()
+                || size < 0 || stringCount < 0 || vendorCount < 0 || productCount < 0
+                || offsetsPos != CpeIndexWriter.HEADER_LENGTH
+                || recordsPos != offsetsPos + 4L * (stringCount + 1)
+                || vendorsPos != recordsPos + 4L * FIELD_COUNT * size
+                || productsPos != vendorsPos + 4L * (vendorCount + 1)
+                || dataPos != productsPos + 4L * (productCount + 1)
+                || dataPos + (long) buffer.getInt(offsetsPos + 4 * stringCount) != buffer.capacity()) {
+            throw new IOException("The CPE index is corrupt");
+        }
+        validate();
+    }
+
+    /**
+     * Checks that the string offsets are ordered and within the data, that
+     * every record refers to existing strings and a valid part, and that the
+     * lookup tables are ordered and within the records.
+     *
+     * @throws IOException thrown if the index is corrupt
+     */
+    private void validate() throws IOException {
+        final int dataLength = buffer.capacity() - dataPos;
+        int previous = 0;
+        for (int x = 0; x <= stringCount; x++) {
+            final int offset = buffer.getInt(offsetsPos + x * 4);
+            if (offset < previous || offset > dataLength) {
+                throw new IOException("The CPE index is corrupt");
+            }
+            previous = offset;
+        }
+        final int part = POSITION[Attribute.PART.ordinal()];
+        for (int x = 0; x < size; x++) {
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                final int id = id(x, f);
+                if (id < 0 || id >= stringCount) {
+                    throw new IOException("The CPE index is corrupt");
+                }
+                if (f == part) {
+                    final int start = buffer.getInt(offsetsPos + id * 4);
+                    if (buffer.getInt(offsetsPos + id * 4 + 4) - start != 1
+                            || part(buffer.get(dataPos + start)) == null) {
+                        throw new IOException("The CPE index is corrupt");
+                    }
+                }
+            }
+        }
+        validateTable(vendorsPos, vendorCount);
+        validateTable(productsPos, productCount);
+    }
+
+    /**
+     * Checks that a lookup table starts at the first record, increases
+     * strictly, and ends at the number of records.
+     *
+     * @param table the position of the lookup table
+     * @param count the number of entries in the lookup table
+     * @throws IOException thrown if the table is corrupt
+     */
+    private void validateTable(int table, int count) throws IOException {
+        int previous = -1;
+        for (int x = 0; x <= count; x++) {
+            final int start = buffer.getInt(table + x * 4);
+            if (start <= previous || x == 0 && start != 0 || x == count && start != size) {
+                throw new IOException("The CPE index is corrupt");
+            }
+            previous = start;
+        }
+    }
+
+    /**
+     * Opens an index file by mapping it into memory.
+     *
+     * @param path the path of the index file
+     * @return the index
+     * @throws IOException thrown if the file cannot be read or is not a valid
+     * index
+     */
+    public static CpeIndexFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The CPE index is too large: " + path);
+            }
+            return new CpeIndexFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct vendors in the index.
+     *
+     * @return the number of vendors
+     */
+    public int getVendorCount() {
+        return vendorCount;
+    }
+
+    /**
+     * Returns the number of distinct vendor and product combinations in the
+     * index.
+     *
+     * @return the number of products
+     */
+    public int getProductCount() {
+        return productCount;
+    }
+
+    @Override
+    public ICpe get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new Entry(index);
+    }
+
+    /**
+     * Returns the string id of a field of a record.
+     *
+     * @param index the position of the record
+     * @param field the field position
+     * @return the string id
+     */
+    private int id(int index, int field) {
+        return buffer.getInt(recordsPos + (index * FIELD_COUNT + field) * 4);
+    }
+
+    @Override
+    int compare(int index, byte[][] key, int fields) {
+        for (int f = 0; f < fields; f++) {
+            final int id = id(index, f);
+            final int start = buffer.getInt(offsetsPos + id * 4);
+            final int end = buffer.getInt(offsetsPos + id * 4 + 4);
+            final int result = compareIgnoreCase(buffer, dataPos + start, end - start, key[f]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the range of entries whose leading fields are equal to the key;
+     * vendor and vendor/product keys are looked up in the corresponding table.
+     *
+     * @param key the encoded key
+     * @param fields the number of fields in the key
+     * @return the first entry, inclusive, and the last entry, exclusive
+     */
+    @Override
+    int[] find(byte[][] key, int fields) {
+        if (fields == 1) {
+            return find(key, fields, vendorsPos, vendorCount);
+        } else if (fields == 2) {
+            return find(key, fields, productsPos, productCount);
+        }
+        return super.find(key, fields);
+    }
+
+    /**
+     * Binary searches a lookup table for the key.
+     *
+     * @param key the encoded key
+     * @param fields the number of fields in the key
+     * @param table the position of the lookup table
+     * @param count the number of entries in the lookup table
+     * @return the first entry, inclusive, and the last entry, exclusive
+     */
+    private int[] find(byte[][] key, int fields, int table, int count) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int start = buffer.getInt(table + mid * 4);
+            final int result = compare(start, key, fields);
+            if (result < 0) {
+                low = mid + 1;
+            } else if (result > 0) {
+                high = mid - 1;
+            } else {
+                return new int[]{start, buffer.getInt(table + mid * 4 + 4)};
+            }
+        }
+        return new int[]{0, 0};
+    }
+
+    /**
+     * A view of a record that decodes its attributes from the index.
+     */
+    private final class Entry extends AbstractCpe {
+
+        /**
+         * The position of the record.
+         */
+        private final int index;
+
+        /**
+         * Constructs a new view.
+         *
+         * @param index the position of the record
+         */
+        Entry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Part getPart() {
+            final int id = id(index, POSITION[Attribute.PART.ordinal()]);
+            final byte abbreviation = buffer.get(dataPos + buffer.getInt(offsetsPos + id * 4));
+            final Part part = part(abbreviation);
+            if (part == null) {
+                throw new IllegalStateException("Invalid part stored in the index: " + (char) abbreviation);
+            }
+            return part;
+        }
+
+        @Override
+        public String getWellFormed(Attribute attribute) {
+            final int id = id(index, POSITION[attribute.ordinal()]);
+            final int start = buffer.getInt(offsetsPos + id * 4);
+            final int end = buffer.getInt(offsetsPos + id * 4 + 4);
+            return decode(buffer, dataPos + start, end - start);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.internal.util.ByteArrays;
+
+/**
+ * <p>
+ * Writes a {@link CpeIndexFile}. CPE are added to the writer, which collects
+ * the distinct attribute values into a string table; {@link #write(Path)} then
+ * sorts the records and writes the index.</p>
+ * <pre>
+ * CpeIndexWriter writer = new CpeIndexWriter();
+ * for (Cpe cpe : dictionary) {
+ *     writer.add(cpe);
+ * }
+ * writer.write(Paths.get("cpe.idx"));
+ * </pre>
+ * <p>
+ * The file consists of a header of twelve integers followed by the sections
+ * listed below; all integers are big-endian.</p>
+ * <ol>
+ * <li>the string offsets: <code>stringCount + 1</code> offsets into the string
+ * data</li>
+ * <li>the records: <code>recordCount</code> records of eleven string ids, one
+ * for each attribute in the order vendor, product, part, version, update,
+ * edition, language, sw_edition, target_sw, target_hw, and other; records are
+ * sorted case insensitively in the same order as
+ * {@link OffHeapCpeDictionary}</li>
+ * <li>the vendor table: <code>vendorCount + 1</code> record positions at which
+ * each distinct vendor starts</li>
+ * <li>the product table: <code>productCount + 1</code> record positions at
+ * which each distinct vendor and product starts</li>
+ * <li>the string data: the UTF-8 encoded well formed values</li>
+ * </ol>
+ * <p>
+ * The header contains the magic number, the format version, the four counts
+ * above, the positions of the five sections, and the length of the file.</p>
+ *
+ * @author Steve Springett
+ */
+public class CpeIndexWriter {
+
+    /**
+     * The magic number that starts an index file ("CPEI").
+     */
+    static final int MAGIC = 0x43504549;
+    /**
+     * The version of the index format.
+     */
+    static final int VERSION = 1;
+    /**
+     * The length of the header in bytes.
+     */
+    static final int HEADER_LENGTH = 12 * 4;
+
+    /**
+     * The ids of the strings in the string table.
+     */
+    private final Map<String, Integer> ids = new HashMap<>();
+    /**
+     * The encoded strings, indexed by id.
+     */
+    private final List<byte[]> strings = new ArrayList<>();
+    /**
+     * The records that have been added.
+     */
+    private final List<int[]> records = new ArrayList<>();
+
+    /**
+     * Adds a CPE to the index. Exact duplicates are written once.
+     *
+     * @param cpe the CPE to add
+     * @return a reference to the writer
+     */
+    public CpeIndexWriter add(ICpe cpe) {
+        final int[] record = new int[AbstractCpeDictionary.FIELD_COUNT];
+        for (int x = 0; x < record.length; x++) {
+            record[x] = id(cpe.getWellFormed(AbstractCpeDictionary.ORDER[x]));
+        }
+        records.add(record);
+        return this;
+    }
+
+    /**
+     * Adds each of the CPE to the index.
+     *
+     * @param cpes the CPE to add
+     * @return a reference to the writer
+     */
+    public CpeIndexWriter addAll(Iterable<? extends ICpe> cpes) {
+        for (ICpe cpe : cpes) {
+            add(cpe);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the id of a string, adding it to the string table if needed.
+     *
+     * @param value the string
+     * @return the id of the string
+     */
+    private int id(String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = strings.size();
+            ids.put(value, id);
+            strings.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return id;
+    }
+
+    /**
+     * Writes the index to a file, replacing the file if it exists.
+     *
+     * @param path the path of the file
+     * @throws IOException thrown if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Writes the index to a stream. The stream is not closed.
+     *
+     * @param out the stream to write to
+     * @throws IOException thrown if the index cannot be written or exceeds
+     * 2 GB
+     */
+    public void write(OutputStream out) throws IOException {
+        final int[][] sorted = records.toArray(new int[records.size()][]);
+        Arrays.parallelSort(sorted, this::compare);
+        int count = 0;
+        for (int x = 0; x < sorted.length; x++) {
+            if (count == 0 || !Arrays.equals(sorted[count - 1], sorted[x])) {
+                sorted[count++] = sorted[x];
+            }
+        }
+        final int[] vendors = starts(sorted, count, 1);
+        final int[] products = starts(sorted, count, 2);
+
+        long dataLength = 0;
+        for (byte[] value : strings) {
+            dataLength += value.length;
+        }
+        final long offsetsPos = HEADER_LENGTH;
+        final long recordsPos = offsetsPos + 4L * (strings.size() + 1);
+        final long vendorsPos = recordsPos + 4L * AbstractCpeDictionary.FIELD_COUNT * count;
+        final long productsPos = vendorsPos + 4L * vendors.length;
+        final long dataPos = productsPos + 4L * products.length;
+        final long length = dataPos + dataLength;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("The CPE index would exceed 2 GB");
+        }
+
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 65536));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(count);
+        data.writeInt(strings.size());
+        data.writeInt(vendors.length - 1);
+        data.writeInt(products.length - 1);
+        data.writeInt((int) offsetsPos);
+        data.writeInt((int) recordsPos);
+        data.writeInt((int) vendorsPos);
+        data.writeInt((int) productsPos);
+        data.writeInt((int) dataPos);
+        data.writeInt((int) length);
+        int offset = 0;
+        for (byte[] value : strings) {
+            data.writeInt(offset);
+            offset += value.length;
+        }
+        data.writeInt(offset);
+        for (int x = 0; x < count; x++) {
+            for (int id : sorted[x]) {
+                data.writeInt(id);
+            }
+        }
+        for (int start : vendors) {
+            data.writeInt(start);
+        }
+        for (int start : products) {
+            data.writeInt(start);
+        }
+        for (byte[] value : strings) {
+            data.write(value);
+        }
+        data.flush();
+    }
+
+    /**
+     * Returns the positions at which the leading fields of the sorted records
+     * change, followed by the number of records.
+     *
+     * @param sorted the sorted records
+     * @param count the number of records
+     * @param fields the number of leading fields to compare
+     * @return the start of each group of records
+     */
+    private int[] starts(int[][] sorted, int count, int fields) {
+        final List<Integer> starts = new ArrayList<>();
+        for (int x = 0; x < count; x++) {
+            if (x == 0 || compareFields(sorted[x - 1], sorted[x], fields) != 0) {
+                starts.add(x);
+            }
+        }
+        starts.add(count);
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Compares two records case insensitively, breaking ties between records
+     * that differ only in case by comparing the exact bytes.
+     *
+     * @param a the first record
+     * @param b the second record
+     * @return the sort order
+     */
+    private int compare(int[] a, int[] b) {
+        int result = compareFields(a, b, AbstractCpeDictionary.FIELD_COUNT);
+        for (int x = 0; result == 0 && x < a.length; x++) {
+            if (a[x] != b[x]) {
+                result = compareBytes(strings.get(a[x]), strings.get(b[x]), false);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compares the leading fields of two records case insensitively.
+     *
+     * @param a the first record
+     * @param b the second record
+     * @param fields the number of fields to compare
+     * @return the sort order
+     */
+    private int compareFields(int[] a, int[] b, int fields) {
+        for (int x = 0; x < fields; x++) {
+            if (a[x] != b[x]) {
+                final int result = compareBytes(strings.get(a[x]), strings.get(b[x]), true);
+                if (result != 0) {
+                    return result;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares two encoded strings.
+     *
+     * @param a the first string
+     * @param b the second string
+     * @param ignoreCase whether to compare ignoring case, as the dictionaries
+     * do
+     * @return the sort order
+     */
+    private static int compareBytes(byte[] a, byte[] b, boolean ignoreCase) {
+        if (!ignoreCase) {
+            return ByteArrays.compareUnsigned(a, 0, a.length, b, 0, b.length);
+        }
+        return AbstractCpeDictionary.compareIgnoreCase(a, 0, a.length, b, 0, b.length);
+    }
+}
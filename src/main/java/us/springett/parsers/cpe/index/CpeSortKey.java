@@ -0,0 +1,318 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.internal.util.ByteArrays;
+import us.springett.parsers.cpe.util.Versions;
+import us.springett.parsers.cpe.util.Versions.VersionPart;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * A binary sort key for a CPE. Comparing two keys as unsigned byte sequences
+ * yields the same order as {@link Cpe#compareTo(ICpe)}, so a
+ * collection can be sorted and searched without repeatedly decoding attributes
+ * and splitting versions.</p>
+ * <p>
+ * The key contains the part, vendor, and product, the version split into its
+ * {@link VersionPart}s, and the remaining attributes. Each string is encoded in
+ * an order preserving form followed by a zero terminator; each version part is
+ * preceded by a tag so that integer parts compare numerically and all other
+ * parts compare as text.</p>
+ *
+ * @author Steve Springett
+ */
+public final class CpeSortKey implements Comparable<CpeSortKey>, Serializable {
+
+    /**
+     * The serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Terminates strings and the list of version parts.
+     */
+    private static final int END = 0x00;
+    /**
+     * Tag of a text version part starting with a character less than '0'.
+     */
+    private static final int TAG_TEXT_LOW = 0x01;
+    /**
+     * Tag of a version part consisting of digits with a leading zero.
+     */
+    private static final int TAG_ZERO_PADDED = 0x02;
+    /**
+     * Tag of an integer version part.
+     */
+    private static final int TAG_INTEGER = 0x03;
+    /**
+     * Tag of a text version part starting with a character greater than '9'.
+     */
+    private static final int TAG_TEXT_HIGH = 0x04;
+
+    /**
+     * The encoded key.
+     */
+    private final byte[] key;
+
+    /**
+     * Constructs a new sort key.
+     *
+     * @param key the encoded key
+     */
+    CpeSortKey(byte[] key) {
+        this.key = key;
+    }
+
+    /**
+     * Creates the sort key for the given CPE.
+     *
+     * @param cpe the CPE
+     * @return the sort key
+     */
+    public static CpeSortKey of(ICpe cpe) {
+        return new CpeSortKey(encode(cpe));
+    }
+
+    /**
+     * Encodes the sort key for the given CPE.
+     *
+     * @param cpe the CPE
+     * @return the encoded key
+     */
+    static byte[] encode(ICpe cpe) {
+        KeyBuffer buffer = new KeyBuffer();
+        buffer.appendString(cpe.getPart().getAbbreviation());
+        buffer.appendString(cpe.getVendor());
+        buffer.appendString(cpe.getProduct());
+        buffer.appendVersion(cpe.getVersion());
+        buffer.appendString(cpe.getUpdate());
+        buffer.appendString(cpe.getEdition());
+        buffer.appendString(cpe.getLanguage());
+        buffer.appendString(cpe.getSwEdition());
+        buffer.appendString(cpe.getTargetSw());
+        buffer.appendString(cpe.getTargetHw());
+        buffer.appendString(cpe.getOther());
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Encodes a key prefix; every CPE whose leading attributes are equal to the
+     * given values has a key that starts with the prefix. Encoding stops at the
+     * first <code>null</code> value.
+     *
+     * @param part the part
+     * @param vendor the vendor, or <code>null</code>
+     * @param product the product, or <code>null</code>
+     * @param version the version, or <code>null</code>
+     * @return the encoded prefix
+     */
+    static byte[] prefix(Part part, String vendor, String product, String version) {
+        KeyBuffer buffer = new KeyBuffer();
+        buffer.appendString(part.getAbbreviation());
+        if (vendor != null) {
+            buffer.appendString(vendor);
+            if (product != null) {
+                buffer.appendString(product);
+                if (version != null) {
+                    buffer.appendVersion(version);
+                }
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Compares two encoded keys as unsigned byte sequences.
+     *
+     * @param left the left key
+     * @param right the right key
+     * @return a negative number, zero, or a positive number if the left key is
+     * less than, equal to, or greater than the right key
+     */
+    static int compare(byte[] left, byte[] right) {
+        return ByteArrays.compareUnsigned(left, 0, left.length, right, 0, right.length);
+    }
+
+    /**
+     * Compares an encoded key to a prefix; a key that starts with the prefix is
+     * considered equal to it.
+     *
+     * @param key the key
+     * @param prefix the prefix
+     * @return a negative number, zero, or a positive number if the key is less
+     * than, starts with, or is greater than the prefix
+     */
+    static int comparePrefix(byte[] key, byte[] prefix) {
+        final int length = Math.min(key.length, prefix.length);
+        final int x = ByteArrays.mismatch(key, 0, length, prefix, 0, length);
+        if (x >= 0) {
+            return (key[x] & 0xFF) - (prefix[x] & 0xFF);
+        }
+        return key.length < prefix.length ? -1 : 0;
+    }
+
+    /**
+     * Returns a copy of the encoded key.
+     *
+     * @return the encoded key
+     */
+    public byte[] toByteArray() {
+        return key.clone();
+    }
+
+    @Override
+    public int compareTo(CpeSortKey o) {
+        return compare(key, o.key);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return Arrays.equals(key, ((CpeSortKey) obj).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(key);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(key.length * 2);
+        for (byte b : key) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A growable buffer used to encode keys.
+     */
+    private static final class KeyBuffer {
+
+        /**
+         * The encoded bytes.
+         */
+        private byte[] bytes = new byte[64];
+        /**
+         * The number of encoded bytes.
+         */
+        private int length;
+
+        /**
+         * Appends a byte.
+         *
+         * @param b the byte to append
+         */
+        private void append(int b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, length * 2);
+            }
+            bytes[length++] = (byte) b;
+        }
+
+        /**
+         * Appends the characters of a string without a terminator. Each
+         * character is shifted up by one, so that the terminator sorts before
+         * any character, and encoded in one to three bytes such that the byte
+         * order matches the character order.
+         *
+         * @param value the string to append
+         */
+        private void appendChars(String value) {
+            for (int x = 0; x < value.length(); x++) {
+                final int c = value.charAt(x) + 1;
+                if (c < 0x80) {
+                    append(c);
+                } else if (c < 0x4000) {
+                    append(0x80 | (c >>> 8));
+                    append(c);
+                } else {
+                    append(0xC0 | (c >>> 16));
+                    append(c >>> 8);
+                    append(c);
+                }
+            }
+        }
+
+        /**
+         * Appends a terminated string.
+         *
+         * @param value the string to append
+         */
+        void appendString(String value) {
+            appendChars(value);
+            append(END);
+        }
+
+        /**
+         * Appends a version; integer parts (which never have a leading zero)
+         * are encoded as their length followed by their digits so that the
+         * byte order matches the numeric order. See
+         * {@link VersionPart#compareTo(VersionPart)} for the ordering of the
+         * other parts.
+         *
+         * @param version the version to append
+         */
+        void appendVersion(String version) {
+            List<VersionPart> parts = Versions.splitVersion(version);
+            for (VersionPart part : parts) {
+                final String value = part.getValue();
+                if (part.isInteger()) {
+                    append(TAG_INTEGER);
+                    final int size = value.length();
+                    append(size >>> 24);
+                    append(size >>> 16);
+                    append(size >>> 8);
+                    append(size);
+                    appendChars(value);
+                } else {
+                    final char first = value.charAt(0);
+                    if (first == '0') {
+                        append(TAG_ZERO_PADDED);
+                    } else if (first < '0') {
+                        append(TAG_TEXT_LOW);
+                    } else {
+                        append(TAG_TEXT_HIGH);
+                    }
+                    appendString(value);
+                }
+            }
+            append(END);
+        }
+
+        /**
+         * Returns the encoded bytes.
+         *
+         * @return the encoded bytes
+         */
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.internal.util.Literals;
+import us.springett.parsers.cpe.metrics.CpeMetrics;
+import us.springett.parsers.cpe.util.Convert;
+import us.springett.parsers.cpe.util.Relation;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.LogicalValue;
+
+/**
+ * <p>
+ * Assigns an integer ID to each distinct well formed value of each attribute
+ * in a corpus of CPE, producing {@link EncodedCpe} entries. IDs are exact (two
+ * values that differ only in case get different IDs), and every ID also
+ * belongs to a case insensitive class, so the literal comparisons performed
+ * by {@link us.springett.parsers.cpe.Cpe#compareAttribute(String, String)}
+ * become integer comparisons. Only values with wild cards still need a string
+ * comparison, and their patterns are compiled when they are added.</p>
+ * <p>
+ * ID {@link #ANY} is always the logical value ANY and {@link #NA} is always
+ * NA. A table is <b>not</b> thread safe while entries are being encoded; once
+ * encoding is complete the table and its entries may be shared between
+ * threads for matching, provided they are published safely (e.g. through a
+ * final field or a concurrent collection). Matching only reads the table.</p>
+ *
+ * @author Steve Springett
+ */
+public class CpeSymbolTable {
+
+    /**
+     * The ID of the logical value ANY.
+     */
+    public static final int ANY = 0;
+    /**
+     * The ID of the logical value NA.
+     */
+    public static final int NA = 1;
+
+    /**
+     * The attributes of a CPE.
+     */
+    private static final Attribute[] ATTRIBUTES = Attribute.values();
+
+    /**
+     * The symbols of each attribute; the entry for the part is unused.
+     */
+    private final Symbols[] symbols = new Symbols[ATTRIBUTES.length];
+
+    /**
+     * Constructs a new empty symbol table.
+     */
+    public CpeSymbolTable() {
+        for (int x = 1; x < symbols.length; x++) {
+            symbols[x] = new Symbols();
+        }
+    }
+
+    /**
+     * Encodes the CPE, adding any new attribute values to the table.
+     *
+     * @param cpe the CPE to encode
+     * @return the encoded CPE
+     */
+    public EncodedCpe encode(ICpe cpe) {
+        final int[] ids = new int[ATTRIBUTES.length];
+        ids[0] = cpe.getPart().ordinal();
+        for (int x = 1; x < ids.length; x++) {
+            ids[x] = add(x, cpe.getWellFormed(ATTRIBUTES[x]));
+        }
+        return new EncodedCpe(this, ids);
+    }
+
+    /**
+     * Returns the ID of a well formed value, adding it if necessary.
+     *
+     * @param attribute the attribute ordinal; not the part
+     * @param value the well formed value
+     * @return the ID
+     */
+    int add(int attribute, String value) {
+        return symbols[attribute].add(value);
+    }
+
+    /**
+     * Encodes all of the CPE, adding any new attribute values to the table.
+     *
+     * @param cpes the CPE to encode
+     * @return the encoded CPE in the iteration order of the collection
+     */
+    public List<EncodedCpe> encodeAll(Collection<? extends ICpe> cpes) {
+        final List<EncodedCpe> result = new ArrayList<>(cpes.size());
+        for (ICpe cpe : cpes) {
+            result.add(encode(cpe));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ID of a well formed value without adding it.
+     *
+     * @param attribute the attribute
+     * @param value the well formed value
+     * @return the ID, or <code>-1</code> if the value is not in the table
+     * @throws IllegalArgumentException thrown if the attribute is the part
+     */
+    public int lookup(Attribute attribute, String value) {
+        final Integer id = symbolsOf(attribute).ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the well formed value of an ID.
+     *
+     * @param attribute the attribute
+     * @param id the ID
+     * @return the well formed value
+     * @throws IllegalArgumentException thrown if the attribute is the part
+     */
+    public String symbol(Attribute attribute, int id) {
+        return symbolsOf(attribute).values[id];
+    }
+
+    /**
+     * Returns the number of distinct values of an attribute, including ANY and
+     * NA.
+     *
+     * @param attribute the attribute
+     * @return the number of distinct values
+     * @throws IllegalArgumentException thrown if the attribute is the part
+     */
+    public int size(Attribute attribute) {
+        return symbolsOf(attribute).size;
+    }
+
+    /**
+     * Returns the symbols of an attribute.
+     *
+     * @param attribute the attribute
+     * @return the symbols
+     */
+    private Symbols symbolsOf(Attribute attribute) {
+        if (attribute == Attribute.PART) {
+            throw new IllegalArgumentException("The part is not dictionary encoded");
+        }
+        return symbols[attribute.ordinal()];
+    }
+
+    /**
+     * Compares two IDs of an attribute; the result is identical to
+     * {@link us.springett.parsers.cpe.Cpe#compareAttribute(String, String)}
+     * for the corresponding values.
+     *
+     * @param attribute the attribute ordinal
+     * @param left the ID of the left value
+     * @param right the ID of the right value
+     * @return the relationship between the two values
+     */
+    Relation compare(int attribute, int left, int right) {
+        final Symbols s = symbols[attribute];
+        if (left == right || s.classes[left] == s.classes[right]) {
+            return Relation.EQUAL;
+        } else if (left == ANY) {
+            return Relation.SUPERSET;
+        } else if (left == NA) {
+            return right == ANY ? Relation.SUBSET : Relation.DISJOINT;
+        } else if (right == NA) {
+            return Relation.DISJOINT;
+        } else if (right == ANY) {
+            return Relation.SUBSET;
+        }
+        final Pattern pattern = s.pattern(left);
+        if (pattern == null) {
+            return Relation.DISJOINT;
+        }
+        if (CpeMetrics.ENABLED) {
+            CpeMetrics.listener().wildcardCompared();
+        }
+        return pattern.matcher(s.values[right].toLowerCase()).matches() ? Relation.SUPERSET : Relation.DISJOINT;
+    }
+
+    /**
+     * The distinct values of one attribute.
+     */
+    private static final class Symbols {
+
+        /**
+         * The values by ID.
+         */
+        private String[] values = new String[16];
+        /**
+         * The case insensitive class of each ID.
+         */
+        private int[] classes = new int[16];
+        /**
+         * The compiled wild card patterns by ID; <code>null</code> for
+         * literals.
+         */
+        private Pattern[] patterns = new Pattern[16];
+        /**
+         * The IDs of the values.
+         */
+        private final Map<String, Integer> ids = new HashMap<>();
+        /**
+         * The case insensitive classes of the folded values.
+         */
+        private final Map<String, Integer> folded = new HashMap<>();
+        /**
+         * The number of values.
+         */
+        private int size;
+
+        /**
+         * Constructs the symbols, reserving the IDs of ANY and NA.
+         */
+        Symbols() {
+            add(LogicalValue.ANY.getAbbreviation());
+            add(LogicalValue.NA.getAbbreviation());
+        }
+
+        /**
+         * Adds a value if it is not already present.
+         *
+         * @param value the well formed value
+         * @return the ID of the value
+         */
+        int add(String value) {
+            final Integer existing = ids.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            if (size == values.length) {
+                final int capacity = size * 2;
+                values = Arrays.copyOf(values, capacity);
+                classes = Arrays.copyOf(classes, capacity);
+                patterns = Arrays.copyOf(patterns, capacity);
+            }
+            final int id = size++;
+            values[id] = value;
+            if (id != ANY && !Literals.isLiteral(value)) {
+                patterns[id] = Convert.wellFormedToPattern(value.toLowerCase());
+            }
+            final Integer cls = folded.putIfAbsent(Literals.fold(value), id);
+            classes[id] = cls == null ? id : cls;
+            ids.put(value, id);
+            return id;
+        }
+
+        /**
+         * Returns the compiled pattern of a value with wild cards.
+         *
+         * @param id the ID
+         * @return the pattern, or <code>null</code> if the value is a literal
+         */
+        Pattern pattern(int id) {
+            return patterns[id];
+        }
+    }
+}
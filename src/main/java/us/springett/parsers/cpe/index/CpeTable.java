@@ -0,0 +1,447 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import us.springett.parsers.cpe.AbstractCpe;
+import us.springett.parsers.cpe.CpeParserContext;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * A column oriented table of CPE for analytic scans such as counting entries
+ * per vendor or finding the distinct versions of each product. Each attribute
+ * is stored as an <code>int</code> column of {@link CpeSymbolTable} IDs, so a
+ * scan reads one contiguous array instead of following eleven string
+ * references per entry. The part column holds {@link Part} ordinals.</p>
+ * <p>
+ * Rows are selected with {@link BitSet}s that can be combined with
+ * {@link BitSet#and(BitSet)} and {@link BitSet#or(BitSet)}. A table is
+ * immutable and may be shared between threads; it is created with a
+ * {@link Builder}.</p>
+ *
+ * @author Steve Springett
+ */
+public class CpeTable {
+
+    /**
+     * The parts by ordinal.
+     */
+    private static final Part[] PARTS = Part.values();
+    /**
+     * The attributes of a CPE.
+     */
+    private static final Attribute[] ATTRIBUTES = Attribute.values();
+
+    /**
+     * The symbol table the IDs refer to.
+     */
+    private final CpeSymbolTable symbols;
+    /**
+     * The columns in {@link Attribute} order.
+     */
+    private final int[][] columns;
+    /**
+     * The number of rows.
+     */
+    private final int size;
+
+    /**
+     * Constructs a new table.
+     *
+     * @param symbols the symbol table the IDs refer to
+     * @param columns the columns in attribute order
+     * @param size the number of rows
+     */
+    private CpeTable(CpeSymbolTable symbols, int[][] columns, int size) {
+        this.symbols = symbols;
+        this.columns = columns;
+        this.size = size;
+    }
+
+    /**
+     * Creates a table containing the given CPE.
+     *
+     * @param cpes the CPE
+     * @return the table
+     */
+    public static CpeTable of(Collection<? extends ICpe> cpes) {
+        final Builder builder = new Builder(cpes.size());
+        for (ICpe cpe : cpes) {
+            builder.add(cpe);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ID of a well formed value in a column. The symbol table
+     * itself is not exposed, as encoding further CPE would add to it.
+     *
+     * @param attribute the attribute
+     * @param value the well formed value; for {@link Attribute#PART} the part
+     * abbreviation
+     * @return the ID (or part ordinal), or <code>-1</code> if the value does
+     * not occur in the table
+     */
+    public int lookup(Attribute attribute, String value) {
+        if (attribute == Attribute.PART) {
+            return partOrdinal(value);
+        }
+        return symbols.lookup(attribute, value);
+    }
+
+    /**
+     * Returns the well formed value of an ID in a column.
+     *
+     * @param attribute the attribute
+     * @param id the ID (or part ordinal)
+     * @return the well formed value
+     */
+    public String symbol(Attribute attribute, int id) {
+        return attribute == Attribute.PART ? PARTS[id].getAbbreviation() : symbols.symbol(attribute, id);
+    }
+
+    /**
+     * Returns a read only view of a column; for {@link Attribute#PART} the
+     * values are {@link Part} ordinals, otherwise they are IDs that
+     * {@link #symbol(Attribute, int)} resolves.
+     *
+     * @param attribute the attribute
+     * @return the column
+     */
+    public IntBuffer column(Attribute attribute) {
+        return IntBuffer.wrap(columns[attribute.ordinal()], 0, size).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a view of a row.
+     *
+     * @param row the row
+     * @return the CPE stored in the row
+     */
+    public ICpe get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + size);
+        }
+        return new Row(row);
+    }
+
+    /**
+     * Returns views of the selected rows.
+     *
+     * @param rows the selected rows
+     * @return the CPE stored in the rows, in row order
+     */
+    public List<ICpe> rows(BitSet rows) {
+        final List<ICpe> result = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+            result.add(new Row(row));
+        }
+        return result;
+    }
+
+    /**
+     * Selects the rows where the attribute has exactly the given well formed
+     * value.
+     *
+     * @param attribute the attribute
+     * @param value the well formed value; for {@link Attribute#PART} the part
+     * abbreviation
+     * @return the selected rows
+     */
+    public BitSet filter(Attribute attribute, String value) {
+        final int id = lookup(attribute, value);
+        if (id < 0) {
+            return new BitSet();
+        }
+        return select(columns[attribute.ordinal()], id);
+    }
+
+    /**
+     * Returns the ordinal of a part abbreviation.
+     *
+     * @param abbreviation the part abbreviation
+     * @return the ordinal, or <code>-1</code> if the abbreviation is invalid
+     */
+    private static int partOrdinal(String abbreviation) {
+        try {
+            return Part.getEnum(abbreviation).ordinal();
+        } catch (CpeParsingException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Selects the rows of a column equal to an ID. The comparisons are
+     * branch free and assembled a word at a time.
+     *
+     * @param column the column
+     * @param id the ID
+     * @return the selected rows
+     */
+    private BitSet select(int[] column, int id) {
+        final long[] words = new long[(size + 63) >>> 6];
+        for (int w = 0; w < words.length; w++) {
+            final int base = w << 6;
+            final int end = Math.min(base + 64, size);
+            long word = 0;
+            for (int row = base; row < end; row++) {
+                //((x - 1) >>> 31) is 1 only when x is 0
+                word |= (long) (((column[row] ^ id) - 1) >>> 31) << (row - base);
+            }
+            words[w] = word;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Counts the rows for each ID of an attribute.
+     *
+     * @param attribute the attribute
+     * @return the number of rows for each ID (or part ordinal)
+     */
+    public int[] countBy(Attribute attribute) {
+        final int[] column = columns[attribute.ordinal()];
+        final int[] counts = new int[cardinality(attribute)];
+        for (int row = 0; row < size; row++) {
+            counts[column[row]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the selected rows for each ID of an attribute.
+     *
+     * @param attribute the attribute
+     * @param rows the selected rows
+     * @return the number of selected rows for each ID (or part ordinal)
+     */
+    public int[] countBy(Attribute attribute, BitSet rows) {
+        final int[] column = columns[attribute.ordinal()];
+        final int[] counts = new int[cardinality(attribute)];
+        for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+            counts[column[row]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the rows for each value of an attribute, e.g. the number of CPE
+     * per vendor.
+     *
+     * @param attribute the attribute
+     * @return the number of rows for each well formed value that occurs in
+     * the table, in order of first occurrence in the symbol table
+     */
+    public Map<String, Integer> counts(Attribute attribute) {
+        final int[] counts = countBy(attribute);
+        final Map<String, Integer> result = new LinkedHashMap<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                result.put(symbol(attribute, id), counts[id]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the distinct values of one attribute for each value of another,
+     * e.g. the distinct versions of each product. The pairs of IDs are packed
+     * into longs, sorted, and deduplicated, so no hash tables are built.
+     *
+     * @param group the attribute to group by
+     * @param attribute the attribute whose distinct values are collected
+     * @return the distinct well formed values of the attribute for each well
+     * formed value of the group attribute, both in ID order
+     */
+    public Map<String, List<String>> distinctBy(Attribute group, Attribute attribute) {
+        final int[] keys = columns[group.ordinal()];
+        final int[] values = columns[attribute.ordinal()];
+        final long[] pairs = new long[size];
+        for (int row = 0; row < size; row++) {
+            pairs[row] = ((long) keys[row] << 32) | values[row];
+        }
+        Arrays.sort(pairs);
+        final Map<String, List<String>> result = new LinkedHashMap<>();
+        List<String> current = null;
+        for (int x = 0; x < pairs.length; x++) {
+            if (x > 0 && pairs[x] == pairs[x - 1]) {
+                continue;
+            }
+            final int key = (int) (pairs[x] >>> 32);
+            if (x == 0 || key != (int) (pairs[x - 1] >>> 32)) {
+                current = new ArrayList<>();
+                result.put(symbol(group, key), current);
+            }
+            current.add(symbol(attribute, (int) pairs[x]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct IDs an attribute column may contain.
+     *
+     * @param attribute the attribute
+     * @return the number of IDs (or part ordinals)
+     */
+    private int cardinality(Attribute attribute) {
+        return attribute == Attribute.PART ? PARTS.length : symbols.size(attribute);
+    }
+
+    /**
+     * A view of a row.
+     */
+    private final class Row extends AbstractCpe {
+
+        /**
+         * The row.
+         */
+        private final int row;
+
+        /**
+         * Constructs a new view.
+         *
+         * @param row the row
+         */
+        Row(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Part getPart() {
+            return PARTS[columns[0][row]];
+        }
+
+        @Override
+        public String getWellFormed(Attribute attribute) {
+            return symbol(attribute, columns[attribute.ordinal()][row]);
+        }
+    }
+
+    /**
+     * Collects rows for a {@link CpeTable}. A builder is <b>not</b> thread
+     * safe and cannot be used after {@link #build()}.
+     */
+    public static class Builder {
+
+        /**
+         * The symbol table of the table being built.
+         */
+        private final CpeSymbolTable symbols = new CpeSymbolTable();
+        /**
+         * The columns in attribute order.
+         */
+        private int[][] columns = new int[ATTRIBUTES.length][];
+        /**
+         * The number of rows added.
+         */
+        private int size;
+        /**
+         * The parser used for CPE strings, created on first use.
+         */
+        private CpeParserContext parser;
+
+        /**
+         * Constructs a new builder.
+         */
+        public Builder() {
+            this(1024);
+        }
+
+        /**
+         * Constructs a new builder.
+         *
+         * @param expectedSize the expected number of rows
+         */
+        public Builder(int expectedSize) {
+            for (int x = 0; x < columns.length; x++) {
+                columns[x] = new int[Math.max(16, expectedSize)];
+            }
+        }
+
+        /**
+         * Adds a row.
+         *
+         * @param cpe the CPE to add
+         * @return this builder
+         */
+        public Builder add(ICpe cpe) {
+            if (columns == null) {
+                throw new IllegalStateException("The table has already been built");
+            }
+            if (size == columns[0].length) {
+                for (int x = 0; x < columns.length; x++) {
+                    columns[x] = Arrays.copyOf(columns[x], size * 2);
+                }
+            }
+            columns[0][size] = cpe.getPart().ordinal();
+            for (int x = 1; x < columns.length; x++) {
+                columns[x][size] = symbols.add(x, cpe.getWellFormed(ATTRIBUTES[x]));
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * Parses a CPE 2.2 URI or 2.3 formatted string and adds it as a row.
+         *
+         * @param cpeString the CPE string to add
+         * @return this builder
+         * @throws CpeParsingException thrown if the string is invalid
+         */
+        public Builder add(String cpeString) throws CpeParsingException {
+            if (parser == null) {
+                parser = new CpeParserContext();
+            }
+            return add(parser.parse(cpeString));
+        }
+
+        /**
+         * Creates the table. The builder cannot be used afterwards.
+         *
+         * @return the table
+         */
+        public CpeTable build() {
+            if (columns == null) {
+                throw new IllegalStateException("The table has already been built");
+            }
+            final int[][] result = columns;
+            columns = null;
+            return new CpeTable(symbols, result, size);
+        }
+    }
+}
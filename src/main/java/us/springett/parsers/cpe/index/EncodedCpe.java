@@ -0,0 +1,160 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import us.springett.parsers.cpe.AbstractCpe;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.metrics.CpeMetrics;
+import us.springett.parsers.cpe.util.Relation;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * A CPE whose attributes are stored as IDs of a {@link CpeSymbolTable}.
+ * Matching two entries of the same table compares IDs instead of strings;
+ * matching against any other {@link ICpe} behaves exactly as
+ * {@link us.springett.parsers.cpe.Cpe#matches(ICpe)}.
+ *
+ * @author Steve Springett
+ */
+public final class EncodedCpe extends AbstractCpe {
+
+    /**
+     * The parts by ordinal.
+     */
+    private static final Part[] PARTS = Part.values();
+    /**
+     * The attributes of a CPE.
+     */
+    private static final Attribute[] ATTRIBUTES = Attribute.values();
+
+    /**
+     * The symbol table the IDs refer to.
+     */
+    private final CpeSymbolTable table;
+    /**
+     * The ordinal of the part followed by the IDs of the other attributes, in
+     * {@link Attribute} order.
+     */
+    private final int[] ids;
+
+    /**
+     * Constructs a new encoded CPE.
+     *
+     * @param table the symbol table the IDs refer to
+     * @param ids the part ordinal and attribute IDs
+     */
+    EncodedCpe(CpeSymbolTable table, int[] ids) {
+        this.table = table;
+        this.ids = ids;
+    }
+
+    /**
+     * Returns the symbol table the IDs refer to.
+     *
+     * @return the symbol table
+     */
+    public CpeSymbolTable getSymbolTable() {
+        return table;
+    }
+
+    /**
+     * Returns the ID of an attribute; for {@link Attribute#PART} the ordinal
+     * of the part is returned.
+     *
+     * @param attribute the attribute
+     * @return the ID
+     */
+    public int getId(Attribute attribute) {
+        return ids[attribute.ordinal()];
+    }
+
+    @Override
+    public Part getPart() {
+        return PARTS[ids[0]];
+    }
+
+    @Override
+    public String getWellFormed(Attribute attribute) {
+        if (attribute == Attribute.PART) {
+            return getPart().getAbbreviation();
+        }
+        return table.symbol(attribute, ids[attribute.ordinal()]);
+    }
+
+    /**
+     * Determines if the CPE matches the given target CPE. When the target is
+     * encoded with the same symbol table only the IDs are compared.
+     *
+     * @param target the target CPE to evaluate
+     * @return <code>true</code> if the CPE matches the target; otherwise
+     * <code>false</code>
+     */
+    @Override
+    public boolean matches(ICpe target) {
+        if (!(target instanceof EncodedCpe) || ((EncodedCpe) target).table != table) {
+            return super.matches(target);
+        }
+        final boolean result = matchesEncoded((EncodedCpe) target);
+        if (CpeMetrics.ENABLED) {
+            CpeMetrics.listener().matched(result);
+        }
+        return result;
+    }
+
+    /**
+     * Determines if the CPE matches a target encoded with the same symbol
+     * table.
+     *
+     * @param target the target CPE
+     * @return <code>true</code> if the CPE matches the target; otherwise
+     * <code>false</code>
+     */
+    private boolean matchesEncoded(EncodedCpe target) {
+        final int left = ids[0];
+        final int right = target.ids[0];
+        if (left != right && left != Part.ANY.ordinal() && right != Part.ANY.ordinal()) {
+            return false;
+        }
+        for (int x = 1; x < ATTRIBUTES.length; x++) {
+            if (table.compare(x, ids[x], target.ids[x]) == Relation.DISJOINT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof EncodedCpe && ((EncodedCpe) obj).table == table) {
+            final int[] other = ((EncodedCpe) obj).ids;
+            for (int x = 0; x < ids.length; x++) {
+                if (ids[x] != other[x]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
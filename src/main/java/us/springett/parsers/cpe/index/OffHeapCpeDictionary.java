@@ -0,0 +1,248 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import us.springett.parsers.cpe.AbstractCpe;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.internal.util.ByteArrays;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * A {@link CpeDictionary} that keeps its entries outside of the Java heap.
+ * Each entry is encoded as a record of length prefixed UTF-8 well formed
+ * values in a direct {@link ByteBuffer}, and a second direct buffer holds the
+ * offsets of the records in dictionary order. The only heap objects retained
+ * are the two buffers, so millions of entries add nothing to garbage
+ * collection pauses.</p>
+ * <p>
+ * Entries are returned as light weight views that decode attributes from the
+ * buffer on access. The dictionary and its views are immutable and may be
+ * shared between threads. Exact duplicates are stored once; the encoded
+ * records are limited to 2 GB.</p>
+ *
+ * @author Steve Springett
+ */
+public class OffHeapCpeDictionary extends AbstractCpeDictionary {
+
+    /**
+     * The encoded records.
+     */
+    private final ByteBuffer records;
+    /**
+     * The offsets of the records in dictionary order.
+     */
+    private final IntBuffer offsets;
+    /**
+     * The number of entries.
+     */
+    private final int size;
+
+    /**
+     * Constructs a new dictionary containing the given CPE.
+     *
+     * @param cpes the entries of the dictionary
+     * @throws IllegalArgumentException thrown if the encoded entries exceed
+     * 2 GB or an attribute is longer than 65535 bytes
+     */
+    public OffHeapCpeDictionary(Collection<? extends ICpe> cpes) {
+        final Object[] items = cpes.toArray();
+        final byte[][] encoded = new byte[items.length][];
+        Arrays.parallelSetAll(encoded, i -> encode((ICpe) items[i]));
+        Arrays.parallelSort(encoded, OffHeapCpeDictionary::compareRecords);
+
+        int count = 0;
+        long total = 0;
+        for (int x = 0; x < encoded.length; x++) {
+            if (count == 0 || compareRecords(encoded[count - 1], encoded[x]) != 0) {
+                encoded[count++] = encoded[x];
+                total += encoded[x].length;
+            }
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The encoded dictionary exceeds 2 GB");
+        }
+        final ByteBuffer data = ByteBuffer.allocateDirect((int) Math.max(1, total));
+        final IntBuffer index = ByteBuffer.allocateDirect(Math.max(1, count) * 4).asIntBuffer();
+        for (int x = 0; x < count; x++) {
+            index.put(x, data.position());
+            data.put(encoded[x]);
+        }
+        this.records = data;
+        this.offsets = index;
+        this.size = count;
+    }
+
+    /**
+     * Encodes the CPE as a record.
+     *
+     * @param cpe the CPE
+     * @return the record
+     */
+    static byte[] encode(ICpe cpe) {
+        final byte[][] values = key(cpe);
+        int length = 0;
+        for (int x = 0; x < FIELD_COUNT; x++) {
+            if (values[x].length > 0xFFFF) {
+                throw new IllegalArgumentException("The " + ORDER[x].getAttributeName() + " attribute is too long");
+            }
+            length += 2 + values[x].length;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (byte[] value : values) {
+            buffer.putShort((short) value.length);
+            buffer.put(value);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Compares two records case insensitively, breaking ties between records
+     * that differ only in case by comparing the exact bytes.
+     *
+     * @param a the first record
+     * @param b the second record
+     * @return a negative number, zero, or a positive number if the first
+     * record sorts before, equal to, or after the second record
+     */
+    static int compareRecords(byte[] a, byte[] b) {
+        final int result = compareRecords(a, b, true);
+        return result != 0 ? result : compareRecords(a, b, false);
+    }
+
+    /**
+     * Compares the fields of two records in order.
+     *
+     * @param a the first record
+     * @param b the second record
+     * @param ignoreCase whether to compare the fields ignoring case
+     * @return the sort order
+     */
+    private static int compareRecords(byte[] a, byte[] b, boolean ignoreCase) {
+        //values that are equal ignoring case may differ in encoded length
+        int posA = 0;
+        int posB = 0;
+        while (posA < a.length && posB < b.length) {
+            final int lengthA = ((a[posA] & 0xFF) << 8) | (a[posA + 1] & 0xFF);
+            final int lengthB = ((b[posB] & 0xFF) << 8) | (b[posB + 1] & 0xFF);
+            posA += 2;
+            posB += 2;
+            final int result = ignoreCase
+                    ? compareIgnoreCase(a, posA, lengthA, b, posB, lengthB)
+                    : ByteArrays.compareUnsigned(a, posA, posA + lengthA, b, posB, posB + lengthB);
+            if (result != 0) {
+                return result;
+            }
+            posA += lengthA;
+            posB += lengthB;
+        }
+        return 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ICpe get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new Entry(offsets.get(index));
+    }
+
+    @Override
+    int compare(int index, byte[][] key, int fields) {
+        int pos = offsets.get(index);
+        for (int f = 0; f < fields; f++) {
+            final int length = records.getShort(pos) & 0xFFFF;
+            final int result = compareIgnoreCase(records, pos + 2, length, key[f]);
+            if (result != 0) {
+                return result;
+            }
+            pos += 2 + length;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of bytes of off-heap memory used by the dictionary.
+     *
+     * @return the number of bytes used
+     */
+    public long getOffHeapSize() {
+        return (long) records.capacity() + (long) offsets.capacity() * 4;
+    }
+
+    /**
+     * A view of an entry that decodes its attributes from the records buffer.
+     */
+    private final class Entry extends AbstractCpe {
+
+        /**
+         * The offset of the record.
+         */
+        private final int offset;
+
+        /**
+         * Constructs a new view.
+         *
+         * @param offset the offset of the record
+         */
+        Entry(int offset) {
+            this.offset = offset;
+        }
+
+        /**
+         * Returns the offset of the length prefix of the given field.
+         *
+         * @param field the field position
+         * @return the offset of the field
+         */
+        private int fieldOffset(int field) {
+            int pos = offset;
+            for (int f = 0; f < field; f++) {
+                pos += 2 + (records.getShort(pos) & 0xFFFF);
+            }
+            return pos;
+        }
+
+        @Override
+        public Part getPart() {
+            final int pos = fieldOffset(POSITION[Attribute.PART.ordinal()]);
+            final byte abbreviation = records.get(pos + 2);
+            final Part part = part(abbreviation);
+            if (part == null) {
+                throw new IllegalStateException("Invalid part stored in the dictionary: " + (char) abbreviation);
+            }
+            return part;
+        }
+
+        @Override
+        public String getWellFormed(Attribute attribute) {
+            final int pos = fieldOffset(POSITION[attribute.ordinal()]);
+            return decode(records, pos + 2, records.getShort(pos) & 0xFFFF);
+        }
+    }
+}
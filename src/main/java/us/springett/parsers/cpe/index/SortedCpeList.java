@@ -0,0 +1,236 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * An immutable list of CPE sorted in the order of {@link Cpe#compareTo(ICpe)}.
+ * A {@link CpeSortKey} is computed once for every entry and the entries are
+ * sorted with {@link Arrays#parallelSort(Comparable[])}; lookups and range
+ * queries are binary searches over the keys.</p>
+ * <p>
+ * Queries take the decoded attribute values (as returned by
+ * {@link ICpe#getVendor()}) and match them exactly; they return views over the
+ * list. Once constructed the list is safe to share between threads.</p>
+ *
+ * @param <T> the type of CPE in the list
+ * @author Steve Springett
+ */
+public class SortedCpeList<T extends ICpe> extends AbstractList<T> implements RandomAccess {
+
+    /**
+     * The sorted entries.
+     */
+    private final T[] elements;
+    /**
+     * The sort keys of the entries.
+     */
+    private final byte[][] keys;
+
+    /**
+     * Constructs a new sorted list containing the given CPE.
+     *
+     * @param cpes the CPE to sort
+     */
+    @SuppressWarnings("unchecked")
+    public SortedCpeList(Collection<? extends T> cpes) {
+        final Object[] items = cpes.toArray();
+        final Entry[] entries = new Entry[items.length];
+        Arrays.parallelSetAll(entries, i -> new Entry((ICpe) items[i]));
+        Arrays.parallelSort(entries);
+        elements = (T[]) new ICpe[entries.length];
+        keys = new byte[entries.length][];
+        for (int x = 0; x < entries.length; x++) {
+            elements[x] = (T) entries[x].cpe;
+            keys[x] = entries[x].key;
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        return elements[index];
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * Returns the sort key of the entry at the given position.
+     *
+     * @param index the index of the entry
+     * @return the sort key
+     */
+    public CpeSortKey getSortKey(int index) {
+        return new CpeSortKey(keys[index]);
+    }
+
+    /**
+     * Returns the index of the first entry equal to the given CPE in sort
+     * order, or <code>-(insertion point) - 1</code> if there is none.
+     *
+     * @param cpe the CPE to search for
+     * @return the index of the CPE
+     */
+    public int binarySearch(ICpe cpe) {
+        final byte[] key = CpeSortKey.encode(cpe);
+        int index = lowerBound(key, false);
+        if (index < keys.length && CpeSortKey.compare(keys[index], key) == 0) {
+            return index;
+        }
+        return -index - 1;
+    }
+
+    /**
+     * Returns the entries with the given part and vendor.
+     *
+     * @param part the part
+     * @param vendor the vendor
+     * @return a view of the matching entries
+     */
+    public List<T> find(Part part, String vendor) {
+        return range(CpeSortKey.prefix(part, vendor, null, null));
+    }
+
+    /**
+     * Returns the entries with the given part, vendor, and product.
+     *
+     * @param part the part
+     * @param vendor the vendor
+     * @param product the product
+     * @return a view of the matching entries
+     */
+    public List<T> find(Part part, String vendor, String product) {
+        return range(CpeSortKey.prefix(part, vendor, product, null));
+    }
+
+    /**
+     * Returns the entries with the given part, vendor, and product whose
+     * version lies between the given versions (inclusive) as ordered by
+     * {@link Cpe#compareTo(ICpe)}.
+     *
+     * @param part the part
+     * @param vendor the vendor
+     * @param product the product
+     * @param fromVersion the lowest version, or <code>null</code> for no
+     * lower bound
+     * @param toVersion the highest version, or <code>null</code> for no upper
+     * bound
+     * @return a view of the matching entries
+     */
+    public List<T> findVersions(Part part, String vendor, String product, String fromVersion, String toVersion) {
+        final byte[] from = CpeSortKey.prefix(part, vendor, product, fromVersion);
+        final byte[] to = CpeSortKey.prefix(part, vendor, product, toVersion);
+        final int start = lowerBound(from, true);
+        final int end = upperBound(to);
+        return start < end ? subList(start, end) : subList(start, start);
+    }
+
+    /**
+     * Returns the entries whose keys start with the given prefix.
+     *
+     * @param prefix the key prefix
+     * @return a view of the matching entries
+     */
+    private List<T> range(byte[] prefix) {
+        return subList(lowerBound(prefix, true), upperBound(prefix));
+    }
+
+    /**
+     * Returns the index of the first key that is not less than the given key.
+     *
+     * @param key the key or key prefix
+     * @param prefix whether the key is a prefix
+     * @return the index
+     */
+    private int lowerBound(byte[] key, boolean prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final int c = prefix ? CpeSortKey.comparePrefix(keys[mid], key) : CpeSortKey.compare(keys[mid], key);
+            if (c < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first key that is greater than the given prefix
+     * and does not start with it.
+     *
+     * @param prefix the key prefix
+     * @return the index
+     */
+    private int upperBound(byte[] prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (CpeSortKey.comparePrefix(keys[mid], prefix) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A CPE and its sort key.
+     */
+    private static final class Entry implements Comparable<Entry> {
+
+        /**
+         * The CPE.
+         */
+        private final ICpe cpe;
+        /**
+         * The sort key.
+         */
+        private final byte[] key;
+
+        /**
+         * Constructs a new entry.
+         *
+         * @param cpe the CPE
+         */
+        Entry(ICpe cpe) {
+            this.cpe = cpe;
+            this.key = CpeSortKey.encode(cpe);
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            return CpeSortKey.compare(key, o.key);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import us.springett.parsers.cpe.ICpe;
+
+/**
+ * <p>
+ * An in-memory CPE dictionary that is updated by applying {@link CpeDelta}s.
+ * The content is held in immutable {@link Snapshot}s; applying a delta merges
+ * the changes into a copy of the current snapshot, which is then published.
+ * The entries are already sorted, so an update is a single linear merge
+ * rather than a rebuild of the dictionary.</p>
+ * <p>
+ * Queries should obtain a snapshot with {@link #snapshot()} and run against
+ * it; a snapshot is never modified, so a query sees a consistent view even
+ * while updates are applied. Updates are serialized, queries never block.</p>
+ *
+ * @author Steve Springett
+ */
+public class VersionedCpeDictionary {
+
+    /**
+     * Serializes the updates.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * The current snapshot.
+     */
+    private volatile Snapshot current;
+
+    /**
+     * Constructs a new dictionary containing the given entries.
+     *
+     * @param cpes the entries
+     */
+    public VersionedCpeDictionary(Collection<? extends ICpe> cpes) {
+        final ICpe[] entries = cpes.toArray(new ICpe[cpes.size()]);
+        Arrays.parallelSort(entries, CpeDictionary.order());
+        int count = 0;
+        for (int x = 0; x < entries.length; x++) {
+            if (count == 0 || CpeDictionary.order().compare(entries[count - 1], entries[x]) != 0) {
+                entries[count++] = entries[x];
+            }
+        }
+        current = new Snapshot(0, Arrays.copyOf(entries, count), new BitSet());
+    }
+
+    /**
+     * Returns the current snapshot of the dictionary.
+     *
+     * @return the current snapshot
+     */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * Applies a delta to the dictionary and publishes the result as a new
+     * snapshot. The removals are applied first, then the additions, and then
+     * the deprecations; deprecating an entry that is not in the dictionary
+     * has no effect. Entries that are removed and added again lose their
+     * deprecation.
+     *
+     * @param delta the delta to apply
+     * @return the new snapshot
+     */
+    public Snapshot apply(CpeDelta delta) {
+        lock.lock();
+        try {
+            final Snapshot snapshot = current;
+            if (delta.isEmpty()) {
+                return snapshot;
+            }
+            final Comparator<ICpe> order = CpeDictionary.order();
+            final List<ICpe> added = delta.getAdded();
+            final List<ICpe> removed = delta.getRemoved();
+            final ICpe[] entries = snapshot.entries;
+            final List<ICpe> merged = new ArrayList<>(entries.length + added.size());
+            final BitSet deprecated = new BitSet();
+            int a = 0;
+            int r = 0;
+            for (int x = 0; x < entries.length; x++) {
+                final ICpe entry = entries[x];
+                while (a < added.size() && order.compare(added.get(a), entry) < 0) {
+                    merged.add(added.get(a++));
+                }
+                while (r < removed.size() && order.compare(removed.get(r), entry) < 0) {
+                    r++;
+                }
+                final boolean isRemoved = r < removed.size() && order.compare(removed.get(r), entry) == 0;
+                final boolean isAdded = a < added.size() && order.compare(added.get(a), entry) == 0;
+                if (isRemoved && !isAdded) {
+                    continue;
+                }
+                if (!isRemoved && snapshot.deprecated.get(x)) {
+                    deprecated.set(merged.size());
+                }
+                merged.add(isAdded ? added.get(a++) : entry);
+            }
+            while (a < added.size()) {
+                merged.add(added.get(a++));
+            }
+            final ICpe[] result = merged.toArray(new ICpe[merged.size()]);
+            for (ICpe cpe : delta.getDeprecated()) {
+                final int index = Arrays.binarySearch(result, cpe, order);
+                if (index >= 0) {
+                    deprecated.set(index);
+                }
+            }
+            current = new Snapshot(snapshot.version + 1, result, deprecated);
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * An immutable version of a {@link VersionedCpeDictionary}.
+     */
+    public static final class Snapshot extends AbstractCpeDictionary {
+
+        /**
+         * The version of the snapshot, starting at zero and incremented by
+         * each applied delta.
+         */
+        private final long version;
+        /**
+         * The entries in dictionary order.
+         */
+        private final ICpe[] entries;
+        /**
+         * The positions of the deprecated entries.
+         */
+        private final BitSet deprecated;
+
+        /**
+         * Constructs a new snapshot.
+         *
+         * @param version the version of the snapshot
+         * @param entries the entries in dictionary order
+         * @param deprecated the positions of the deprecated entries
+         */
+        Snapshot(long version, ICpe[] entries, BitSet deprecated) {
+            this.version = version;
+            this.entries = entries;
+            this.deprecated = deprecated;
+        }
+
+        /**
+         * Returns the version of the snapshot.
+         *
+         * @return the version
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public int size() {
+            return entries.length;
+        }
+
+        @Override
+        public ICpe get(int index) {
+            return entries[index];
+        }
+
+        @Override
+        int compare(int index, byte[][] key, int fields) {
+            final ICpe entry = entries[index];
+            for (int f = 0; f < fields; f++) {
+                final int result = compareIgnoreCase(entry.getWellFormed(ORDER[f]), key[f]);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Determines whether the entry at the given position is deprecated.
+         *
+         * @param index the position of the entry
+         * @return <code>true</code> if the entry is deprecated
+         */
+        public boolean isDeprecated(int index) {
+            if (index < 0 || index >= entries.length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + entries.length);
+            }
+            return deprecated.get(index);
+        }
+
+        /**
+         * Determines whether the dictionary contains the given entry (exactly,
+         * including case) and the entry is deprecated.
+         *
+         * @param cpe the entry
+         * @return <code>true</code> if the entry is deprecated
+         */
+        public boolean isDeprecated(ICpe cpe) {
+            final int index = Arrays.binarySearch(entries, cpe, CpeDictionary.order());
+            return index >= 0 && deprecated.get(index);
+        }
+    }
+}
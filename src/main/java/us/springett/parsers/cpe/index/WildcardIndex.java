@@ -0,0 +1,401 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.internal.util.Literals;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.LogicalValue;
+
+/**
+ * <p>
+ * An index of source CPE that finds the sources matching a target when the
+ * sources use wild cards in one attribute, e.g.
+ * <code>cpe:2.3:a:*:struts*:*:*:*:*:*:*:*:*</code>. Each wild card value is
+ * filed under its longest literal anchor: a literal prefix in a trie, a
+ * literal suffix in a trie of reversed suffixes, or otherwise its longest
+ * literal infix in a hash table. A literal target value walks both tries once
+ * and looks up its substrings of the lengths that occur as infixes, so only
+ * the patterns whose anchor occurs in the target are confirmed with the full
+ * {@link ICpe#matches(ICpe)} semantics. Literal source values are found with a
+ * single hash lookup. A lookup collects its candidates while walking these
+ * structures, so its cost does not depend on the number of sources that
+ * cannot match.</p>
+ * <p>
+ * Anchors are taken from the lower case well formed values (escapes
+ * included), which is the form the wild card patterns are evaluated against.
+ * An index is <b>not</b> thread safe while sources are being added; once
+ * complete it may be shared between threads.</p>
+ *
+ * @author Steve Springett
+ */
+public class WildcardIndex {
+
+    /**
+     * The indexed attribute.
+     */
+    private final Attribute attribute;
+    /**
+     * All sources in the order they were added.
+     */
+    private final List<ICpe> sources = new ArrayList<>();
+    /**
+     * The sources with a literal value, by case folded value.
+     */
+    private final Map<String, List<Entry>> literals = new HashMap<>();
+    /**
+     * The sources whose value is ANY.
+     */
+    private final List<Entry> any = new ArrayList<>();
+    /**
+     * The patterns anchored by a literal prefix.
+     */
+    private final Node prefixes = new Node();
+    /**
+     * The patterns anchored by a literal suffix, stored reversed.
+     */
+    private final Node suffixes = new Node();
+    /**
+     * The patterns anchored by a literal infix.
+     */
+    private final Map<String, List<Entry>> infixes = new HashMap<>();
+    /**
+     * The lengths of the keys of the infix table.
+     */
+    private final BitSet infixLengths = new BitSet();
+    /**
+     * The patterns without any literal characters, such as <code>??*</code>.
+     */
+    private final List<Entry> residual = new ArrayList<>();
+    /**
+     * All sources whose value contains wild cards, in the order they were
+     * added.
+     */
+    private final List<Entry> patterns = new ArrayList<>();
+
+    /**
+     * Constructs a new index.
+     *
+     * @param attribute the attribute containing wild cards, typically the
+     * vendor or product
+     * @throws IllegalArgumentException thrown if the attribute is the part
+     */
+    public WildcardIndex(Attribute attribute) {
+        if (attribute == Attribute.PART) {
+            throw new IllegalArgumentException("The part cannot contain wild cards");
+        }
+        this.attribute = attribute;
+    }
+
+    /**
+     * Returns the indexed attribute.
+     *
+     * @return the attribute
+     */
+    public Attribute getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Returns the number of sources.
+     *
+     * @return the number of sources
+     */
+    public int size() {
+        return sources.size();
+    }
+
+    /**
+     * Adds a source CPE.
+     *
+     * @param source the source CPE
+     */
+    public void add(ICpe source) {
+        final Entry entry = new Entry(sources.size());
+        sources.add(source);
+        final String value = source.getWellFormed(attribute);
+        if (LogicalValue.ANY.getAbbreviation().equals(value)) {
+            any.add(entry);
+        } else if (Literals.isLiteral(value)) {
+            literals.computeIfAbsent(Literals.fold(value), k -> new ArrayList<>()).add(entry);
+        } else {
+            patterns.add(entry);
+            addPattern(value.toLowerCase(), entry);
+        }
+    }
+
+    /**
+     * Adds all of the source CPE.
+     *
+     * @param cpes the source CPE
+     */
+    public void addAll(Collection<? extends ICpe> cpes) {
+        for (ICpe cpe : cpes) {
+            add(cpe);
+        }
+    }
+
+    /**
+     * Files a wild card pattern under its longest literal anchor.
+     *
+     * @param pattern the lower case well formed pattern
+     * @param entry the entry
+     */
+    private void addPattern(String pattern, Entry entry) {
+        //find the literal segments between unquoted wild cards
+        int first = -1;
+        int last = -1;
+        int infixStart = 0;
+        int infixEnd = 0;
+        int segmentStart = 0;
+        for (int x = 0; x < pattern.length(); x++) {
+            final char c = pattern.charAt(x);
+            if (c == '\\') {
+                x++;
+            } else if (c == '*' || c == '?') {
+                if (first < 0) {
+                    first = x;
+                } else if (x - segmentStart > infixEnd - infixStart) {
+                    infixStart = segmentStart;
+                    infixEnd = x;
+                }
+                last = x;
+                segmentStart = x + 1;
+            }
+        }
+        final int prefixLength = first;
+        final int suffixLength = pattern.length() - last - 1;
+        final int infixLength = infixEnd - infixStart;
+        if (prefixLength > 0 && prefixLength >= suffixLength && prefixLength >= infixLength) {
+            prefixes.insert(pattern, 0, prefixLength, 1).entries().add(entry);
+        } else if (suffixLength > 0 && suffixLength >= infixLength) {
+            suffixes.insert(pattern, pattern.length() - 1, suffixLength, -1).entries().add(entry);
+        } else if (infixLength > 0) {
+            infixes.computeIfAbsent(pattern.substring(infixStart, infixEnd), k -> new ArrayList<>()).add(entry);
+            infixLengths.set(infixLength);
+        } else {
+            residual.add(entry);
+        }
+    }
+
+    /**
+     * Finds the sources that match the target, i.e. every source for which
+     * <code>source.matches(target)</code> is <code>true</code>.
+     *
+     * @param target the target CPE
+     * @return the matching sources in the order they were added
+     */
+    public List<ICpe> findMatches(ICpe target) {
+        final int[] positions = findMatchPositions(target);
+        final List<ICpe> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(sources.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the positions of the sources that match the target, i.e. every
+     * source for which <code>source.matches(target)</code> is
+     * <code>true</code>.
+     *
+     * @param target the target CPE
+     * @return the positions of the matching sources, in ascending order
+     */
+    public int[] findMatchPositions(ICpe target) {
+        final String value = target.getWellFormed(attribute);
+        final List<Entry> candidates = new ArrayList<>();
+        if (LogicalValue.ANY.getAbbreviation().equals(value)) {
+            //every source is a candidate
+            for (int x = 0; x < sources.size(); x++) {
+                if (sources.get(x).matches(target)) {
+                    candidates.add(new Entry(x));
+                }
+            }
+            return positions(candidates, null);
+        } else if (!Literals.isLiteral(value)) {
+            //a literal source only matches an equal target, and a literal is
+            //never equal to a pattern
+            candidates.addAll(any);
+            candidates.addAll(patterns);
+            return positions(candidates, target);
+        }
+        add(candidates, literals.get(Literals.fold(value)));
+        candidates.addAll(any);
+        candidates.addAll(residual);
+        final String lower = value.toLowerCase();
+        prefixes.collect(lower, 0, 1, candidates);
+        suffixes.collect(lower, lower.length() - 1, -1, candidates);
+        Set<String> found = null;
+        for (int length = infixLengths.nextSetBit(1); length >= 0 && length <= lower.length();
+                length = infixLengths.nextSetBit(length + 1)) {
+            for (int start = 0; start + length <= lower.length(); start++) {
+                final String infix = lower.substring(start, start + length);
+                final List<Entry> entries = infixes.get(infix);
+                if (entries != null) {
+                    //an infix occurring more than once in the target is added once
+                    if (found == null) {
+                        found = new HashSet<>();
+                    }
+                    if (found.add(infix)) {
+                        candidates.addAll(entries);
+                    }
+                }
+            }
+        }
+        return positions(candidates, target);
+    }
+
+    /**
+     * Confirms the candidates and returns their positions. Each source is
+     * filed under a single key, so the candidates are distinct.
+     *
+     * @param candidates the candidate entries
+     * @param target the target to confirm the candidates against, or
+     * <code>null</code> if they are already confirmed
+     * @return the positions of the confirmed candidates, in ascending order
+     */
+    private int[] positions(List<Entry> candidates, ICpe target) {
+        int[] positions = new int[candidates.size()];
+        int count = 0;
+        for (Entry entry : candidates) {
+            if (target == null || sources.get(entry.order).matches(target)) {
+                positions[count++] = entry.order;
+            }
+        }
+        if (count < positions.length) {
+            positions = Arrays.copyOf(positions, count);
+        }
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    /**
+     * Adds the entries to the candidates.
+     *
+     * @param candidates the candidate entries
+     * @param entries the entries, may be <code>null</code>
+     */
+    private static void add(List<Entry> candidates, List<Entry> entries) {
+        if (entries != null) {
+            candidates.addAll(entries);
+        }
+    }
+
+    /**
+     * The position of a source in the order in which it was added.
+     */
+    private static final class Entry {
+
+        /**
+         * The order in which the source was added.
+         */
+        private final int order;
+
+        /**
+         * Constructs a new entry.
+         *
+         * @param order the order in which the source was added
+         */
+        Entry(int order) {
+            this.order = order;
+        }
+    }
+
+    /**
+     * A node of a character trie.
+     */
+    private static final class Node {
+
+        /**
+         * The children by character, created on first use.
+         */
+        private Map<Character, Node> children;
+        /**
+         * The entries whose anchor ends at this node, created on first use.
+         */
+        private List<Entry> entries;
+
+        /**
+         * Returns the entries of the node, creating the list if necessary.
+         *
+         * @return the entries
+         */
+        List<Entry> entries() {
+            if (entries == null) {
+                entries = new ArrayList<>(2);
+            }
+            return entries;
+        }
+
+        /**
+         * Inserts an anchor, creating the nodes as necessary.
+         *
+         * @param value the string containing the anchor
+         * @param start the position of the first character of the anchor
+         * @param length the length of the anchor
+         * @param step <code>1</code> to read the anchor forwards or
+         * <code>-1</code> to read it backwards
+         * @return the node of the last character
+         */
+        Node insert(String value, int start, int length, int step) {
+            Node node = this;
+            for (int x = 0, pos = start; x < length; x++, pos += step) {
+                if (node.children == null) {
+                    node.children = new HashMap<>(4);
+                }
+                node = node.children.computeIfAbsent(value.charAt(pos), k -> new Node());
+            }
+            return node;
+        }
+
+        /**
+         * Collects the entries of every node along the path spelled by the
+         * value, i.e. every anchor that is a prefix (or reversed suffix) of
+         * the value.
+         *
+         * @param value the value
+         * @param start the position to start reading at
+         * @param step <code>1</code> to read forwards or <code>-1</code> to
+         * read backwards
+         * @param candidates the candidate entries
+         */
+        void collect(String value, int start, int step, List<Entry> candidates) {
+            Node node = this;
+            for (int pos = start; pos >= 0 && pos < value.length(); pos += step) {
+                if (node.children == null) {
+                    return;
+                }
+                node = node.children.get(value.charAt(pos));
+                if (node == null) {
+                    return;
+                }
+                add(candidates, node.entries);
+            }
+        }
+    }
+}
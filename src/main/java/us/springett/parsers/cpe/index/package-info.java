@@ -0,0 +1,4 @@
+/**
+ * Collections and indexes for large numbers of CPE.
+ */
+package us.springett.parsers.cpe.index;
@@ -37,6 +37,11 @@ public class Cpe23PartIterator implements Iterator<String> {
      * The position in the string that has been parsed.
      */
     private int pos;
+    /**
+     * The position of the next backslash at or after the position, or the
+     * length of the string if there is none.
+     */
+    private int escape;
 
     /**
      * Constructs a new CPE Formated String Iterator.
@@ -50,6 +55,7 @@ public class Cpe23PartIterator implements Iterator<String> {
         }
         this.cpe = cpe;
         pos = 8;
+        escape = indexOf(cpe, '\\', pos);
     }
 
     @Override
@@ -62,17 +68,87 @@ public class Cpe23PartIterator implements Iterator<String> {
         if (pos >= cpe.length()) {
             throw new NoSuchElementException("No remaining parts");
         }
-        int end;
-        for (end = pos; end < cpe.length(); end++) {
-            if (cpe.charAt(end) == ':') {
-                break;
-            }
-            if (cpe.charAt(end) == '\\' && (end + 1) < cpe.length()) {
-                end += 1;
-            }
+        if (escape < pos) {
+            escape = indexOf(cpe, '\\', pos);
         }
+        int end = endOfComponent(cpe, pos, escape);
         String part = cpe.substring(pos, end);
         pos = end + 1;
         return part;
     }
+
+    /**
+     * Records the boundaries of the components of a CPE 2.3 formatted string
+     * using the same tokenization as {@link #next()}, but without creating any
+     * substrings. Upon return component <code>n</code> is located at
+     * <code>cpe.substring(bounds[n], bounds[n + 1] - 1)</code>.
+     *
+     * @param cpe the CPE being tokenized
+     * @param bounds the array to record the boundaries in; an array of length
+     * twelve can hold the eleven components of a CPE 2.3 formatted string
+     * @return the number of components found, or <code>bounds.length</code> if
+     * the string contains more components than can be recorded
+     * @throws CpeParsingException thrown if the CPE is invalid
+     */
+    public static int split(String cpe, int[] bounds) throws CpeParsingException {
+        if (cpe == null || !cpe.startsWith("cpe:2.3:")) {
+            throw new CpeParsingException("Invalid 2.3 CPE value: " + cpe);
+        }
+        final int length = cpe.length();
+        int count = 0;
+        int pos = 8;
+        int escape = indexOf(cpe, '\\', pos);
+        bounds[0] = pos;
+        while (pos < length) {
+            if (count == bounds.length - 1) {
+                return bounds.length;
+            }
+            if (escape < pos) {
+                escape = indexOf(cpe, '\\', pos);
+            }
+            pos = endOfComponent(cpe, pos, escape) + 1;
+            bounds[++count] = pos;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the position of a character, or the length of the string if the
+     * character does not occur at or after the given position.
+     *
+     * @param cpe the CPE being tokenized
+     * @param c the character to find
+     * @param from the position to start at
+     * @return the position of the character
+     */
+    private static int indexOf(String cpe, char c, int from) {
+        final int index = cpe.indexOf(c, from);
+        return index < 0 ? cpe.length() : index;
+    }
+
+    /**
+     * Finds the colon that ends the component starting at the given position.
+     * The search relies on {@link String#indexOf(int, int)}, which the JVM
+     * implements with vector instructions, and only looks at the characters
+     * around a backslash individually.
+     *
+     * @param cpe the CPE being tokenized
+     * @param pos the start of the component
+     * @param escape the position of the first backslash at or after the start
+     * of the component, or the length of the string
+     * @return the position of the colon ending the component, or the length
+     * of the string
+     */
+    private static int endOfComponent(String cpe, int pos, int escape) {
+        final int length = cpe.length();
+        int colon = indexOf(cpe, ':', pos);
+        int slash = escape;
+        while (slash < colon && slash + 1 < length) {
+            if (colon == slash + 1) {
+                colon = indexOf(cpe, ':', slash + 2);
+            }
+            slash = indexOf(cpe, '\\', slash + 2);
+        }
+        return colon;
+    }
 }
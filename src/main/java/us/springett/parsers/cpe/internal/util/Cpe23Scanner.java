@@ -0,0 +1,520 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.util.Status;
+import us.springett.parsers.cpe.values.Part;
+
+/**
+ * <p>
+ * A single pass scanner for CPE 2.3 formatted strings. Each character is
+ * classified with a lookup table and fed to a deterministic state machine
+ * that at the same time splits the string into its components, validates
+ * each component according to the rules of
+ * {@link us.springett.parsers.cpe.util.Validate#component(String)}, and
+ * records flags describing the component (see {@link #HAS_WILDCARD},
+ * {@link #HAS_ESCAPE}, {@link #HAS_QUOTABLE}, {@link #IS_ANY}, and
+ * {@link #IS_NA}).</p>
+ * <p>
+ * The boundaries are identical to those of
+ * {@link Cpe23PartIterator#split(String, int[])}. A scanner keeps the result
+ * of the last scan and is <b>not</b> thread safe.</p>
+ *
+ * @author Steve Springett
+ */
+public final class Cpe23Scanner {
+
+    /**
+     * The number of components in a CPE 2.3 formatted string.
+     */
+    public static final int COMPONENT_COUNT = 11;
+    /**
+     * Flag for a component containing an unquoted <code>?</code> or
+     * <code>*</code>.
+     */
+    public static final int HAS_WILDCARD = 1;
+    /**
+     * Flag for a component containing a backslash that quotes the next
+     * character.
+     */
+    public static final int HAS_ESCAPE = 2;
+    /**
+     * Flag for a component containing a <code>.</code>, <code>_</code> or
+     * <code>-</code>, which are quoted when converted to a well formed
+     * string.
+     */
+    public static final int HAS_QUOTABLE = 4;
+    /**
+     * Flag for a component that is empty or <code>*</code> (the logical value
+     * ANY).
+     */
+    public static final int IS_ANY = 8;
+    /**
+     * Flag for a component that is <code>-</code> (the logical value NA).
+     */
+    public static final int IS_NA = 16;
+
+    /**
+     * Character class of characters without special meaning.
+     */
+    private static final int OTHER = 0;
+    /**
+     * Character class of the question mark.
+     */
+    private static final int QUESTION = 1;
+    /**
+     * Character class of the asterisk.
+     */
+    private static final int ASTERISK = 2;
+    /**
+     * Character class of the backslash.
+     */
+    private static final int BACKSLASH = 3;
+    /**
+     * Character class of white space.
+     */
+    private static final int WHITESPACE = 4;
+    /**
+     * Character class of non-printable characters.
+     */
+    private static final int CONTROL = 5;
+    /**
+     * Character class of the colon.
+     */
+    private static final int COLON = 6;
+    /**
+     * Character class of characters quoted in a well formed string.
+     */
+    private static final int QUOTABLE = 7;
+    /**
+     * The number of character classes.
+     */
+    private static final int CLASS_COUNT = 8;
+    /**
+     * The character class of each ASCII character.
+     */
+    private static final byte[] CLASSES = new byte[128];
+
+    /**
+     * State at the start of a component.
+     */
+    private static final int START = 0;
+    /**
+     * State after a character without special meaning.
+     */
+    private static final int PLAIN = 1;
+    /**
+     * State after a question mark that is valid.
+     */
+    private static final int QUESTION_OK = 2;
+    /**
+     * State after a question mark that is only valid if it is the last
+     * character or is followed by a question mark or asterisk.
+     */
+    private static final int QUESTION_PENDING = 3;
+    /**
+     * State after an asterisk at the start of a component.
+     */
+    private static final int ASTERISK_START = 4;
+    /**
+     * State after an unquoted asterisk that is only valid if it is the last
+     * character.
+     */
+    private static final int ASTERISK_PENDING = 5;
+    /**
+     * State after a quoted asterisk.
+     */
+    private static final int ASTERISK_QUOTED = 6;
+    /**
+     * State after a backslash.
+     */
+    private static final int AFTER_BACKSLASH = 7;
+    /**
+     * The first error state; error states are absorbing and correspond to the
+     * entries of {@link #ERRORS}.
+     */
+    private static final int ERROR = 8;
+    /**
+     * The validation status of each error state.
+     */
+    private static final Status[] ERRORS = {Status.UNQUOTED_QUESTION_MARK, Status.WHITESPACE,
+        Status.NON_PRINTABLE, Status.ASTERISK_SEQUENCE, Status.UNQUOTED_ASTERISK};
+    /**
+     * Error state for an unquoted question mark.
+     */
+    private static final int E_QUESTION = ERROR;
+    /**
+     * Error state for white space.
+     */
+    private static final int E_WHITESPACE = ERROR + 1;
+    /**
+     * Error state for a non-printable character.
+     */
+    private static final int E_CONTROL = ERROR + 2;
+    /**
+     * Error state for a sequence of asterisks.
+     */
+    private static final int E_SEQUENCE = ERROR + 3;
+    /**
+     * Error state for an unquoted asterisk.
+     */
+    private static final int E_ASTERISK = ERROR + 4;
+    /**
+     * The transitions of the state machine, indexed by
+     * <code>state * CLASS_COUNT + class</code>. Colons and quotable characters
+     * behave as ordinary characters for validation.
+     */
+    private static final byte[] TRANSITIONS = new byte[(ERROR + ERRORS.length) * CLASS_COUNT];
+
+    static {
+        for (int c = 0; c < CLASSES.length; c++) {
+            if (Character.isWhitespace(c)) {
+                CLASSES[c] = WHITESPACE;
+            } else if (c < 32) {
+                CLASSES[c] = CONTROL;
+            }
+        }
+        CLASSES['?'] = QUESTION;
+        CLASSES['*'] = ASTERISK;
+        CLASSES['\\'] = BACKSLASH;
+        CLASSES[':'] = COLON;
+        CLASSES['.'] = QUOTABLE;
+        CLASSES['_'] = QUOTABLE;
+        CLASSES['-'] = QUOTABLE;
+
+        //                     OTHER        QUESTION          ASTERISK          BACKSLASH        WHITESPACE    CONTROL
+        transitions(START, PLAIN, QUESTION_OK, ASTERISK_START, AFTER_BACKSLASH, E_WHITESPACE, E_CONTROL);
+        transitions(PLAIN, PLAIN, QUESTION_PENDING, ASTERISK_PENDING, AFTER_BACKSLASH, E_WHITESPACE, E_CONTROL);
+        transitions(QUESTION_OK, PLAIN, QUESTION_OK, ASTERISK_PENDING, AFTER_BACKSLASH, E_WHITESPACE, E_CONTROL);
+        transitions(QUESTION_PENDING, E_QUESTION, QUESTION_OK, ASTERISK_PENDING, E_QUESTION, E_QUESTION, E_QUESTION);
+        transitions(ASTERISK_START, PLAIN, QUESTION_OK, E_SEQUENCE, AFTER_BACKSLASH, E_WHITESPACE, E_CONTROL);
+        transitions(ASTERISK_PENDING, E_ASTERISK, E_ASTERISK, E_ASTERISK, E_ASTERISK, E_ASTERISK, E_ASTERISK);
+        transitions(ASTERISK_QUOTED, PLAIN, QUESTION_OK, E_SEQUENCE, AFTER_BACKSLASH, E_WHITESPACE, E_CONTROL);
+        transitions(AFTER_BACKSLASH, PLAIN, QUESTION_OK, ASTERISK_QUOTED, AFTER_BACKSLASH, E_WHITESPACE, E_CONTROL);
+        for (int state = ERROR; state < ERROR + ERRORS.length; state++) {
+            transitions(state, state, state, state, state, state, state);
+        }
+    }
+
+    /**
+     * The boundaries of the components of the last scan; component
+     * <code>n</code> spans <code>bounds[n]</code> to
+     * <code>bounds[n + 1] - 1</code>.
+     */
+    private final int[] bounds = new int[COMPONENT_COUNT + 1];
+    /**
+     * The flags of each component of the last scan.
+     */
+    private final int[] flags = new int[COMPONENT_COUNT];
+    /**
+     * The validation status of each component of the last scan.
+     */
+    private final Status[] statuses = new Status[COMPONENT_COUNT];
+    /**
+     * The string of the last scan.
+     */
+    private String value;
+    /**
+     * The number of components found by the last scan.
+     */
+    private int count;
+    /**
+     * The part of the last scan, or <code>null</code> if it is invalid.
+     */
+    private Part part;
+
+    /**
+     * Records the transitions of a state.
+     *
+     * @param state the state
+     * @param other the next state for characters without special meaning,
+     * colons, and quotable characters
+     * @param question the next state for a question mark
+     * @param asterisk the next state for an asterisk
+     * @param backslash the next state for a backslash
+     * @param whitespace the next state for white space
+     * @param control the next state for non-printable characters
+     */
+    private static void transitions(int state, int other, int question, int asterisk, int backslash,
+            int whitespace, int control) {
+        final int row = state * CLASS_COUNT;
+        TRANSITIONS[row + OTHER] = (byte) other;
+        TRANSITIONS[row + QUESTION] = (byte) question;
+        TRANSITIONS[row + ASTERISK] = (byte) asterisk;
+        TRANSITIONS[row + BACKSLASH] = (byte) backslash;
+        TRANSITIONS[row + WHITESPACE] = (byte) whitespace;
+        TRANSITIONS[row + CONTROL] = (byte) control;
+        TRANSITIONS[row + COLON] = (byte) other;
+        TRANSITIONS[row + QUOTABLE] = (byte) other;
+    }
+
+    /**
+     * Returns the class of a character.
+     *
+     * @param c the character
+     * @return the character class
+     */
+    private static int classOf(char c) {
+        if (c < 128) {
+            return CLASSES[c];
+        }
+        return Character.isWhitespace(c) ? WHITESPACE : CONTROL;
+    }
+
+    /**
+     * Validates a single attribute value; the result is identical to
+     * {@link us.springett.parsers.cpe.util.Validate#component(String)}.
+     *
+     * @param value the value to validate
+     * @return the validation status of the value
+     */
+    public static Status component(String value) {
+        if (value == null || value.isEmpty()) {
+            return Status.EMPTY;
+        }
+        int state = START;
+        for (int x = 0; x < value.length() && state < ERROR; x++) {
+            state = TRANSITIONS[state * CLASS_COUNT + classOf(value.charAt(x))];
+        }
+        return status(state, value, 0, value.length());
+    }
+
+    /**
+     * Returns the validation status of a component once all of its characters
+     * have been consumed.
+     *
+     * @param state the final state
+     * @param value the string containing the component
+     * @param start the start of the component
+     * @param end the end of the component, exclusive
+     * @return the validation status
+     */
+    private static Status status(int state, String value, int start, int end) {
+        if (state >= ERROR) {
+            return ERRORS[state - ERROR];
+        } else if (start == end) {
+            return Status.EMPTY;
+        } else if (end - start == 2 && value.charAt(start) == '\\' && value.charAt(start + 1) == '-') {
+            return Status.SINGLE_QUOTED_HYPHEN;
+        }
+        return Status.VALID;
+    }
+
+    /**
+     * Scans a CPE 2.3 formatted string.
+     *
+     * @param cpe the CPE to scan
+     * @return the number of components found, or
+     * <code>COMPONENT_COUNT + 1</code> if the string contains more than
+     * {@link #COMPONENT_COUNT} components
+     * @throws CpeParsingException thrown if the value is not a CPE 2.3
+     * formatted string
+     */
+    public int scan(String cpe) throws CpeParsingException {
+        value = null;
+        if (cpe == null || !cpe.startsWith("cpe:2.3:")) {
+            throw new CpeParsingException("Invalid 2.3 CPE value: " + cpe);
+        }
+        final int length = cpe.length();
+        count = 0;
+        bounds[0] = 8;
+        int start = 8;
+        int state = START;
+        int componentFlags = 0;
+        for (int x = start; x < length; x++) {
+            final char c = cpe.charAt(x);
+            final int type = classOf(c);
+            if (type == COLON) {
+                finish(cpe, start, x, state, componentFlags);
+                if (count == COMPONENT_COUNT && x + 1 < length) {
+                    count++;
+                    break;
+                }
+                start = x + 1;
+                state = START;
+                componentFlags = 0;
+                continue;
+            } else if (type == BACKSLASH && x + 1 < length) {
+                //the quoted character is consumed with the backslash
+                componentFlags |= HAS_ESCAPE;
+                state = TRANSITIONS[state * CLASS_COUNT + BACKSLASH];
+                final int quoted = classOf(cpe.charAt(++x));
+                if (quoted == QUOTABLE) {
+                    componentFlags |= HAS_QUOTABLE;
+                }
+                state = TRANSITIONS[state * CLASS_COUNT + quoted];
+                continue;
+            } else if (type == QUESTION || type == ASTERISK) {
+                componentFlags |= HAS_WILDCARD;
+            } else if (type == QUOTABLE) {
+                componentFlags |= HAS_QUOTABLE;
+            }
+            state = TRANSITIONS[state * CLASS_COUNT + type];
+        }
+        if (count <= COMPONENT_COUNT && start < length) {
+            finish(cpe, start, length, state, componentFlags);
+        }
+        part = count == 0 ? null : toPart(cpe);
+        value = cpe;
+        return count;
+    }
+
+    /**
+     * Records a component.
+     *
+     * @param cpe the CPE being scanned
+     * @param start the start of the component
+     * @param end the end of the component, exclusive
+     * @param state the final state of the component
+     * @param componentFlags the flags collected for the component
+     */
+    private void finish(String cpe, int start, int end, int state, int componentFlags) {
+        int result = componentFlags;
+        if (start == end || (end - start == 1 && cpe.charAt(start) == '*')) {
+            result |= IS_ANY;
+        } else if (end - start == 1 && cpe.charAt(start) == '-') {
+            result |= IS_NA;
+        }
+        flags[count] = result;
+        statuses[count] = status(state, cpe, start, end);
+        bounds[++count] = end + 1;
+    }
+
+    /**
+     * Resolves the part component.
+     *
+     * @param cpe the CPE being scanned
+     * @return the part, or <code>null</code> if it is invalid
+     */
+    private Part toPart(String cpe) {
+        if (getEnd(0) - bounds[0] == 1) {
+            switch (cpe.charAt(bounds[0])) {
+                case 'a':
+                    return Part.APPLICATION;
+                case 'o':
+                    return Part.OPERATING_SYSTEM;
+                case 'h':
+                    return Part.HARDWARE_DEVICE;
+                case '*':
+                    return Part.ANY;
+                case '-':
+                    return Part.NA;
+                default:
+                    break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the string of the last scan.
+     *
+     * @return the string, or <code>null</code> if the last scan failed
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the number of components found by the last scan.
+     *
+     * @return the number of components, or <code>COMPONENT_COUNT + 1</code>
+     * if there are too many components
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the part of the last scan.
+     *
+     * @return the part, or <code>null</code> if the part component is missing
+     * or invalid
+     */
+    public Part getPart() {
+        return part;
+    }
+
+    /**
+     * Returns the start of a component.
+     *
+     * @param index the component index
+     * @return the start of the component
+     */
+    public int getStart(int index) {
+        return bounds[index];
+    }
+
+    /**
+     * Returns the end of a component.
+     *
+     * @param index the component index
+     * @return the end of the component, exclusive
+     */
+    public int getEnd(int index) {
+        return bounds[index + 1] - 1;
+    }
+
+    /**
+     * Returns the flags of a component.
+     *
+     * @param index the component index
+     * @return the flags of the component
+     */
+    public int getFlags(int index) {
+        return flags[index];
+    }
+
+    /**
+     * Returns the validation status of a component, as if validated with
+     * {@link us.springett.parsers.cpe.util.Validate#component(String)}.
+     *
+     * @param index the component index
+     * @return the validation status
+     */
+    public Status getStatus(int index) {
+        return statuses[index];
+    }
+
+    /**
+     * Returns the validation status of the last scan; the result is identical
+     * to {@link us.springett.parsers.cpe.util.Validate#formattedString(String)}.
+     *
+     * @return the validation status
+     */
+    public Status validate() {
+        if (count == 0) {
+            return Status.TOO_FEW_ELEMENTS;
+        } else if (part == null) {
+            return Status.INVALID_PART;
+        }
+        final int last = Math.min(count, COMPONENT_COUNT);
+        for (int x = 1; x < last; x++) {
+            if (!statuses[x].isValid()) {
+                return statuses[x];
+            }
+        }
+        if (count < COMPONENT_COUNT) {
+            return Status.TOO_FEW_ELEMENTS;
+        } else if (count > COMPONENT_COUNT) {
+            return Status.TOO_MANY_ELEMENTS;
+        }
+        return Status.VALID;
+    }
+}
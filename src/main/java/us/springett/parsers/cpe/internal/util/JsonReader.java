@@ -0,0 +1,386 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal recursive descent JSON reader used to load NVD data feeds without
+ * an additional dependency. Objects are read as a {@link LinkedHashMap},
+ * arrays as a {@link List}, and scalars as {@link String}, {@link Long},
+ * {@link Double}, {@link Boolean}, or <code>null</code>.
+ *
+ * @author Steve Springett
+ */
+public class JsonReader {
+
+    /**
+     * The size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * The maximum nesting depth of objects and arrays; deeper input is
+     * rejected rather than exhausting the stack.
+     */
+    public static final int MAX_DEPTH = 256;
+
+    /**
+     * The source of the JSON text.
+     */
+    private final Reader reader;
+    /**
+     * The read buffer.
+     */
+    private final char[] buffer = new char[BUFFER_SIZE];
+    /**
+     * The number of characters in the buffer.
+     */
+    private int limit;
+    /**
+     * The position of the next character in the buffer.
+     */
+    private int pos;
+    /**
+     * The number of characters consumed before the current buffer; used for
+     * error messages.
+     */
+    private long offset;
+    /**
+     * A scratch buffer for strings and numbers.
+     */
+    private final StringBuilder text = new StringBuilder();
+    /**
+     * The number of objects and arrays currently being read.
+     */
+    private int depth;
+
+    /**
+     * Constructs a new JSON reader.
+     *
+     * @param reader the source of the JSON text
+     */
+    public JsonReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads a single JSON value; the remainder of the input may only contain
+     * white space.
+     *
+     * @return the value
+     * @throws IOException thrown if the input cannot be read or is not valid
+     * JSON
+     */
+    public Object read() throws IOException {
+        final Object value = readValue();
+        if (skipWhitespace() >= 0) {
+            throw error("Unexpected content after the JSON value");
+        }
+        return value;
+    }
+
+    /**
+     * Reads a value starting at the next non white space character.
+     *
+     * @return the value
+     * @throws IOException thrown if the input cannot be read or is not valid
+     * JSON
+     */
+    private Object readValue() throws IOException {
+        final int c = skipWhitespace();
+        switch (c) {
+            case '{':
+                pos++;
+                enter();
+                final Map<String, Object> object = readObject();
+                depth--;
+                return object;
+            case '[':
+                pos++;
+                enter();
+                final List<Object> array = readArray();
+                depth--;
+                return array;
+            case '"':
+                pos++;
+                return readString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            case -1:
+                throw error("Unexpected end of input");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Records the start of an object or array.
+     *
+     * @throws IOException thrown if the maximum nesting depth is exceeded
+     */
+    private void enter() throws IOException {
+        if (++depth > MAX_DEPTH) {
+            throw error("Maximum nesting depth of " + MAX_DEPTH + " exceeded");
+        }
+    }
+
+    /**
+     * Reads the members of an object after the opening brace.
+     *
+     * @return the object
+     * @throws IOException thrown if the input cannot be read or is not valid
+     * JSON
+     */
+    private Map<String, Object> readObject() throws IOException {
+        final Map<String, Object> object = new LinkedHashMap<>();
+        if (skipWhitespace() == '}') {
+            pos++;
+            return object;
+        }
+        while (true) {
+            if (skipWhitespace() != '"') {
+                throw error("Expected a member name");
+            }
+            pos++;
+            final String name = readString();
+            if (skipWhitespace() != ':') {
+                throw error("Expected ':'");
+            }
+            pos++;
+            object.put(name, readValue());
+            final int c = skipWhitespace();
+            pos++;
+            if (c == '}') {
+                return object;
+            } else if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * Reads the elements of an array after the opening bracket.
+     *
+     * @return the array
+     * @throws IOException thrown if the input cannot be read or is not valid
+     * JSON
+     */
+    private List<Object> readArray() throws IOException {
+        final List<Object> array = new ArrayList<>();
+        if (skipWhitespace() == ']') {
+            pos++;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            final int c = skipWhitespace();
+            pos++;
+            if (c == ']') {
+                return array;
+            } else if (c != ',') {
+                throw error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * Reads a string after the opening quote.
+     *
+     * @return the string
+     * @throws IOException thrown if the input cannot be read or is not valid
+     * JSON
+     */
+    private String readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                return text.toString();
+            } else if (c == '\\') {
+                c = next();
+                switch (c) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        text.append((char) c);
+                        break;
+                    case 'b':
+                        text.append('\b');
+                        break;
+                    case 'f':
+                        text.append('\f');
+                        break;
+                    case 'n':
+                        text.append('\n');
+                        break;
+                    case 'r':
+                        text.append('\r');
+                        break;
+                    case 't':
+                        text.append('\t');
+                        break;
+                    case 'u':
+                        text.append(readHex());
+                        break;
+                    default:
+                        throw error("Invalid escape sequence");
+                }
+            } else if (c < 0x20) {
+                throw error(c < 0 ? "Unterminated string" : "Unescaped control character in string");
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Reads the four hexadecimal digits of a unicode escape.
+     *
+     * @return the escaped character
+     * @throws IOException thrown if the input cannot be read or is not valid
+     * JSON
+     */
+    private char readHex() throws IOException {
+        int value = 0;
+        for (int x = 0; x < 4; x++) {
+            final int digit = Character.digit(next(), 16);
+            if (digit < 0) {
+                throw error("Invalid unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    /**
+     * Reads a number.
+     *
+     * @return a {@link Long} for integers that fit, otherwise a {@link Double}
+     * @throws IOException thrown if the input cannot be read or is not valid
+     * JSON
+     */
+    private Number readNumber() throws IOException {
+        text.setLength(0);
+        boolean integer = true;
+        int c = peek();
+        while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+            integer &= c != '.' && c != 'e' && c != 'E';
+            text.append((char) c);
+            pos++;
+            c = peek();
+        }
+        final String number = text.toString();
+        try {
+            if (integer && number.length() < 19) {
+                return Long.parseLong(number);
+            }
+            return Double.parseDouble(number);
+        } catch (NumberFormatException ex) {
+            throw error("Invalid number '" + number + "'");
+        }
+    }
+
+    /**
+     * Consumes the given keyword.
+     *
+     * @param keyword the expected keyword
+     * @throws IOException thrown if the input cannot be read or does not
+     * contain the keyword
+     */
+    private void expect(String keyword) throws IOException {
+        for (int x = 0; x < keyword.length(); x++) {
+            if (next() != keyword.charAt(x)) {
+                throw error("Expected '" + keyword + "'");
+            }
+        }
+    }
+
+    /**
+     * Skips white space.
+     *
+     * @return the next character without consuming it, or -1 at the end of
+     * the input
+     * @throws IOException thrown if the input cannot be read
+     */
+    private int skipWhitespace() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            pos++;
+            c = peek();
+        }
+        return c;
+    }
+
+    /**
+     * Consumes the next character.
+     *
+     * @return the character, or -1 at the end of the input
+     * @throws IOException thrown if the input cannot be read
+     */
+    private int next() throws IOException {
+        final int c = peek();
+        if (c >= 0) {
+            pos++;
+        }
+        return c;
+    }
+
+    /**
+     * Returns the next character without consuming it.
+     *
+     * @return the character, or -1 at the end of the input
+     * @throws IOException thrown if the input cannot be read
+     */
+    private int peek() throws IOException {
+        if (pos == limit) {
+            offset += limit;
+            pos = 0;
+            limit = reader.read(buffer, 0, buffer.length);
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[pos];
+    }
+
+    /**
+     * Creates an exception describing invalid input at the current position.
+     *
+     * @param message the description of the problem
+     * @return the exception
+     */
+    private IOException error(String message) {
+        return new IOException(message + " at offset " + (offset + pos));
+    }
+}
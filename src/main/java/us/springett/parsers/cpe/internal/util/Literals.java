@@ -0,0 +1,73 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+/**
+ * Helpers for classifying and comparing well formed attribute values.
+ *
+ * @author Steve Springett
+ */
+public final class Literals {
+
+    /**
+     * Private constructor for a utility class.
+     */
+    private Literals() {
+    }
+
+    /**
+     * Determines whether a well formed value is a literal, i.e. it is neither
+     * ANY nor contains an unquoted wild card. NA is a literal.
+     *
+     * @param value the well formed value
+     * @return <code>true</code> if the value is a literal
+     */
+    public static boolean isLiteral(String value) {
+        for (int x = 0; x < value.length(); x++) {
+            char c = value.charAt(x);
+            if (c == '?' || c == '*') {
+                return false;
+            } else if (c == '\\') {
+                x += 1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Folds the case of a value so that two values are equal ignoring case if
+     * and only if their folded forms are equal.
+     *
+     * @param value the value
+     * @return the folded value
+     * @see String#equalsIgnoreCase(String)
+     */
+    public static String fold(String value) {
+        for (int x = 0; x < value.length(); x++) {
+            final char c = value.charAt(x);
+            if (Character.toLowerCase(Character.toUpperCase(c)) != c) {
+                final char[] chars = value.toCharArray();
+                for (int y = x; y < chars.length; y++) {
+                    chars[y] = Character.toLowerCase(Character.toUpperCase(chars[y]));
+                }
+                return new String(chars);
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash set of 128-bit values stored as pairs of longs. The
+ * values are expected to be well distributed hashes; the set stores them in
+ * two parallel arrays without any per-entry objects.
+ *
+ * @author Steve Springett
+ */
+public class LongPairHashSet {
+
+    /**
+     * The maximum load factor before the table is grown.
+     */
+    private static final double LOAD_FACTOR = 0.75;
+
+    /**
+     * The high halves of the values.
+     */
+    private long[] high;
+    /**
+     * The low halves of the values.
+     */
+    private long[] low;
+    /**
+     * Mask used to select a slot.
+     */
+    private int mask;
+    /**
+     * The number of values in the table (excluding the zero value).
+     */
+    private int size;
+    /**
+     * The number of values at which the table is grown.
+     */
+    private int threshold;
+    /**
+     * Whether or not the set contains the value zero, which marks empty slots.
+     */
+    private boolean containsZero;
+
+    /**
+     * Constructs a new set.
+     *
+     * @param expectedSize the expected number of values
+     */
+    public LongPairHashSet(int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Allocates the table.
+     *
+     * @param capacity the number of slots; a power of two
+     */
+    private void allocate(int capacity) {
+        high = new long[capacity];
+        low = new long[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Adds the value to the set.
+     *
+     * @param h the high half of the value
+     * @param l the low half of the value
+     * @return <code>true</code> if the value was added; <code>false</code> if
+     * it was already present
+     */
+    public boolean add(long h, long l) {
+        if (h == 0 && l == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            return true;
+        }
+        int slot = slot(h, l);
+        while (high[slot] != 0 || low[slot] != 0) {
+            if (high[slot] == h && low[slot] == l) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        high[slot] = h;
+        low[slot] = l;
+        if (++size > threshold) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether the set contains the value.
+     *
+     * @param h the high half of the value
+     * @param l the low half of the value
+     * @return <code>true</code> if the value is present; otherwise
+     * <code>false</code>
+     */
+    public boolean contains(long h, long l) {
+        if (h == 0 && l == 0) {
+            return containsZero;
+        }
+        int slot = slot(h, l);
+        while (high[slot] != 0 || low[slot] != 0) {
+            if (high[slot] == h && low[slot] == l) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of values in the set.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return containsZero ? size + 1 : size;
+    }
+
+    /**
+     * Removes all values from the set.
+     */
+    public void clear() {
+        Arrays.fill(high, 0);
+        Arrays.fill(low, 0);
+        size = 0;
+        containsZero = false;
+    }
+
+    /**
+     * Returns the first slot for the value.
+     *
+     * @param h the high half of the value
+     * @param l the low half of the value
+     * @return the slot
+     */
+    private int slot(long h, long l) {
+        long x = h ^ Long.rotateLeft(l, 32);
+        x *= 0x9E3779B97F4A7C15L;
+        return (int) (x >>> 32) & mask;
+    }
+
+    /**
+     * Doubles the capacity of the table.
+     */
+    private void grow() {
+        if (high.length == (1 << 30)) {
+            throw new IllegalStateException("The set cannot hold more than " + threshold + " values");
+        }
+        final long[] oldHigh = high;
+        final long[] oldLow = low;
+        allocate(oldHigh.length << 1);
+        for (int x = 0; x < oldHigh.length; x++) {
+            final long h = oldHigh[x];
+            final long l = oldLow[x];
+            if (h != 0 || l != 0) {
+                int slot = slot(h, l);
+                while (high[slot] != 0 || low[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                high[slot] = h;
+                low[slot] = l;
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+/**
+ * A pure Java implementation of the 128-bit x64 variant of MurmurHash3 by
+ * Austin Appleby. The results are identical to the reference implementation
+ * (and to Guava's <code>murmur3_128</code>): <code>h1</code> holds the first
+ * eight bytes of the digest and <code>h2</code> the last eight, both little
+ * endian.
+ *
+ * @author Steve Springett
+ */
+public final class Murmur3 {
+
+    /**
+     * The first mixing constant.
+     */
+    private static final long C1 = 0x87c37b91114253d5L;
+    /**
+     * The second mixing constant.
+     */
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    /**
+     * Private constructor for a utility class.
+     */
+    private Murmur3() {
+    }
+
+    /**
+     * Computes the 128-bit hash of the given bytes.
+     *
+     * @param data the data to hash
+     * @param offset the offset of the first byte to hash
+     * @param length the number of bytes to hash
+     * @param seed the seed
+     * @param result an array of at least two elements that receives
+     * <code>h1</code> and <code>h2</code>
+     */
+    public static void hash128(byte[] data, int offset, int length, long seed, long[] result) {
+        long h1 = seed;
+        long h2 = seed;
+        final int blocks = length >>> 4;
+        int pos = offset;
+        for (int i = 0; i < blocks; i++, pos += 16) {
+            long k1 = getLong(data, pos);
+            long k2 = getLong(data, pos + 8);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        switch (length & 15) {
+            case 15:
+                k2 ^= (long) (data[pos + 14] & 0xFF) << 48;
+            case 14:
+                k2 ^= (long) (data[pos + 13] & 0xFF) << 40;
+            case 13:
+                k2 ^= (long) (data[pos + 12] & 0xFF) << 32;
+            case 12:
+                k2 ^= (long) (data[pos + 11] & 0xFF) << 24;
+            case 11:
+                k2 ^= (long) (data[pos + 10] & 0xFF) << 16;
+            case 10:
+                k2 ^= (long) (data[pos + 9] & 0xFF) << 8;
+            case 9:
+                k2 ^= data[pos + 8] & 0xFF;
+                h2 ^= mixK2(k2);
+            case 8:
+                k1 ^= (long) (data[pos + 7] & 0xFF) << 56;
+            case 7:
+                k1 ^= (long) (data[pos + 6] & 0xFF) << 48;
+            case 6:
+                k1 ^= (long) (data[pos + 5] & 0xFF) << 40;
+            case 5:
+                k1 ^= (long) (data[pos + 4] & 0xFF) << 32;
+            case 4:
+                k1 ^= (long) (data[pos + 3] & 0xFF) << 24;
+            case 3:
+                k1 ^= (long) (data[pos + 2] & 0xFF) << 16;
+            case 2:
+                k1 ^= (long) (data[pos + 1] & 0xFF) << 8;
+            case 1:
+                k1 ^= data[pos] & 0xFF;
+                h1 ^= mixK1(k1);
+            default:
+                break;
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        result[0] = h1;
+        result[1] = h2;
+    }
+
+    /**
+     * Reads a little endian long.
+     *
+     * @param data the data
+     * @param pos the position of the first byte
+     * @return the long value
+     */
+    private static long getLong(byte[] data, int pos) {
+        return (data[pos] & 0xFFL)
+                | (data[pos + 1] & 0xFFL) << 8
+                | (data[pos + 2] & 0xFFL) << 16
+                | (data[pos + 3] & 0xFFL) << 24
+                | (data[pos + 4] & 0xFFL) << 32
+                | (data[pos + 5] & 0xFFL) << 40
+                | (data[pos + 6] & 0xFFL) << 48
+                | (data[pos + 7] & 0xFFL) << 56;
+    }
+
+    /**
+     * Mixes the first half of a block.
+     *
+     * @param k1 the first half of the block
+     * @return the mixed value
+     */
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    /**
+     * Mixes the second half of a block.
+     *
+     * @param k2 the second half of the block
+     * @return the mixed value
+     */
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    /**
+     * The final avalanche mix.
+     *
+     * @param k the value to mix
+     * @return the mixed value
+     */
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.metrics;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Holds the {@link CpeMetricsListener} used by the library. The listener is
+ * resolved once, when this class is initialized:</p>
+ * <ol>
+ * <li>the class named by the <code>{@value #LISTENER_PROPERTY}</code> system
+ * property;</li>
+ * <li>the first implementation registered with {@link ServiceLoader};</li>
+ * <li>otherwise {@link CpeMetricsListener#NOOP}.</li>
+ * </ol>
+ * <p>
+ * The instrumented code checks {@link #ENABLED} before building any event, so
+ * when no listener is configured the JIT removes the instrumentation
+ * entirely.</p>
+ *
+ * @author Steve Springett
+ */
+public final class CpeMetrics {
+
+    /**
+     * The system property used to name the listener implementation.
+     */
+    public static final String LISTENER_PROPERTY = "us.springett.parsers.cpe.metrics.listener";
+    /**
+     * The logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(CpeMetrics.class);
+    /**
+     * The resolved listener.
+     */
+    private static final CpeMetricsListener LISTENER = resolve(readProperty(), CpeMetrics.class.getClassLoader());
+    /**
+     * Whether or not a listener is configured.
+     */
+    public static final boolean ENABLED = LISTENER != CpeMetricsListener.NOOP;
+    /**
+     * Whether or not the configured listener requested timing.
+     */
+    public static final boolean TIMING = ENABLED && LISTENER.isTimingEnabled();
+
+    /**
+     * Private constructor for a utility class.
+     */
+    private CpeMetrics() {
+    }
+
+    /**
+     * Returns the configured listener.
+     *
+     * @return the listener; never <code>null</code>
+     */
+    public static CpeMetricsListener listener() {
+        return LISTENER;
+    }
+
+    /**
+     * Reads the listener system property.
+     *
+     * @return the property value or <code>null</code>
+     */
+    private static String readProperty() {
+        try {
+            return System.getProperty(LISTENER_PROPERTY);
+        } catch (SecurityException ex) {
+            LOG.debug("Unable to read the metrics listener property", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Resolves the listener.
+     *
+     * @param className the name of the listener class, or <code>null</code> to
+     * use the service loader
+     * @param loader the class loader used to load the listener
+     * @return the listener; {@link CpeMetricsListener#NOOP} if none could be
+     * resolved
+     */
+    static CpeMetricsListener resolve(String className, ClassLoader loader) {
+        if (className != null && !className.trim().isEmpty()) {
+            try {
+                Class<?> type = Class.forName(className.trim(), true, loader);
+                return (CpeMetricsListener) type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException | LinkageError ex) {
+                LOG.warn("Unable to create the metrics listener '{}'; metrics are disabled", className, ex);
+                return CpeMetricsListener.NOOP;
+            }
+        }
+        try {
+            Iterator<CpeMetricsListener> iterator = ServiceLoader.load(CpeMetricsListener.class, loader).iterator();
+            if (iterator.hasNext()) {
+                return iterator.next();
+            }
+        } catch (ServiceConfigurationError ex) {
+            LOG.warn("Unable to load the metrics listener; metrics are disabled", ex);
+        }
+        return CpeMetricsListener.NOOP;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.metrics;
+
+import us.springett.parsers.cpe.util.Status;
+
+/**
+ * <p>
+ * Receives notifications from the hot paths of the library. Every method has a
+ * no-op default so implementations only override the events of interest.</p>
+ * <p>
+ * A single listener is resolved once by {@link CpeMetrics}; implementations
+ * are called concurrently from any thread and must be thread safe and cheap.</p>
+ *
+ * @author Steve Springett
+ */
+public interface CpeMetricsListener {
+
+    /**
+     * A listener that ignores every event.
+     */
+    CpeMetricsListener NOOP = new CpeMetricsListener() {
+    };
+
+    /**
+     * The format of a parsed CPE string.
+     */
+    enum Format {
+        /**
+         * A CPE 2.2 URI.
+         */
+        CPE_22_URI,
+        /**
+         * A CPE 2.3 Formatted String.
+         */
+        CPE_23_FS,
+        /**
+         * A null value or a string in neither format.
+         */
+        UNKNOWN
+    }
+
+    /**
+     * Whether or not the library should measure the elapsed time of each
+     * parse; consulted once when the listener is resolved.
+     *
+     * @return <code>true</code> if the elapsed time should be measured;
+     * otherwise <code>false</code>
+     */
+    default boolean isTimingEnabled() {
+        return false;
+    }
+
+    /**
+     * Called after a CPE string was parsed.
+     *
+     * @param format the format of the CPE string
+     * @param success <code>true</code> if the string was parsed;
+     * <code>false</code> if parsing failed
+     * @param elapsedNanos the elapsed time in nanoseconds, or <code>-1</code>
+     * if timing is not enabled
+     */
+    default void parsed(Format format, boolean success, long elapsedNanos) {
+    }
+
+    /**
+     * Called when a value fails validation.
+     *
+     * @param status the validation status
+     */
+    default void validationFailed(Status status) {
+    }
+
+    /**
+     * Called after two CPE were matched.
+     *
+     * @param result the result of the match
+     */
+    default void matched(boolean result) {
+    }
+
+    /**
+     * Called when an attribute comparison has to evaluate wild cards.
+     */
+    default void wildcardCompared() {
+    }
+}
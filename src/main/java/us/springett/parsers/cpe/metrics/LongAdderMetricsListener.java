@@ -0,0 +1,302 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import us.springett.parsers.cpe.util.Status;
+
+/**
+ * <p>
+ * A {@link CpeMetricsListener} that records every event in
+ * {@link LongAdder} counters and does not require a metrics library. The
+ * counters are read with {@link #snapshot()}.</p>
+ * <p>
+ * The optional parse latency histogram uses power of two buckets: bucket
+ * <code>n</code> counts the parses that took between <code>2^n</code> and
+ * <code>2^(n+1)-1</code> nanoseconds (bucket zero also counts zero).</p>
+ *
+ * @author Steve Springett
+ */
+public class LongAdderMetricsListener implements CpeMetricsListener {
+
+    /**
+     * The number of latency histogram buckets.
+     */
+    public static final int HISTOGRAM_BUCKETS = 64;
+    /**
+     * The formats.
+     */
+    private static final Format[] FORMATS = Format.values();
+    /**
+     * The validation statuses.
+     */
+    private static final Status[] STATUSES = Status.values();
+
+    /**
+     * Whether or not the parse latency is measured.
+     */
+    private final boolean timingEnabled;
+    /**
+     * The successful parses, indexed by format.
+     */
+    private final LongAdder[] parsed = newAdders(FORMATS.length);
+    /**
+     * The failed parses, indexed by format.
+     */
+    private final LongAdder[] parseFailures = newAdders(FORMATS.length);
+    /**
+     * The validation failures, indexed by status.
+     */
+    private final LongAdder[] validationFailures = newAdders(STATUSES.length);
+    /**
+     * The number of matches.
+     */
+    private final LongAdder matches = new LongAdder();
+    /**
+     * The number of successful matches.
+     */
+    private final LongAdder matchSuccesses = new LongAdder();
+    /**
+     * The number of wild card comparisons.
+     */
+    private final LongAdder wildcardComparisons = new LongAdder();
+    /**
+     * The parse latency histogram.
+     */
+    private final LongAdder[] latency = newAdders(HISTOGRAM_BUCKETS);
+
+    /**
+     * Constructs a new listener without latency measurements.
+     */
+    public LongAdderMetricsListener() {
+        this(false);
+    }
+
+    /**
+     * Constructs a new listener.
+     *
+     * @param timingEnabled whether or not to measure the parse latency
+     */
+    public LongAdderMetricsListener(boolean timingEnabled) {
+        this.timingEnabled = timingEnabled;
+    }
+
+    /**
+     * Creates an array of counters.
+     *
+     * @param size the size of the array
+     * @return the counters
+     */
+    private static LongAdder[] newAdders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int x = 0; x < size; x++) {
+            adders[x] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Reads an array of counters.
+     *
+     * @param adders the counters
+     * @return the counter values
+     */
+    private static long[] sum(LongAdder[] adders) {
+        long[] values = new long[adders.length];
+        for (int x = 0; x < adders.length; x++) {
+            values[x] = adders[x].sum();
+        }
+        return values;
+    }
+
+    @Override
+    public boolean isTimingEnabled() {
+        return timingEnabled;
+    }
+
+    @Override
+    public void parsed(Format format, boolean success, long elapsedNanos) {
+        if (success) {
+            parsed[format.ordinal()].increment();
+        } else {
+            parseFailures[format.ordinal()].increment();
+        }
+        if (elapsedNanos >= 0) {
+            latency[63 - Long.numberOfLeadingZeros(elapsedNanos | 1)].increment();
+        }
+    }
+
+    @Override
+    public void validationFailed(Status status) {
+        validationFailures[status.ordinal()].increment();
+    }
+
+    @Override
+    public void matched(boolean result) {
+        matches.increment();
+        if (result) {
+            matchSuccesses.increment();
+        }
+    }
+
+    @Override
+    public void wildcardCompared() {
+        wildcardComparisons.increment();
+    }
+
+    /**
+     * Returns a point in time copy of the counters. Counters updated
+     * concurrently with the snapshot may or may not be included.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(sum(parsed), sum(parseFailures), sum(validationFailures), matches.sum(),
+                matchSuccesses.sum(), wildcardComparisons.sum(), sum(latency));
+    }
+
+    /**
+     * An immutable copy of the counters of a {@link LongAdderMetricsListener}.
+     */
+    public static final class Snapshot {
+
+        /**
+         * The successful parses, indexed by format.
+         */
+        private final long[] parsed;
+        /**
+         * The failed parses, indexed by format.
+         */
+        private final long[] parseFailures;
+        /**
+         * The validation failures, indexed by status.
+         */
+        private final long[] validationFailures;
+        /**
+         * The number of matches.
+         */
+        private final long matches;
+        /**
+         * The number of successful matches.
+         */
+        private final long matchSuccesses;
+        /**
+         * The number of wild card comparisons.
+         */
+        private final long wildcardComparisons;
+        /**
+         * The parse latency histogram.
+         */
+        private final long[] latency;
+
+        /**
+         * Constructs a new snapshot.
+         *
+         * @param parsed the successful parses
+         * @param parseFailures the failed parses
+         * @param validationFailures the validation failures
+         * @param matches the number of matches
+         * @param matchSuccesses the number of successful matches
+         * @param wildcardComparisons the number of wild card comparisons
+         * @param latency the parse latency histogram
+         */
+        Snapshot(long[] parsed, long[] parseFailures, long[] validationFailures, long matches,
+                long matchSuccesses, long wildcardComparisons, long[] latency) {
+            this.parsed = parsed;
+            this.parseFailures = parseFailures;
+            this.validationFailures = validationFailures;
+            this.matches = matches;
+            this.matchSuccesses = matchSuccesses;
+            this.wildcardComparisons = wildcardComparisons;
+            this.latency = latency;
+        }
+
+        /**
+         * Returns the number of parses of the given format and outcome.
+         *
+         * @param format the format
+         * @param success <code>true</code> for successful parses;
+         * <code>false</code> for failed parses
+         * @return the number of parses
+         */
+        public long getParseCount(Format format, boolean success) {
+            return success ? parsed[format.ordinal()] : parseFailures[format.ordinal()];
+        }
+
+        /**
+         * Returns the total number of parses.
+         *
+         * @return the number of parses
+         */
+        public long getParseCount() {
+            long total = 0;
+            for (int x = 0; x < parsed.length; x++) {
+                total += parsed[x] + parseFailures[x];
+            }
+            return total;
+        }
+
+        /**
+         * Returns the number of validation failures with the given status.
+         *
+         * @param status the validation status
+         * @return the number of validation failures
+         */
+        public long getValidationFailureCount(Status status) {
+            return validationFailures[status.ordinal()];
+        }
+
+        /**
+         * Returns the number of matches.
+         *
+         * @return the number of matches
+         */
+        public long getMatchCount() {
+            return matches;
+        }
+
+        /**
+         * Returns the number of matches that returned <code>true</code>.
+         *
+         * @return the number of successful matches
+         */
+        public long getMatchSuccessCount() {
+            return matchSuccesses;
+        }
+
+        /**
+         * Returns the number of attribute comparisons that evaluated wild
+         * cards.
+         *
+         * @return the number of wild card comparisons
+         */
+        public long getWildcardComparisonCount() {
+            return wildcardComparisons;
+        }
+
+        /**
+         * Returns a copy of the parse latency histogram; see
+         * {@link LongAdderMetricsListener}.
+         *
+         * @return the parse latency histogram
+         */
+        public long[] getParseLatencyHistogram() {
+            return latency.clone();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Optional instrumentation of parsing, validation, and matching.
+ */
+package us.springett.parsers.cpe.metrics;
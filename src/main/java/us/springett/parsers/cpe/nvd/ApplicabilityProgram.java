@@ -0,0 +1,429 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.nvd;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.internal.util.Literals;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Configuration;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Node;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Operator;
+
+/**
+ * <p>
+ * A set of applicability statements compiled into flat arrays so that an
+ * inventory can be evaluated against all of them in one pass. Equal match
+ * criteria and equal nodes are shared between statements; e.g. the
+ * operating system nodes repeated across thousands of CVEs are stored and
+ * evaluated once.</p>
+ * <p>
+ * Evaluation first determines which distinct criteria are satisfied by the
+ * inventory. Criteria with a literal vendor and product are indexed by both
+ * values, so an inventory CPE is only compared to the criteria for its own
+ * vendor:product and to the few criteria containing wild cards. The nodes,
+ * configurations and statements are then evaluated bottom up over the
+ * arrays without recursion. The results are identical to
+ * {@link ApplicabilityStatement#appliesTo(Collection)}.</p>
+ * <p>
+ * A program is immutable and may be shared between threads.</p>
+ *
+ * @author Steve Springett
+ */
+public class ApplicabilityProgram {
+
+    /**
+     * The distinct criteria.
+     */
+    private final CpeMatchCriteria[] criteria;
+    /**
+     * The criteria that are vulnerable.
+     */
+    private final BitSet vulnerable;
+    /**
+     * The criteria with a literal vendor and product, by folded
+     * vendor:product.
+     */
+    private final Map<String, int[]> byProduct;
+    /**
+     * The criteria with a vendor or product that is not literal.
+     */
+    private final int[] unindexed;
+    /**
+     * The criteria of the nodes; the criteria of node <code>n</code> are
+     * <code>nodeCriteria[nodeStart[n]]</code> up to but excluding
+     * <code>nodeCriteria[nodeStart[n + 1]]</code>.
+     */
+    private final int[] nodeCriteria;
+    /**
+     * The start of the criteria of each node.
+     */
+    private final int[] nodeStart;
+    /**
+     * The nodes that combine their criteria with AND.
+     */
+    private final BitSet nodeAnd;
+    /**
+     * The nodes that are negated.
+     */
+    private final BitSet nodeNegate;
+    /**
+     * The nodes of the configurations, laid out as the node criteria.
+     */
+    private final int[] configurationNodes;
+    /**
+     * The start of the nodes of each configuration.
+     */
+    private final int[] configurationStart;
+    /**
+     * The configurations that combine their nodes with AND.
+     */
+    private final BitSet configurationAnd;
+    /**
+     * The configurations that are negated.
+     */
+    private final BitSet configurationNegate;
+    /**
+     * The start of the configurations of each statement; the configurations
+     * of a statement are consecutive.
+     */
+    private final int[] statementStart;
+    /**
+     * The identifiers of the statements.
+     */
+    private final String[] ids;
+
+    /**
+     * Constructs a new program from the compiler's output.
+     *
+     * @param compiler the compiler
+     */
+    private ApplicabilityProgram(Compiler compiler) {
+        criteria = compiler.criteria.toArray(new CpeMatchCriteria[0]);
+        vulnerable = new BitSet(criteria.length);
+        final Map<String, List<Integer>> indexed = new HashMap<>();
+        final List<Integer> other = new ArrayList<>();
+        for (int x = 0; x < criteria.length; x++) {
+            vulnerable.set(x, criteria[x].isVulnerable());
+            final String key = key(criteria[x].getCriteria());
+            if (key == null) {
+                other.add(x);
+            } else {
+                indexed.computeIfAbsent(key, k -> new ArrayList<>()).add(x);
+            }
+        }
+        byProduct = new HashMap<>(indexed.size() * 4 / 3 + 1);
+        indexed.forEach((key, list) -> byProduct.put(key, toArray(list)));
+        unindexed = toArray(other);
+        nodeCriteria = toArray(compiler.nodeCriteria);
+        nodeStart = toArray(compiler.nodeStart);
+        nodeAnd = compiler.nodeAnd;
+        nodeNegate = compiler.nodeNegate;
+        configurationNodes = toArray(compiler.configurationNodes);
+        configurationStart = toArray(compiler.configurationStart);
+        configurationAnd = compiler.configurationAnd;
+        configurationNegate = compiler.configurationNegate;
+        statementStart = toArray(compiler.statementStart);
+        ids = compiler.ids.toArray(new String[0]);
+    }
+
+    /**
+     * Compiles applicability statements into a program.
+     *
+     * @param statements the statements
+     * @return the program
+     */
+    public static ApplicabilityProgram compile(Collection<ApplicabilityStatement> statements) {
+        final Compiler compiler = new Compiler();
+        for (ApplicabilityStatement statement : statements) {
+            compiler.add(statement);
+        }
+        return new ApplicabilityProgram(compiler);
+    }
+
+    /**
+     * Returns the number of statements in the program.
+     *
+     * @return the number of statements
+     */
+    public int getStatementCount() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the number of distinct match criteria in the program.
+     *
+     * @return the number of distinct criteria
+     */
+    public int getCriteriaCount() {
+        return criteria.length;
+    }
+
+    /**
+     * Returns the number of distinct nodes in the program.
+     *
+     * @return the number of distinct nodes
+     */
+    public int getNodeCount() {
+        return nodeStart.length - 1;
+    }
+
+    /**
+     * Evaluates every statement against an inventory.
+     *
+     * @param inventory the CPE of the inventory
+     * @return the identifiers of the statements that apply to the inventory,
+     * in the order the statements were compiled
+     */
+    public List<String> evaluate(Collection<? extends ICpe> inventory) {
+        final BitSet matched = matchCriteria(inventory);
+
+        final int nodes = nodeStart.length - 1;
+        final BitSet nodeValue = new BitSet(nodes);
+        final BitSet nodeVulnerable = new BitSet(nodes);
+        for (int n = 0; n < nodes; n++) {
+            final boolean and = nodeAnd.get(n);
+            boolean value = and;
+            boolean hit = false;
+            for (int x = nodeStart[n]; x < nodeStart[n + 1]; x++) {
+                final int c = nodeCriteria[x];
+                final boolean m = matched.get(c);
+                value = and ? value & m : value | m;
+                hit |= m && vulnerable.get(c);
+            }
+            final boolean negate = nodeNegate.get(n);
+            value ^= negate;
+            nodeValue.set(n, value);
+            nodeVulnerable.set(n, value && hit && !negate);
+        }
+
+        final List<String> applicable = new ArrayList<>();
+        for (int s = 0; s < ids.length; s++) {
+            for (int c = statementStart[s]; c < statementStart[s + 1]; c++) {
+                final boolean and = configurationAnd.get(c);
+                boolean value = and;
+                boolean hit = false;
+                for (int x = configurationStart[c]; x < configurationStart[c + 1]; x++) {
+                    final int n = configurationNodes[x];
+                    value = and ? value & nodeValue.get(n) : value | nodeValue.get(n);
+                    hit |= nodeVulnerable.get(n);
+                }
+                if (hit && value != configurationNegate.get(c)) {
+                    applicable.add(ids[s]);
+                    break;
+                }
+            }
+        }
+        return applicable;
+    }
+
+    /**
+     * Determines which distinct criteria are satisfied by an inventory.
+     *
+     * @param inventory the CPE of the inventory
+     * @return the satisfied criteria
+     */
+    private BitSet matchCriteria(Collection<? extends ICpe> inventory) {
+        final BitSet matched = new BitSet(criteria.length);
+        for (ICpe cpe : inventory) {
+            final String key = key(cpe);
+            if (key == null) {
+                for (int x = 0; x < criteria.length; x++) {
+                    match(matched, x, cpe);
+                }
+            } else {
+                final int[] candidates = byProduct.get(key);
+                if (candidates != null) {
+                    for (int x : candidates) {
+                        match(matched, x, cpe);
+                    }
+                }
+                for (int x : unindexed) {
+                    match(matched, x, cpe);
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Records whether a criterion not yet satisfied is satisfied by a CPE.
+     *
+     * @param matched the satisfied criteria
+     * @param index the index of the criterion
+     * @param cpe the CPE
+     */
+    private void match(BitSet matched, int index, ICpe cpe) {
+        if (!matched.get(index) && criteria[index].matches(cpe)) {
+            matched.set(index);
+        }
+    }
+
+    /**
+     * Returns the index key of a CPE. Two literal values only match if they
+     * are equal ignoring case, so a CPE with a literal vendor and product can
+     * only match criteria with the same key, or criteria without one.
+     *
+     * @param cpe the CPE
+     * @return the folded vendor:product, or <code>null</code> if either is
+     * not literal
+     */
+    private static String key(ICpe cpe) {
+        final String vendor = cpe.getWellFormedVendor();
+        final String product = cpe.getWellFormedProduct();
+        if (!Literals.isLiteral(vendor) || !Literals.isLiteral(product)) {
+            return null;
+        }
+        return Literals.fold(vendor) + ':' + Literals.fold(product);
+    }
+
+    /**
+     * Converts a list of integers to an array.
+     *
+     * @param list the list
+     * @return the array
+     */
+    private static int[] toArray(List<Integer> list) {
+        final int[] array = new int[list.size()];
+        for (int x = 0; x < array.length; x++) {
+            array[x] = list.get(x);
+        }
+        return array;
+    }
+
+    /**
+     * Flattens statements, sharing equal criteria and nodes.
+     */
+    private static class Compiler {
+
+        /**
+         * The distinct criteria.
+         */
+        private final List<CpeMatchCriteria> criteria = new ArrayList<>();
+        /**
+         * The index of each distinct criterion.
+         */
+        private final Map<CpeMatchCriteria, Integer> criteriaIndex = new HashMap<>();
+        /**
+         * The index of each distinct node, keyed by its operator, negation
+         * and criteria.
+         */
+        private final Map<List<Integer>, Integer> nodeIndex = new HashMap<>();
+        /**
+         * The criteria of the nodes.
+         */
+        private final List<Integer> nodeCriteria = new ArrayList<>();
+        /**
+         * The start of the criteria of each node.
+         */
+        private final List<Integer> nodeStart = new ArrayList<>();
+        /**
+         * The nodes that combine their criteria with AND.
+         */
+        private final BitSet nodeAnd = new BitSet();
+        /**
+         * The nodes that are negated.
+         */
+        private final BitSet nodeNegate = new BitSet();
+        /**
+         * The nodes of the configurations.
+         */
+        private final List<Integer> configurationNodes = new ArrayList<>();
+        /**
+         * The start of the nodes of each configuration.
+         */
+        private final List<Integer> configurationStart = new ArrayList<>();
+        /**
+         * The configurations that combine their nodes with AND.
+         */
+        private final BitSet configurationAnd = new BitSet();
+        /**
+         * The configurations that are negated.
+         */
+        private final BitSet configurationNegate = new BitSet();
+        /**
+         * The start of the configurations of each statement.
+         */
+        private final List<Integer> statementStart = new ArrayList<>();
+        /**
+         * The identifiers of the statements.
+         */
+        private final List<String> ids = new ArrayList<>();
+
+        /**
+         * Constructs a new compiler.
+         */
+        Compiler() {
+            nodeStart.add(0);
+            configurationStart.add(0);
+            statementStart.add(0);
+        }
+
+        /**
+         * Adds a statement.
+         *
+         * @param statement the statement
+         */
+        void add(ApplicabilityStatement statement) {
+            for (Configuration configuration : statement.getConfigurations()) {
+                final int c = configurationStart.size() - 1;
+                configurationAnd.set(c, configuration.getOperator() == Operator.AND);
+                configurationNegate.set(c, configuration.isNegate());
+                for (Node node : configuration.getNodes()) {
+                    configurationNodes.add(add(node));
+                }
+                configurationStart.add(configurationNodes.size());
+            }
+            statementStart.add(configurationStart.size() - 1);
+            ids.add(statement.getId());
+        }
+
+        /**
+         * Adds a node unless an equal node has already been added.
+         *
+         * @param node the node
+         * @return the index of the node
+         */
+        private int add(Node node) {
+            final List<Integer> key = new ArrayList<>(node.getCriteria().size() + 2);
+            key.add(node.getOperator().ordinal());
+            key.add(node.isNegate() ? 1 : 0);
+            for (CpeMatchCriteria c : node.getCriteria()) {
+                key.add(criteriaIndex.computeIfAbsent(c, k -> {
+                    criteria.add(k);
+                    return criteria.size() - 1;
+                }));
+            }
+            final Integer existing = nodeIndex.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            final int n = nodeStart.size() - 1;
+            nodeAnd.set(n, node.getOperator() == Operator.AND);
+            nodeNegate.set(n, node.isNegate());
+            nodeCriteria.addAll(key.subList(2, key.size()));
+            nodeStart.add(nodeCriteria.size());
+            nodeIndex.put(key, n);
+            return n;
+        }
+    }
+}
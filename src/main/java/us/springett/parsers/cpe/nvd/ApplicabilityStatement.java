@@ -0,0 +1,312 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.nvd;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import us.springett.parsers.cpe.ICpe;
+
+/**
+ * <p>
+ * The applicability statement of a CVE: the NVD configurations describing
+ * the platforms it affects. A configuration is a tree of two levels; the
+ * nodes combine <code>cpeMatch</code> criteria, and the configuration
+ * combines the nodes, each with an operator and an optional negation.</p>
+ * <p>
+ * A criterion is satisfied if any CPE of an inventory satisfies it. A
+ * configuration applies to an inventory if it evaluates to
+ * <code>true</code> and at least one vulnerable criterion is satisfied in a
+ * node that is neither negated nor false; i.e. only matching the platform a
+ * vulnerable application runs on is not enough. A statement applies if any
+ * of its configurations applies.</p>
+ * <p>
+ * {@link #appliesTo(Collection)} evaluates a single statement recursively;
+ * to evaluate many statements against an inventory compile them into an
+ * {@link ApplicabilityProgram}.</p>
+ *
+ * @author Steve Springett
+ */
+public class ApplicabilityStatement {
+
+    /**
+     * The operator combining the children of a node or configuration.
+     */
+    public enum Operator {
+        /**
+         * All children must be <code>true</code>; an empty conjunction is
+         * <code>true</code>.
+         */
+        AND,
+        /**
+         * At least one child must be <code>true</code>; an empty disjunction
+         * is <code>false</code>.
+         */
+        OR
+    }
+
+    /**
+     * The identifier of the statement, e.g. the CVE identifier.
+     */
+    private final String id;
+    /**
+     * The configurations.
+     */
+    private final List<Configuration> configurations;
+
+    /**
+     * Constructs a new applicability statement.
+     *
+     * @param id the identifier of the statement, e.g. the CVE identifier
+     * @param configurations the configurations
+     */
+    public ApplicabilityStatement(String id, List<Configuration> configurations) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.configurations = Collections.unmodifiableList(new ArrayList<>(configurations));
+    }
+
+    /**
+     * Returns the identifier of the statement.
+     *
+     * @return the identifier of the statement
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the configurations.
+     *
+     * @return an unmodifiable list of the configurations
+     */
+    public List<Configuration> getConfigurations() {
+        return configurations;
+    }
+
+    /**
+     * Determines whether the statement applies to an inventory.
+     *
+     * @param inventory the CPE of the inventory
+     * @return <code>true</code> if any configuration applies to the inventory
+     */
+    public boolean appliesTo(Collection<? extends ICpe> inventory) {
+        for (Configuration configuration : configurations) {
+            if (configuration.appliesTo(inventory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return id + configurations;
+    }
+
+    /**
+     * Combines the given values.
+     *
+     * @param operator the operator
+     * @param negate whether the result is negated
+     * @param values the values
+     * @return the combined value
+     */
+    static boolean combine(Operator operator, boolean negate, boolean[] values) {
+        boolean result = operator == Operator.AND;
+        for (boolean value : values) {
+            if (value != result) {
+                result = value;
+                break;
+            }
+        }
+        return result != negate;
+    }
+
+    /**
+     * A configuration: a combination of nodes.
+     */
+    public static class Configuration {
+
+        /**
+         * The operator combining the nodes.
+         */
+        private final Operator operator;
+        /**
+         * Whether the combination of the nodes is negated.
+         */
+        private final boolean negate;
+        /**
+         * The nodes.
+         */
+        private final List<Node> nodes;
+
+        /**
+         * Constructs a new configuration.
+         *
+         * @param operator the operator combining the nodes
+         * @param negate whether the combination of the nodes is negated
+         * @param nodes the nodes
+         */
+        public Configuration(Operator operator, boolean negate, List<Node> nodes) {
+            this.operator = Objects.requireNonNull(operator, "operator");
+            this.negate = negate;
+            this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        }
+
+        /**
+         * Returns the operator combining the nodes.
+         *
+         * @return the operator
+         */
+        public Operator getOperator() {
+            return operator;
+        }
+
+        /**
+         * Returns whether the combination of the nodes is negated.
+         *
+         * @return <code>true</code> if the combination is negated
+         */
+        public boolean isNegate() {
+            return negate;
+        }
+
+        /**
+         * Returns the nodes.
+         *
+         * @return an unmodifiable list of the nodes
+         */
+        public List<Node> getNodes() {
+            return nodes;
+        }
+
+        /**
+         * Determines whether the configuration applies to an inventory.
+         *
+         * @param inventory the CPE of the inventory
+         * @return <code>true</code> if the configuration is satisfied and a
+         * vulnerable criterion is satisfied in a satisfied, non negated node
+         */
+        public boolean appliesTo(Collection<? extends ICpe> inventory) {
+            final boolean[] values = new boolean[nodes.size()];
+            boolean vulnerable = false;
+            for (int x = 0; x < values.length; x++) {
+                final Node node = nodes.get(x);
+                final boolean[] matched = node.evaluate(inventory);
+                values[x] = combine(node.getOperator(), node.isNegate(), matched);
+                if (values[x] && !node.isNegate()) {
+                    for (int y = 0; y < matched.length; y++) {
+                        vulnerable |= matched[y] && node.getCriteria().get(y).isVulnerable();
+                    }
+                }
+            }
+            return vulnerable && combine(operator, negate, values);
+        }
+
+        @Override
+        public String toString() {
+            return (negate ? "NOT " : "") + operator + nodes;
+        }
+    }
+
+    /**
+     * A node: a combination of match criteria.
+     */
+    public static class Node {
+
+        /**
+         * The operator combining the criteria.
+         */
+        private final Operator operator;
+        /**
+         * Whether the combination of the criteria is negated.
+         */
+        private final boolean negate;
+        /**
+         * The criteria.
+         */
+        private final List<CpeMatchCriteria> criteria;
+
+        /**
+         * Constructs a new node.
+         *
+         * @param operator the operator combining the criteria
+         * @param negate whether the combination of the criteria is negated
+         * @param criteria the criteria
+         */
+        public Node(Operator operator, boolean negate, List<CpeMatchCriteria> criteria) {
+            this.operator = Objects.requireNonNull(operator, "operator");
+            this.negate = negate;
+            this.criteria = Collections.unmodifiableList(new ArrayList<>(criteria));
+        }
+
+        /**
+         * Returns the operator combining the criteria.
+         *
+         * @return the operator
+         */
+        public Operator getOperator() {
+            return operator;
+        }
+
+        /**
+         * Returns whether the combination of the criteria is negated.
+         *
+         * @return <code>true</code> if the combination is negated
+         */
+        public boolean isNegate() {
+            return negate;
+        }
+
+        /**
+         * Returns the criteria.
+         *
+         * @return an unmodifiable list of the criteria
+         */
+        public List<CpeMatchCriteria> getCriteria() {
+            return criteria;
+        }
+
+        /**
+         * Determines which criteria are satisfied by an inventory.
+         *
+         * @param inventory the CPE of the inventory
+         * @return whether each criterion is satisfied by any CPE of the
+         * inventory
+         */
+        private boolean[] evaluate(Collection<? extends ICpe> inventory) {
+            final boolean[] matched = new boolean[criteria.size()];
+            for (int x = 0; x < matched.length; x++) {
+                for (ICpe cpe : inventory) {
+                    if (criteria.get(x).matches(cpe)) {
+                        matched[x] = true;
+                        break;
+                    }
+                }
+            }
+            return matched;
+        }
+
+        @Override
+        public String toString() {
+            return (negate ? "NOT " : "") + operator + criteria;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.nvd;
+
+import java.util.Objects;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.internal.util.Literals;
+import us.springett.parsers.cpe.util.Versions;
+
+/**
+ * <p>
+ * A single NVD <code>cpeMatch</code> criterion: a CPE that is matched with
+ * {@link Cpe#matches(ICpe)}, optionally restricted to a range of versions,
+ * and a flag indicating whether the matched platform is vulnerable or only a
+ * prerequisite of the vulnerability.</p>
+ * <p>
+ * Version bounds are unquoted values compared with
+ * {@link Versions#compare(String, String)}. When any bound is present a
+ * target only matches if it has a specific version; ANY, NA and versions
+ * containing wild cards are outside of every range.</p>
+ *
+ * @author Steve Springett
+ */
+public class CpeMatchCriteria {
+
+    /**
+     * The CPE to match.
+     */
+    private final Cpe criteria;
+    /**
+     * Whether a matched platform is vulnerable.
+     */
+    private final boolean vulnerable;
+    /**
+     * The inclusive lower version bound, or <code>null</code>.
+     */
+    private final String versionStartIncluding;
+    /**
+     * The exclusive lower version bound, or <code>null</code>.
+     */
+    private final String versionStartExcluding;
+    /**
+     * The inclusive upper version bound, or <code>null</code>.
+     */
+    private final String versionEndIncluding;
+    /**
+     * The exclusive upper version bound, or <code>null</code>.
+     */
+    private final String versionEndExcluding;
+
+    /**
+     * Constructs a new criterion without version bounds.
+     *
+     * @param criteria the CPE to match
+     * @param vulnerable whether a matched platform is vulnerable
+     */
+    public CpeMatchCriteria(Cpe criteria, boolean vulnerable) {
+        this(criteria, vulnerable, null, null, null, null);
+    }
+
+    /**
+     * Constructs a new criterion.
+     *
+     * @param criteria the CPE to match
+     * @param vulnerable whether a matched platform is vulnerable
+     * @param versionStartIncluding the inclusive lower version bound, or
+     * <code>null</code>
+     * @param versionStartExcluding the exclusive lower version bound, or
+     * <code>null</code>
+     * @param versionEndIncluding the inclusive upper version bound, or
+     * <code>null</code>
+     * @param versionEndExcluding the exclusive upper version bound, or
+     * <code>null</code>
+     */
+    public CpeMatchCriteria(Cpe criteria, boolean vulnerable, String versionStartIncluding,
+            String versionStartExcluding, String versionEndIncluding, String versionEndExcluding) {
+        this.criteria = Objects.requireNonNull(criteria, "criteria");
+        this.vulnerable = vulnerable;
+        this.versionStartIncluding = versionStartIncluding;
+        this.versionStartExcluding = versionStartExcluding;
+        this.versionEndIncluding = versionEndIncluding;
+        this.versionEndExcluding = versionEndExcluding;
+    }
+
+    /**
+     * Returns the CPE to match.
+     *
+     * @return the CPE to match
+     */
+    public Cpe getCriteria() {
+        return criteria;
+    }
+
+    /**
+     * Returns whether a matched platform is vulnerable.
+     *
+     * @return <code>true</code> if a matched platform is vulnerable;
+     * <code>false</code> if it is only a prerequisite
+     */
+    public boolean isVulnerable() {
+        return vulnerable;
+    }
+
+    /**
+     * Returns the inclusive lower version bound.
+     *
+     * @return the bound, or <code>null</code>
+     */
+    public String getVersionStartIncluding() {
+        return versionStartIncluding;
+    }
+
+    /**
+     * Returns the exclusive lower version bound.
+     *
+     * @return the bound, or <code>null</code>
+     */
+    public String getVersionStartExcluding() {
+        return versionStartExcluding;
+    }
+
+    /**
+     * Returns the inclusive upper version bound.
+     *
+     * @return the bound, or <code>null</code>
+     */
+    public String getVersionEndIncluding() {
+        return versionEndIncluding;
+    }
+
+    /**
+     * Returns the exclusive upper version bound.
+     *
+     * @return the bound, or <code>null</code>
+     */
+    public String getVersionEndExcluding() {
+        return versionEndExcluding;
+    }
+
+    /**
+     * Returns whether the criterion has any version bound.
+     *
+     * @return <code>true</code> if the criterion has a version bound
+     */
+    public boolean hasVersionRange() {
+        return versionStartIncluding != null || versionStartExcluding != null
+                || versionEndIncluding != null || versionEndExcluding != null;
+    }
+
+    /**
+     * Determines whether the target CPE satisfies the criterion.
+     *
+     * @param target the CPE to evaluate
+     * @return <code>true</code> if the target matches the CPE and is within
+     * the version bounds
+     */
+    public boolean matches(ICpe target) {
+        if (!criteria.matches(target)) {
+            return false;
+        }
+        if (!hasVersionRange()) {
+            return true;
+        }
+        final String wfVersion = target.getWellFormedVersion();
+        if ("-".equals(wfVersion) || !Literals.isLiteral(wfVersion)) {
+            return false;
+        }
+        final String version = target.getVersion();
+        return (versionStartIncluding == null || Versions.compare(version, versionStartIncluding) >= 0)
+                && (versionStartExcluding == null || Versions.compare(version, versionStartExcluding) > 0)
+                && (versionEndIncluding == null || Versions.compare(version, versionEndIncluding) <= 0)
+                && (versionEndExcluding == null || Versions.compare(version, versionEndExcluding) < 0);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(criteria, vulnerable, versionStartIncluding, versionStartExcluding,
+                versionEndIncluding, versionEndExcluding);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final CpeMatchCriteria other = (CpeMatchCriteria) obj;
+        return vulnerable == other.vulnerable
+                && criteria.equals(other.criteria)
+                && Objects.equals(versionStartIncluding, other.versionStartIncluding)
+                && Objects.equals(versionStartExcluding, other.versionStartExcluding)
+                && Objects.equals(versionEndIncluding, other.versionEndIncluding)
+                && Objects.equals(versionEndExcluding, other.versionEndExcluding);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(criteria.toCpe23FS());
+        appendBound(sb, " >= ", versionStartIncluding);
+        appendBound(sb, " > ", versionStartExcluding);
+        appendBound(sb, " <= ", versionEndIncluding);
+        appendBound(sb, " < ", versionEndExcluding);
+        if (vulnerable) {
+            sb.append(" (vulnerable)");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Appends a version bound to a description.
+     *
+     * @param sb the description
+     * @param operator the comparison operator
+     * @param bound the bound, or <code>null</code>
+     */
+    private static void appendBound(StringBuilder sb, String operator, String bound) {
+        if (bound != null) {
+            sb.append(operator).append(bound);
+        }
+    }
+}
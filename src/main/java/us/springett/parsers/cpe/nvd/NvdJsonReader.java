@@ -0,0 +1,290 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.nvd;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.internal.util.JsonReader;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Configuration;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Node;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Operator;
+
+/**
+ * <p>
+ * Reads the applicability statements of the CVE in an NVD 2.0 JSON document,
+ * i.e. a CVE API response or a data feed with the same layout:</p>
+ * <pre>{"vulnerabilities": [{"cve": {"id": ..., "configurations": [{"operator": ..., "negate": ...,
+ *     "nodes": [{"operator": ..., "negate": ..., "cpeMatch": [{"vulnerable": ..., "criteria": ...,
+ *     "versionStartIncluding": ..., ...}]}]}]}}]}</pre>
+ * <p>
+ * Files whose name ends with <code>.gz</code> are decompressed. The document
+ * is read into memory before it is converted; CVE without configurations are
+ * skipped.</p>
+ * <p>
+ * A configuration containing a <code>criteria</code> that cannot be parsed
+ * is skipped, as it cannot be evaluated faithfully without all of its
+ * criteria; the invalid criteria are logged and counted, and the rest of the
+ * document is still read.</p>
+ *
+ * @author Steve Springett
+ */
+public class NvdJsonReader {
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(NvdJsonReader.class);
+
+    /**
+     * The number of criteria skipped because they are invalid.
+     */
+    private final LongAdder invalidCount = new LongAdder();
+
+    /**
+     * Returns the number of criteria that could not be parsed, over all
+     * documents read by this reader.
+     *
+     * @return the number of invalid criteria
+     */
+    public long getInvalidCount() {
+        return invalidCount.sum();
+    }
+
+    /**
+     * Reads the applicability statements from an NVD JSON file.
+     *
+     * @param file the file, optionally gzip compressed
+     * @return the applicability statements
+     * @throws IOException thrown if the file cannot be read or is invalid
+     */
+    public List<ApplicabilityStatement> read(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            if (file.getFileName() != null && file.getFileName().toString().endsWith(".gz")) {
+                return read(new GZIPInputStream(in));
+            }
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads the applicability statements from an NVD JSON document. The
+     * stream is not closed.
+     *
+     * @param in the UTF-8 encoded document
+     * @return the applicability statements
+     * @throws IOException thrown if the stream cannot be read or the document
+     * is invalid
+     */
+    public List<ApplicabilityStatement> read(InputStream in) throws IOException {
+        final Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        final Map<String, Object> document = object(new JsonReader(reader).read(), "document");
+        final List<ApplicabilityStatement> statements = new ArrayList<>();
+        for (Object vulnerability : list(document.get("vulnerabilities"), "vulnerabilities")) {
+            final Map<String, Object> cve = object(object(vulnerability, "vulnerability").get("cve"), "cve");
+            final String id = string(cve.get("id"), "id");
+            final List<Object> configurations = list(cve.get("configurations"), "configurations");
+            final ApplicabilityStatement statement = configurations.isEmpty() ? null : statement(id, configurations);
+            if (statement != null) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Converts the configurations of a CVE.
+     *
+     * @param id the CVE identifier
+     * @param configurations the configurations
+     * @return the applicability statement, or <code>null</code> if no
+     * configuration is valid
+     * @throws IOException thrown if the configurations are malformed
+     */
+    private ApplicabilityStatement statement(String id, List<Object> configurations) throws IOException {
+        final List<Configuration> result = new ArrayList<>(configurations.size());
+        for (Object c : configurations) {
+            final Configuration configuration = configuration(id, object(c, "configuration"));
+            if (configuration != null) {
+                result.add(configuration);
+            }
+        }
+        return result.isEmpty() ? null : new ApplicabilityStatement(id, result);
+    }
+
+    /**
+     * Converts a configuration of a CVE.
+     *
+     * @param id the CVE identifier
+     * @param configuration the configuration
+     * @return the configuration, or <code>null</code> if it contains a
+     * criteria that cannot be parsed
+     * @throws IOException thrown if the configuration is malformed
+     */
+    private Configuration configuration(String id, Map<String, Object> configuration) throws IOException {
+        final List<Node> nodes = new ArrayList<>();
+        for (Object n : list(configuration.get("nodes"), "nodes")) {
+            final Map<String, Object> node = object(n, "node");
+            final List<CpeMatchCriteria> criteria = new ArrayList<>();
+            for (Object m : list(node.get("cpeMatch"), "cpeMatch")) {
+                final CpeMatchCriteria criterion = criteria(id, object(m, "cpeMatch"));
+                if (criterion == null) {
+                    return null;
+                }
+                criteria.add(criterion);
+            }
+            nodes.add(new Node(operator(node.get("operator")), bool(node.get("negate")), criteria));
+        }
+        return new Configuration(operator(configuration.get("operator")), bool(configuration.get("negate")), nodes);
+    }
+
+    /**
+     * Converts a <code>cpeMatch</code> object.
+     *
+     * @param id the CVE identifier
+     * @param match the <code>cpeMatch</code> object
+     * @return the criterion, or <code>null</code> if the CPE cannot be parsed
+     * @throws IOException thrown if the criterion is malformed
+     */
+    private CpeMatchCriteria criteria(String id, Map<String, Object> match) throws IOException {
+        final String criteria = string(match.get("criteria"), "criteria");
+        try {
+            return new CpeMatchCriteria(CpeParser.parse(criteria), bool(match.get("vulnerable")),
+                    optionalString(match.get("versionStartIncluding"), "versionStartIncluding"),
+                    optionalString(match.get("versionStartExcluding"), "versionStartExcluding"),
+                    optionalString(match.get("versionEndIncluding"), "versionEndIncluding"),
+                    optionalString(match.get("versionEndExcluding"), "versionEndExcluding"));
+        } catch (CpeParsingException ex) {
+            invalidCount.increment();
+            LOG.debug("Skipping configuration of {} with invalid criteria: {}", id, criteria);
+            return null;
+        }
+    }
+
+    /**
+     * Converts an operator; a missing operator is OR.
+     *
+     * @param value the JSON value
+     * @return the operator
+     * @throws IOException thrown if the value is not a valid operator
+     */
+    private static Operator operator(Object value) throws IOException {
+        if (value == null) {
+            return Operator.OR;
+        }
+        final String operator = string(value, "operator");
+        if ("AND".equalsIgnoreCase(operator)) {
+            return Operator.AND;
+        } else if ("OR".equalsIgnoreCase(operator)) {
+            return Operator.OR;
+        }
+        throw new IOException("Invalid operator: " + operator);
+    }
+
+    /**
+     * Converts an optional boolean; a missing value is <code>false</code>.
+     *
+     * @param value the JSON value
+     * @return the boolean
+     * @throws IOException thrown if the value is not a boolean
+     */
+    private static boolean bool(Object value) throws IOException {
+        if (value == null) {
+            return false;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        throw new IOException("Expected a boolean: " + value);
+    }
+
+    /**
+     * Converts a required string.
+     *
+     * @param value the JSON value
+     * @param name the name of the member, used in error messages
+     * @return the string
+     * @throws IOException thrown if the value is not a string
+     */
+    private static String string(Object value, String name) throws IOException {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        throw new IOException("Expected a string for " + name + ": " + value);
+    }
+
+    /**
+     * Converts an optional string.
+     *
+     * @param value the JSON value
+     * @param name the name of the member, used in error messages
+     * @return the string, or <code>null</code>
+     * @throws IOException thrown if the value is present but not a string
+     */
+    private static String optionalString(Object value, String name) throws IOException {
+        return value == null ? null : string(value, name);
+    }
+
+    /**
+     * Converts a required object.
+     *
+     * @param value the JSON value
+     * @param name the name of the member, used in error messages
+     * @return the object
+     * @throws IOException thrown if the value is not an object
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> object(Object value, String name) throws IOException {
+        if (value instanceof Map) {
+            return (Map<String, Object>) value;
+        }
+        throw new IOException("Expected an object for " + name);
+    }
+
+    /**
+     * Converts an optional array; a missing array is empty.
+     *
+     * @param value the JSON value
+     * @param name the name of the member, used in error messages
+     * @return the array
+     * @throws IOException thrown if the value is present but not an array
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Object> list(Object value, String name) throws IOException {
+        if (value == null) {
+            return Collections.emptyList();
+        } else if (value instanceof List) {
+            return (List<Object>) value;
+        }
+        throw new IOException("Expected an array for " + name);
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Evaluation of NVD CVE configurations (applicability statements) against an
+ * inventory of CPE.
+ */
+package us.springett.parsers.cpe.nvd;
@@ -0,0 +1,239 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.util;
+
+import java.io.Serializable;
+import us.springett.parsers.cpe.values.Attribute;
+
+/**
+ * <p>
+ * The attribute level relations between a source and target CPE as defined in
+ * the CPE Name Matching specification (NIST IR 7696). The eleven relations are
+ * packed into a single <code>int</code> using two bits per attribute, where the
+ * attribute at position <code>n</code> (see {@link Attribute#ordinal()})
+ * occupies bits <code>2n</code> and <code>2n+1</code>.</p>
+ * <p>
+ * The name level relations ({@link #isDisjoint()}, {@link #isEqual()},
+ * {@link #isSubset()}, and {@link #isSuperset()}) follow section 6.2 of the
+ * specification.</p>
+ *
+ * @see <a href="https://nvlpubs.nist.gov/nistpubs/Legacy/IR/nistir7696.pdf">NIST CPE Name Matching Specification</a>
+ * @author Steve Springett
+ */
+public final class RelationVector implements Serializable {
+
+    /**
+     * The serial version UID.
+     */
+    private static final long serialVersionUID = -1851275326003394751L;
+    /**
+     * The two bit code used for {@link Relation#DISJOINT}.
+     */
+    private static final int DISJOINT = 0;
+    /**
+     * The two bit code used for {@link Relation#EQUAL}.
+     */
+    private static final int EQUAL = 1;
+    /**
+     * The two bit code used for {@link Relation#SUBSET}.
+     */
+    private static final int SUBSET = 2;
+    /**
+     * The two bit code used for {@link Relation#SUPERSET}.
+     */
+    private static final int SUPERSET = 3;
+    /**
+     * Mask containing the low bit of every attribute.
+     */
+    private static final int LOW_BITS = 0x155555;
+    /**
+     * Mask containing both bits of every attribute.
+     */
+    private static final int ALL_BITS = 0x3FFFFF;
+    /**
+     * The relations indexed by their two bit code.
+     */
+    private static final Relation[] RELATIONS = {Relation.DISJOINT, Relation.EQUAL, Relation.SUBSET, Relation.SUPERSET};
+
+    /**
+     * The packed relations.
+     */
+    private final int bits;
+
+    /**
+     * Constructs a new relation vector.
+     *
+     * @param bits the packed relations
+     */
+    private RelationVector(int bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Creates a new relation vector from the individual attribute relations.
+     *
+     * @param part the relation of the part attribute
+     * @param vendor the relation of the vendor attribute
+     * @param product the relation of the product attribute
+     * @param version the relation of the version attribute
+     * @param update the relation of the update attribute
+     * @param edition the relation of the edition attribute
+     * @param language the relation of the language attribute
+     * @param swEdition the relation of the swEdition attribute
+     * @param targetSw the relation of the targetSw attribute
+     * @param targetHw the relation of the targetHw attribute
+     * @param other the relation of the other attribute
+     * @return the relation vector
+     */
+    public static RelationVector of(Relation part, Relation vendor, Relation product, Relation version,
+            Relation update, Relation edition, Relation language, Relation swEdition,
+            Relation targetSw, Relation targetHw, Relation other) {
+        int bits = code(part)
+                | code(vendor) << 2
+                | code(product) << 4
+                | code(version) << 6
+                | code(update) << 8
+                | code(edition) << 10
+                | code(language) << 12
+                | code(swEdition) << 14
+                | code(targetSw) << 16
+                | code(targetHw) << 18
+                | code(other) << 20;
+        return new RelationVector(bits);
+    }
+
+    /**
+     * Re-creates a relation vector from the value returned by
+     * {@link #getPackedValue()}.
+     *
+     * @param packedValue the packed relations
+     * @return the relation vector
+     * @throws IllegalArgumentException thrown if the packed value contains
+     * bits outside of the eleven attribute relations
+     */
+    public static RelationVector fromPackedValue(int packedValue) {
+        if ((packedValue & ~ALL_BITS) != 0) {
+            throw new IllegalArgumentException("Invalid packed relation vector: " + Integer.toHexString(packedValue));
+        }
+        return new RelationVector(packedValue);
+    }
+
+    /**
+     * Returns the two bit code for the relation.
+     *
+     * @param relation the relation
+     * @return the two bit code
+     */
+    private static int code(Relation relation) {
+        switch (relation) {
+            case EQUAL:
+                return EQUAL;
+            case SUBSET:
+                return SUBSET;
+            case SUPERSET:
+                return SUPERSET;
+            default:
+                return DISJOINT;
+        }
+    }
+
+    /**
+     * Returns the relation for the given attribute.
+     *
+     * @param attribute the attribute
+     * @return the relation between the source and target attribute
+     */
+    public Relation get(Attribute attribute) {
+        return RELATIONS[(bits >>> (attribute.ordinal() << 1)) & 3];
+    }
+
+    /**
+     * Gets the packed representation of the relations; two bits per attribute.
+     *
+     * @return the packed relations
+     */
+    public int getPackedValue() {
+        return bits;
+    }
+
+    /**
+     * Returns whether the source and target are DISJOINT; that is, at least one
+     * attribute relation is DISJOINT.
+     *
+     * @return <code>true</code> if the names are disjoint; otherwise
+     * <code>false</code>
+     */
+    public boolean isDisjoint() {
+        return ((bits | (bits >>> 1)) & LOW_BITS) != LOW_BITS;
+    }
+
+    /**
+     * Returns whether the source and target are EQUAL; that is, every
+     * attribute relation is EQUAL.
+     *
+     * @return <code>true</code> if the names are equal; otherwise
+     * <code>false</code>
+     */
+    public boolean isEqual() {
+        return bits == LOW_BITS;
+    }
+
+    /**
+     * Returns whether the source is a SUBSET of the target; that is, every
+     * attribute relation is either SUBSET or EQUAL.
+     *
+     * @return <code>true</code> if the source is a subset of the target;
+     * otherwise <code>false</code>
+     */
+    public boolean isSubset() {
+        return ((bits ^ (bits >>> 1)) & LOW_BITS) == LOW_BITS;
+    }
+
+    /**
+     * Returns whether the source is a SUPERSET of the target; that is, every
+     * attribute relation is either SUPERSET or EQUAL.
+     *
+     * @return <code>true</code> if the source is a superset of the target;
+     * otherwise <code>false</code>
+     */
+    public boolean isSuperset() {
+        return (bits & LOW_BITS) == LOW_BITS;
+    }
+
+    @Override
+    public int hashCode() {
+        return bits;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof RelationVector && ((RelationVector) obj).bits == bits;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (Attribute attribute : Attribute.values()) {
+            if (attribute != Attribute.PART) {
+                sb.append(", ");
+            }
+            sb.append(attribute.getAttributeName()).append('=').append(get(attribute));
+        }
+        return sb.append(']').toString();
+    }
+}
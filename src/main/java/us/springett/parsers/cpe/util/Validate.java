@@ -17,13 +17,12 @@
  */
 package us.springett.parsers.cpe.util;
 
-import java.util.NoSuchElementException;
-import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import us.springett.parsers.cpe.exceptions.CpeEncodingException;
 import us.springett.parsers.cpe.exceptions.CpeParsingException;
-import us.springett.parsers.cpe.internal.util.Cpe23PartIterator;
+import us.springett.parsers.cpe.internal.util.Cpe23Scanner;
+import us.springett.parsers.cpe.metrics.CpeMetrics;
 import us.springett.parsers.cpe.values.Part;
 
 /**
@@ -39,9 +38,10 @@ public final class Validate {
      */
     private static final Logger LOG = LoggerFactory.getLogger(Validate.class);
     /**
-     * The CPE URI validation regular expression.
+     * The names of the components of a formatted string used when logging.
      */
-    private static final Pattern CPE_URI = Pattern.compile("^[c][pP][eE]:/[AHOaho]?(:[A-Za-z0-9._~%-]*){0,6}$");
+    private static final String[] COMPONENT_NAMES = {"part", "vendor", "product", "version", "update", "edition",
+        "language", "swEdition", "targetSw", "targetHw", "other attribute"};
 
     /**
      * Private constructor for utility class.
@@ -59,30 +59,18 @@ public final class Validate {
      * @see us.springett.parsers.cpe.util.Status#isValid()
      */
     public static Status component(String value) {
-        if (value != null && !value.isEmpty()) {
-            if ("\\-".equals(value)) {
-                return Status.SINGLE_QUOTED_HYPHEN;
-            }
-            for (int x = 0; x < value.length(); x++) {
-                char c = value.charAt(x);
-                if (c == '?' && x > 0 && x < value.length() - 1
-                        && !((value.charAt(x - 1) == '?' || value.charAt(x - 1) == '*' || value.charAt(x - 1) == '\\')
-                        || (x < value.length() - 1 && (value.charAt(x + 1) == '?' || value.charAt(x + 1) == '*')))) {
-                    return Status.UNQUOTED_QUESTION_MARK;
-                } else if (Character.isWhitespace(c)) {
-                    return Status.WHITESPACE;
-                } else if (c < 32 || c > 127) {
-                    return Status.NON_PRINTABLE;
-                } else if (c == '*' && x != 0 && value.charAt(x - 1) == '*') {
-                    return Status.ASTERISK_SEQUENCE;
-                } else if (c == '*' && !((x == 0 || x == value.length() - 1)
-                        || (x > 0 && '\\' == value.charAt(x - 1)))) {
-                    return Status.UNQUOTED_ASTERISK;
-                }
-            }
-            return Status.VALID;
-        }
-        return Status.EMPTY;
+        return record(validateComponent(value));
+    }
+
+    /**
+     * Implementation of {@link #component(java.lang.String)} that does not notify
+     * the metrics listener.
+     *
+     * @param value the value to validate
+     * @return the validation status given value
+     */
+    private static Status validateComponent(String value) {
+        return Cpe23Scanner.component(value);
     }
 
     /**
@@ -93,92 +81,38 @@ public final class Validate {
      * @see us.springett.parsers.cpe.util.Status#isValid()
      */
     public static Status formattedString(String value) {
-        boolean result = true;
+        return record(validateFormattedString(value));
+    }
+
+    /**
+     * Implementation of {@link #formattedString(java.lang.String)} that does not notify
+     * the metrics listener.
+     *
+     * @param value the value to validate
+     * @return the validation status given value
+     */
+    private static Status validateFormattedString(String value) {
+        final Cpe23Scanner scanner = new Cpe23Scanner();
         try {
-            Cpe23PartIterator instance;
-            try {
-                instance = new Cpe23PartIterator(value);
-            } catch (CpeParsingException ex) {
-                LOG.warn("The CPE ({}) is invalid as it is not in the formatted string format", value);
-                return Status.INVALID;
-            }
-            try {
-                //part
-                Part.getEnum(instance.next());
-            } catch (CpeParsingException ex) {
-                LOG.warn("The CPE ({}) is invalid as it has an invalid part attribute", value);
-                return Status.INVALID_PART;
-            }
-            Status status;
-            //vendor
-            status = Validate.component(instance.next());
-            if (!status.isValid()) {
-                LOG.warn("The CPE ({}) has an invalid vendor - {}", value, status.getMessage());
-                return status;
-            }
-            //product
-            status = Validate.component(instance.next());
-            if (!status.isValid()) {
-                LOG.warn("The CPE ({}) has an invalid product - {}", value, status.getMessage());
-                return status;
-            }
-            //version
-            status = Validate.component(instance.next());
-            if (!status.isValid()) {
-                LOG.warn("The CPE ({}) has an version version - {}", value, status.getMessage());
-                return status;
-            }
-            //update
-            status = Validate.component(instance.next());
-            if (!status.isValid()) {
-                LOG.warn("The CPE ({}) has an invalid update - {}", value, status.getMessage());
-                return status;
-            }
-            //edition
-            status = Validate.component(instance.next());
-            if (!status.isValid()) {
-                LOG.warn("The CPE ({}) has an invalid edition - {}", value, status.getMessage());
-                return status;
-            }
-            //language
-            status = Validate.component(instance.next());
-            if (!status.isValid()) {
-                LOG.warn("The CPE ({}) has an invalid language - {}", value, status.getMessage());
-                return status;
-            }
-            //swEdition
-            status = Validate.component(instance.next());
-            if (!status.isValid()) {
-                LOG.warn("The CPE ({}) has an invalid swEdition - {}", value, status.getMessage());
-                return status;
-            }
-            //targetSw
-            status = Validate.component(instance.next());
-            if (!status.isValid()) {
-                LOG.warn("The CPE ({}) has an invalid targetSw - {}", value, status.getMessage());
-                return status;
-            }
-            //targetHw
-            status = Validate.component(instance.next());
-            if (!status.isValid()) {
-                LOG.warn("The CPE ({}) has an invalid targetHw - {}", value, status.getMessage());
-                return status;
-            }
-            //other
-            status = Validate.component(instance.next());
-            if (!status.isValid()) {
-                LOG.warn("The CPE ({}) has an invalid other attribute - {}", value, status.getMessage());
-                return status;
-            }
-            if (instance.hasNext()) {
-                LOG.warn(Status.TOO_MANY_ELEMENTS.getMessage());
-                return Status.TOO_MANY_ELEMENTS;
+            scanner.scan(value);
+        } catch (CpeParsingException ex) {
+            LOG.warn("The CPE ({}) is invalid as it is not in the formatted string format", value);
+            return Status.INVALID;
+        }
+        final Status status = scanner.validate();
+        if (status == Status.INVALID_PART) {
+            LOG.warn("The CPE ({}) is invalid as it has an invalid part attribute", value);
+        } else if (status == Status.TOO_FEW_ELEMENTS || status == Status.TOO_MANY_ELEMENTS) {
+            LOG.warn(status.getMessage());
+        } else if (!status.isValid()) {
+            for (int x = 1; x < COMPONENT_NAMES.length; x++) {
+                if (scanner.getStatus(x) == status) {
+                    LOG.warn("The CPE ({}) has an invalid {} - {}", value, COMPONENT_NAMES[x], status.getMessage());
+                    break;
+                }
             }
-        } catch (NoSuchElementException ex) {
-            LOG.warn(Status.TOO_FEW_ELEMENTS.getMessage());
-            return Status.TOO_FEW_ELEMENTS;
         }
-        return Status.VALID;
+        return status;
     }
 
     /**
@@ -189,6 +123,17 @@ public final class Validate {
      * @see us.springett.parsers.cpe.util.Status#isValid()
      */
     public static Status cpeUri(String value) {
+        return record(validateCpeUri(value));
+    }
+
+    /**
+     * Implementation of {@link #cpeUri(java.lang.String)} that does not notify
+     * the metrics listener.
+     *
+     * @param value the value to validate
+     * @return the validation status given value
+     */
+    private static Status validateCpeUri(String value) {
         try {
             String[] parts = value.split(":");
             if (parts.length > 8 || parts.length == 1 || !"cpe".equalsIgnoreCase(parts[0])) {
@@ -196,15 +141,9 @@ public final class Validate {
                 return Status.INVALID;
             }
             if (parts.length >= 2 && parts[1].length() == 2) {
-                boolean found = false;
-                String a = parts[1].substring(1);
-                for (Part p : Part.values()) {
-                    if (p.getAbbreviation().equals(a)) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
+                try {
+                    Part.getEnum(parts[1].substring(1));
+                } catch (CpeParsingException ex) {
                     LOG.warn("The CPE ({}) is invalid as it has an invalid part attribute", value);
                     return Status.INVALID_PART;
                 }
@@ -217,7 +156,7 @@ public final class Validate {
                     LOG.warn("The CPE ({}) has an invalid vendor - asterisk", value);
                     return Status.INVALID;
                 }
-                Status s = component(Convert.cpeUriToWellFormed(parts[2]));
+                Status s = validateComponent(Convert.cpeUriToWellFormed(parts[2]));
                 if (!s.isValid() || "*".equals(parts[2])) {
                     LOG.warn("The CPE ({}) has an invalid vendor - {}", value, s.getMessage());
                     return s;
@@ -228,7 +167,7 @@ public final class Validate {
                     LOG.warn("The CPE ({}) has an invalid product - asterisk", value);
                     return Status.INVALID;
                 }
-                Status s = component(Convert.cpeUriToWellFormed(parts[3]));
+                Status s = validateComponent(Convert.cpeUriToWellFormed(parts[3]));
                 if (!s.isValid()) {
                     LOG.warn("The CPE ({}) has an invalid product - {}", value, s.getMessage());
                     return s;
@@ -239,7 +178,7 @@ public final class Validate {
                     LOG.warn("The CPE ({}) has an invalid version - asterisk", value);
                     return Status.INVALID;
                 }
-                Status s = component(Convert.cpeUriToWellFormed(parts[4]));
+                Status s = validateComponent(Convert.cpeUriToWellFormed(parts[4]));
                 if (!s.isValid()) {
                     LOG.warn("The CPE ({}) has an invalid version - {}", value, s.getMessage());
                     return s;
@@ -250,7 +189,7 @@ public final class Validate {
                     LOG.warn("The CPE ({}) has an invalid update - asterisk", value);
                     return Status.INVALID;
                 }
-                Status s = component(Convert.cpeUriToWellFormed(parts[5]));
+                Status s = validateComponent(Convert.cpeUriToWellFormed(parts[5]));
                 if (!s.isValid()) {
                     LOG.warn("The CPE ({}) has an invalid update - {}", value, s.getMessage());
                     return s;
@@ -268,7 +207,7 @@ public final class Validate {
                             LOG.warn("The CPE ({}) has an invalid packed edition - asterisk", value);
                             return Status.INVALID;
                         }
-                        Status s = component(Convert.cpeUriToWellFormed(unpacked[1]));
+                        Status s = validateComponent(Convert.cpeUriToWellFormed(unpacked[1]));
                         if (!s.isValid()) {
                             LOG.warn("The CPE ({}) has an invalid packed edition - {}", value, s.getMessage());
                             return s;
@@ -279,7 +218,7 @@ public final class Validate {
                             LOG.warn("The CPE ({}) has an invalid packed sw_edition - asterisk", value);
                             return Status.INVALID;
                         }
-                        Status s = component(Convert.cpeUriToWellFormed(unpacked[2]));
+                        Status s = validateComponent(Convert.cpeUriToWellFormed(unpacked[2]));
                         if (!s.isValid()) {
                             LOG.warn("The CPE ({}) has an invalid packed sw_edition - {}", value, s.getMessage());
                             return s;
@@ -290,7 +229,7 @@ public final class Validate {
                             LOG.warn("The CPE ({}) has an invalid packed target_sw - asterisk", value);
                             return Status.INVALID;
                         }
-                        Status s = component(Convert.cpeUriToWellFormed(unpacked[3]));
+                        Status s = validateComponent(Convert.cpeUriToWellFormed(unpacked[3]));
                         if (!s.isValid()) {
                             LOG.warn("The CPE ({}) has an invalid packed target_sw - {}", value, s.getMessage());
                             return s;
@@ -301,7 +240,7 @@ public final class Validate {
                             LOG.warn("The CPE ({}) has an invalid packed target_hw - asterisk", value);
                             return Status.INVALID;
                         }
-                        Status s = component(Convert.cpeUriToWellFormed(unpacked[4]));
+                        Status s = validateComponent(Convert.cpeUriToWellFormed(unpacked[4]));
                         if (!s.isValid()) {
                             LOG.warn("The CPE ({}) has an invalid packed target_hw - {}", value, s.getMessage());
                             return s;
@@ -312,7 +251,7 @@ public final class Validate {
                             LOG.warn("The CPE ({}) has an invalid packed other - asterisk", value);
                             return Status.INVALID;
                         }
-                        Status s = component(Convert.cpeUriToWellFormed(unpacked[5]));
+                        Status s = validateComponent(Convert.cpeUriToWellFormed(unpacked[5]));
                         if (!s.isValid()) {
                             LOG.warn("The CPE ({}) has an invalid packed other - {}", value, s.getMessage());
                             return s;
@@ -323,7 +262,7 @@ public final class Validate {
                         LOG.warn("The CPE ({}) has an invalid edition - asterisk", value);
                         return Status.INVALID;
                     }
-                    Status s = component(Convert.cpeUriToWellFormed(parts[6]));
+                    Status s = validateComponent(Convert.cpeUriToWellFormed(parts[6]));
                     if (!s.isValid()) {
                         LOG.warn("The CPE ({}) has an invalid edition - {}", value, s.getMessage());
                         return s;
@@ -335,7 +274,7 @@ public final class Validate {
                     LOG.warn("The CPE ({}) has an invalid language - asterisk", value);
                     return Status.INVALID;
                 }
-                Status s = component(Convert.cpeUriToWellFormed(parts[7]));
+                Status s = validateComponent(Convert.cpeUriToWellFormed(parts[7]));
                 if (!s.isValid()) {
                     LOG.warn("The CPE ({}) has an invalid language - {}", value, s.getMessage());
                     return s;
@@ -348,6 +287,19 @@ public final class Validate {
         return Status.VALID;
     }
 
+    /**
+     * Notifies the metrics listener if the status is not valid.
+     *
+     * @param status the validation status
+     * @return the validation status
+     */
+    private static Status record(Status status) {
+        if (CpeMetrics.ENABLED && !status.isValid()) {
+            CpeMetrics.listener().validationFailed(status);
+        }
+        return status;
+    }
+
     /**
      * Counts the number of times the char c is contained in the value.
      *
@@ -50,6 +50,33 @@ public class Versions {
         return token.parts;
     }
 
+    /**
+     * Compares two versions using the parts produced by
+     * {@link #splitVersion(String)}; when all common parts are equal the
+     * version with more parts is greater.
+     *
+     * @param left the left hand version for comparison
+     * @param right the right hand version for comparison
+     * @return a negative number, zero, or a positive number if the left
+     * version is before, equal to, or after the right version
+     */
+    public static int compare(String left, String right) {
+        if (left.equals(right)) {
+            return 0;
+        }
+        List<VersionPart> subLeft = splitVersion(left);
+        List<VersionPart> subRight = splitVersion(right);
+        for (int x = 0; x < Math.min(subLeft.size(), subRight.size()); x++) {
+            int result = subLeft.get(x).compareTo(subRight.get(x));
+            if (result != 0) {
+                return result;
+            }
+        }
+
+        // All parts are equal up until the minimum size - version with more chunks is thus "bigger"
+        return Integer.compare(subLeft.size(), subRight.size());
+    }
+
     private static boolean isSplitter(char c) {
         return c == '.' || c == '|' || c == ':' || c == '-';
     }
@@ -113,6 +140,26 @@ public class Versions {
             return false;
         }
 
+        /**
+         * Returns the text of the version part.
+         *
+         * @return the text of the version part
+         */
+        public String getValue() {
+            return part;
+        }
+
+        /**
+         * Returns whether the part is compared to other integer parts
+         * numerically; integer parts consist of digits without a leading zero.
+         *
+         * @return <code>true</code> if the part is an integer part; otherwise
+         * <code>false</code>
+         */
+        public boolean isInteger() {
+            return compareAsInteger();
+        }
+
         /*
          * Compares one version part to another. Only two integer parts can be compared to each other with numeric semantics
          * otherwise everything is compared as a string. This means, for example:
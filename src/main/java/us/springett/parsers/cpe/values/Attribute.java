@@ -0,0 +1,100 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.values;
+
+/**
+ * <p>
+ * The attributes of a Well Formed Name (WFN) in the order they appear in a CPE
+ * 2.3 Formatted String. The ordinal of each attribute is its position within
+ * the name, starting with the part at zero.</p>
+ * <pre>cpe:2.3:[part]:[vendor]:[product]:[version]:[update]:[edition]:[language]:[sw_edition]:[target_sw]:[target_hw]:[other]</pre>
+ *
+ * @author Steve Springett
+ */
+public enum Attribute {
+
+    /**
+     * The part attribute.
+     */
+    PART("part"),
+    /**
+     * The vendor attribute.
+     */
+    VENDOR("vendor"),
+    /**
+     * The product attribute.
+     */
+    PRODUCT("product"),
+    /**
+     * The version attribute.
+     */
+    VERSION("version"),
+    /**
+     * The update attribute.
+     */
+    UPDATE("update"),
+    /**
+     * The edition attribute.
+     */
+    EDITION("edition"),
+    /**
+     * The language attribute.
+     */
+    LANGUAGE("language"),
+    /**
+     * The software edition attribute. Introduced with CPE 2.3.
+     */
+    SW_EDITION("sw_edition"),
+    /**
+     * The target software attribute. Introduced with CPE 2.3.
+     */
+    TARGET_SW("target_sw"),
+    /**
+     * The target hardware attribute. Introduced with CPE 2.3.
+     */
+    TARGET_HW("target_hw"),
+    /**
+     * The other attribute. Introduced with CPE 2.3.
+     */
+    OTHER("other");
+
+    /**
+     * The attribute name as used in the CPE 2.3 specification.
+     */
+    private final String attributeName;
+
+    /**
+     * Constructs a new attribute.
+     *
+     * @param attributeName the attribute name as used in the CPE 2.3
+     * specification
+     */
+    Attribute(String attributeName) {
+        this.attributeName = attributeName;
+    }
+
+    /**
+     * Gets the attribute name as used in the CPE 2.3 specification (e.g.
+     * <code>sw_edition</code>).
+     *
+     * @return the attribute name
+     */
+    public String getAttributeName() {
+        return attributeName;
+    }
+}
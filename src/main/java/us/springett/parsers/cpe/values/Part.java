@@ -82,9 +82,20 @@ public enum Part {
      * Part type
      */
     public static Part getEnum(String part) throws CpeParsingException {
-        for (Part p : Part.values()) {
-            if (p.getAbbreviation().equals(part)) {
-                return p;
+        if (part != null && part.length() == 1) {
+            switch (part.charAt(0)) {
+                case 'a':
+                    return APPLICATION;
+                case 'o':
+                    return OPERATING_SYSTEM;
+                case 'h':
+                    return HARDWARE_DEVICE;
+                case '*':
+                    return ANY;
+                case '-':
+                    return NA;
+                default:
+                    break;
             }
         }
         throw new CpeParsingException("Invalid Part Type: " + part);
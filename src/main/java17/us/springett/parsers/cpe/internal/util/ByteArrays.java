@@ -0,0 +1,72 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Comparisons of byte array ranges used by the binary indexes.</p>
+ * <p>
+ * This is the Java 17 implementation included in the multi-release JAR; it
+ * delegates to the <code>java.util.Arrays</code> range methods, which the JVM
+ * implements with vector instructions.</p>
+ *
+ * @author Steve Springett
+ */
+public final class ByteArrays {
+
+    /**
+     * Private constructor for a utility class.
+     */
+    private ByteArrays() {
+    }
+
+    /**
+     * Finds the first index at which two ranges differ.
+     *
+     * @param a the first array
+     * @param aFrom the start of the first range, inclusive
+     * @param aTo the end of the first range, exclusive
+     * @param b the second array
+     * @param bFrom the start of the second range, inclusive
+     * @param bTo the end of the second range, exclusive
+     * @return the index relative to the start of the ranges at which they
+     * differ, the length of the shorter range if it is a prefix of the other,
+     * or -1 if the ranges are equal
+     */
+    public static int mismatch(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo) {
+        return Arrays.mismatch(a, aFrom, aTo, b, bFrom, bTo);
+    }
+
+    /**
+     * Compares two ranges lexicographically as unsigned bytes.
+     *
+     * @param a the first array
+     * @param aFrom the start of the first range, inclusive
+     * @param aTo the end of the first range, exclusive
+     * @param b the second array
+     * @param bFrom the start of the second range, inclusive
+     * @param bTo the end of the second range, exclusive
+     * @return the difference of the first differing unsigned bytes, or the
+     * difference of the lengths if one range is a prefix of the other
+     */
+    public static int compareUnsigned(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo) {
+        return Arrays.compareUnsigned(a, aFrom, aTo, b, bFrom, bTo);
+    }
+}
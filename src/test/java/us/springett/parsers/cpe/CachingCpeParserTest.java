@@ -0,0 +1,118 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CachingCpeParserTest {
+
+    /**
+     * Test of parse method, of class CachingCpeParser.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testParse() throws Exception {
+        CachingCpeParser instance = new CachingCpeParser(100);
+        String value = "cpe:2.3:a:apache:commons-text:1.6:*:*:*:*:*:*:*";
+
+        Cpe first = instance.parse(value);
+        Cpe second = instance.parse(value);
+        assertSame(first, second);
+        assertEquals(CpeParser.parse(value), first);
+        assertEquals(1, instance.getHitCount());
+        assertEquals(1, instance.getMissCount());
+        assertEquals(0.5, instance.getHitRate(), 0.0001);
+        assertEquals(1, instance.size());
+
+        Cpe lenient = instance.parse(value, true);
+        assertNotSame(first, lenient);
+        assertEquals(2, instance.size());
+        assertEquals(2, instance.getMissCount());
+    }
+
+    /**
+     * Test of parse method, of class CachingCpeParser.
+     */
+    @Test
+    public void testParseInvalid() {
+        CachingCpeParser instance = new CachingCpeParser(100);
+        assertThatThrownBy(() -> instance.parse("cpe:2.3:a:apache"))
+                .isInstanceOf(CpeParsingException.class);
+        assertThatThrownBy(() -> instance.parse(null))
+                .isInstanceOf(CpeParsingException.class);
+        assertEquals(0, instance.size());
+    }
+
+    /**
+     * Test of eviction, of class CachingCpeParser.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testEviction() throws Exception {
+        CachingCpeParser instance = new CachingCpeParser(8, 1);
+        for (int x = 0; x < 20; x++) {
+            instance.parse("cpe:2.3:a:vendor:product:" + x + ":*:*:*:*:*:*:*");
+        }
+        assertEquals(8, instance.size());
+        assertEquals(12, instance.getEvictionCount());
+
+        //the most recently used entry is retained
+        instance.parse("cpe:2.3:a:vendor:product:19:*:*:*:*:*:*:*");
+        assertEquals(1, instance.getHitCount());
+
+        instance.clear();
+        assertEquals(0, instance.size());
+    }
+
+    /**
+     * Test of the maximum size, of class CachingCpeParser.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMaximumSize() throws Exception {
+        CachingCpeParser instance = new CachingCpeParser(64);
+        for (int x = 0; x < 1000; x++) {
+            instance.parse("cpe:/a:vendor:product:" + x);
+        }
+        assertTrue(instance.size() <= 64);
+        for (int[] sizes : new int[][]{{10, 16}, {17, 16}, {1, 16}, {3, 2}, {100, 7}}) {
+            CachingCpeParser bounded = new CachingCpeParser(sizes[0], sizes[1]);
+            for (int x = 0; x < 1000; x++) {
+                bounded.parse("cpe:/a:vendor:product:" + x);
+            }
+            assertEquals(sizes[0], bounded.size(), Arrays.toString(sizes));
+        }
+        assertThatThrownBy(() -> new CachingCpeParser(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.internal.util.Murmur3;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeFingerprintTest {
+
+    /**
+     * Test of of method, of class CpeFingerprint.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testOf() throws Exception {
+        String[] values = {
+            "cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*",
+            "cpe:2.3:a:Apache:Struts:2.5.10:*:*:*:*:*:*:*",
+            "cpe:2.3:a:hiox_india:guest_book:4.0:*:*:*:*:*:*:?",
+            "cpe:2.3:a:test\\::guest_book:4.0:*:*:*:*:*:*:*",
+            "cpe:2.3:o:microsoft:windows_10:1607:-:*:*:*:*:x64:*:",
+            "cpe:2.3:h:vendor:product:1.0\\-beta::::::*:*",
+            "cpe:2.3:*:vendor:product:\\-:*:*:*:*:*:*:*",
+            "cpe:2.3:-:vendor:product:.:_:*:*:*:*:*:*",
+            "cpe:2.3:a:vendor:product:1.*:*:*:*:*:*:*:*",
+            "cpe:/a:apache:struts:2.5.10"
+        };
+        for (String value : values) {
+            Cpe cpe = CpeParser.parse(value);
+            assertEquals(CpeFingerprint.of(cpe), CpeFingerprint.of(value), value);
+            if (value.startsWith("cpe:2.3:")) {
+                assertEquals(CpeFingerprint.of(cpe), CpeFingerprint.of(new LazyCpe(value)), value);
+            }
+            assertEquals(CpeFingerprint.of(cpe).getH1(), CpeFingerprint.hash64(value), value);
+        }
+        assertEquals(CpeFingerprint.of(values[0]), CpeFingerprint.of(values[1]));
+        assertEquals(CpeFingerprint.of(values[0]), CpeFingerprint.of(values[9]));
+        assertEquals(CpeFingerprint.hash64(CpeParser.parse(values[0])), CpeFingerprint.hash64(values[1]));
+        assertNotEquals(CpeFingerprint.of(values[0]), CpeFingerprint.of(values[2]));
+    }
+
+    /**
+     * Test of the documented encoding, of class CpeFingerprint.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testStability() throws Exception {
+        byte[] data = "a\0apache\0struts\0002\\.5\\.10\0*\0*\0*\0*\0*\0*\0*\0".getBytes(StandardCharsets.UTF_8);
+        long[] hash = new long[2];
+        Murmur3.hash128(data, 0, data.length, 0, hash);
+        CpeFingerprint expected = new CpeFingerprint(hash[0], hash[1]);
+        assertEquals(expected, CpeFingerprint.of("cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*"));
+        assertEquals("7af7283cd564ec6679b209c8df390c72", expected.toString());
+    }
+
+    /**
+     * Test of of method, of class CpeFingerprint.
+     */
+    @Test
+    public void testInvalid() {
+        assertThatThrownBy(() -> CpeFingerprint.of((String) null))
+                .isInstanceOf(CpeParsingException.class);
+        assertThatThrownBy(() -> CpeFingerprint.of("cpe:2.3:a:apache"))
+                .isInstanceOf(CpeParsingException.class)
+                .hasMessageContaining("too few components");
+        assertThatThrownBy(() -> CpeFingerprint.of("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*:*"))
+                .isInstanceOf(CpeParsingException.class)
+                .hasMessageContaining("too many components");
+        assertThatThrownBy(() -> CpeFingerprint.of("cpe:2.3:x:apache:struts:*:*:*:*:*:*:*:*"))
+                .isInstanceOf(CpeParsingException.class);
+    }
+
+    /**
+     * Test of toString and fromString methods, of class CpeFingerprint.
+     */
+    @Test
+    public void testToString() {
+        CpeFingerprint instance = new CpeFingerprint(0x0123456789abcdefL, 0xfedcba9876543210L);
+        assertEquals("0123456789abcdeffedcba9876543210", instance.toString());
+        assertEquals(instance, CpeFingerprint.fromString(instance.toString()));
+        assertEquals(0x01, instance.toByteArray()[0]);
+        assertEquals((byte) 0x10, instance.toByteArray()[15]);
+        assertEquals(-1, Integer.signum(instance.compareTo(new CpeFingerprint(0xfedcba9876543210L, 0))));
+        assertThatThrownBy(() -> CpeFingerprint.fromString("123"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CpeFingerprint.fromString("0123456789abcdeffedcba987654321x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
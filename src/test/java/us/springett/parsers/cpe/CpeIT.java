@@ -20,6 +20,7 @@ package us.springett.parsers.cpe;
 import org.junit.jupiter.api.Test;
 import org.mitre.cpe.common.WellFormedName;
 import org.mitre.cpe.matching.CPENameMatcher;
+import us.springett.parsers.cpe.util.RelationVector;
 import us.springett.parsers.cpe.values.LogicalValue;
 import us.springett.parsers.cpe.values.Part;
 
@@ -140,4 +141,48 @@ public class CpeIT {
         result = instance.matchedBy(target);
         assertEquals(expResult, result);
     }
+
+    /**
+     * Test of relationTo method, of class Cpe.
+     *
+     * @throws java.lang.Exception thrown if there is an error
+     */
+    @Test
+    public void testRelationTo() throws Exception {
+        CPENameMatcher referenceMatcher = new CPENameMatcher();
+        org.mitre.cpe.common.LogicalValue any = new org.mitre.cpe.common.LogicalValue("ANY");
+        org.mitre.cpe.common.LogicalValue na = new org.mitre.cpe.common.LogicalValue("NA");
+        String[] values = {"*", "-", "owasp", "apache"};
+        CpeBuilder builder = new CpeBuilder();
+
+        for (String sourceVendor : values) {
+            for (String sourceProduct : values) {
+                for (String targetVendor : values) {
+                    for (String targetProduct : values) {
+                        WellFormedName source = new WellFormedName("a", toReference(sourceVendor, any, na),
+                                toReference(sourceProduct, any, na), any, any, any, any, any, any, any, any);
+                        WellFormedName target = new WellFormedName("a", toReference(targetVendor, any, na),
+                                toReference(targetProduct, any, na), any, any, any, any, any, any, any, any);
+                        Cpe instance = builder.part(Part.APPLICATION).wfVendor(sourceVendor).wfProduct(sourceProduct).build();
+                        Cpe cpe = builder.part(Part.APPLICATION).wfVendor(targetVendor).wfProduct(targetProduct).build();
+
+                        RelationVector result = instance.relationTo(cpe);
+                        assertEquals(referenceMatcher.isDisjoint(source, target), result.isDisjoint());
+                        assertEquals(referenceMatcher.isEqual(source, target), result.isEqual());
+                        assertEquals(referenceMatcher.isSubset(source, target), result.isSubset());
+                        assertEquals(referenceMatcher.isSuperset(source, target), result.isSuperset());
+                    }
+                }
+            }
+        }
+    }
+
+    private static Object toReference(String value, Object any, Object na) {
+        if ("*".equals(value)) {
+            return any;
+        } else if ("-".equals(value)) {
+            return na;
+        }
+        return value;
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.exceptions.CpeValidationException;
+import us.springett.parsers.cpe.util.Convert;
+import us.springett.parsers.cpe.util.Status;
+import us.springett.parsers.cpe.util.Validate;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.Part;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeParserContextTest {
+
+    /**
+     * Test of parse method, of class CpeParserContext.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testParse() throws Exception {
+        String[] values = {
+            "cpe:2.3:a:hiox_india:guest_book:4.0:*:*:*:*:*:*:?",
+            "cpe:2.3:a:test\\::guest_book:4.0:*:*:*:*:*:*:*",
+            "cpe:2.3:a:jenkins:pipeline\\:build_step:*:*:*:*:*:jenkins:*:*",
+            "cpe:2.3:o:microsoft:windows_10:1607:-:*:*:*:*:x64:*:",
+            "cpe:2.3:h:vendor:product:1.0\\-beta::::::*:*",
+            "cpe:2.3:*:vendor:product:\\-:*:*:*:*:*:*:*",
+            "cpe:2.3:-:vendor:product:1.*:*:*:*:*:*:*:*",
+            "cpe:/a:apache:struts:2.5.10"
+        };
+        CpeParserContext instance = new CpeParserContext();
+        for (String value : values) {
+            Cpe expected = CpeParser.parse(value);
+            Cpe result = instance.parse(value);
+            for (Attribute attribute : Attribute.values()) {
+                assertEquals(expected.getWellFormed(attribute), result.getWellFormed(attribute), value);
+            }
+            assertEquals(expected, ThreadLocalCpeParser.parse(value));
+        }
+        String lenient = "cpe:2.3:a:vendor:product:1.0(beta):*:*:*:*:*:*:*";
+        assertEquals(CpeParser.parse(lenient, true), instance.parse(lenient, true));
+        assertEquals(CpeParser.parse(lenient, true), ThreadLocalCpeParser.parse(lenient, true));
+    }
+
+    /**
+     * Test of parse method, of class CpeParserContext.
+     */
+    @Test
+    public void testParseInvalid() {
+        String[] values = {
+            null,
+            "",
+            "cpe:2.3:",
+            "cpe:2.3:a",
+            "cpe:2.3:x:vendor",
+            "cpe:2.3:ab:vendor:product:*:*:*:*:*:*:*:*",
+            "cpe:2.3:a:vendor:product:*:*:*:*:*:*:*",
+            "cpe:2.3:a:vendor:product:*:*:*:*:*:*:*:*:*",
+            "cpe:2.3:a:vendor:product:1**:*:*:*:*:*:*:*",
+            "cpe:2.3:a:vendor:product:1.0 beta:*:*:*:*:*:*:*"
+        };
+        CpeParserContext instance = new CpeParserContext();
+        for (String value : values) {
+            String expected = null;
+            try {
+                CpeParser.parse(value);
+                fail("Expected a parsing exception: " + value);
+            } catch (CpeParsingException ex) {
+                expected = ex.getMessage();
+            }
+            assertThatThrownBy(() -> instance.parse(value))
+                    .isInstanceOf(CpeParsingException.class)
+                    .hasMessage(expected);
+        }
+    }
+
+    /**
+     * Test of validate method, of class CpeParserContext.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testValidate() throws Exception {
+        String[] values = {
+            "cpe:/a:vendor:product",
+            "cpe:2.3:",
+            "cpe:2.3:x:vendor:product:*:*:*:*:*:*:*:*",
+            "cpe:2.3:a:vendor:product:*:*:*:*:*:*:*",
+            "cpe:2.3:a:vendor:product:*:*:*:*:*:*:*:*:*",
+            "cpe:2.3:a:vendor:product:1**:*:*:*:*:*:*:*",
+            "cpe:2.3:a:vendor:product:1.0 beta:*:*:*:*:*:*:*",
+            "cpe:2.3:a:vendor:product:1.0:*:*:*:*:*:*:*"
+        };
+        CpeParserContext instance = new CpeParserContext();
+        for (String value : values) {
+            assertEquals(Validate.formattedString(value), instance.validate(value), value);
+        }
+        String value = "cpe:2.3:a:vendor:product_name:1.0:*:*:*:*:*:*:*";
+        assertEquals(Status.VALID, instance.validate(value));
+        assertEquals(CpeParser.parse(value), instance.parse(value));
+        assertEquals(CpeParser.parse(values[7]), instance.parse(values[7]));
+    }
+
+    /**
+     * Test of parse method, of class CpeParserContext, comparing the trusted
+     * construction against validating the converted attributes.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testParseRandom() throws Exception {
+        String alphabet = "ab1\\\\?*-._ ";
+        Random random = new Random(3);
+        CpeParserContext instance = new CpeParserContext();
+        for (int n = 0; n < 20000; n++) {
+            String[] components = new String[10];
+            StringBuilder builder = new StringBuilder("cpe:2.3:a");
+            for (int x = 0; x < components.length; x++) {
+                StringBuilder component = new StringBuilder();
+                int length = random.nextInt(x < 3 ? 6 : 2);
+                for (int y = 0; y < length; y++) {
+                    component.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                if (component.length() > 0 && component.charAt(component.length() - 1) == '\\') {
+                    component.append('a');
+                } else if (component.length() == 0 && x == components.length - 1) {
+                    //a trailing empty component is not counted
+                    component.append('*');
+                }
+                components[x] = component.toString();
+                builder.append(':').append(components[x]);
+            }
+            String value = builder.toString();
+            Cpe expected = null;
+            String message = null;
+            try {
+                expected = new Cpe(Part.APPLICATION, Convert.fsToWellFormed(components[0]),
+                        Convert.fsToWellFormed(components[1]), Convert.fsToWellFormed(components[2]),
+                        Convert.fsToWellFormed(components[3]), Convert.fsToWellFormed(components[4]),
+                        Convert.fsToWellFormed(components[5]), Convert.fsToWellFormed(components[6]),
+                        Convert.fsToWellFormed(components[7]), Convert.fsToWellFormed(components[8]),
+                        Convert.fsToWellFormed(components[9]));
+            } catch (CpeValidationException ex) {
+                message = ex.getMessage();
+            }
+            if (expected != null) {
+                assertEquals(expected, instance.parse(value), value);
+            } else {
+                assertThatThrownBy(() -> instance.parse(value))
+                        .isInstanceOf(CpeParsingException.class)
+                        .hasMessage(message);
+            }
+        }
+    }
+}
@@ -23,6 +23,9 @@ import java.util.List;
 import org.junit.jupiter.api.Test;
 import us.springett.parsers.cpe.exceptions.CpeValidationException;
 import us.springett.parsers.cpe.util.Relation;
+import us.springett.parsers.cpe.util.RelationVector;
+import us.springett.parsers.cpe.util.Status;
+import us.springett.parsers.cpe.values.Attribute;
 import us.springett.parsers.cpe.values.LogicalValue;
 import us.springett.parsers.cpe.values.Part;
 
@@ -49,6 +52,53 @@ public class CpeTest {
                 .isInstanceOf(CpeValidationException.class);
     }
 
+    /**
+     * Test of trusted method, of class Cpe.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testTrusted() throws Exception {
+        Cpe expected = new Cpe(Part.APPLICATION, "vendor", "product", "1\\.0", "*", "*", "*", "*", "*", "*", "*");
+        Cpe instance = Cpe.trusted(Part.APPLICATION, "vendor", "product", "1\\.0", "*", "*", "*", "*", "*", "*", "*");
+        assertEquals(expected, instance);
+        assertEquals(expected.toCpe23FS(), instance.toCpe23FS());
+        assertTrue(instance.matches(expected));
+    }
+
+    /**
+     * Test of with method, of class Cpe.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testWith() throws Exception {
+        Cpe instance = new Cpe(Part.APPLICATION, "vendor", "product", "1\\.0", "*", "*", "*", "*", "*", "*", "*");
+        assertEquals(new Cpe(Part.APPLICATION, "vendor", "product", "2\\.0", "*", "*", "*", "*", "*", "*", "*"),
+                instance.withVersion("2\\.0"));
+        assertEquals(new Cpe(Part.APPLICATION, "vendor", "product", "1\\.0", "sp1", "*", "*", "*", "*", "*", "*"),
+                instance.withUpdate("sp1"));
+        assertEquals(new Cpe(Part.APPLICATION, "vendor", "product", "1\\.0", "*", "*", "*", "*", "java", "*", "*"),
+                instance.withTargetSw("java"));
+        assertEquals(new Cpe(Part.OPERATING_SYSTEM, "vendor", "product", "1\\.0", "*", "*", "*", "*", "*", "*", "*"),
+                instance.with(Attribute.PART, "o"));
+        assertEquals(new Cpe(Part.APPLICATION, "vendor", "product", "1\\.0", "*", "*", "*", "*", "*", "*", "x"),
+                instance.with(Attribute.OTHER, "x"));
+        assertTrue(instance == instance.withVersion("1\\.0"));
+        assertTrue(instance == instance.withPart(Part.APPLICATION));
+        assertThatThrownBy(() -> instance.withVersion("1 0"))
+                .isInstanceOf(CpeValidationException.class)
+                .hasMessage("Invalid version component: " + Status.WHITESPACE.getMessage());
+        assertThatThrownBy(() -> instance.with(Attribute.SW_EDITION, "a b"))
+                .isInstanceOf(CpeValidationException.class)
+                .hasMessage("Invalid swEdition component: " + Status.WHITESPACE.getMessage());
+        assertThatThrownBy(() -> instance.withTargetSw("a b"))
+                .isInstanceOf(CpeValidationException.class)
+                .hasMessage("Invalid targetSw component: " + Status.WHITESPACE.getMessage());
+        assertThatThrownBy(() -> instance.with(Attribute.PART, "x"))
+                .isInstanceOf(CpeValidationException.class);
+    }
+
     /**
      * Test of constructor, of class Cpe.
      *
@@ -776,6 +826,39 @@ public class CpeTest {
         assertEquals(Relation.DISJOINT, Cpe.compareAttribute(Part.NA, Part.OPERATING_SYSTEM));
     }
 
+    /**
+     * Test of relationTo method, of class Cpe.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testRelationTo() throws Exception {
+        CpeBuilder builder = new CpeBuilder();
+        Cpe vendorOnly = builder.part(Part.APPLICATION).vendor("apache").build();
+        Cpe specific = builder.part(Part.APPLICATION).vendor("apache").product("struts").version("2.5.1").build();
+        Cpe other = builder.part(Part.APPLICATION).vendor("eclipse").product("jetty").build();
+
+        RelationVector result = vendorOnly.relationTo(specific);
+        assertEquals(Relation.EQUAL, result.get(Attribute.VENDOR));
+        assertEquals(Relation.SUPERSET, result.get(Attribute.PRODUCT));
+        assertTrue(result.isSuperset());
+        assertFalse(result.isSubset());
+        assertFalse(result.isDisjoint());
+        assertEquals(vendorOnly.matches(specific), !result.isDisjoint());
+
+        result = specific.relationTo(vendorOnly);
+        assertTrue(result.isSubset());
+        assertFalse(result.isSuperset());
+
+        result = vendorOnly.relationTo(other);
+        assertEquals(Relation.DISJOINT, result.get(Attribute.VENDOR));
+        assertTrue(result.isDisjoint());
+        assertEquals(vendorOnly.matches(other), !result.isDisjoint());
+
+        assertTrue(specific.relationTo(specific).isEqual());
+        assertEquals(Cpe.compareNames(specific, vendorOnly), specific.relationTo(vendorOnly));
+    }
+
     /**
      * Test of compareAttributes method, of class Cpe.
      */
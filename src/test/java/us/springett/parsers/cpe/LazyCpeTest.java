@@ -0,0 +1,131 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe;
+
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.exceptions.CpeValidationException;
+import us.springett.parsers.cpe.util.Status;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.Part;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class LazyCpeTest {
+
+    /**
+     * Test of the attribute getters, of class LazyCpe.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testGetters() throws Exception {
+        String value = "cpe:2.3:a:poco\\:project:poco_c\\+\\+_libraries:1.4.5:-:*:en:*:*:*:*";
+        LazyCpe instance = new LazyCpe(value);
+        Cpe expected = CpeParser.parse(value);
+
+        assertEquals(Part.APPLICATION, instance.getPart());
+        for (Attribute attribute : Attribute.values()) {
+            assertEquals(expected.getWellFormed(attribute), instance.getWellFormed(attribute));
+        }
+        assertEquals("poco:project", instance.getVendor());
+        assertEquals("poco_c++_libraries", instance.getProduct());
+        assertEquals(expected.getWellFormedProduct(), instance.getWellFormedProduct());
+        assertEquals(expected.toCpe22Uri(), instance.toCpe22Uri());
+        assertEquals(value, instance.toCpe23FS());
+        assertEquals(value, instance.toString());
+        assertEquals(expected, instance.toCpe());
+        assertEquals(0, instance.compareTo(expected));
+    }
+
+    /**
+     * Test of constructor, of class LazyCpe.
+     */
+    @Test
+    public void testInvalid() {
+        assertThatThrownBy(() -> new LazyCpe(null))
+                .isInstanceOf(CpeParsingException.class);
+        assertThatThrownBy(() -> new LazyCpe("cpe:/a:apache:struts"))
+                .isInstanceOf(CpeParsingException.class);
+        assertThatThrownBy(() -> new LazyCpe("cpe:2.3:a:apache:struts"))
+                .isInstanceOf(CpeParsingException.class)
+                .hasMessageContaining("too few components");
+        assertThatThrownBy(() -> new LazyCpe("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*:*"))
+                .isInstanceOf(CpeParsingException.class)
+                .hasMessageContaining("too many components");
+        assertThatThrownBy(() -> new LazyCpe("cpe:2.3:x:apache:struts:*:*:*:*:*:*:*:*"))
+                .isInstanceOf(CpeParsingException.class);
+    }
+
+    /**
+     * Test of validate method, of class LazyCpe.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testValidate() throws Exception {
+        LazyCpe instance = new LazyCpe("cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*");
+        assertEquals(Status.VALID, instance.validate());
+
+        instance = new LazyCpe("cpe:2.3:a:apache:struts:2.5.10**:*:*:*:*:*:*:*");
+        assertNotEquals(Status.VALID, instance.validate());
+        LazyCpe invalid = instance;
+        assertThatThrownBy(() -> invalid.toCpe())
+                .isInstanceOf(CpeValidationException.class);
+    }
+
+    /**
+     * Test of matches method, of class LazyCpe.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMatches() throws Exception {
+        LazyCpe instance = new LazyCpe("cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*");
+        Cpe target = CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*");
+        assertTrue(instance.matches(target));
+        assertTrue(target.matches(instance));
+        assertTrue(instance.matchedBy(target));
+        assertFalse(instance.matches(CpeParser.parse("cpe:2.3:a:apache:tomcat:*:*:*:*:*:*:*:*")));
+        assertEquals(target.relationTo(instance), Cpe.compareNames(target, instance));
+        assertTrue(instance.relationTo(target).isSubset());
+    }
+
+    /**
+     * Test of equals and hashCode methods, of class LazyCpe.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testEquals() throws Exception {
+        LazyCpe a = new LazyCpe("cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*");
+        LazyCpe b = new LazyCpe("cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*:");
+        LazyCpe c = new LazyCpe("cpe:2.3:a:apache:struts:2.5.11:*:*:*:*:*:*:*");
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.index.CpeDictionary;
+import us.springett.parsers.cpe.index.OffHeapCpeDictionary;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class AsyncCpeMatcherTest {
+
+    /**
+     * Creates a small dictionary.
+     *
+     * @return the dictionary
+     * @throws Exception thrown if there is an error
+     */
+    private static CpeDictionary dictionary() throws Exception {
+        return new OffHeapCpeDictionary(Arrays.asList(
+                CpeParser.parse("cpe:2.3:a:apache:struts:2.3.1:*:*:*:*:*:*:*"),
+                CpeParser.parse("cpe:2.3:a:apache:struts:2.5.1:*:*:*:*:*:*:*"),
+                CpeParser.parse("cpe:2.3:a:apache:tomcat:9.0:*:*:*:*:*:*:*"),
+                CpeParser.parse("cpe:2.3:o:microsoft:windows:10:*:*:*:*:*:*:*")));
+    }
+
+    /**
+     * Test of parse method, of class AsyncCpeMatcher.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testParse() throws Exception {
+        try (AsyncCpeMatcher instance = new AsyncCpeMatcher(dictionary())) {
+            CompletableFuture<Cpe> cpe = instance.parse("cpe:2.3:a:apache:struts:2.3.1:*:*:*:*:*:*:*");
+            CompletableFuture<Cpe> uri = instance.parse("cpe:/a:apache:struts:2.3.1");
+            CompletableFuture<Cpe> lenient = instance.parse("cpe:/a:oracle:connector/j:5.1.27", true);
+            CompletableFuture<Cpe> invalid = instance.parse("cpe:2.3:a:apache");
+            assertEquals(CpeParser.parse("cpe:2.3:a:apache:struts:2.3.1:*:*:*:*:*:*:*"), cpe.get(5, TimeUnit.SECONDS));
+            assertEquals(CpeParser.parse("cpe:/a:apache:struts:2.3.1"), uri.get(5, TimeUnit.SECONDS));
+            assertEquals(CpeParser.parse("cpe:/a:oracle:connector/j:5.1.27", true), lenient.get(5, TimeUnit.SECONDS));
+            assertThatThrownBy(() -> invalid.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(CpeParsingException.class);
+        }
+    }
+
+    /**
+     * Test of matches method, of class AsyncCpeMatcher.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMatches() throws Exception {
+        Cpe source = CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*");
+        try (AsyncCpeMatcher instance = new AsyncCpeMatcher(dictionary())) {
+            assertTrue(instance.matches(source, CpeParser.parse("cpe:2.3:a:apache:struts:2.3.1:*:*:*:*:*:*:*"))
+                    .get(5, TimeUnit.SECONDS));
+            assertFalse(instance.matches(source, CpeParser.parse("cpe:2.3:a:apache:tomcat:9.0:*:*:*:*:*:*:*"))
+                    .get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Test of findMatches method, of class AsyncCpeMatcher.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFindMatches() throws Exception {
+        CpeDictionary dictionary = dictionary();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (AsyncCpeMatcher instance = new AsyncCpeMatcher(dictionary, 8, 10, TimeUnit.SECONDS, executor)) {
+            List<ICpe> sources = new ArrayList<>();
+            List<CompletableFuture<List<ICpe>>> futures = new ArrayList<>();
+            for (int x = 0; x < 16; x++) {
+                ICpe source = CpeParser.parse(x % 2 == 0 ? "cpe:2.3:a:apache:*:*:*:*:*:*:*:*:*"
+                        : "cpe:2.3:*:*:*:" + x + ":*:*:*:*:*:*:*");
+                sources.add(source);
+                futures.add(instance.findMatches(source));
+            }
+            for (int x = 0; x < 16; x++) {
+                assertEquals(dictionary.findMatches(sources.get(x)), futures.get(x).get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(3, futures.get(0).get().size());
+            assertEquals(16, instance.getRequestCount());
+            assertEquals(2, instance.getBatchCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test of an error thrown while processing a batch, of class
+     * AsyncCpeMatcher.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testError() throws Exception {
+        ICpe failing = (ICpe) Proxy.newProxyInstance(ICpe.class.getClassLoader(), new Class<?>[]{ICpe.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new StackOverflowError();
+                    }
+                });
+        try (AsyncCpeMatcher instance = new AsyncCpeMatcher(dictionary(), 3, 1, TimeUnit.HOURS, Runnable::run)) {
+            ICpe target = CpeParser.parse("cpe:2.3:a:apache:struts:2.3.1:*:*:*:*:*:*:*");
+            CompletableFuture<Boolean> error = instance.matches(failing, target);
+            CompletableFuture<List<ICpe>> lookup = instance.findMatches(failing);
+            CompletableFuture<Boolean> after = instance.matches(target, target);
+            assertTrue(after.get(5, TimeUnit.SECONDS));
+            assertThatThrownBy(() -> error.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(StackOverflowError.class);
+            assertThatThrownBy(() -> lookup.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(StackOverflowError.class);
+        }
+    }
+
+    /**
+     * Test of the maximum delay, of class AsyncCpeMatcher.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMaxDelay() throws Exception {
+        try (AsyncCpeMatcher instance = new AsyncCpeMatcher(dictionary(), 1000, 200, TimeUnit.MILLISECONDS,
+                Runnable::run)) {
+            CompletableFuture<Cpe> first = instance.parse("cpe:2.3:a:apache:struts:2.3.1:*:*:*:*:*:*:*");
+            CompletableFuture<Cpe> second = instance.parse("cpe:2.3:a:apache:struts:2.3.1:*:*:*:*:*:*:*");
+            assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, instance.getBatchCount());
+        }
+    }
+
+    /**
+     * Test of close method, of class AsyncCpeMatcher.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testClose() throws Exception {
+        AsyncCpeMatcher instance = new AsyncCpeMatcher(dictionary(), 1000, 1, TimeUnit.HOURS, Runnable::run);
+        CompletableFuture<Cpe> pending = instance.parse("cpe:2.3:a:apache:struts:2.3.1:*:*:*:*:*:*:*");
+        assertFalse(pending.isDone());
+        instance.close();
+        assertTrue(pending.isDone());
+        assertThatThrownBy(() -> instance.parse("cpe:2.3:a:apache:struts:2.3.1:*:*:*:*:*:*:*"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new AsyncCpeMatcher(dictionary(), 0, 1, TimeUnit.HOURS, Runnable::run))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
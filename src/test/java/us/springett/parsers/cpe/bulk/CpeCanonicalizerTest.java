@@ -0,0 +1,96 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeCanonicalizerTest {
+
+    /**
+     * Test of canonicalize method, of class CpeCanonicalizer.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testCanonicalize() throws Exception {
+        CpeCanonicalizer instance = new CpeCanonicalizer();
+        Cpe expected = CpeParser.parse("cpe:2.3:a:microsoft:internet_explorer:8.0.6001:beta:*:*:*:*:*:*");
+        assertEquals(expected, instance.canonicalize("cpe:/a:Microsoft:Internet_Explorer:8.0.6001:Beta"));
+        assertEquals(expected, instance.canonicalize("cpe:2.3:a:MICROSOFT:internet_explorer:8.0.6001:beta::*:*:*:*:*"));
+        assertEquals(expected, CpeCanonicalizer.canonicalize(CpeParser.parse("cpe:2.3:a:Microsoft:Internet_Explorer:8.0.6001:BETA:*:*:*:*:*:*")));
+
+        expected = CpeParser.parse("cpe:2.3:a:vendor:product:1.0:*:edition:*:swe:tsw:thw:*");
+        assertEquals(expected, instance.canonicalize("cpe:/a:Vendor:Product:1.0::~Edition~SWE~tsw~thw~"));
+    }
+
+    /**
+     * Test of accept method, of class CpeCanonicalizer.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testAccept() throws Exception {
+        CpeCanonicalizer instance = new CpeCanonicalizer(false, 16);
+        Cpe cpe = instance.accept("cpe:/a:apache:struts:2.5.10");
+        assertEquals(CpeParser.parse("cpe:/a:apache:struts:2.5.10"), cpe);
+        assertNull(instance.accept("cpe:2.3:a:Apache:Struts:2.5.10:*:*:*:*:*:*:*"));
+        assertNull(instance.accept(CpeParser.parse("cpe:2.3:a:APACHE:struts:2.5.10:*:*:*:*:*:*:*")));
+        assertThatThrownBy(() -> instance.accept("cpe:2.3:a:apache"))
+                .isInstanceOf(CpeParsingException.class);
+        assertEquals(1, instance.size());
+        assertEquals(4, instance.getInputCount());
+        assertEquals(2, instance.getDuplicateCount());
+        assertEquals(1, instance.getInvalidCount());
+    }
+
+    /**
+     * Test of process method, of class CpeCanonicalizer.
+     */
+    @Test
+    public void testProcess() {
+        CpeCanonicalizer instance = new CpeCanonicalizer();
+        List<String> result = instance.process(Stream.of(
+                "cpe:/a:apache:struts:2.5.10",
+                "not a cpe",
+                "cpe:2.3:a:apache:tomcat:9.0.1:*:*:*:*:*:*:*",
+                "cpe:2.3:a:Apache:Struts:2.5.10:*:*:*:*:*:*:*",
+                "cpe:/a:apache:tomcat:9.0.1"))
+                .map(Cpe::toCpe23FS)
+                .collect(Collectors.toList());
+        assertEquals(2, result.size());
+        assertEquals("cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*", result.get(0));
+        assertEquals("cpe:2.3:a:apache:tomcat:9.0.1:*:*:*:*:*:*:*", result.get(1));
+        assertEquals(5, instance.getInputCount());
+        assertEquals(1, instance.getInvalidCount());
+        assertEquals(2, instance.getDuplicateCount());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeDiffTest {
+
+    /**
+     * Records the differences reported to it.
+     */
+    private static class Recorder implements CpeDiff.Listener<Cpe> {
+
+        /**
+         * The differences in the order reported.
+         */
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void added(Cpe cpe) {
+            events.add("+" + cpe.getVersion());
+        }
+
+        @Override
+        public void removed(Cpe cpe) {
+            events.add("-" + cpe.getVersion());
+        }
+
+        @Override
+        public void unchanged(Cpe previous, Cpe current) {
+            events.add("=" + current.getVersion());
+        }
+    }
+
+    /**
+     * Parses versions of a product and sorts them.
+     *
+     * @param versions the versions
+     * @return the sorted CPE
+     * @throws Exception thrown if there is an error
+     */
+    private List<Cpe> versions(String... versions) throws Exception {
+        List<Cpe> result = new ArrayList<>();
+        for (String version : versions) {
+            result.add(CpeParser.parse("cpe:2.3:a:apache:struts:" + version + ":*:*:*:*:*:*:*"));
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Test of diff method, of class CpeDiff.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testDiff() throws Exception {
+        List<Cpe> previous = versions("2.3.1", "2.5.9", "2.5.10", "2.5.10");
+        List<Cpe> current = versions("2.5.9", "2.5.10", "2.5.11", "2.10.0");
+        Recorder recorder = new Recorder();
+        CpeDiff.diff(previous.iterator(), current.iterator(), recorder);
+        assertEquals(Arrays.asList("-2.3.1", "=2.5.9", "=2.5.10", "+2.5.11", "+2.10.0"), recorder.events);
+
+        recorder = new Recorder();
+        CpeDiff.diff(Collections.<Cpe>emptyIterator(), current.iterator(), recorder);
+        assertEquals(Arrays.asList("+2.5.9", "+2.5.10", "+2.5.11", "+2.10.0"), recorder.events);
+
+        recorder = new Recorder();
+        CpeDiff.diff(previous.iterator(), Collections.<Cpe>emptyIterator(), recorder);
+        assertEquals(Arrays.asList("-2.3.1", "-2.5.9", "-2.5.10"), recorder.events);
+
+        List<Cpe> unsorted = new ArrayList<>(current);
+        Collections.reverse(unsorted);
+        assertThatThrownBy(() -> CpeDiff.diff(previous.iterator(), unsorted.iterator(), new Recorder()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
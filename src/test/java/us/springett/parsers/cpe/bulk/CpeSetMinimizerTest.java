@@ -0,0 +1,175 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.values.Part;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeSetMinimizerTest {
+
+    /**
+     * Test of minimize method, of class CpeSetMinimizer.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMinimize() throws Exception {
+        Cpe v1 = CpeParser.parse("cpe:2.3:a:vendor:product:1.0:*:*:*:*:*:*:*");
+        Cpe all = CpeParser.parse("cpe:2.3:a:vendor:product:*:*:*:*:*:*:*:*");
+        Cpe v2 = CpeParser.parse("cpe:2.3:a:vendor:product:2.0:*:*:*:*:*:*:*");
+        Cpe v2x = CpeParser.parse("cpe:2.3:a:vendor:product:2.*:*:*:*:*:*:*:*");
+        Cpe other = CpeParser.parse("cpe:2.3:a:vendor:other:2.0:*:*:*:*:*:*:*");
+        Cpe duplicate = CpeParser.parse("cpe:2.3:a:vendor:other:2.0:*:*:*:*:*:*:*");
+        Cpe products = CpeParser.parse("cpe:2.3:a:vendor:prod*:3.0:*:*:*:*:*:*:*");
+        Cpe product3 = CpeParser.parse("cpe:2.3:a:vendor:product:3.0:*:*:*:*:*:*:*");
+        assertEquals(Arrays.asList(all, other, products),
+                CpeSetMinimizer.minimize(Arrays.asList(v1, all, v2, v2x, other, duplicate, products, product3)));
+        assertEquals(Arrays.asList(v1, v2x, other, products),
+                CpeSetMinimizer.minimize(Arrays.asList(v1, v2, v2x, other, duplicate, products, product3)));
+        assertEquals(new ArrayList<Cpe>(), CpeSetMinimizer.minimize(new ArrayList<Cpe>()));
+    }
+
+    /**
+     * Test of minimize method, of class CpeSetMinimizer, with patterns that
+     * match each other as written but do not match the same values.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMinimizeQuestionMark() throws Exception {
+        Cpe single = CpeParser.parse("cpe:2.3:a:v:p:1.?:*:*:*:*:*:*:*");
+        Cpe many = CpeParser.parse("cpe:2.3:a:v:p:1.*:*:*:*:*:*:*:*");
+        assertEquals(Arrays.asList(many), CpeSetMinimizer.minimize(Arrays.asList(single, many)));
+        assertEquals(Arrays.asList(many), CpeSetMinimizer.minimize(Arrays.asList(many, single)));
+        Cpe prefix = CpeParser.parse("cpe:2.3:a:v:p:?*:*:*:*:*:*:*:*");
+        Cpe suffix = CpeParser.parse("cpe:2.3:a:v:p:*?:*:*:*:*:*:*:*");
+        assertEquals(Arrays.asList(prefix), CpeSetMinimizer.minimize(Arrays.asList(prefix, suffix)));
+        Cpe two = CpeParser.parse("cpe:2.3:a:v:p:??:*:*:*:*:*:*:*");
+        Cpe endsInA = CpeParser.parse("cpe:2.3:a:v:p:*a:*:*:*:*:*:*:*");
+        assertEquals(Arrays.asList(two, endsInA), CpeSetMinimizer.minimize(Arrays.asList(two, endsInA)));
+    }
+
+    /**
+     * Test of contains method, of class CpeSetMinimizer.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testContains() throws Exception {
+        assertTrue(CpeSetMinimizer.contains("1\\.*", "1\\.?"));
+        assertFalse(CpeSetMinimizer.contains("1\\.?", "1\\.*"));
+        assertTrue(CpeSetMinimizer.contains("*", "-"));
+        assertFalse(CpeSetMinimizer.contains("?", "-"));
+        assertFalse(CpeSetMinimizer.contains("-", "*"));
+        assertFalse(CpeSetMinimizer.contains("??", "*a"));
+        assertTrue(CpeSetMinimizer.contains("*a", "??a"));
+        assertTrue(CpeSetMinimizer.contains("?*", "*?"));
+        assertTrue(CpeSetMinimizer.contains("*?", "?*"));
+        assertTrue(CpeSetMinimizer.contains("*", "*?"));
+        assertFalse(CpeSetMinimizer.contains("*?", "*"));
+        assertTrue(CpeSetMinimizer.contains("St*", "struts"));
+        assertFalse(CpeSetMinimizer.contains("st*", "s*"));
+        assertTrue(CpeSetMinimizer.contains("*s", "?*uts"));
+        assertTrue(CpeSetMinimizer.contains("1\\.?", "1\\.0"));
+        assertFalse(CpeSetMinimizer.contains("1\\.0", "1\\.?"));
+    }
+
+    /**
+     * Test of minimize method, of class CpeSetMinimizer, with many distinct
+     * versions of a product, which must not be compared with each other.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMinimizeLarge() throws Exception {
+        List<Cpe> cpes = new ArrayList<>();
+        for (int x = 0; x < 200000; x++) {
+            cpes.add(new Cpe(Part.APPLICATION, "apache", "struts", "1\\." + x, "*", "*", "*", "*", "*", "*", "*"));
+        }
+        Cpe pattern = new Cpe(Part.APPLICATION, "apache", "struts", "1\\.1*", "*", "*", "*", "*", "*", "*", "*");
+        cpes.add(pattern);
+        List<Cpe> result = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> CpeSetMinimizer.minimize(cpes));
+        //the pattern subsumes 1, 10-19, 100-199, ..., 100000-199999
+        assertEquals(200000 - 111111 + 1, result.size());
+        assertEquals(pattern, result.get(result.size() - 1));
+        assertEquals(cpes.get(0), result.get(0));
+    }
+
+    /**
+     * Test of minimize method, of class CpeSetMinimizer, checking that the
+     * result matches exactly the same specific CPE as the input and that no
+     * remaining CPE could be removed.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMinimizeRandom() throws Exception {
+        String[] products = {"*", "struts", "struts2", "str*", "*s", "?truts", "s?*", "*?"};
+        String[] versions = {"*", "-", "1\\.0", "1\\.*", "1\\.?", "1\\.??", "?\\.0", "*0", "2\\.0"};
+        String[] targetProducts = {"struts", "struts2", "strut", "s", "ss", "xstruts", "st"};
+        String[] targetVersions = {"-", "1\\.0", "1\\.1", "1\\.10", "1\\.", "2\\.0", "10", "0", "1\\.100"};
+        Part[] parts = {Part.ANY, Part.APPLICATION};
+        List<Cpe> targets = new ArrayList<>();
+        for (Part part : new Part[]{Part.APPLICATION, Part.OPERATING_SYSTEM}) {
+            for (String product : targetProducts) {
+                for (String version : targetVersions) {
+                    targets.add(new Cpe(part, "apache", product, version, "*", "*", "*", "*", "*", "*", "*"));
+                }
+            }
+        }
+        Random random = new Random(13);
+        for (int n = 0; n < 30; n++) {
+            List<Cpe> cpes = new ArrayList<>();
+            for (int x = 0; x < 40; x++) {
+                cpes.add(new Cpe(parts[random.nextInt(parts.length)], "apache",
+                        products[random.nextInt(products.length)], versions[random.nextInt(versions.length)],
+                        "*", "*", "*", "*", "*", "*", "*"));
+            }
+            List<Cpe> result = CpeSetMinimizer.minimize(cpes);
+            for (Cpe target : targets) {
+                assertEquals(cpes.stream().anyMatch(cpe -> cpe.matches(target)),
+                        result.stream().anyMatch(cpe -> cpe.matches(target)), target.toString());
+            }
+            for (Cpe cpe : cpes) {
+                //every removed CPE is covered by a remaining CPE on the specific targets
+                assertTrue(result.stream().anyMatch(kept -> targets.stream()
+                        .allMatch(target -> !cpe.matches(target) || kept.matches(target))), cpe.toString());
+            }
+            for (Cpe kept : result) {
+                assertEquals(1, result.stream().filter(other -> CpeSetMinimizer.subsumes(other, kept)).count(),
+                        kept.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.exceptions.CpeValidationException;
+import us.springett.parsers.cpe.values.Attribute;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeTemplateTest {
+
+    /**
+     * Test of apply method, of class CpeTemplate.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testApply() throws Exception {
+        Cpe base = CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*");
+        CpeTemplate instance = new CpeTemplate(base, Attribute.TARGET_SW);
+        assertEquals(CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:node.js:*:*"), instance.apply("node.js"));
+        assertThatThrownBy(() -> instance.apply("a b"))
+                .isInstanceOf(CpeValidationException.class);
+        assertThatThrownBy(() -> new CpeTemplate(base, Attribute.PART))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Test of expand method, of class CpeTemplate.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testExpand() throws Exception {
+        Cpe base = CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*");
+        CpeTemplate instance = CpeTemplate.versions(base);
+        List<Cpe> result = instance.expand(Arrays.asList("2.5.1", "2.5 beta", "-", "2.5.2"))
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(CpeParser.parse("cpe:2.3:a:apache:struts:2.5.1:*:*:*:*:*:*:*"),
+                CpeParser.parse("cpe:2.3:a:apache:struts:-:*:*:*:*:*:*:*"),
+                CpeParser.parse("cpe:2.3:a:apache:struts:2.5.2:*:*:*:*:*:*:*")), result);
+        assertEquals(1, instance.getInvalidCount());
+
+        //the stream is lazy and may be unbounded
+        assertEquals(CpeParser.parse("cpe:2.3:a:apache:struts:3:*:*:*:*:*:*:*"),
+                instance.expand(Stream.iterate(1, x -> x + 1).map(String::valueOf)).skip(2).findFirst().get());
+    }
+}
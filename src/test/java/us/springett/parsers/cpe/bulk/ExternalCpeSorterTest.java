@@ -0,0 +1,152 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.bulk;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class ExternalCpeSorterTest {
+
+    /**
+     * The directory for the temporary files.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test of sort method, of class ExternalCpeSorter.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testSort() throws Exception {
+        List<Cpe> cpes = new ArrayList<>();
+        Random random = new Random(42);
+        for (int x = 0; x < 1000; x++) {
+            cpes.add(CpeParser.parse("cpe:2.3:a:vendor" + random.nextInt(20) + ":product" + random.nextInt(10)
+                    + ":" + random.nextInt(5) + "." + random.nextInt(12) + ":*:*:*:*:*:*:*"));
+        }
+        List<Cpe> expected = new ArrayList<>(cpes);
+        Collections.sort(expected);
+
+        ExternalCpeSorter instance = new ExternalCpeSorter(64, directory, Comparator.<Cpe>naturalOrder());
+        List<Cpe> result = new ArrayList<>();
+        try (ExternalCpeSorter.SortedIterator sorted = instance.sort(cpes.iterator())) {
+            assertEquals(15, count(directory));
+            sorted.forEachRemaining(result::add);
+        }
+        assertEquals(expected, result);
+        assertEquals(0, count(directory));
+
+        result.clear();
+        new ExternalCpeSorter().sort(cpes.iterator()).forEachRemaining(result::add);
+        assertEquals(expected, result);
+
+        ExternalCpeSorter.SortedIterator sorted = instance.sort(cpes.iterator());
+        assertTrue(sorted.hasNext());
+        sorted.next();
+        sorted.close();
+        assertFalse(sorted.hasNext());
+        assertEquals(0, count(directory));
+
+        assertFalse(instance.sort(Collections.<Cpe>emptyIterator()).hasNext());
+        assertThatThrownBy(() -> new ExternalCpeSorter(0, directory, Comparator.<Cpe>naturalOrder()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Test of sort method with a file, of class ExternalCpeSorter.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testSortFile() throws Exception {
+        List<String> lines = new ArrayList<>();
+        List<Cpe> expected = new ArrayList<>();
+        Random random = new Random(7);
+        for (int x = 0; x < 2000; x++) {
+            String line = "cpe:2.3:" + "aoh".charAt(random.nextInt(3)) + ":vendor" + random.nextInt(5) + ":product"
+                    + random.nextInt(50) + ":" + random.nextInt(3) + "." + random.nextInt(20) + "-rc\\." + random.nextInt(2)
+                    + ":" + (random.nextBoolean() ? "*" : "-") + ":*:" + (random.nextBoolean() ? "en\\-us" : "*")
+                    + ":*:*:*:*";
+            lines.add(line);
+            expected.add(CpeParser.parse(line));
+            if (x % 100 == 0) {
+                lines.add("cpe:2.3:x:invalid");
+                lines.add("");
+            }
+        }
+        lines.add("cpe:/a:apache:struts:2.5.10");
+        expected.add(CpeParser.parse("cpe:/a:apache:struts:2.5.10"));
+        Collections.sort(expected);
+        Path file = directory.resolve("cpe.txt");
+        Files.write(file, lines);
+
+        for (int parallelism : new int[]{1, 3}) {
+            ExternalCpeSorter instance = new ExternalCpeSorter(100, parallelism, directory,
+                    Comparator.<Cpe>naturalOrder());
+            List<Cpe> result = new ArrayList<>();
+            try (ExternalCpeSorter.SortedIterator sorted = instance.sort(file)) {
+                assertEquals(21, count(directory));
+                sorted.forEachRemaining(result::add);
+            }
+            assertEquals(expected, result);
+            assertEquals(20, instance.getInvalidCount());
+            assertEquals(1, count(directory));
+        }
+
+        ExternalCpeSorter instance = new ExternalCpeSorter(100, 2, directory, Comparator.<Cpe>naturalOrder());
+        List<Cpe> result = new ArrayList<>();
+        instance.sortLines(lines.iterator()).forEachRemaining(result::add);
+        assertEquals(expected, result);
+        assertThatThrownBy(() -> new ExternalCpeSorter(100, 0, directory, Comparator.<Cpe>naturalOrder()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Counts the files in a directory.
+     *
+     * @param directory the directory
+     * @return the number of files
+     * @throws Exception thrown if there is an error
+     */
+    private long count(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
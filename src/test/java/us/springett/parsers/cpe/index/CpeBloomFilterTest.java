@@ -0,0 +1,147 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeBloomFilterTest {
+
+    /**
+     * Test of mightMatch method, of class CpeBloomFilter.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMightMatch() throws Exception {
+        List<Cpe> cpes = new ArrayList<>();
+        for (int x = 0; x < 1000; x++) {
+            cpes.add(CpeParser.parse("cpe:2.3:a:vendor" + x + ":product" + x + ":1.0:*:*:*:*:*:*:*"));
+        }
+        CpeBloomFilter instance = CpeBloomFilter.create(cpes, 0.01);
+        assertEquals(1000, instance.size());
+        for (Cpe cpe : cpes) {
+            assertTrue(instance.mightMatch(cpe));
+            assertTrue(instance.mightMatch(cpe.toCpe23FS()));
+        }
+        assertTrue(instance.mightMatch("cpe:2.3:a:Vendor7:PRODUCT7:2.0:*:*:*:*:*:*:*"));
+        assertTrue(instance.mightMatch("cpe:/a:vendor7:product7"));
+        assertTrue(instance.mightMatch("cpe:2.3:a:*:product7:*:*:*:*:*:*:*:*"));
+        assertTrue(instance.mightMatch("cpe:2.3:*:unknown:unknown:*:*:*:*:*:*:*:*"));
+        assertTrue(instance.mightMatch("cpe:2.3:a:unknown:prod*:*:*:*:*:*:*:*:*"));
+
+        int falsePositives = 0;
+        for (int x = 0; x < 10000; x++) {
+            if (instance.mightMatch("cpe:2.3:a:other" + x + ":product:1.0:*:*:*:*:*:*:*")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        assertFalse(instance.mightMatch("cpe:2.3:o:vendor7:product7:*:*:*:*:*:*:*:*"));
+
+        assertThatThrownBy(() -> instance.mightMatch("cpe:2.3:a:vendor"))
+                .isInstanceOf(CpeParsingException.class);
+    }
+
+    /**
+     * Test of mightMatch method with non-literal entries, of class
+     * CpeBloomFilter.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testNonLiteralEntries() throws Exception {
+        String[] entries = {
+            "cpe:2.3:a:apache:*:*:*:*:*:*:*:*:*",
+            "cpe:2.3:*:microsoft:windows:*:*:*:*:*:*:*:*",
+            "cpe:2.3:o:linu?:linux_kernel:*:*:*:*:*:*:*:*",
+            "cpe:2.3:h:-:-:*:*:*:*:*:*:*:*",
+            "cpe:2.3:a:oracle:mysql*:*:*:*:*:*:*:*:*"
+        };
+        String[] targets = {
+            "cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*",
+            "cpe:2.3:a:apache:-:*:*:*:*:*:*:*:*",
+            "cpe:2.3:o:microsoft:windows:10:*:*:*:*:*:*:*",
+            "cpe:2.3:a:Microsoft:Windows:*:*:*:*:*:*:*:*",
+            "cpe:2.3:o:linux:linux_kernel:5.4:*:*:*:*:*:*:*",
+            "cpe:2.3:h:-:-:*:*:*:*:*:*:*:*",
+            "cpe:2.3:a:oracle:mysql_server:8.0:*:*:*:*:*:*:*",
+            "cpe:2.3:a:oracle:java:8.0:*:*:*:*:*:*:*",
+            "cpe:2.3:o:apache:struts:2.5.10:*:*:*:*:*:*:*",
+            "cpe:2.3:h:vendor:product:*:*:*:*:*:*:*:*"
+        };
+        List<Cpe> cpes = new ArrayList<>();
+        for (String entry : entries) {
+            cpes.add(CpeParser.parse(entry));
+        }
+        CpeBloomFilter instance = CpeBloomFilter.create(cpes, 0.001);
+        for (String value : targets) {
+            Cpe target = CpeParser.parse(value);
+            boolean matched = false;
+            for (Cpe cpe : cpes) {
+                matched |= cpe.matches(target);
+            }
+            if (matched) {
+                assertTrue(instance.mightMatch(target), value);
+                assertTrue(instance.mightMatch(value), value);
+            }
+        }
+    }
+
+    /**
+     * Test of writeTo and readFrom methods, of class CpeBloomFilter.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testSerialization() throws Exception {
+        CpeBloomFilter instance = new CpeBloomFilter(100, 0.01);
+        instance.put(CpeParser.parse("cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*"));
+        instance.put(CpeParser.parse("cpe:2.3:a:oracle:*:*:*:*:*:*:*:*:*"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        instance.writeTo(out);
+        CpeBloomFilter result = CpeBloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(2, result.size());
+        assertEquals(instance.getBitSize(), result.getBitSize());
+        assertTrue(result.mightMatch("cpe:2.3:a:apache:struts:1.0:*:*:*:*:*:*:*"));
+        assertTrue(result.mightMatch("cpe:2.3:a:oracle:java:1.0:*:*:*:*:*:*:*"));
+        assertFalse(result.mightMatch("cpe:2.3:a:apache:tomcat:1.0:*:*:*:*:*:*:*"));
+
+        assertThatThrownBy(() -> CpeBloomFilter.readFrom(new ByteArrayInputStream(new byte[16])))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> new CpeBloomFilter(0, 0.01))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.ICpe;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeDeltaTest {
+
+    /**
+     * Parses the given CPE and sorts them in dictionary order.
+     *
+     * @param values the CPE strings
+     * @return the sorted CPE
+     * @throws Exception thrown if there is an error
+     */
+    private List<ICpe> sorted(String... values) throws Exception {
+        List<ICpe> result = new ArrayList<>();
+        for (String value : values) {
+            result.add(CpeParser.parse(value));
+        }
+        result.sort(CpeDictionary.order());
+        return result;
+    }
+
+    /**
+     * Test of compute method, of class CpeDelta.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testCompute() throws Exception {
+        List<ICpe> previous = sorted("cpe:/a:apache:struts:2.3.1",
+                "cpe:/a:apache:struts:2.5.10",
+                "cpe:/a:apache:tomcat:9.0.1",
+                "cpe:/o:microsoft:windows_10");
+        List<ICpe> current = sorted("cpe:/a:apache:struts:2.5.10",
+                "cpe:/a:apache:struts:2.5.10",
+                "cpe:/a:apache:tomcat:9.0.1",
+                "cpe:/a:apache:tomcat:9.0.2",
+                "cpe:2.3:o:Microsoft:windows_10:*:*:*:*:*:*:*:*",
+                "cpe:/o:microsoft:windows_11");
+        CpeDelta instance = CpeDelta.compute(previous.iterator(), current.iterator());
+        assertEquals(Arrays.asList("cpe:2.3:a:apache:tomcat:9.0.2:*:*:*:*:*:*:*",
+                "cpe:2.3:o:Microsoft:windows_10:*:*:*:*:*:*:*:*",
+                "cpe:2.3:o:microsoft:windows_11:*:*:*:*:*:*:*:*"), toStrings(instance.getAdded()));
+        assertEquals(Arrays.asList("cpe:2.3:a:apache:struts:2.3.1:*:*:*:*:*:*:*",
+                "cpe:2.3:o:microsoft:windows_10:*:*:*:*:*:*:*:*"), toStrings(instance.getRemoved()));
+        assertTrue(instance.getDeprecated().isEmpty());
+        assertFalse(instance.isEmpty());
+
+        assertTrue(CpeDelta.compute(previous.iterator(), previous.iterator()).isEmpty());
+        assertEquals(4, CpeDelta.compute(Collections.<ICpe>emptyIterator(), previous.iterator()).getAdded().size());
+
+        List<ICpe> unsorted = new ArrayList<>(previous);
+        Collections.reverse(unsorted);
+        assertThatThrownBy(() -> CpeDelta.compute(previous.iterator(), unsorted.iterator()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Test of getAdded method, of class CpeDelta.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testGetAdded() throws Exception {
+        List<ICpe> added = sorted("cpe:/a:apache:tomcat:9.0.1", "cpe:/a:apache:struts:2.5.10",
+                "cpe:/a:apache:tomcat:9.0.1");
+        Collections.reverse(added);
+        CpeDelta instance = new CpeDelta(added, Collections.<ICpe>emptyList(), Collections.<ICpe>emptyList());
+        assertEquals(Arrays.asList("cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:tomcat:9.0.1:*:*:*:*:*:*:*"), toStrings(instance.getAdded()));
+        assertThatThrownBy(() -> instance.getAdded().clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    /**
+     * Converts entries into formatted strings.
+     *
+     * @param cpes the entries
+     * @return the formatted strings
+     */
+    private List<String> toStrings(List<ICpe> cpes) {
+        List<String> result = new ArrayList<>();
+        for (ICpe cpe : cpes) {
+            result.add(cpe.toCpe23FS());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.values.Attribute;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeIndexFileTest {
+
+    /**
+     * The directory for the index files.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates the entries used by the tests.
+     *
+     * @return the entries
+     * @throws Exception thrown if there is an error
+     */
+    private List<ICpe> entries() throws Exception {
+        List<ICpe> cpes = new ArrayList<>();
+        for (String vendor : Arrays.asList("apache", "Apache", "microsoft", "*", "oracle")) {
+            for (String product : Arrays.asList("struts", "tomcat", "windows_10", "*")) {
+                for (String version : Arrays.asList("1.0", "2.0", "*", "-")) {
+                    cpes.add(CpeParser.parse("cpe:2.3:a:" + vendor + ":" + product + ":" + version + ":*:*:*:*:*:*:*"));
+                }
+            }
+        }
+        cpes.add(CpeParser.parse("cpe:2.3:o:microsoft:windows_10:-:*:*:*:*:*:x64:*"));
+        cpes.add(CpeParser.parse("cpe:2.3:a:apache:struts:1.0:*:*:*:*:*:*:*"));
+        return cpes;
+    }
+
+    /**
+     * Converts entries into formatted strings.
+     *
+     * @param cpes the entries
+     * @return the formatted strings
+     */
+    private List<String> toStrings(Iterable<ICpe> cpes) {
+        List<String> result = new ArrayList<>();
+        for (ICpe cpe : cpes) {
+            result.add(cpe.toCpe23FS());
+        }
+        return result;
+    }
+
+    /**
+     * Test of open method, of class CpeIndexFile.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testOpen() throws Exception {
+        List<ICpe> cpes = entries();
+        Path path = directory.resolve("cpe.idx");
+        new CpeIndexWriter().addAll(cpes).write(path);
+        CpeIndexFile instance = CpeIndexFile.open(path);
+        OffHeapCpeDictionary expected = new OffHeapCpeDictionary(cpes);
+        assertEquals(expected.size(), instance.size());
+        assertEquals(toStrings(expected), toStrings(instance));
+        assertEquals(4, instance.getVendorCount());
+        assertEquals(16, instance.getProductCount());
+        for (ICpe cpe : cpes) {
+            assertTrue(instance.contains(cpe));
+            assertEquals(expected.indexOf(cpe), instance.indexOf(cpe));
+        }
+        assertFalse(instance.contains(CpeParser.parse("cpe:2.3:a:apache:struts:3.0:*:*:*:*:*:*:*")));
+        ICpe entry = instance.findByProduct("microsoft", "windows_10").get(4);
+        assertEquals("cpe:2.3:o:microsoft:windows_10:-:*:*:*:*:*:x64:*", entry.toCpe23FS());
+        assertEquals("windows_10", entry.getProduct());
+    }
+
+    /**
+     * Test of findByVendor and findByProduct methods, of class CpeIndexFile.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFind() throws Exception {
+        List<ICpe> cpes = entries();
+        Path path = directory.resolve("cpe.idx");
+        new CpeIndexWriter().addAll(cpes).write(path);
+        CpeIndexFile instance = CpeIndexFile.open(path);
+        OffHeapCpeDictionary expected = new OffHeapCpeDictionary(cpes);
+        for (String vendor : Arrays.asList("apache", "APACHE", "microsoft", "*", "oracle", "ibm")) {
+            assertEquals(toStrings(expected.findByVendor(vendor)), toStrings(instance.findByVendor(vendor)));
+            for (String product : Arrays.asList("struts", "windows_10", "*", "other")) {
+                assertEquals(toStrings(expected.findByProduct(vendor, product)),
+                        toStrings(instance.findByProduct(vendor, product)));
+            }
+        }
+        assertEquals(32, instance.findByVendor("apache").size());
+        assertEquals(8, instance.findByProduct("apache", "struts").size());
+        assertEquals(0, instance.findByVendor("ibm").size());
+        for (String value : Arrays.asList(
+                "cpe:2.3:a:apache:struts:1.0:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:s*:*:*:*:*:*:*:*:*",
+                "cpe:2.3:*:microsoft:*:*:*:*:*:*:*:x64:*",
+                "cpe:2.3:a:*:tomcat:-:*:*:*:*:*:*:*")) {
+            ICpe source = CpeParser.parse(value);
+            assertEquals(toStrings(expected.findMatches(source)), toStrings(instance.findMatches(source)), value);
+        }
+    }
+
+    /**
+     * Test of open method with an invalid file, of class CpeIndexFile.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testOpenInvalid() throws Exception {
+        Path path = directory.resolve("cpe.idx");
+        new CpeIndexWriter().addAll(entries()).write(path);
+        byte[] data = Files.readAllBytes(path);
+
+        Path truncated = directory.resolve("truncated.idx");
+        Files.write(truncated, Arrays.copyOf(data, data.length - 1));
+        assertThatThrownBy(() -> CpeIndexFile.open(truncated))
+                .isInstanceOf(IOException.class)
+                .hasMessage("The CPE index is corrupt");
+
+        //a string id past the strings, a decreasing string offset, and lookup
+        //table entries that are out of order or past the records
+        ByteBuffer header = ByteBuffer.wrap(data);
+        int offsetsPos = header.getInt(24);
+        int recordsPos = header.getInt(28);
+        int vendorsPos = header.getInt(32);
+        int[][] corruptions = {{recordsPos, header.getInt(12)}, {recordsPos, -1}, {offsetsPos + 4, -1},
+            {vendorsPos + 4, header.getInt(8) + 1}, {vendorsPos, 1}};
+        Path corrupt = directory.resolve("corrupt.idx");
+        for (int[] corruption : corruptions) {
+            byte[] copy = data.clone();
+            ByteBuffer.wrap(copy).putInt(corruption[0], corruption[1]);
+            Files.write(corrupt, copy);
+            assertThatThrownBy(() -> CpeIndexFile.open(corrupt), Arrays.toString(corruption))
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("The CPE index is corrupt");
+        }
+        //a part that is not a part
+        int partId = header.getInt(recordsPos + 4 * AbstractCpeDictionary.POSITION[Attribute.PART.ordinal()]);
+        byte[] copy = data.clone();
+        copy[header.getInt(40) + header.getInt(offsetsPos + 4 * partId)] = 'x';
+        Files.write(corrupt, copy);
+        assertThatThrownBy(() -> CpeIndexFile.open(corrupt))
+                .isInstanceOf(IOException.class)
+                .hasMessage("The CPE index is corrupt");
+
+        Path other = directory.resolve("other.idx");
+        Files.write(other, "not an index file at all, just some text".getBytes("UTF-8"));
+        assertThatThrownBy(() -> CpeIndexFile.open(other))
+                .isInstanceOf(IOException.class)
+                .hasMessage("The file is not a CPE index");
+
+        Path empty = directory.resolve("empty.idx");
+        new CpeIndexWriter().write(empty);
+        assertEquals(0, CpeIndexFile.open(empty).size());
+        assertEquals(0, CpeIndexFile.open(empty).findByVendor("apache").size());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.CpeBuilder;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.LazyCpe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeSortKeyTest {
+
+    /**
+     * Test of compareTo method, of class CpeSortKey.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testCompareTo() throws Exception {
+        String[] versions = {"*", "-", "", "1", "1.0", "1-0", "1.0.1", "1.9", "1.10", "01", "1.01", "1a", "1.0a",
+            "1.0-rc1", "1.0.rc1", "2.0_beta", "~1", "+1", "0", "00", "10", "9", "z", "A",
+            "123456789012345678901234567890", "99999999999999999999", "1.0é"};
+        String[] products = {"struts", "struts2", "Struts", "struts_2"};
+        List<ICpe> cpes = new ArrayList<>();
+        for (String version : versions) {
+            for (String product : products) {
+                String update = product.length() > 6 ? "beta" : "*";
+                cpes.add(new LazyCpe("cpe:2.3:a:apache:" + product + ":" + version + ":" + update + ":*:*:*:*:*:*"));
+            }
+        }
+        cpes.add(new LazyCpe("cpe:2.3:o:apache:struts:*:*:*:*:*:*:*:*"));
+        cpes.add(new LazyCpe("cpe:2.3:*:apache:struts:*:*:*:*:*:*:*:*"));
+        cpes.add(new LazyCpe("cpe:2.3:a:apache:struts:\\-:*:*:*:*:*:*:*"));
+        cpes.add(new LazyCpe("cpe:2.3:a:apache:struts:1.0:\\-:*:*:*:*:*:*"));
+
+        for (ICpe left : cpes) {
+            CpeSortKey leftKey = CpeSortKey.of(left);
+            for (ICpe right : cpes) {
+                CpeSortKey rightKey = CpeSortKey.of(right);
+                assertEquals(Integer.signum(left.compareTo(right)), Integer.signum(leftKey.compareTo(rightKey)),
+                        left + " <=> " + right);
+            }
+        }
+    }
+
+    /**
+     * Test of equals method, of class CpeSortKey.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testEquals() throws Exception {
+        String value = "cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*";
+        CpeSortKey key = CpeSortKey.of(new LazyCpe(value));
+        assertEquals(key, CpeSortKey.of(new CpeBuilder().part("a").vendor("apache").product("struts")
+                .version("2.5.10").build()));
+        assertEquals(key.hashCode(), CpeSortKey.of(new LazyCpe(value)).hashCode());
+        assertNotEquals(key, CpeSortKey.of(new LazyCpe("cpe:2.3:a:apache:struts:2.5.11:*:*:*:*:*:*:*")));
+        assertEquals(key.toString().length(), key.toByteArray().length * 2);
+    }
+}
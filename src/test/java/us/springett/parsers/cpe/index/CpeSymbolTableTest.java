@@ -0,0 +1,99 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.Part;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeSymbolTableTest {
+
+    /**
+     * Test of encode method, of class CpeSymbolTable.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testEncode() throws Exception {
+        CpeSymbolTable instance = new CpeSymbolTable();
+        Cpe cpe = CpeParser.parse("cpe:2.3:a:Apache:struts:2.5.1:*:*:*:*:*:*:-");
+        EncodedCpe encoded = instance.encode(cpe);
+        assertEquals(cpe.toCpe23FS(), encoded.toCpe23FS());
+        assertEquals(cpe, encoded.toCpe());
+        assertEquals(Part.APPLICATION, encoded.getPart());
+        assertEquals(CpeSymbolTable.ANY, encoded.getId(Attribute.UPDATE));
+        assertEquals(CpeSymbolTable.NA, encoded.getId(Attribute.OTHER));
+        assertEquals(encoded.getId(Attribute.VENDOR), instance.lookup(Attribute.VENDOR, "Apache"));
+        assertEquals(-1, instance.lookup(Attribute.VENDOR, "apache"));
+        assertEquals(3, instance.size(Attribute.VENDOR));
+
+        EncodedCpe lower = instance.encode(CpeParser.parse("cpe:2.3:a:apache:struts:2.5.1:*:*:*:*:*:*:-"));
+        assertNotEquals(encoded.getId(Attribute.VENDOR), lower.getId(Attribute.VENDOR));
+        assertNotEquals(encoded, lower);
+        assertEquals(encoded, instance.encode(cpe));
+        assertEquals(encoded.hashCode(), instance.encode(cpe).hashCode());
+        assertEquals(true, encoded.matches(lower));
+        assertThatThrownBy(() -> instance.symbol(Attribute.PART, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Test of matches method, of class EncodedCpe, comparing the results to
+     * matching the CPE.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMatches() throws Exception {
+        String[] values = {"*", "-", "apache", "Apache", "APACHE", "apa*", "?pache", "*che", "1\\.0", "1\\.*",
+            "1\\.?", "2\\.0"};
+        Part[] parts = {Part.ANY, Part.APPLICATION, Part.OPERATING_SYSTEM};
+        Random random = new Random(5);
+        List<Cpe> cpes = new ArrayList<>();
+        for (int n = 0; n < 300; n++) {
+            String[] v = new String[10];
+            for (int x = 0; x < v.length; x++) {
+                v[x] = x < 3 || random.nextInt(4) == 0 ? values[random.nextInt(values.length)] : "*";
+            }
+            cpes.add(new Cpe(parts[random.nextInt(parts.length)], v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7],
+                    v[8], v[9]));
+        }
+        CpeSymbolTable instance = new CpeSymbolTable();
+        List<EncodedCpe> encoded = instance.encodeAll(cpes);
+        for (int x = 0; x < cpes.size(); x++) {
+            for (int y = 0; y < cpes.size(); y++) {
+                boolean expected = cpes.get(x).matches(cpes.get(y));
+                assertEquals(expected, encoded.get(x).matches(encoded.get(y)), cpes.get(x) + " " + cpes.get(y));
+                assertEquals(expected, encoded.get(x).matches(cpes.get(y)));
+            }
+        }
+    }
+}
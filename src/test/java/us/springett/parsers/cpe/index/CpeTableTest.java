@@ -0,0 +1,150 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.AbstractCpe;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.values.Attribute;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeTableTest {
+
+    /**
+     * Creates CPE with a regular mix of vendors, products, versions, and
+     * targets.
+     *
+     * @param count the number of CPE
+     * @return the CPE
+     * @throws Exception thrown if there is an error
+     */
+    private static List<Cpe> createCpes(int count) throws Exception {
+        List<Cpe> cpes = new ArrayList<>();
+        for (int x = 0; x < count; x++) {
+            String target = x % 3 == 0 ? "android" : x % 3 == 1 ? "*" : "iphone_os";
+            cpes.add(CpeParser.parse("cpe:2.3:" + (x % 5 == 0 ? "o" : "a") + ":vendor" + (x % 7)
+                    + ":product" + (x % 11) + ":1." + (x % 4) + ":*:*:*:*:" + target + ":*:*"));
+        }
+        return cpes;
+    }
+
+    /**
+     * Test of filter method, of class CpeTable.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFilter() throws Exception {
+        List<Cpe> cpes = createCpes(1000);
+        CpeTable instance = CpeTable.of(cpes);
+        assertEquals(1000, instance.size());
+        BitSet android = instance.filter(Attribute.TARGET_SW, "android");
+        BitSet os = instance.filter(Attribute.PART, "o");
+        BitSet expected = new BitSet();
+        for (int x = 0; x < cpes.size(); x++) {
+            Cpe cpe = cpes.get(x);
+            if ("android".equals(cpe.getWellFormedTargetSw()) && "o".equals(cpe.getPart().getAbbreviation())) {
+                expected.set(x);
+            }
+        }
+        android.and(os);
+        assertEquals(expected, android);
+        List<ICpe> rows = instance.rows(android);
+        assertEquals(expected.cardinality(), rows.size());
+        assertEquals(cpes.get(expected.nextSetBit(0)), ((AbstractCpe) rows.get(0)).toCpe());
+        assertEquals(new BitSet(), instance.filter(Attribute.VENDOR, "unknown"));
+        assertEquals(new BitSet(), instance.filter(Attribute.PART, "x"));
+        assertEquals(cpes.get(999).toCpe23FS(), instance.get(999).toCpe23FS());
+        assertEquals(cpes.get(5).getWellFormedVersion(),
+                instance.symbol(Attribute.VERSION, instance.column(Attribute.VERSION).get(5)));
+        assertThatThrownBy(() -> instance.get(1000))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    /**
+     * Test of lookup and symbol methods, of class CpeTable.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testLookup() throws Exception {
+        CpeTable instance = CpeTable.of(createCpes(10));
+        int vendor = instance.lookup(Attribute.VENDOR, "vendor3");
+        assertEquals(instance.column(Attribute.VENDOR).get(3), vendor);
+        assertEquals("vendor3", instance.symbol(Attribute.VENDOR, vendor));
+        assertEquals(-1, instance.lookup(Attribute.VENDOR, "unknown"));
+        int part = instance.lookup(Attribute.PART, "o");
+        assertEquals(instance.column(Attribute.PART).get(0), part);
+        assertEquals("o", instance.symbol(Attribute.PART, part));
+        assertEquals(-1, instance.lookup(Attribute.PART, "x"));
+        assertEquals(-1, instance.lookup(Attribute.PART, "O"));
+    }
+
+    /**
+     * Test of counts and distinctBy methods, of class CpeTable.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testGroupBy() throws Exception {
+        List<Cpe> cpes = createCpes(500);
+        CpeTable.Builder builder = new CpeTable.Builder(4);
+        for (Cpe cpe : cpes) {
+            builder.add(cpe.toCpe23FS());
+        }
+        CpeTable instance = builder.build();
+        assertThatThrownBy(() -> builder.add(cpes.get(0)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new CpeTable.Builder().add("cpe:2.3:a"))
+                .isInstanceOf(CpeParsingException.class);
+
+        Map<String, Integer> expectedCounts = new TreeMap<>();
+        Map<String, TreeSet<String>> expectedVersions = new TreeMap<>();
+        for (Cpe cpe : cpes) {
+            expectedCounts.merge(cpe.getWellFormedVendor(), 1, Integer::sum);
+            expectedVersions.computeIfAbsent(cpe.getWellFormedProduct(), k -> new TreeSet<>())
+                    .add(cpe.getWellFormedVersion());
+        }
+        assertEquals(expectedCounts, new TreeMap<>(instance.counts(Attribute.VENDOR)));
+        Map<String, List<String>> versions = instance.distinctBy(Attribute.PRODUCT, Attribute.VERSION);
+        assertEquals(expectedVersions.keySet(), new TreeSet<>(versions.keySet()));
+        for (Map.Entry<String, List<String>> entry : versions.entrySet()) {
+            assertEquals(new ArrayList<>(expectedVersions.get(entry.getKey())),
+                    new ArrayList<>(new TreeSet<>(entry.getValue())));
+            assertEquals(entry.getValue().size(), new TreeSet<>(entry.getValue()).size());
+        }
+        int[] parts = instance.countBy(Attribute.PART, instance.filter(Attribute.TARGET_SW, "android"));
+        assertEquals(Arrays.stream(parts).sum(), instance.filter(Attribute.TARGET_SW, "android").cardinality());
+    }
+}
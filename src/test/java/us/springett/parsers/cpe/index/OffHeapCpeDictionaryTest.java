@@ -0,0 +1,262 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.LazyCpe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class OffHeapCpeDictionaryTest {
+
+    /**
+     * Creates the dictionary used by the tests.
+     *
+     * @return the CPE in the dictionary
+     * @throws Exception thrown if there is an error
+     */
+    private List<ICpe> entries() throws Exception {
+        List<ICpe> cpes = new ArrayList<>();
+        for (String value : Arrays.asList(
+                "cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:struts:2.3.1:*:*:*:*:*:*:*",
+                "cpe:2.3:a:Apache:Tomcat:9.0.1:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:tomcat:9.0.1:beta:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:http_server:2.4.1:*:*:*:*:*:*:*",
+                "cpe:2.3:o:microsoft:windows_10:-:*:*:*:*:*:x64:*",
+                "cpe:2.3:a:*:generic:1.0:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:*:*:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*")) {
+            cpes.add(CpeParser.parse(value));
+        }
+        //not valid, but stored as is
+        cpes.add(new LazyCpe("cpe:2.3:a:m\u00fcller:b\u00e4r:1.0:*:*:*:*:*:*:*"));
+        return cpes;
+    }
+
+    /**
+     * Test of get method, of class OffHeapCpeDictionary.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testGet() throws Exception {
+        List<ICpe> cpes = entries();
+        OffHeapCpeDictionary instance = new OffHeapCpeDictionary(cpes);
+        assertEquals(9, instance.size());
+        Set<String> values = new HashSet<>();
+        for (ICpe cpe : cpes) {
+            values.add(cpe.toCpe23FS());
+        }
+        assertTrue(instance.getOffHeapSize() > 0);
+        ICpe previous = null;
+        for (ICpe entry : instance) {
+            assertTrue(values.contains(entry.toCpe23FS()));
+            if (previous != null) {
+                assertTrue(compareIgnoreCase(previous, entry) <= 0);
+            }
+            previous = entry;
+        }
+        ICpe entry = instance.get(instance.indexOf(CpeParser.parse("cpe:/o:microsoft:windows_10:-::~~~~x64~")));
+        assertEquals("cpe:2.3:o:microsoft:windows_10:-:*:*:*:*:*:x64:*", entry.toCpe23FS());
+        assertEquals("windows_10", entry.getProduct());
+        assertEquals(entry, instance.get(instance.indexOf(entry)));
+        entry = instance.find(new LazyCpe("cpe:2.3:a:M\u00fcller:b\u00e4r:1.0:*:*:*:*:*:*:*"));
+        assertEquals("b\u00e4r", entry.getProduct());
+    }
+
+    /**
+     * Test of indexOf method, of class OffHeapCpeDictionary.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testIndexOf() throws Exception {
+        OffHeapCpeDictionary instance = new OffHeapCpeDictionary(entries());
+        assertTrue(instance.contains(CpeParser.parse("cpe:2.3:a:APACHE:STRUTS:2.5.10:*:*:*:*:*:*:*")));
+        assertTrue(instance.contains(CpeParser.parse("cpe:/a:apache:tomcat:9.0.1")));
+        assertFalse(instance.contains(CpeParser.parse("cpe:2.3:a:apache:struts:2.5.11:*:*:*:*:*:*:*")));
+        assertNull(instance.find(CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*")));
+        assertEquals(-1, new OffHeapCpeDictionary(new ArrayList<ICpe>()).indexOf(entries().get(0)));
+    }
+
+    /**
+     * Test of findByVendor method, of class OffHeapCpeDictionary.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFindByVendor() throws Exception {
+        OffHeapCpeDictionary instance = new OffHeapCpeDictionary(entries());
+        assertEquals(6, instance.findByVendor("apache").size());
+        assertEquals(6, instance.findByVendor("APACHE").size());
+        assertEquals(0, instance.findByVendor("oracle").size());
+        assertEquals(1, instance.findByVendor("microsoft").size());
+    }
+
+    /**
+     * Test of findByProduct method, of class OffHeapCpeDictionary.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFindByProduct() throws Exception {
+        OffHeapCpeDictionary instance = new OffHeapCpeDictionary(entries());
+        List<ICpe> result = instance.findByProduct("apache", "struts");
+        assertEquals(2, result.size());
+        assertEquals("2.3.1", result.get(0).getVersion());
+        assertEquals("2.5.10", result.get(1).getVersion());
+        assertEquals(2, instance.findByProduct("apache", "tomcat").size());
+        assertEquals(1, instance.findByProduct("apache", "http_server").size());
+        assertEquals(0, instance.findByProduct("apache", "struts2").size());
+    }
+
+    /**
+     * Test of findMatches method, of class OffHeapCpeDictionary.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFindMatches() throws Exception {
+        OffHeapCpeDictionary instance = new OffHeapCpeDictionary(entries());
+        for (String value : Arrays.asList(
+                "cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:struts:2.5.*:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:tom*:*:*:*:*:*:*:*:*",
+                "cpe:2.3:*:*:*:*:*:*:*:*:*:*:*",
+                "cpe:2.3:a:*:generic:*:*:*:*:*:*:*:*",
+                "cpe:2.3:a:acme:generic:1.0:*:*:*:*:*:*:*",
+                "cpe:2.3:o:microsoft:windows_10:*:*:*:*:*:*:x64:*",
+                "cpe:2.3:a:apache:http_server:2.4.1:*:*:*:*:*:*:*")) {
+            Cpe source = CpeParser.parse(value);
+            List<ICpe> expected = new ArrayList<>();
+            for (ICpe entry : instance) {
+                if (source.matches(entry)) {
+                    expected.add(entry);
+                }
+            }
+            assertEquals(expected, instance.findMatches(source), value);
+        }
+        assertEquals(2, instance.findMatches(CpeParser.parse("cpe:2.3:a:apache:http_server:2.4.1:*:*:*:*:*:*:*")).size());
+    }
+
+    /**
+     * Test of findAllMatches method, of class OffHeapCpeDictionary.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFindAllMatches() throws Exception {
+        OffHeapCpeDictionary instance = new OffHeapCpeDictionary(entries());
+        List<ICpe> sources = new ArrayList<>();
+        for (String value : Arrays.asList(
+                "cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:struts:2.5.*:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:tom*:*:*:*:*:*:*:*:*",
+                "cpe:2.3:*:*:*:*:*:*:*:*:*:*:*",
+                "cpe:2.3:a:*:generic:*:*:*:*:*:*:*:*",
+                "cpe:2.3:a:APACHE:Struts:*:*:*:*:*:*:*:*",
+                "cpe:2.3:a:acme:generic:1.0:*:*:*:*:*:*:*",
+                "cpe:2.3:a:unknown:product:1.0:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:http_server:2.4.1:*:*:*:*:*:*:*")) {
+            sources.add(CpeParser.parse(value));
+        }
+        List<List<ICpe>> result = instance.findAllMatches(sources);
+        assertEquals(sources.size(), result.size());
+        for (int x = 0; x < sources.size(); x++) {
+            assertEquals(instance.findMatches(sources.get(x)), result.get(x), sources.get(x).toCpe23FS());
+        }
+        assertTrue(instance.findAllMatches(new ArrayList<>()).isEmpty());
+    }
+
+    /**
+     * Test of compareIgnoreCase method, of class AbstractCpeDictionary.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testCompareIgnoreCase() throws Exception {
+        //characters whose case folding is not ASCII only, e.g. U+017F folds to s
+        String alphabet = "sSkK\u017F\u212A\u00E9\u00C9_";
+        Random random = new Random(35);
+        for (int n = 0; n < 5000; n++) {
+            String a = random(random, alphabet);
+            String b = random.nextBoolean() ? a.toUpperCase(Locale.ROOT) : random(random, alphabet);
+            byte[] ba = a.getBytes(StandardCharsets.UTF_8);
+            byte[] bb = b.getBytes(StandardCharsets.UTF_8);
+            int expected = Integer.signum(AbstractCpeDictionary.compare(a, b, true));
+            assertEquals(a.equalsIgnoreCase(b), expected == 0, a + " " + b);
+            assertEquals(expected, Integer.signum(AbstractCpeDictionary.compareIgnoreCase(a, bb)), a + " " + b);
+            assertEquals(expected, Integer.signum(AbstractCpeDictionary.compareIgnoreCase(
+                    ByteBuffer.wrap(ba), 0, ba.length, bb)), a + " " + b);
+            assertEquals(expected, Integer.signum(AbstractCpeDictionary.compareIgnoreCase(
+                    ba, 0, ba.length, bb, 0, bb.length)), a + " " + b);
+        }
+        assertEquals(0, AbstractCpeDictionary.compareIgnoreCase("\u017Fun", "SUN".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Builds a random string.
+     *
+     * @param random the source of randomness
+     * @param alphabet the characters to use
+     * @return the string
+     */
+    private static String random(Random random, String alphabet) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(6);
+        for (int x = 0; x < length; x++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Compares the vendor, product, and part of two CPE ignoring case.
+     *
+     * @param left the first CPE
+     * @param right the second CPE
+     * @return the comparison
+     */
+    private int compareIgnoreCase(ICpe left, ICpe right) {
+        int result = left.getWellFormedVendor().compareToIgnoreCase(right.getWellFormedVendor());
+        if (result == 0) {
+            result = left.getWellFormedProduct().compareToIgnoreCase(right.getWellFormedProduct());
+        }
+        return result;
+    }
+}
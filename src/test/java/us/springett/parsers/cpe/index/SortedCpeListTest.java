@@ -0,0 +1,120 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.values.Part;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class SortedCpeListTest {
+
+    /**
+     * Creates the test data.
+     *
+     * @return the test data
+     * @throws Exception thrown if there is an error
+     */
+    private List<Cpe> createCpes() throws Exception {
+        String[] values = {
+            "cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*",
+            "cpe:2.3:a:apache:struts:2.5.9:*:*:*:*:*:*:*",
+            "cpe:2.3:a:apache:struts:2.5.30:*:*:*:*:*:*:*",
+            "cpe:2.3:a:apache:struts:2.3:*:*:*:*:*:*:*",
+            "cpe:2.3:a:apache:struts:2.5:*:*:*:*:*:*:*",
+            "cpe:2.3:a:apache:struts:2.5.10:beta:*:*:*:*:*:*",
+            "cpe:2.3:a:apache:struts2:1.0:*:*:*:*:*:*:*",
+            "cpe:2.3:a:apache:tomcat:9.0.1:*:*:*:*:*:*:*",
+            "cpe:2.3:a:apachefoo:struts:2.5.10:*:*:*:*:*:*:*",
+            "cpe:2.3:o:apache:struts:2.5.10:*:*:*:*:*:*:*",
+            "cpe:2.3:a:microsoft:windows:10:*:*:*:*:*:*:*"
+        };
+        List<Cpe> cpes = new ArrayList<>();
+        for (String value : values) {
+            cpes.add(CpeParser.parse(value));
+        }
+        return cpes;
+    }
+
+    /**
+     * Test of the sort order, of class SortedCpeList.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testOrder() throws Exception {
+        List<Cpe> cpes = createCpes();
+        SortedCpeList<Cpe> instance = new SortedCpeList<>(cpes);
+        Collections.sort(cpes);
+        assertEquals(cpes, instance);
+        for (int x = 1; x < instance.size(); x++) {
+            assertTrue(instance.getSortKey(x - 1).compareTo(instance.getSortKey(x)) <= 0);
+        }
+        assertEquals(0, new SortedCpeList<Cpe>(new ArrayList<>()).size());
+    }
+
+    /**
+     * Test of find method, of class SortedCpeList.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFind() throws Exception {
+        SortedCpeList<Cpe> instance = new SortedCpeList<>(createCpes());
+        assertEquals(8, instance.find(Part.APPLICATION, "apache").size());
+        assertEquals(6, instance.find(Part.APPLICATION, "apache", "struts").size());
+        assertEquals(1, instance.find(Part.OPERATING_SYSTEM, "apache", "struts").size());
+        assertEquals(0, instance.find(Part.APPLICATION, "apache", "httpd").size());
+        assertEquals(0, instance.find(Part.HARDWARE_DEVICE, "apache").size());
+
+        Cpe cpe = CpeParser.parse("cpe:2.3:a:apache:tomcat:9.0.1:*:*:*:*:*:*:*");
+        assertEquals(cpe, instance.get(instance.binarySearch(cpe)));
+        assertTrue(instance.binarySearch(CpeParser.parse("cpe:2.3:a:apache:tomcat:9.0.2:*:*:*:*:*:*:*")) < 0);
+    }
+
+    /**
+     * Test of findVersions method, of class SortedCpeList.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFindVersions() throws Exception {
+        SortedCpeList<Cpe> instance = new SortedCpeList<>(createCpes());
+        List<Cpe> result = instance.findVersions(Part.APPLICATION, "apache", "struts", "2.5", "2.5.10");
+        assertEquals(4, result.size());
+        assertEquals("2.5", result.get(0).getVersion());
+        assertEquals("2.5.9", result.get(1).getVersion());
+        assertEquals("2.5.10", result.get(2).getVersion());
+        assertEquals("2.5.10", result.get(3).getVersion());
+
+        assertEquals(5, instance.findVersions(Part.APPLICATION, "apache", "struts", "2.5", null).size());
+        assertEquals(2, instance.findVersions(Part.APPLICATION, "apache", "struts", null, "2.5").size());
+        assertEquals(0, instance.findVersions(Part.APPLICATION, "apache", "struts", "3", "4").size());
+        assertEquals(0, instance.findVersions(Part.APPLICATION, "apache", "struts", "2.5.10", "2.5").size());
+    }
+}
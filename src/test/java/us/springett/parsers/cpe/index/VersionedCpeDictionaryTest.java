@@ -0,0 +1,162 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.ICpe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class VersionedCpeDictionaryTest {
+
+    /**
+     * Parses the given CPE.
+     *
+     * @param values the CPE strings
+     * @return the CPE
+     * @throws Exception thrown if there is an error
+     */
+    private List<ICpe> parse(String... values) throws Exception {
+        List<ICpe> result = new ArrayList<>();
+        for (String value : values) {
+            result.add(CpeParser.parse(value));
+        }
+        return result;
+    }
+
+    /**
+     * Test of apply method, of class VersionedCpeDictionary.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testApply() throws Exception {
+        VersionedCpeDictionary instance = new VersionedCpeDictionary(parse(
+                "cpe:/a:apache:tomcat:9.0.1",
+                "cpe:/a:apache:struts:2.3.1",
+                "cpe:/a:apache:struts:2.5.10",
+                "cpe:/a:apache:struts:2.5.10",
+                "cpe:/o:microsoft:windows_10"));
+        VersionedCpeDictionary.Snapshot first = instance.snapshot();
+        assertEquals(0, first.getVersion());
+        assertEquals(4, first.size());
+
+        CpeDelta delta = new CpeDelta(parse("cpe:/a:apache:struts:2.6.0", "cpe:/a:apache:tomcat:9.0.1"),
+                parse("cpe:/a:apache:struts:2.5.10", "cpe:/a:apache:struts:1.0"),
+                parse("cpe:/a:apache:struts:2.3.1", "cpe:/a:apache:tomcat:9.0.1", "cpe:/a:oracle:java:8"));
+        VersionedCpeDictionary.Snapshot second = instance.apply(delta);
+        assertSame(second, instance.snapshot());
+        assertEquals(1, second.getVersion());
+        assertEquals(Arrays.asList("cpe:2.3:a:apache:struts:2.5.10:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:struts:2.6.0:*:*:*:*:*:*:*",
+                "cpe:2.3:a:apache:tomcat:9.0.1:*:*:*:*:*:*:*",
+                "cpe:2.3:o:microsoft:windows_10:*:*:*:*:*:*:*:*"), toStrings(second));
+        assertTrue(second.isDeprecated(0));
+        assertFalse(second.isDeprecated(1));
+        assertTrue(second.isDeprecated(CpeParser.parse("cpe:/a:apache:struts:2.5.10")));
+        assertFalse(second.isDeprecated(CpeParser.parse("cpe:/a:apache:struts:1.0")));
+
+        //the first snapshot is unchanged
+        assertEquals(4, first.size());
+        assertTrue(first.contains(CpeParser.parse("cpe:/a:apache:struts:2.3.1")));
+        assertFalse(first.isDeprecated(CpeParser.parse("cpe:/a:apache:struts:2.5.10")));
+
+        VersionedCpeDictionary.Snapshot third = instance.apply(new CpeDelta(Collections.<ICpe>emptyList(),
+                Collections.<ICpe>emptyList(), parse("cpe:/a:apache:struts:2.6.0")));
+        assertEquals(2, third.getVersion());
+        assertEquals(3, third.size());
+        assertTrue(third.isDeprecated(0));
+        assertFalse(third.isDeprecated(1));
+        assertSame(third, instance.apply(new CpeDelta(Collections.<ICpe>emptyList(),
+                Collections.<ICpe>emptyList(), Collections.<ICpe>emptyList())));
+    }
+
+    /**
+     * Test of apply method with a computed delta, of class
+     * VersionedCpeDictionary.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testApplyComputed() throws Exception {
+        List<ICpe> previous = new ArrayList<>();
+        List<ICpe> current = new ArrayList<>();
+        for (int x = 0; x < 200; x++) {
+            ICpe cpe = CpeParser.parse("cpe:2.3:a:vendor" + (x % 7) + ":product" + (x % 13) + ":" + x
+                    + ":*:*:*:*:*:*:*");
+            if (x % 3 != 0) {
+                previous.add(cpe);
+            }
+            if (x % 5 != 0) {
+                current.add(cpe);
+            }
+        }
+        VersionedCpeDictionary instance = new VersionedCpeDictionary(previous);
+        VersionedCpeDictionary expected = new VersionedCpeDictionary(current);
+        CpeDelta delta = CpeDelta.compute(instance.snapshot().iterator(), expected.snapshot().iterator());
+        assertEquals(toStrings(expected.snapshot()), toStrings(instance.apply(delta)));
+    }
+
+    /**
+     * Test of findMatches method, of class VersionedCpeDictionary.Snapshot.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFindMatches() throws Exception {
+        List<ICpe> cpes = parse("cpe:/a:apache:tomcat:9.0.1",
+                "cpe:2.3:a:Apache:Tomcat:9.0.2:*:*:*:*:*:*:*",
+                "cpe:/a:apache:struts:2.5.10",
+                "cpe:/a:apache",
+                "cpe:/o:microsoft:windows_10");
+        VersionedCpeDictionary.Snapshot instance = new VersionedCpeDictionary(cpes).snapshot();
+        OffHeapCpeDictionary expected = new OffHeapCpeDictionary(cpes);
+        assertEquals(toStrings(expected), toStrings(instance));
+        for (ICpe source : parse("cpe:/a:apache:tomcat", "cpe:/a:apache", "cpe:/o", "cpe:/a:APACHE:STRUTS:2.5.10")) {
+            assertEquals(toStrings(expected.findMatches(source)), toStrings(instance.findMatches(source)));
+        }
+        assertEquals(2, instance.findByProduct("apache", "tomcat").size());
+        assertEquals(4, instance.findByVendor("APACHE").size());
+    }
+
+    /**
+     * Converts entries into formatted strings.
+     *
+     * @param cpes the entries
+     * @return the formatted strings
+     */
+    private List<String> toStrings(Iterable<ICpe> cpes) {
+        List<String> result = new ArrayList<>();
+        for (ICpe cpe : cpes) {
+            result.add(cpe.toCpe23FS());
+        }
+        return result;
+    }
+}
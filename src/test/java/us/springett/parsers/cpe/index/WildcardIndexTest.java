@@ -0,0 +1,160 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.ICpe;
+import us.springett.parsers.cpe.util.Validate;
+import us.springett.parsers.cpe.values.Attribute;
+import us.springett.parsers.cpe.values.Part;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class WildcardIndexTest {
+
+    /**
+     * Test of findMatches method, of class WildcardIndex.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFindMatches() throws Exception {
+        Cpe struts = CpeParser.parse("cpe:2.3:a:*:struts*:*:*:*:*:*:*:*:*");
+        Cpe framework = CpeParser.parse("cpe:2.3:a:apache:*framework:*:*:*:*:*:*:*:*");
+        Cpe infix = CpeParser.parse("cpe:2.3:a:apache:*_http_*:*:*:*:*:*:*:*:*");
+        Cpe single = CpeParser.parse("cpe:2.3:a:apache:???:*:*:*:*:*:*:*:*");
+        Cpe literal = CpeParser.parse("cpe:2.3:a:apache:Struts:*:*:*:*:*:*:*:*");
+        Cpe any = CpeParser.parse("cpe:2.3:o:apache:*:*:*:*:*:*:*:*:*");
+        WildcardIndex instance = new WildcardIndex(Attribute.PRODUCT);
+        instance.addAll(Arrays.asList(struts, framework, infix, single, literal, any));
+        assertEquals(6, instance.size());
+
+        assertEquals(Arrays.asList(struts, literal),
+                instance.findMatches(CpeParser.parse("cpe:2.3:a:apache:struts:2.5:*:*:*:*:*:*:*")));
+        assertEquals(Arrays.asList(struts),
+                instance.findMatches(CpeParser.parse("cpe:2.3:a:apache:struts2:2.5:*:*:*:*:*:*:*")));
+        assertEquals(Arrays.asList(framework),
+                instance.findMatches(CpeParser.parse("cpe:2.3:a:apache:spring_framework:*:*:*:*:*:*:*:*")));
+        assertEquals(Arrays.asList(infix),
+                instance.findMatches(CpeParser.parse("cpe:2.3:a:apache:mod_http_proxy:*:*:*:*:*:*:*:*")));
+        assertEquals(Arrays.asList(single, any),
+                instance.findMatches(CpeParser.parse("cpe:2.3:*:apache:ant:*:*:*:*:*:*:*:*")));
+        assertEquals(Arrays.asList(struts, framework, infix, single, literal, any),
+                instance.findMatches(CpeParser.parse("cpe:2.3:*:apache:*:*:*:*:*:*:*:*:*")));
+        assertThatThrownBy(() -> new WildcardIndex(Attribute.PART))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Test of findMatches method, of class WildcardIndex, comparing the
+     * results to a linear scan.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFindMatchesRandom() throws Exception {
+        String alphabet = "abcAB-*?";
+        Random random = new Random(9);
+        WildcardIndex instance = new WildcardIndex(Attribute.VENDOR);
+        List<Cpe> sources = new ArrayList<>();
+        for (int n = 0; n < 500; n++) {
+            Cpe cpe = new Cpe(Part.APPLICATION, value(random, alphabet), "*", "*", "*", "*", "*", "*", "*", "*", "*");
+            sources.add(cpe);
+            instance.add(cpe);
+        }
+        for (int n = 0; n < 500; n++) {
+            //mostly literal targets, and some patterns
+            String targetAlphabet = n % 5 == 0 ? alphabet : "abcAB-";
+            Cpe target = new Cpe(Part.APPLICATION, value(random, targetAlphabet), "*", "*", "*", "*", "*", "*", "*",
+                    "*", "*");
+            List<ICpe> expected = new ArrayList<>();
+            for (Cpe source : sources) {
+                if (source.matches(target)) {
+                    expected.add(source);
+                }
+            }
+            assertEquals(expected, instance.findMatches(target), target.toString());
+        }
+    }
+
+    /**
+     * Test of findMatchPositions method, of class WildcardIndex, verifying
+     * that only the candidates found through the anchors are confirmed.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFindMatchPositions() throws Exception {
+        int[] confirmed = new int[1];
+        WildcardIndex instance = new WildcardIndex(Attribute.VENDOR);
+        for (int n = 0; n < 100000; n++) {
+            String vendor = n == 0 ? "v1*" : n == 1 ? "*1234?" : "v" + n;
+            instance.add(new Cpe(Part.APPLICATION, vendor, "*", "*", "*", "*", "*", "*", "*", "*", "*") {
+                @Override
+                public boolean matches(ICpe target) {
+                    confirmed[0]++;
+                    return super.matches(target);
+                }
+            });
+        }
+        Cpe target = new Cpe(Part.APPLICATION, "v12345", "*", "*", "*", "*", "*", "*", "*", "*", "*");
+        assertArrayEquals(new int[]{0, 1, 12345}, instance.findMatchPositions(target));
+        assertEquals(3, confirmed[0]);
+        confirmed[0] = 0;
+        target = new Cpe(Part.APPLICATION, "v1?", "*", "*", "*", "*", "*", "*", "*", "*", "*");
+        assertArrayEquals(new int[]{0}, instance.findMatchPositions(target));
+        assertEquals(2, confirmed[0]);
+    }
+
+    /**
+     * Builds a random valid well formed value.
+     *
+     * @param random the source of randomness
+     * @param alphabet the characters to use; <code>-</code> is quoted
+     * @return the value
+     */
+    private static String value(Random random, String alphabet) {
+        while (true) {
+            StringBuilder builder = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int x = 0; x < length; x++) {
+                char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                if (c == '-') {
+                    builder.append('\\');
+                }
+                builder.append(c);
+            }
+            String value = builder.toString();
+            if (Validate.component(value).isValid()) {
+                return value;
+            }
+        }
+    }
+}
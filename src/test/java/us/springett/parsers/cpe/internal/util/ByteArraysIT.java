@@ -0,0 +1,68 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+import java.io.DataInputStream;
+import java.io.InputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the tests of {@link ByteArraysTest} against the packaged
+ * multi-release JAR, so that on Java 17 and later the overlay in
+ * <code>META-INF/versions/17</code> is tested rather than the base class.
+ *
+ * @author Steve Springett
+ */
+public class ByteArraysIT extends ByteArraysTest {
+
+    /**
+     * The class file major version of Java 8.
+     */
+    private static final int JAVA_8 = 52;
+    /**
+     * The class file major version of Java 17.
+     */
+    private static final int JAVA_17 = 61;
+
+    /**
+     * Test of the class loaded from the multi-release JAR, of class
+     * ByteArrays.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMultiRelease() throws Exception {
+        String location = ByteArrays.class.getProtectionDomain().getCodeSource().getLocation().getPath();
+        assertTrue(location.endsWith(".jar"), location);
+        int major;
+        try (InputStream in = ByteArrays.class.getResourceAsStream("ByteArrays.class")) {
+            assertNotNull(in);
+            DataInputStream data = new DataInputStream(in);
+            assertEquals(0xCAFEBABE, data.readInt());
+            data.readUnsignedShort();
+            major = data.readUnsignedShort();
+        }
+        String version = System.getProperty("java.specification.version");
+        boolean java17 = !version.startsWith("1.") && Integer.parseInt(version) >= 17;
+        assertEquals(java17 ? JAVA_17 : JAVA_8, major);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class ByteArraysTest {
+
+    /**
+     * Test of mismatch method, of class ByteArrays.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMismatch() throws Exception {
+        byte[] a = {1, 2, 3, 4};
+        byte[] b = {0, 1, 2, 3};
+        assertEquals(-1, ByteArrays.mismatch(a, 0, 3, b, 1, 4));
+        assertEquals(3, ByteArrays.mismatch(a, 0, 4, b, 1, 4));
+        assertEquals(2, ByteArrays.mismatch(a, 0, 2, a, 0, 4));
+        assertEquals(-1, ByteArrays.mismatch(a, 1, 1, b, 2, 2));
+    }
+
+    /**
+     * Test of compareUnsigned method, of class ByteArrays.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testCompareUnsigned() throws Exception {
+        assertEquals(0, ByteArrays.compareUnsigned(new byte[]{1, 2}, 0, 2, new byte[]{1, 2}, 0, 2));
+        assertEquals(-1, ByteArrays.compareUnsigned(new byte[]{1}, 0, 1, new byte[]{1, 2}, 0, 2));
+        assertEquals(0xFF - 1, ByteArrays.compareUnsigned(new byte[]{(byte) 0xFF}, 0, 1, new byte[]{1}, 0, 1));
+
+        Random random = new Random(49);
+        for (int n = 0; n < 10000; n++) {
+            byte[] a = random(random);
+            byte[] b = random.nextBoolean() ? a.clone() : random(random);
+            if (b.length > 0 && random.nextBoolean()) {
+                b[random.nextInt(b.length)] ^= (byte) 0x80;
+            }
+            int aFrom = random.nextInt(a.length + 1);
+            int aTo = aFrom + random.nextInt(a.length - aFrom + 1);
+            int bFrom = random.nextInt(b.length + 1);
+            int bTo = bFrom + random.nextInt(b.length - bFrom + 1);
+            assertEquals(referenceCompare(a, aFrom, aTo, b, bFrom, bTo),
+                    ByteArrays.compareUnsigned(a, aFrom, aTo, b, bFrom, bTo));
+        }
+    }
+
+    /**
+     * Builds a random array of a few distinct values.
+     *
+     * @param random the source of randomness
+     * @return the array
+     */
+    private static byte[] random(Random random) {
+        byte[] bytes = new byte[random.nextInt(40)];
+        for (int x = 0; x < bytes.length; x++) {
+            bytes[x] = (byte) (random.nextInt(3) * 0x70);
+        }
+        return bytes;
+    }
+
+    /**
+     * The byte at a time comparison that the method replaces.
+     *
+     * @param a the first array
+     * @param aFrom the start of the first range
+     * @param aTo the end of the first range
+     * @param b the second array
+     * @param bFrom the start of the second range
+     * @param bTo the end of the second range
+     * @return the comparison result
+     */
+    private static int referenceCompare(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo) {
+        final int length = Math.min(aTo - aFrom, bTo - bFrom);
+        for (int x = 0; x < length; x++) {
+            if (a[aFrom + x] != b[bFrom + x]) {
+                return (a[aFrom + x] & 0xFF) - (b[bFrom + x] & 0xFF);
+            }
+        }
+        return (aTo - aFrom) - (bTo - bFrom);
+    }
+}
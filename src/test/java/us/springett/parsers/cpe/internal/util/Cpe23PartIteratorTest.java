@@ -17,6 +17,7 @@
  */
 package us.springett.parsers.cpe.internal.util;
 
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 import us.springett.parsers.cpe.exceptions.CpeParsingException;
 
@@ -76,4 +77,86 @@ public class Cpe23PartIteratorTest {
             assertEquals(expResult, result);
         }
     }
+
+    /**
+     * Test of split method, of class Cpe23PartIterator.
+     *
+     * @throws CpeParsingException should not be thrown
+     */
+    @Test
+    public void testSplit() throws CpeParsingException {
+        String cpe = "cpe:2.3:a:poco\\:project:poco_c\\+\\+_libraries:1.4.5:u\\\\:*:*:*:*:*:*";
+        String[] expResults = {"a", "poco\\:project", "poco_c\\+\\+_libraries", "1.4.5", "u\\\\", "*", "*", "*", "*", "*", "*"};
+        int[] bounds = new int[12];
+        assertEquals(11, Cpe23PartIterator.split(cpe, bounds));
+        for (int x = 0; x < expResults.length; x++) {
+            assertEquals(expResults[x], cpe.substring(bounds[x], bounds[x + 1] - 1));
+        }
+
+        assertEquals(3, Cpe23PartIterator.split("cpe:2.3:a:vendor:product:", bounds));
+        assertEquals(12, Cpe23PartIterator.split(cpe + ":extra", bounds));
+        assertThatThrownBy(() -> Cpe23PartIterator.split("cpe:/a:vendor", bounds))
+                .isInstanceOf(CpeParsingException.class);
+    }
+
+    /**
+     * Test of split method with random strings, of class Cpe23PartIterator.
+     *
+     * @throws CpeParsingException should not be thrown
+     */
+    @Test
+    public void testSplitRandom() throws CpeParsingException {
+        int[] expected = new int[12];
+        //random strings dense in colons and backslashes, including escapes
+        Random random = new Random(1);
+        String alphabet = "::\\\\ab*-.";
+        for (int n = 0; n < 5000; n++) {
+            StringBuilder builder = new StringBuilder("cpe:2.3:");
+            int length = random.nextInt(40);
+            for (int x = 0; x < length; x++) {
+                builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String value = builder.toString();
+            int[] reference = new int[12];
+            int count = referenceSplit(value, reference);
+            assertEquals(count, Cpe23PartIterator.split(value, expected), value);
+            for (int x = 0; x <= Math.min(count, 11); x++) {
+                assertEquals(reference[x], expected[x], value);
+            }
+            Cpe23PartIterator instance = new Cpe23PartIterator(value);
+            for (int x = 0; x < Math.min(count, 11); x++) {
+                assertEquals(value.substring(reference[x], reference[x + 1] - 1), instance.next(), value);
+            }
+        }
+    }
+
+    /**
+     * Splits a string one character at a time.
+     *
+     * @param cpe the CPE being tokenized
+     * @param bounds the array to record the boundaries in
+     * @return the number of components found
+     */
+    private int referenceSplit(String cpe, int[] bounds) {
+        int count = 0;
+        int pos = 8;
+        bounds[0] = pos;
+        while (pos < cpe.length()) {
+            if (count == bounds.length - 1) {
+                return bounds.length;
+            }
+            int end;
+            for (end = pos; end < cpe.length(); end++) {
+                if (cpe.charAt(end) == ':') {
+                    break;
+                }
+                if (cpe.charAt(end) == '\\' && (end + 1) < cpe.length()) {
+                    end += 1;
+                }
+            }
+            pos = end + 1;
+            bounds[++count] = pos;
+        }
+        return count;
+    }
 }
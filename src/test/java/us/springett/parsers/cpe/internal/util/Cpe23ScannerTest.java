@@ -0,0 +1,193 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.exceptions.CpeParsingException;
+import us.springett.parsers.cpe.util.Convert;
+import us.springett.parsers.cpe.util.Status;
+import us.springett.parsers.cpe.values.Part;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class Cpe23ScannerTest {
+
+    /**
+     * Characters used to build random values; dense in the characters that
+     * have a special meaning for validation.
+     */
+    private static final String ALPHABET = "::\\\\ab?*?*-._ \t\u00e9\u0001\u007f";
+
+    /**
+     * Test of component method, of class Cpe23Scanner.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testComponent() throws Exception {
+        assertEquals(Status.EMPTY, Cpe23Scanner.component(null));
+        assertEquals(Status.EMPTY, Cpe23Scanner.component(""));
+        assertEquals(Status.VALID, Cpe23Scanner.component("*"));
+        assertEquals(Status.VALID, Cpe23Scanner.component("??abc*"));
+        assertEquals(Status.SINGLE_QUOTED_HYPHEN, Cpe23Scanner.component("\\-"));
+        assertEquals(Status.UNQUOTED_QUESTION_MARK, Cpe23Scanner.component("a?b"));
+        assertEquals(Status.WHITESPACE, Cpe23Scanner.component("a b"));
+        assertEquals(Status.NON_PRINTABLE, Cpe23Scanner.component("a\u00e9"));
+        assertEquals(Status.ASTERISK_SEQUENCE, Cpe23Scanner.component("**"));
+        assertEquals(Status.UNQUOTED_ASTERISK, Cpe23Scanner.component("a*b"));
+
+        Random random = new Random(7);
+        for (int n = 0; n < 20000; n++) {
+            String value = random(random, 8);
+            assertEquals(referenceComponent(value), Cpe23Scanner.component(value), value);
+        }
+    }
+
+    /**
+     * Test of scan method, of class Cpe23Scanner.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testScan() throws Exception {
+        Cpe23Scanner instance = new Cpe23Scanner();
+        String cpe = "cpe:2.3:a:poco\\:project:poco_c\\+\\+:1.4.5:-:*::*:*:*:*";
+        assertEquals(11, instance.scan(cpe));
+        assertEquals(cpe, instance.getValue());
+        assertEquals(Part.APPLICATION, instance.getPart());
+        assertEquals("poco\\:project", cpe.substring(instance.getStart(1), instance.getEnd(1)));
+        assertEquals(Cpe23Scanner.HAS_ESCAPE, instance.getFlags(1));
+        assertEquals(Cpe23Scanner.HAS_ESCAPE | Cpe23Scanner.HAS_QUOTABLE, instance.getFlags(2));
+        assertEquals(Cpe23Scanner.HAS_QUOTABLE, instance.getFlags(3));
+        assertEquals(Cpe23Scanner.IS_NA, instance.getFlags(4) & Cpe23Scanner.IS_NA);
+        assertEquals(Cpe23Scanner.HAS_WILDCARD | Cpe23Scanner.IS_ANY, instance.getFlags(5));
+        assertEquals(Cpe23Scanner.IS_ANY, instance.getFlags(6));
+        assertEquals(Status.EMPTY, instance.validate());
+        assertThatThrownBy(() -> instance.scan("cpe:/a:vendor:product"))
+                .isInstanceOf(CpeParsingException.class);
+        assertNull(instance.getValue());
+
+        int[] bounds = new int[12];
+        Random random = new Random(11);
+        for (int n = 0; n < 20000; n++) {
+            String value = "cpe:2.3:" + random(random, 40);
+            int count = Cpe23PartIterator.split(value, bounds);
+            assertEquals(count, instance.scan(value), value);
+            for (int x = 0; x < Math.min(count, 11); x++) {
+                assertEquals(bounds[x], instance.getStart(x), value);
+                assertEquals(bounds[x + 1] - 1, instance.getEnd(x), value);
+                String component = value.substring(instance.getStart(x), instance.getEnd(x));
+                assertEquals(referenceComponent(component), instance.getStatus(x), value);
+                if (referenceComponent(component).isValid() && x > 0) {
+                    boolean any = (instance.getFlags(x) & Cpe23Scanner.IS_ANY) != 0;
+                    assertEquals("*".equals(Convert.fsToWellFormed(component)), any, value);
+                }
+            }
+            assertEquals(referenceFormattedString(value), instance.validate(), value);
+        }
+    }
+
+    /**
+     * Builds a random value.
+     *
+     * @param random the source of randomness
+     * @param maxLength the maximum length of the value
+     * @return the value
+     */
+    private static String random(Random random, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(maxLength);
+        if (random.nextInt(4) == 0) {
+            builder.append("a:");
+        }
+        for (int x = 0; x < length; x++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The character by character component validation that the scanner
+     * replaces.
+     *
+     * @param value the value to validate
+     * @return the validation status
+     */
+    private static Status referenceComponent(String value) {
+        if (value == null || value.isEmpty()) {
+            return Status.EMPTY;
+        }
+        if ("\\-".equals(value)) {
+            return Status.SINGLE_QUOTED_HYPHEN;
+        }
+        for (int x = 0; x < value.length(); x++) {
+            char c = value.charAt(x);
+            if (c == '?' && x > 0 && x < value.length() - 1
+                    && !((value.charAt(x - 1) == '?' || value.charAt(x - 1) == '*' || value.charAt(x - 1) == '\\')
+                    || (value.charAt(x + 1) == '?' || value.charAt(x + 1) == '*'))) {
+                return Status.UNQUOTED_QUESTION_MARK;
+            } else if (Character.isWhitespace(c)) {
+                return Status.WHITESPACE;
+            } else if (c < 32 || c > 127) {
+                return Status.NON_PRINTABLE;
+            } else if (c == '*' && x != 0 && value.charAt(x - 1) == '*') {
+                return Status.ASTERISK_SEQUENCE;
+            } else if (c == '*' && !(x == 0 || x == value.length() - 1 || value.charAt(x - 1) == '\\')) {
+                return Status.UNQUOTED_ASTERISK;
+            }
+        }
+        return Status.VALID;
+    }
+
+    /**
+     * The iterator based formatted string validation that the scanner
+     * replaces.
+     *
+     * @param value the value to validate
+     * @return the validation status
+     */
+    private static Status referenceFormattedString(String value) {
+        try {
+            Cpe23PartIterator instance = new Cpe23PartIterator(value);
+            try {
+                Part.getEnum(instance.next());
+            } catch (CpeParsingException ex) {
+                return Status.INVALID_PART;
+            }
+            for (int x = 1; x < 11; x++) {
+                Status status = referenceComponent(instance.next());
+                if (!status.isValid()) {
+                    return status;
+                }
+            }
+            return instance.hasNext() ? Status.TOO_MANY_ELEMENTS : Status.VALID;
+        } catch (NoSuchElementException ex) {
+            return Status.TOO_FEW_ELEMENTS;
+        } catch (CpeParsingException ex) {
+            return Status.INVALID;
+        }
+    }
+}
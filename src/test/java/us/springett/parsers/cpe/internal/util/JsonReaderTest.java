@@ -0,0 +1,94 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class JsonReaderTest {
+
+    /**
+     * Test of read method, of class JsonReader.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testRead() throws Exception {
+        Object value = read(" {\"a\": [1, -2.5e1, true, false, null], \"b\" : {}, \"c\":\"x\\\"\\u00e9\\\\y\\n\", \"d\": []} ");
+        Map<?, ?> object = (Map<?, ?>) value;
+        assertEquals(Arrays.asList("a", "b", "c", "d"), Arrays.asList(object.keySet().toArray()));
+        assertEquals(Arrays.asList(1L, -25.0, true, false, null), object.get("a"));
+        assertEquals(Collections.emptyMap(), object.get("b"));
+        assertEquals("x\"\u00e9\\y\n", object.get("c"));
+        assertEquals(Collections.emptyList(), object.get("d"));
+        assertNull(read("null"));
+        assertEquals("cpe:2.3:a:poco\\:project", read("\"cpe:2.3:a:poco\\\\:project\""));
+
+        StringBuilder large = new StringBuilder("[");
+        for (int x = 0; x < 5000; x++) {
+            large.append(x == 0 ? "" : ",").append("\"value").append(x).append('"');
+        }
+        List<?> list = (List<?>) read(large.append(']').toString());
+        assertEquals(5000, list.size());
+        assertEquals("value4999", list.get(4999));
+
+        assertThatThrownBy(() -> read("{\"a\" 1}")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> read("[1, 2")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> read("\"abc")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> read("tru")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> read("[1] 2")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> read("")).isInstanceOf(IOException.class);
+
+        StringBuilder nested = new StringBuilder();
+        for (int x = 0; x < 100000; x++) {
+            nested.append('[');
+        }
+        assertThatThrownBy(() -> read(nested.toString()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("nesting depth");
+        StringBuilder allowed = new StringBuilder();
+        for (int x = 0; x < JsonReader.MAX_DEPTH; x++) {
+            allowed.insert(0, '[').append(']');
+        }
+        assertEquals(1, ((List<?>) read(allowed.toString())).size());
+    }
+
+    /**
+     * Reads a JSON value from a string.
+     *
+     * @param json the JSON text
+     * @return the value
+     * @throws IOException thrown if the text is invalid
+     */
+    private static Object read(String json) throws IOException {
+        return new JsonReader(new StringReader(json)).read();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class LiteralsTest {
+
+    /**
+     * Test of isLiteral method, of class Literals.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testIsLiteral() throws Exception {
+        assertTrue(Literals.isLiteral("struts"));
+        assertTrue(Literals.isLiteral("-"));
+        assertTrue(Literals.isLiteral("2\\.0\\*"));
+        assertFalse(Literals.isLiteral("*"));
+        assertFalse(Literals.isLiteral("2.?"));
+        assertFalse(Literals.isLiteral("\\\\*"));
+    }
+
+    /**
+     * Test of fold method, of class Literals.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testFold() throws Exception {
+        String value = "apache_struts";
+        assertSame(value, Literals.fold(value));
+        assertEquals("apache_struts", Literals.fold("Apache_STRUTS"));
+        //values where toLowerCase alone is not consistent with equalsIgnoreCase
+        String[] values = {"s", "S", "\u017F", "k", "K", "\u212A", "i", "I", "\u0130", "\u0131", "a", "B"};
+        for (String a : values) {
+            for (String b : values) {
+                assertEquals(a.equalsIgnoreCase(b), Literals.fold(a).equals(Literals.fold(b)), a + " " + b);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class LongPairHashSetTest {
+
+    /**
+     * Test of add method, of class LongPairHashSet.
+     */
+    @Test
+    public void testAdd() {
+        LongPairHashSet instance = new LongPairHashSet(4);
+        for (long x = 0; x < 10000; x++) {
+            assertTrue(instance.add(x, x * 31));
+        }
+        for (long x = 0; x < 10000; x++) {
+            assertFalse(instance.add(x, x * 31));
+            assertTrue(instance.contains(x, x * 31));
+        }
+        assertFalse(instance.contains(1, 1));
+        assertEquals(10000, instance.size());
+
+        instance.clear();
+        assertEquals(0, instance.size());
+        assertFalse(instance.contains(0, 0));
+        assertTrue(instance.add(0, 0));
+        assertEquals(1, instance.size());
+    }
+}
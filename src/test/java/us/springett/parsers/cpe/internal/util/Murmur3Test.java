@@ -0,0 +1,54 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.internal.util;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class Murmur3Test {
+
+    /**
+     * Test of hash128 method, of class Murmur3.
+     */
+    @Test
+    public void testHash128() {
+        long[] result = new long[2];
+        Murmur3.hash128(new byte[0], 0, 0, 0, result);
+        assertEquals(0L, result[0]);
+        assertEquals(0L, result[1]);
+
+        byte[] data = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+        Murmur3.hash128(data, 0, data.length, 0, result);
+        //digest 6c1b07bc7bbc4be347939ac4a93c437a
+        assertEquals(0xe34bbc7bbc071b6cL, result[0]);
+        assertEquals(0x7a433ca9c49a9347L, result[1]);
+
+        byte[] padded = new byte[data.length + 4];
+        System.arraycopy(data, 0, padded, 2, data.length);
+        long[] offset = new long[2];
+        Murmur3.hash128(padded, 2, data.length, 0, offset);
+        assertEquals(result[0], offset[0]);
+        assertEquals(result[1], offset[1]);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeMetricsTest {
+
+    /**
+     * Test of listener method, of class CpeMetrics.
+     */
+    @Test
+    public void testListener() {
+        assumeTrue(System.getProperty(CpeMetrics.LISTENER_PROPERTY) == null);
+        assertSame(CpeMetricsListener.NOOP, CpeMetrics.listener());
+        assertFalse(CpeMetrics.ENABLED);
+        assertFalse(CpeMetrics.TIMING);
+    }
+
+    /**
+     * Test of resolve method, of class CpeMetrics.
+     */
+    @Test
+    public void testResolve() {
+        ClassLoader loader = getClass().getClassLoader();
+        assertTrue(CpeMetrics.resolve(LongAdderMetricsListener.class.getName(), loader) instanceof LongAdderMetricsListener);
+        assertSame(CpeMetricsListener.NOOP, CpeMetrics.resolve("does.not.Exist", loader));
+        assertSame(CpeMetricsListener.NOOP, CpeMetrics.resolve(String.class.getName(), loader));
+        assertSame(CpeMetricsListener.NOOP, CpeMetrics.resolve(null, loader));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.metrics;
+
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.metrics.CpeMetricsListener.Format;
+import us.springett.parsers.cpe.util.Status;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class LongAdderMetricsListenerTest {
+
+    /**
+     * Test of snapshot method, of class LongAdderMetricsListener.
+     */
+    @Test
+    public void testSnapshot() {
+        LongAdderMetricsListener instance = new LongAdderMetricsListener(true);
+        assertTrue(instance.isTimingEnabled());
+        assertFalse(new LongAdderMetricsListener().isTimingEnabled());
+
+        instance.parsed(Format.CPE_23_FS, true, 0);
+        instance.parsed(Format.CPE_23_FS, true, 1500);
+        instance.parsed(Format.CPE_22_URI, false, -1);
+        instance.validationFailed(Status.ASTERISK_SEQUENCE);
+        instance.matched(true);
+        instance.matched(false);
+        instance.wildcardCompared();
+
+        LongAdderMetricsListener.Snapshot snapshot = instance.snapshot();
+        assertEquals(2, snapshot.getParseCount(Format.CPE_23_FS, true));
+        assertEquals(0, snapshot.getParseCount(Format.CPE_23_FS, false));
+        assertEquals(1, snapshot.getParseCount(Format.CPE_22_URI, false));
+        assertEquals(3, snapshot.getParseCount());
+        assertEquals(1, snapshot.getValidationFailureCount(Status.ASTERISK_SEQUENCE));
+        assertEquals(0, snapshot.getValidationFailureCount(Status.WHITESPACE));
+        assertEquals(2, snapshot.getMatchCount());
+        assertEquals(1, snapshot.getMatchSuccessCount());
+        assertEquals(1, snapshot.getWildcardComparisonCount());
+
+        long[] histogram = snapshot.getParseLatencyHistogram();
+        assertEquals(LongAdderMetricsListener.HISTOGRAM_BUCKETS, histogram.length);
+        assertEquals(1, histogram[0]);
+        //1500ns falls in the [1024, 2048) bucket
+        assertEquals(1, histogram[10]);
+    }
+}
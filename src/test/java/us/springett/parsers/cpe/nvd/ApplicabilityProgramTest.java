@@ -0,0 +1,163 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.nvd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.Cpe;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Configuration;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Node;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Operator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class ApplicabilityProgramTest {
+
+    /**
+     * Vendor and product values used to build random CPE.
+     */
+    private static final String[] NAMES = {"alpha", "beta", "Beta", "gamma", "*", "al*", "?eta", "-"};
+
+    /**
+     * Test of evaluate method, of class ApplicabilityProgram.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testEvaluate() throws Exception {
+        CpeMatchCriteria windows = new CpeMatchCriteria(
+                CpeParser.parse("cpe:2.3:o:microsoft:windows:*:*:*:*:*:*:*:*"), false);
+        CpeMatchCriteria reader = new CpeMatchCriteria(
+                CpeParser.parse("cpe:2.3:a:adobe:reader:*:*:*:*:*:*:*:*"), true, null, null, null, "11.0");
+        CpeMatchCriteria struts = new CpeMatchCriteria(
+                CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*"), true, "2.0", null, "2.5", null);
+        ApplicabilityStatement runningOn = new ApplicabilityStatement("CVE-1", Collections.singletonList(
+                new Configuration(Operator.AND, false, Arrays.asList(
+                        new Node(Operator.OR, false, Collections.singletonList(reader)),
+                        new Node(Operator.OR, false, Collections.singletonList(windows))))));
+        ApplicabilityStatement platformOnly = new ApplicabilityStatement("CVE-2", Collections.singletonList(
+                new Configuration(Operator.OR, false, Collections.singletonList(
+                        new Node(Operator.OR, false, Collections.singletonList(windows))))));
+        ApplicabilityStatement simple = new ApplicabilityStatement("CVE-3", Collections.singletonList(
+                new Configuration(Operator.OR, false, Collections.singletonList(
+                        new Node(Operator.OR, false, Arrays.asList(struts, reader))))));
+        ApplicabilityProgram instance = ApplicabilityProgram.compile(Arrays.asList(runningOn, platformOnly, simple));
+        assertEquals(3, instance.getStatementCount());
+        assertEquals(3, instance.getCriteriaCount());
+        assertEquals(3, instance.getNodeCount());
+
+        List<Cpe> inventory = Arrays.asList(
+                CpeParser.parse("cpe:2.3:o:microsoft:windows:10:*:*:*:*:*:*:*"),
+                CpeParser.parse("cpe:2.3:a:adobe:reader:10.1:*:*:*:*:*:*:*"));
+        assertEquals(Arrays.asList("CVE-1", "CVE-3"), instance.evaluate(inventory));
+        assertTrue(runningOn.appliesTo(inventory));
+        assertFalse(platformOnly.appliesTo(inventory));
+
+        inventory = Arrays.asList(
+                CpeParser.parse("cpe:2.3:a:adobe:reader:10.1:*:*:*:*:*:*:*"),
+                CpeParser.parse("cpe:2.3:a:Apache:Struts:2.5:*:*:*:*:*:*:*"));
+        assertEquals(Collections.singletonList("CVE-3"), instance.evaluate(inventory));
+
+        inventory = Collections.singletonList(CpeParser.parse("cpe:2.3:a:apache:struts:2.5.1:*:*:*:*:*:*:*"));
+        assertEquals(Collections.emptyList(), instance.evaluate(inventory));
+    }
+
+    /**
+     * Test of evaluate method, of class ApplicabilityProgram, against the
+     * recursive evaluation of the statements.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testEvaluateRandom() throws Exception {
+        Random random = new Random(48);
+        List<CpeMatchCriteria> pool = new ArrayList<>();
+        for (int x = 0; x < 40; x++) {
+            String[] bounds = new String[4];
+            if (random.nextBoolean()) {
+                bounds[random.nextInt(4)] = Integer.toString(random.nextInt(5));
+            }
+            pool.add(new CpeMatchCriteria(randomCpe(random, "*"), random.nextInt(3) > 0,
+                    bounds[0], bounds[1], bounds[2], bounds[3]));
+        }
+        List<ApplicabilityStatement> statements = new ArrayList<>();
+        for (int s = 0; s < 300; s++) {
+            List<Configuration> configurations = new ArrayList<>();
+            for (int c = random.nextInt(3); c >= 0; c--) {
+                List<Node> nodes = new ArrayList<>();
+                for (int n = random.nextInt(3); n >= 0; n--) {
+                    List<CpeMatchCriteria> criteria = new ArrayList<>();
+                    for (int m = random.nextInt(3); m >= 0; m--) {
+                        criteria.add(pool.get(random.nextInt(pool.size())));
+                    }
+                    nodes.add(new Node(random.nextBoolean() ? Operator.AND : Operator.OR,
+                            random.nextInt(5) == 0, criteria));
+                }
+                configurations.add(new Configuration(random.nextBoolean() ? Operator.AND : Operator.OR,
+                        random.nextInt(8) == 0, nodes));
+            }
+            statements.add(new ApplicabilityStatement("CVE-" + s, configurations));
+        }
+        ApplicabilityProgram instance = ApplicabilityProgram.compile(statements);
+        assertTrue(instance.getCriteriaCount() <= pool.size());
+
+        int applicable = 0;
+        for (int i = 0; i < 200; i++) {
+            List<Cpe> inventory = new ArrayList<>();
+            for (int x = random.nextInt(6); x >= 0; x--) {
+                inventory.add(randomCpe(random, Integer.toString(random.nextInt(6))));
+            }
+            List<String> expected = new ArrayList<>();
+            for (ApplicabilityStatement statement : statements) {
+                if (statement.appliesTo(inventory)) {
+                    expected.add(statement.getId());
+                }
+            }
+            assertEquals(expected, instance.evaluate(inventory), inventory.toString());
+            applicable += expected.size();
+        }
+        assertTrue(applicable > 0);
+    }
+
+    /**
+     * Builds a random CPE.
+     *
+     * @param random the source of randomness
+     * @param version the version, used unless a logical value is chosen
+     * @return the CPE
+     * @throws Exception thrown if there is an error
+     */
+    private static Cpe randomCpe(Random random, String version) throws Exception {
+        String vendor = NAMES[random.nextInt(NAMES.length)];
+        String product = NAMES[random.nextInt(NAMES.length)];
+        int logical = random.nextInt(8);
+        String wfVersion = logical == 0 ? "*" : logical == 1 ? "-" : version;
+        return CpeParser.parse("cpe:2.3:a:" + vendor + ":" + product + ":" + wfVersion + ":*:*:*:*:*:*:*");
+    }
+}
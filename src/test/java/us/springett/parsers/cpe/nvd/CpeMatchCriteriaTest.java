@@ -0,0 +1,87 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.nvd;
+
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.CpeParser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class CpeMatchCriteriaTest {
+
+    /**
+     * Test of matches method, of class CpeMatchCriteria.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testMatches() throws Exception {
+        CpeMatchCriteria instance = new CpeMatchCriteria(
+                CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*"), true);
+        assertFalse(instance.hasVersionRange());
+        assertTrue(instance.matches(CpeParser.parse("cpe:2.3:a:Apache:Struts:2.3.1:*:*:*:*:*:*:*")));
+        assertTrue(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:-:*:*:*:*:*:*:*")));
+        assertFalse(instance.matches(CpeParser.parse("cpe:2.3:a:apache:tomcat:2.3.1:*:*:*:*:*:*:*")));
+
+        instance = new CpeMatchCriteria(CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*"),
+                true, "2.3", null, null, "2.5.13");
+        assertTrue(instance.hasVersionRange());
+        assertTrue(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:2.3:*:*:*:*:*:*:*")));
+        assertTrue(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:2.3.34:*:*:*:*:*:*:*")));
+        assertTrue(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:2.5.12:*:*:*:*:*:*:*")));
+        assertFalse(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:2.5.13:*:*:*:*:*:*:*")));
+        assertFalse(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:2.2.9:*:*:*:*:*:*:*")));
+        assertFalse(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*")));
+        assertFalse(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:-:*:*:*:*:*:*:*")));
+        assertFalse(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:2.4*:*:*:*:*:*:*:*")));
+
+        instance = new CpeMatchCriteria(CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*"),
+                false, null, "1.0", "1.2", null);
+        assertFalse(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:1.0:*:*:*:*:*:*:*")));
+        assertTrue(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:1.0.1:*:*:*:*:*:*:*")));
+        assertTrue(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:1.2:*:*:*:*:*:*:*")));
+        assertFalse(instance.matches(CpeParser.parse("cpe:2.3:a:apache:struts:1.2.1:*:*:*:*:*:*:*")));
+    }
+
+    /**
+     * Test of equals method, of class CpeMatchCriteria.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testEquals() throws Exception {
+        CpeMatchCriteria instance = new CpeMatchCriteria(
+                CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*"), true, null, null, "2.0", null);
+        CpeMatchCriteria other = new CpeMatchCriteria(
+                CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*"), true, null, null, "2.0", null);
+        assertEquals(instance, other);
+        assertEquals(instance.hashCode(), other.hashCode());
+        assertNotEquals(instance, new CpeMatchCriteria(
+                CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*"), false, null, null, "2.0", null));
+        assertNotEquals(instance, new CpeMatchCriteria(
+                CpeParser.parse("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:*"), true, null, "2.0", null, null));
+        assertEquals("cpe:2.3:a:apache:struts:*:*:*:*:*:*:*:* <= 2.0 (vulnerable)", instance.toString());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.nvd;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import us.springett.parsers.cpe.CpeParser;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Configuration;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Node;
+import us.springett.parsers.cpe.nvd.ApplicabilityStatement.Operator;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class NvdJsonReaderTest {
+
+    /**
+     * An NVD 2.0 document with a CVE affecting an application running on an
+     * operating system, and a CVE without configurations.
+     */
+    private static final String DOCUMENT = "{\"resultsPerPage\": 2, \"format\": \"NVD_CVE\", \"vulnerabilities\": ["
+            + "{\"cve\": {\"id\": \"CVE-2017-0001\", \"configurations\": [{\"operator\": \"AND\", \"nodes\": ["
+            + "{\"operator\": \"OR\", \"negate\": false, \"cpeMatch\": [{\"vulnerable\": true,"
+            + " \"criteria\": \"cpe:2.3:a:adobe:reader:*:*:*:*:*:*:*:*\", \"versionEndExcluding\": \"11.0\","
+            + " \"matchCriteriaId\": \"7E1B0F3C\"}]},"
+            + "{\"operator\": \"OR\", \"negate\": false, \"cpeMatch\": [{\"vulnerable\": false,"
+            + " \"criteria\": \"cpe:2.3:o:microsoft:windows:-:*:*:*:*:*:*:*\"}]}]}]}},"
+            + "{\"cve\": {\"id\": \"CVE-2017-0002\", \"descriptions\": []}}]}";
+
+    /**
+     * The directory for the temporary files.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test of read method, of class NvdJsonReader.
+     *
+     * @throws Exception thrown if there is an error
+     */
+    @Test
+    public void testRead() throws Exception {
+        NvdJsonReader instance = new NvdJsonReader();
+        List<ApplicabilityStatement> statements = instance.read(
+                new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, statements.size());
+        ApplicabilityStatement statement = statements.get(0);
+        assertEquals("CVE-2017-0001", statement.getId());
+        assertEquals(1, statement.getConfigurations().size());
+        Configuration configuration = statement.getConfigurations().get(0);
+        assertEquals(Operator.AND, configuration.getOperator());
+        assertFalse(configuration.isNegate());
+        assertEquals(2, configuration.getNodes().size());
+        Node node = configuration.getNodes().get(0);
+        assertEquals(Operator.OR, node.getOperator());
+        CpeMatchCriteria criteria = node.getCriteria().get(0);
+        assertTrue(criteria.isVulnerable());
+        assertEquals("adobe", criteria.getCriteria().getVendor());
+        assertEquals("11.0", criteria.getVersionEndExcluding());
+        assertNull(criteria.getVersionStartIncluding());
+        assertFalse(configuration.getNodes().get(1).getCriteria().get(0).isVulnerable());
+
+        assertTrue(statement.appliesTo(Arrays.asList(
+                CpeParser.parse("cpe:2.3:a:adobe:reader:9.0:*:*:*:*:*:*:*"),
+                CpeParser.parse("cpe:2.3:o:microsoft:windows:-:*:*:*:*:*:*:*"))));
+        assertFalse(statement.appliesTo(Arrays.asList(
+                CpeParser.parse("cpe:2.3:a:adobe:reader:11.0:*:*:*:*:*:*:*"),
+                CpeParser.parse("cpe:2.3:o:microsoft:windows:-:*:*:*:*:*:*:*"))));
+
+        Path file = directory.resolve("nvdcve-2.0.json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(statement.toString(), instance.read(file).get(0).toString());
+        assertEquals(0, instance.getInvalidCount());
+
+        Path invalid = directory.resolve("invalid.json");
+        Files.write(invalid, DOCUMENT.replace("cpe:2.3:a:adobe", "cpe:2.3:x:adobe").getBytes(StandardCharsets.UTF_8));
+        assertEquals(Collections.emptyList(), instance.read(invalid));
+        assertEquals(1, instance.getInvalidCount());
+
+        String twoConfigurations = DOCUMENT.replace("\"configurations\": [", "\"configurations\": [{\"nodes\": [{"
+                + "\"cpeMatch\": [{\"vulnerable\": true, \"criteria\": \"cpe:2.3:a:adobe:acrobat:*:*:*:*:*:*:*:*\"}]}]},");
+        Files.write(invalid, twoConfigurations.replace("cpe:2.3:a:adobe:reader", "cpe:2.3:x:adobe:reader")
+                .getBytes(StandardCharsets.UTF_8));
+        statements = instance.read(invalid);
+        assertEquals(1, statements.size());
+        assertEquals(1, statements.get(0).getConfigurations().size());
+        assertEquals("acrobat", statements.get(0).getConfigurations().get(0).getNodes().get(0)
+                .getCriteria().get(0).getCriteria().getProduct());
+        assertEquals(2, instance.getInvalidCount());
+
+        Path malformed = directory.resolve("malformed.json");
+        Files.write(malformed, "{\"vulnerabilities\": [".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> instance.read(malformed)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of CPE Parser.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package us.springett.parsers.cpe.util;
+
+import org.junit.jupiter.api.Test;
+import us.springett.parsers.cpe.values.Attribute;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author Steve Springett
+ */
+public class RelationVectorTest {
+
+    private static RelationVector of(Relation first, Relation rest) {
+        return RelationVector.of(first, rest, rest, rest, rest, rest, rest, rest, rest, rest, rest);
+    }
+
+    /**
+     * Test of get method, of class RelationVector.
+     */
+    @Test
+    public void testGet() {
+        RelationVector instance = RelationVector.of(Relation.EQUAL, Relation.SUPERSET, Relation.SUBSET,
+                Relation.DISJOINT, Relation.EQUAL, Relation.EQUAL, Relation.EQUAL, Relation.EQUAL,
+                Relation.EQUAL, Relation.EQUAL, Relation.SUPERSET);
+        assertEquals(Relation.EQUAL, instance.get(Attribute.PART));
+        assertEquals(Relation.SUPERSET, instance.get(Attribute.VENDOR));
+        assertEquals(Relation.SUBSET, instance.get(Attribute.PRODUCT));
+        assertEquals(Relation.DISJOINT, instance.get(Attribute.VERSION));
+        assertEquals(Relation.EQUAL, instance.get(Attribute.TARGET_HW));
+        assertEquals(Relation.SUPERSET, instance.get(Attribute.OTHER));
+    }
+
+    /**
+     * Test of the name level relations, of class RelationVector.
+     */
+    @Test
+    public void testNameRelations() {
+        RelationVector equal = of(Relation.EQUAL, Relation.EQUAL);
+        assertTrue(equal.isEqual());
+        assertTrue(equal.isSubset());
+        assertTrue(equal.isSuperset());
+        assertFalse(equal.isDisjoint());
+
+        RelationVector superset = of(Relation.EQUAL, Relation.SUPERSET);
+        assertFalse(superset.isEqual());
+        assertFalse(superset.isSubset());
+        assertTrue(superset.isSuperset());
+        assertFalse(superset.isDisjoint());
+
+        RelationVector subset = of(Relation.SUBSET, Relation.EQUAL);
+        assertFalse(subset.isEqual());
+        assertTrue(subset.isSubset());
+        assertFalse(subset.isSuperset());
+        assertFalse(subset.isDisjoint());
+
+        RelationVector mixed = of(Relation.SUBSET, Relation.SUPERSET);
+        assertFalse(mixed.isEqual());
+        assertFalse(mixed.isSubset());
+        assertFalse(mixed.isSuperset());
+        assertFalse(mixed.isDisjoint());
+
+        RelationVector disjoint = RelationVector.of(Relation.EQUAL, Relation.EQUAL, Relation.EQUAL,
+                Relation.EQUAL, Relation.EQUAL, Relation.EQUAL, Relation.EQUAL, Relation.EQUAL,
+                Relation.EQUAL, Relation.EQUAL, Relation.DISJOINT);
+        assertFalse(disjoint.isEqual());
+        assertFalse(disjoint.isSubset());
+        assertFalse(disjoint.isSuperset());
+        assertTrue(disjoint.isDisjoint());
+    }
+
+    /**
+     * Test of getPackedValue and fromPackedValue methods, of class
+     * RelationVector.
+     */
+    @Test
+    public void testPackedValue() {
+        RelationVector instance = of(Relation.SUPERSET, Relation.SUBSET);
+        RelationVector result = RelationVector.fromPackedValue(instance.getPackedValue());
+        assertEquals(instance, result);
+        assertEquals(instance.hashCode(), result.hashCode());
+        assertEquals(0x155555, of(Relation.EQUAL, Relation.EQUAL).getPackedValue());
+
+        assertThatThrownBy(() -> RelationVector.fromPackedValue(1 << 22))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Test of toString method, of class RelationVector.
+     */
+    @Test
+    public void testToString() {
+        String result = of(Relation.EQUAL, Relation.DISJOINT).toString();
+        assertTrue(result.startsWith("[part=EQUAL, vendor=DISJOINT"));
+        assertTrue(result.endsWith("other=DISJOINT]"));
+    }
+}
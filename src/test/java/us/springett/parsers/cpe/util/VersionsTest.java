@@ -95,4 +95,13 @@ public class VersionsTest {
         assertThat(strPart("alpha")).usingDefaultComparator().isGreaterThan(intPart("122337203685477580715234"));
         assertThat(strPart("122337203685477580715234")).usingDefaultComparator().isLessThan(intPart("alpha"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCompare() {
+        assertThat(Versions.compare("1.0", "1.0")).isZero();
+        assertThat(Versions.compare("1.0", "1.0.1")).isNegative();
+        assertThat(Versions.compare("5.0.9", "5.0.30")).isNegative();
+        assertThat(Versions.compare("5.0.30", "5.0.3a")).isPositive();
+        assertThat(Versions.compare("2.0-rc1", "2.0")).isPositive();
+    }
+}